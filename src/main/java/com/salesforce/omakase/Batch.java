@@ -0,0 +1,422 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableList;
+import com.salesforce.omakase.broadcast.emitter.SubscriptionException;
+import com.salesforce.omakase.error.DefaultErrorManager;
+import com.salesforce.omakase.error.Diagnostic;
+import com.salesforce.omakase.error.ErrorLevel;
+import com.salesforce.omakase.plugin.core.SyntaxTree;
+import com.salesforce.omakase.writer.StyleWriter;
+import com.salesforce.omakase.writer.WriterConfig;
+
+/**
+ * Processes many CSS sources concurrently.
+ * <p>
+ * Each source is processed as a separate {@link Omakase.Request} on the given {@link Executor}. Plugins usually hold state for
+ * a single parsing operation, so instead of plugin instances a setup function is given, which is called for each source to
+ * register fresh plugins. The processed stylesheet is then written out with a {@link WriterConfig}, and the output and any
+ * problems found are delivered back to the calling thread as a {@link Result}.
+ * <p>
+ * Example:
+ * <pre><code>
+ * Omakase.batch()
+ *     .add(paths)
+ *     .setup(request -&gt; request.use(new Prefixer()).use(new StandardValidation()))
+ *     .writer(StyleWriter.compressed().config())
+ *     .executor(executor)
+ *     .process(result -&gt; ...);
+ * </code></pre>
+ * Only a limited number of sources are loaded, processed or waiting to be delivered at the same time (see {@link
+ * #maxInFlight(int)}), so the memory used doesn't grow with the number of sources. Results are delivered as they complete,
+ * unless {@link #ordered(boolean)} is specified.
+ * <p>
+ * Any {@link Executor} can be used, e.g., a fixed thread pool, or on Java 21 and later {@code
+ * Executors.newVirtualThreadPerTaskExecutor()}. The executor is not shut down afterwards.
+ *
+ * @author nmcwilliams
+ * @see Omakase#batch()
+ */
+public final class Batch {
+    private final List<Entry> entries = new ArrayList<>();
+
+    private Consumer<Omakase.Request> setup = request -> {};
+    private WriterConfig writer;
+    private Executor executor;
+    private int maxInFlight = Runtime.getRuntime().availableProcessors() * 2;
+    private boolean ordered;
+
+    Batch() {}
+
+    /**
+     * Adds a CSS source to process.
+     *
+     * @param name
+     *     Name of the source, used for error reporting.
+     * @param source
+     *     The CSS source code.
+     *
+     * @return this, for chaining.
+     */
+    public Batch add(String name, CharSequence source) {
+        checkNotNull(source, "source cannot be null");
+        return add(name, () -> source);
+    }
+
+    /**
+     * Adds a CSS source to process, which is only retrieved when it's about to be processed.
+     *
+     * @param name
+     *     Name of the source, used for error reporting.
+     * @param source
+     *     Supplies the CSS source code. This is called from the executor's threads.
+     *
+     * @return this, for chaining.
+     */
+    public Batch add(String name, Supplier<? extends CharSequence> source) {
+        checkNotNull(name, "name cannot be null");
+        checkNotNull(source, "source cannot be null");
+        entries.add(new Entry(entries.size(), name, source));
+        return this;
+    }
+
+    /**
+     * Adds a CSS file to process. The file is read (as UTF-8) when it's about to be processed. The name of the source is the
+     * path.
+     *
+     * @param path
+     *     The CSS file.
+     *
+     * @return this, for chaining.
+     */
+    public Batch add(Path path) {
+        checkNotNull(path, "path cannot be null");
+        return add(path.toString(), () -> read(path));
+    }
+
+    /**
+     * Adds CSS files to process. See {@link #add(Path)}.
+     *
+     * @param paths
+     *     The CSS files.
+     *
+     * @return this, for chaining.
+     */
+    public Batch add(Iterable<Path> paths) {
+        for (Path path : paths) {
+            add(path);
+        }
+        return this;
+    }
+
+    /**
+     * Specifies how to set up the {@link Omakase.Request} for each source, e.g., by registering plugins. This is called once for
+     * each source, from the executor's threads, so new plugin instances should be created each time.
+     * <p>
+     * The batch uses its own {@link com.salesforce.omakase.error.ErrorManager} in order to collect the problems for each {@link
+     * Result}, so any error manager specified here is replaced.
+     *
+     * @param setup
+     *     Sets up each request.
+     *
+     * @return this, for chaining.
+     */
+    public Batch setup(Consumer<Omakase.Request> setup) {
+        this.setup = checkNotNull(setup, "setup cannot be null");
+        return this;
+    }
+
+    /**
+     * Specifies how to write out each processed stylesheet (default is {@link StyleWriter#compressed()}).
+     *
+     * @param writer
+     *     The writer configuration.
+     *
+     * @return this, for chaining.
+     */
+    public Batch writer(WriterConfig writer) {
+        this.writer = checkNotNull(writer, "writer cannot be null");
+        return this;
+    }
+
+    /**
+     * Specifies the {@link Executor} to process the sources on (default is the common fork-join pool).
+     *
+     * @param executor
+     *     The executor.
+     *
+     * @return this, for chaining.
+     */
+    public Batch executor(Executor executor) {
+        this.executor = checkNotNull(executor, "executor cannot be null");
+        return this;
+    }
+
+    /**
+     * Specifies the maximum number of sources that are in flight at the same time (default is twice the number of available
+     * processors). This includes sources that are being processed and results that are waiting to be delivered.
+     *
+     * @param maxInFlight
+     *     The maximum number of sources in flight, at least 1.
+     *
+     * @return this, for chaining.
+     */
+    public Batch maxInFlight(int maxInFlight) {
+        checkArgument(maxInFlight > 0, "maxInFlight must be positive");
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    /**
+     * Specifies whether results should be delivered in the same order as the sources were added (default false).
+     * <p>
+     * When false, results are delivered as soon as they complete. When true, a completed result waits until all the results
+     * before it are delivered, which may leave some of the processing capacity unused when a source is slow.
+     *
+     * @param ordered
+     *     Specify true to deliver results in order.
+     *
+     * @return this, for chaining.
+     */
+    public Batch ordered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * Processes all sources, delivering each {@link Result} to the given consumer as it completes.
+     * <p>
+     * This blocks until all results are delivered. The consumer is always called from the calling thread, so it doesn't need
+     * to be thread-safe. If the consumer throws an exception then no more sources are started and the exception is rethrown.
+     *
+     * @param consumer
+     *     Receives each result.
+     *
+     * @throws InterruptedException
+     *     If interrupted while waiting for a result.
+     */
+    public void process(Consumer<? super Result> consumer) throws InterruptedException {
+        checkNotNull(consumer, "consumer cannot be null");
+
+        Executor executor = this.executor != null ? this.executor : ForkJoinPool.commonPool();
+        WriterConfig writer = this.writer != null ? this.writer : StyleWriter.compressed().config();
+        BlockingQueue<Result> completed = new LinkedBlockingQueue<>();
+        Map<Integer, Result> waiting = new HashMap<>();
+
+        int started = 0;
+        int delivered = 0;
+
+        while (delivered < entries.size()) {
+            // start more sources, as long as the number of undelivered results stays within the limit
+            while (started < entries.size() && started - delivered < maxInFlight) {
+                Entry entry = entries.get(started++);
+                executor.execute(() -> completed.add(run(entry, writer)));
+            }
+
+            Result result = completed.take();
+            if (!ordered) {
+                consumer.accept(result);
+                delivered++;
+            } else {
+                waiting.put(result.index, result);
+                while (waiting.containsKey(delivered)) {
+                    consumer.accept(waiting.remove(delivered));
+                    delivered++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes all sources, waiting for all of them to complete. See {@link #process(Consumer)}.
+     *
+     * @return The results, in the same order as the sources were added.
+     *
+     * @throws InterruptedException
+     *     If interrupted while waiting for a result.
+     */
+    public List<Result> process() throws InterruptedException {
+        Result[] results = new Result[entries.size()];
+        process(result -> results[result.index] = result);
+        return ImmutableList.copyOf(results);
+    }
+
+    /** processes a single source, capturing anything thrown in the result */
+    private Result run(Entry entry, WriterConfig writer) {
+        Collector em = new Collector(entry.name);
+        try {
+            Omakase.Request request = Omakase.source(entry.source.get());
+            setup.accept(request);
+            SyntaxTree tree = request.registry().require(SyntaxTree.class);
+            request.use(em).process();
+
+            // there's no stylesheet if parsing was aborted by an error
+            String output = tree.stylesheet() != null ? writer.write(tree.stylesheet()) : null;
+            return new Result(entry, output, em.diagnostics(), null);
+        } catch (Throwable e) {
+            return new Result(entry, null, em.diagnostics(), e);
+        }
+    }
+
+    private static String read(Path path) {
+        try {
+            return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** a source added to the batch */
+    private static final class Entry {
+        final int index;
+        final String name;
+        final Supplier<? extends CharSequence> source;
+
+        Entry(int index, String name, Supplier<? extends CharSequence> source) {
+            this.index = index;
+            this.name = name;
+            this.source = source;
+        }
+    }
+
+    /** collects parser errors and validation problems, but fails on plugin errors */
+    private static final class Collector extends DefaultErrorManager {
+        Collector(String sourceName) {
+            super(sourceName);
+            rethrow(false);
+        }
+
+        @Override
+        public void report(SubscriptionException exception) {
+            throw exception;
+        }
+
+        @Override
+        public boolean autoSummarize() {
+            return false;
+        }
+    }
+
+    /**
+     * The outcome of processing a single source in a {@link Batch}.
+     */
+    public static final class Result {
+        private final int index;
+        private final String name;
+        private final String output;
+        private final List<Diagnostic> diagnostics;
+        private final Throwable failure;
+
+        Result(Entry entry, String output, List<Diagnostic> diagnostics, Throwable failure) {
+            this.index = entry.index;
+            this.name = entry.name;
+            this.output = output;
+            this.diagnostics = ImmutableList.copyOf(diagnostics);
+            this.failure = failure;
+        }
+
+        /**
+         * Gets the position of the source in the batch, in the order the sources were added (starting from 0).
+         *
+         * @return The index of the source.
+         */
+        public int index() {
+            return index;
+        }
+
+        /**
+         * Gets the name of the source.
+         *
+         * @return The name of the source.
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Gets the written output of the processed stylesheet. This is absent if processing failed (see {@link #failure()}), or
+         * if parsing was aborted by an error (see {@link #diagnostics()} and {@link Omakase.Request#recover(boolean)}).
+         * <p>
+         * Note that the output is still present when validation problems or recovered parser errors were found, in which case
+         * it only includes the content that could be parsed.
+         *
+         * @return The CSS output, if present.
+         */
+        public Optional<String> output() {
+            return Optional.ofNullable(output);
+        }
+
+        /**
+         * Gets the parser errors and validation problems found in the source, errors first.
+         *
+         * @return The diagnostics, or an empty list if there were no problems.
+         */
+        public List<Diagnostic> diagnostics() {
+            return diagnostics;
+        }
+
+        /**
+         * Gets the exception that prevented this source from being processed, e.g., an error thrown from a plugin or an
+         * {@link UncheckedIOException} if the file couldn't be read.
+         *
+         * @return The exception, if processing failed.
+         */
+        public Optional<Throwable> failure() {
+            return Optional.ofNullable(failure);
+        }
+
+        /**
+         * Gets whether processing failed or any errors (excluding warnings) were found.
+         *
+         * @return True if there were errors.
+         */
+        public boolean hasErrors() {
+            return failure != null || diagnostics.stream().anyMatch(d -> d.level() == ErrorLevel.FATAL);
+        }
+    }
+}
@@ -31,13 +31,19 @@ import static com.salesforce.omakase.Message.DUPLICATE_PLUGIN;
 import static com.salesforce.omakase.Message.NO_SUPPLIER;
 import static com.salesforce.omakase.Message.UNIQUE_PLUGIN;
 
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.ClassToInstanceMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.MutableClassToInstanceMap;
+import com.salesforce.omakase.ast.Statement;
 import com.salesforce.omakase.ast.Status;
+import com.salesforce.omakase.ast.Stylesheet;
 import com.salesforce.omakase.broadcast.Broadcaster;
 import com.salesforce.omakase.broadcast.EmittingBroadcaster;
 import com.salesforce.omakase.broadcast.VisitingBroadcaster;
@@ -53,6 +59,7 @@ import com.salesforce.omakase.plugin.GrammarPlugin;
 import com.salesforce.omakase.plugin.ParserPlugin;
 import com.salesforce.omakase.plugin.Plugin;
 import com.salesforce.omakase.plugin.PostProcessingPlugin;
+import com.salesforce.omakase.plugin.core.AutoRefine;
 
 /**
  * Contextual state for a parsing operation.
@@ -86,6 +93,15 @@ final class Context implements PluginRegistry {
     /** parser factory determines which parsers to use */
     private ParserFactory parserFactory;
 
+    /** whether parsers should recover from errors */
+    private boolean recover;
+
+    /** whether validation should be delivered in the same traversal as processing, when possible */
+    private boolean fuse;
+
+    /** whether thread-safe validators should be run on top-level statements in parallel */
+    private boolean parallel;
+
     @Override
     public void register(Iterable<? extends Plugin> plugins) {
         for (Plugin plugin : plugins) {
@@ -176,15 +192,57 @@ final class Context implements PluginRegistry {
         return broadcaster;
     }
 
+    /**
+     * Sets whether validation should be delivered in the same traversal of the syntax tree as processing. This only takes effect
+     * when there are no {@link Rework} subscriptions, as otherwise a validator may see a unit before it's final. See {@link
+     * EmittingBroadcaster#fused(boolean)}.
+     *
+     * @param fuse
+     *     Whether to fuse processing and validation.
+     */
+    public void fuse(boolean fuse) {
+        this.fuse = fuse;
+    }
+
+    /**
+     * Sets whether {@link Validate} subscriptions marked as parallel should be delivered to each top-level statement
+     * concurrently. See {@link EmittingBroadcaster#validateParallel(Broadcastable, List, Status)}.
+     *
+     * @param parallel
+     *     Whether to validate in parallel.
+     */
+    public void parallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Sets whether parsers should recover from errors instead of aborting. See {@link Grammar#isRecovering()}.
+     *
+     * @param recover
+     *     Whether to recover from errors.
+     */
+    public void recover(boolean recover) {
+        this.recover = recover;
+    }
+
     /**
      * Internal method to signify when (high-level) parsing is about to begin.
      */
     protected Grammar beforeParsing(ErrorManager em) {
         checkNotNull(em, "An error manager must be given to the context");
 
+        // demand-driven refinement can only be determined once all other plugins are registered
+        AutoRefine autoRefine = registry.getInstance(AutoRefine.class);
+        if (autoRefine != null && autoRefine.isDemanded()) {
+            Set<Class<?>> subscribed = new LinkedHashSet<>(emittingBroadcaster.subscribedTypes(SubscriptionPhase.PROCESS));
+            subscribed.addAll(emittingBroadcaster.subscribedTypes(SubscriptionPhase.VALIDATE));
+            autoRefine.demand(subscribed, this);
+        }
+
         Grammar grammar = new Grammar(
             tokenFactory != null ? tokenFactory : StandardTokenFactory.instance(),
-            parserFactory != null ? parserFactory : StandardParserFactory.instance());
+            parserFactory != null ? parserFactory : StandardParserFactory.instance(),
+            recover ? em : null);
 
         emittingBroadcaster.root(broadcaster);
         emittingBroadcaster.grammar(grammar);
@@ -198,13 +256,24 @@ final class Context implements PluginRegistry {
      * Internal method to signify when (high-level) parsing is completed.
      */
     protected void afterParsing() {
-        // replay broadcasts for observers and reworkers
+        // replay broadcasts for observers and reworkers (and validators too when fused)
+        emittingBroadcaster.fused(fuse && !parallel && !emittingBroadcaster.hasReworkSubscriptions());
         emittingBroadcaster.phase(SubscriptionPhase.PROCESS);
         visitor.visit(broadcaster, Status.PARSED);
+        emittingBroadcaster.flush();
+        emittingBroadcaster.fused(false);
 
-        // replay broadcasts for validators
+        // thread-safe validators first, one top-level statement per task
         emittingBroadcaster.phase(SubscriptionPhase.VALIDATE);
+        if (parallel && visitor.target() instanceof Stylesheet) {
+            Stylesheet stylesheet = (Stylesheet)visitor.target();
+            List<Statement> statements = Lists.newArrayList(stylesheet.statements());
+            emittingBroadcaster.validateParallel(stylesheet, statements, Status.PROCESSED);
+        }
+
+        // replay broadcasts for validators (nothing remaining to validate when fused)
         visitor.visit(broadcaster, Status.PROCESSED);
+        emittingBroadcaster.flush();
 
         // notify post processors
         for (PostProcessingPlugin plugin : filter(PostProcessingPlugin.class)) {
@@ -125,6 +125,12 @@ public final class Message {
         "@Refine must be of type Grammar: on method %s";
     public static final String MISSING_BROADCASTER = "The third parameter for methods annotated with " +
         "@Refine must be of type Broadcaster: on method %s";
+    public static final String PROPERTY_FILTER = "Property filters can only be used on methods subscribed to Declaration " +
+        "(or a super type of Declaration): on method %s";
+    public static final String BULK_TYPE = "Bulk subscription methods must have a first parameter of type List with a specific " +
+        "element type, e.g., List<Declaration>: on method %s";
+    public static final String CONTAINS_FILTER = "Raw content filters can only be used on methods subscribed to a Refinable " +
+        "type: on method %s";
 
     // plugin registration
     public static final String DUPLICATE_PLUGIN = "Only one plugin instance of each type allowed: %s";
@@ -133,6 +139,14 @@ public final class Message {
 
     public static final String NO_SUPPLIER = "No supplier defined for %s. Use require(Class, Supplier) instead.";
 
+    // precompiled stylesheets
+    public static final String BINARY_HEADER = "Not a precompiled stylesheet (missing header)";
+    public static final String BINARY_VERSION = "Precompiled stylesheet has format version %s, expected version %s. " +
+        "Recompile the stylesheet with this version of the library";
+    public static final String BINARY_TRUNCATED = "Precompiled stylesheet is truncated";
+    public static final String BINARY_UNKNOWN_TAG = "Precompiled stylesheet is corrupt (unknown record type %s at offset %s)";
+    public static final String BINARY_UNSUPPORTED = "Precompiled stylesheets can't contain statements of type %s";
+
     private Message() {}
 
     /**
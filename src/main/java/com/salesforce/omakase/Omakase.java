@@ -26,12 +26,16 @@
 
 package com.salesforce.omakase;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.Lists;
+import com.salesforce.omakase.ast.flat.FlatNode;
+import com.salesforce.omakase.ast.flat.FlatStylesheet;
 import com.salesforce.omakase.broadcast.Broadcaster;
 import com.salesforce.omakase.broadcast.emitter.SubscriptionException;
 import com.salesforce.omakase.error.DefaultErrorManager;
+import com.salesforce.omakase.error.Diagnostic;
 import com.salesforce.omakase.error.ErrorManager;
 import com.salesforce.omakase.error.ProblemSummaryException;
 import com.salesforce.omakase.parser.Grammar;
@@ -100,6 +104,51 @@ public final class Omakase {
         return new Request(source);
     }
 
+    /**
+     * Specifies a part of a {@link FlatStylesheet} to process, instead of CSS source code.
+     * <p>
+     * The node is turned into regular syntax units as with {@link FlatNode#toSyntax()}, and the units are delivered to plugins
+     * in the same way as if they had just been parsed, so that validators, observers and other plugins work as usual. The root
+     * node is processed as the whole stylesheet, and a rule or at-rule is processed as a stylesheet containing just that
+     * statement. This allows a very large stylesheet to be processed one statement at a time:
+     * <pre><code>
+     *     for (FlatNode statement : flat.root().children()) {
+     *         Omakase.source(statement).use(em).use(new StandardValidation()).process();
+     *     }
+     * </code></pre>
+     * The line and column numbers from the {@link FlatStylesheet} are kept, so problems are reported against the original
+     * source.
+     *
+     * @param node
+     *     The root, a rule or an at-rule.
+     *
+     * @return The processed request (see {@link Request}).
+     */
+    public static Omakase.Request source(FlatNode node) {
+        checkNotNull(node, "node cannot be null");
+        FlatNode.Kind kind = node.kind();
+        checkArgument(kind != FlatNode.Kind.SELECTOR && kind != FlatNode.Kind.DECLARATION,
+            "only the root, rules and at-rules can be processed");
+        return new Request(node);
+    }
+
+    /**
+     * Starts a new {@link Batch} for processing many CSS sources concurrently.
+     * <p>
+     * Example:
+     * <pre><code>
+     *     List&lt;Batch.Result&gt; results = Omakase.batch()
+     *         .add(paths)
+     *         .setup(request -&gt; request.use(new StandardValidation()))
+     *         .process();
+     * </code></pre>
+     *
+     * @return The new batch.
+     */
+    public static Batch batch() {
+        return new Batch();
+    }
+
     /**
      * Represents a CSS parsing operation.
      * <p>
@@ -112,12 +161,20 @@ public final class Omakase {
     public static final class Request {
         private final Context context;
         private final Source source;
+        private final FlatNode flat;
 
         private ErrorManager em;
 
         Request(CharSequence source) {
             this.context = new Context();
             this.source = new Source(source.toString());
+            this.flat = null;
+        }
+
+        Request(FlatNode flat) {
+            this.context = new Context();
+            this.source = null;
+            this.flat = flat;
         }
 
         /**
@@ -158,6 +215,76 @@ public final class Omakase {
             return this;
         }
 
+        /**
+         * Specifies whether parsing should continue after encountering invalid CSS (default false).
+         * <p>
+         * Normally the first {@link ParserException} aborts the entire parse operation. In recovery mode, the problem is instead
+         * reported to the {@link ErrorManager} as a {@link Diagnostic} (see {@link ErrorManager#report(Diagnostic)}) and the
+         * malformed content is skipped, resuming at the next declaration or statement. This allows all problems in the source
+         * to be found in a single pass.
+         * <p>
+         * Units that fail refinement are left unrefined. The malformed content is not included in the syntax tree.
+         *
+         * @param recover
+         *     Specify true to recover from errors.
+         *
+         * @return this, for chaining.
+         */
+        public Request recover(boolean recover) {
+            context.recover(recover);
+            return this;
+        }
+
+        /**
+         * Specifies whether validation should be delivered in the same traversal of the syntax tree as processing (default
+         * false).
+         * <p>
+         * Normally the whole tree is traversed once to deliver {@link Observe} and {@link Rework} subscriptions, and then once
+         * more to deliver {@link Validate} subscriptions. When fused, the {@link Validate} subscriptions for each unit are
+         * delivered immediately after its {@link Observe} subscriptions, saving the second traversal.
+         * <p>
+         * Fusion applies to the whole request or not at all. A single {@link Rework} subscription in any registered plugin
+         * (e.g., {@link com.salesforce.omakase.plugin.prefixer.Prefixer} or {@link
+         * com.salesforce.omakase.plugin.misc.DirectionFlipPlugin}) disables it for every unit, and the usual two traversals are
+         * used. This is because a rework may change units other than the one it receives (such as a sibling or parent), so no
+         * part of the tree is known to be final until all processing is done. In practice this option only helps requests that
+         * observe and validate without reworking, such as linting. When it does take effect, validators still only see the final
+         * state of each unit.
+         * <p>
+         * The relative order of validation and observation across different units is not the same when fused, so validators and
+         * observers must not depend on each other.
+         *
+         * @param fuse
+         *     Specify true to fuse processing and validation.
+         *
+         * @return this, for chaining.
+         */
+        public Request fuse(boolean fuse) {
+            context.fuse(fuse);
+            return this;
+        }
+
+        /**
+         * Specifies whether thread-safe validators should be run in parallel (default false).
+         * <p>
+         * When enabled, {@link Validate} methods marked with {@link Validate#parallel()} are run on each top-level statement of
+         * the stylesheet concurrently, using the common fork-join pool. All other {@link Validate} methods are run
+         * afterwards as usual. Problems are still reported to the {@link ErrorManager} one at a time. Problems from the parallel
+         * validators are reported first, in the document order of the statements they were found in, followed by the problems
+         * from all other validators.
+         * <p>
+         * This can't be combined with {@link #fuse(boolean)}. If both are specified then validation is not fused.
+         *
+         * @param parallel
+         *     Specify true to run thread-safe validators in parallel.
+         *
+         * @return this, for chaining.
+         */
+        public Request parallel(boolean parallel) {
+            context.parallel(parallel);
+            return this;
+        }
+
         /**
          * Specifies a {@link Broadcaster} to wrap around the default one. Doing this allows you to decorate the broadcast
          * functionality with your own behavior or information gathering.
@@ -172,6 +299,11 @@ public final class Omakase {
             return this;
         }
 
+        /** gets the registry of plugins added so far */
+        PluginRegistry registry() {
+            return context;
+        }
+
         /**
          * Processes the CSS source code, invoking registered plugins as applicable.
          * <p>
@@ -189,7 +321,11 @@ public final class Omakase {
             }
             try {
                 Grammar grammar = context.beforeParsing(this.em);
-                grammar.parser().stylesheetParser().parse(source, grammar, context.broadcaster());
+                if (flat != null) {
+                    flat.toStylesheet(context.broadcaster());
+                } else {
+                    grammar.parser().stylesheetParser().parse(source, grammar, context.broadcaster());
+                }
                 context.afterParsing();
             } catch (ParserException e) {
                 em.report(e);
@@ -31,7 +31,6 @@ import com.salesforce.omakase.broadcast.Broadcaster;
 import com.salesforce.omakase.broadcast.emitter.SubscriptionPhase;
 import com.salesforce.omakase.util.As;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -52,8 +51,9 @@ public abstract class AbstractSyntax implements Syntax {
     private final int line;
     private final int column;
 
-    private List<Comment> comments;
-    private List<Comment> orphanedComments;
+    // immutable, so that copies can share the same comments until either one changes
+    private ImmutableList<Comment> comments = ImmutableList.of();
+    private ImmutableList<Comment> orphanedComments = ImmutableList.of();
 
     private Status status = Status.PARSED;
 
@@ -135,80 +135,64 @@ public abstract class AbstractSyntax implements Syntax {
     @Override
     public Syntax comment(Comment comment) {
         checkNotNull(comment, "comment cannot be null");
-        getOrCreateComments(4).add(comment);
+        comments = plus(comments, ImmutableList.of(comment));
         return this;
     }
 
     @Override
     public Syntax comments(Collection<String> comments) {
         if (comments == null || comments.isEmpty()) return this;
-
-        getOrCreateComments(comments.size());
-
-        for (String comment : comments) {
-            this.comments.add(new Comment(comment));
-        }
-
+        this.comments = plus(this.comments, toComments(comments));
         return this;
     }
 
     @Override
     public Syntax comments(Syntax copyFrom) {
-        ImmutableList<Comment> toCopy = copyFrom.comments();
-        if (toCopy.isEmpty()) return this;
-
-        getOrCreateComments(toCopy.size()).addAll(toCopy);
+        comments = plus(comments, copyFrom.comments());
         return this;
     }
 
     @Override
     public ImmutableList<Comment> comments() {
-        return comments == null ? ImmutableList.of() : ImmutableList.copyOf(comments);
+        return comments;
     }
 
     @Override
     public Syntax orphanedComments(Collection<String> comments) {
         if (comments == null || comments.isEmpty()) return this;
-
-        getOrCreateOrphanedComments(comments.size());
-
-        for (String comment : comments) {
-            this.orphanedComments.add(new Comment(comment));
-        }
-
+        orphanedComments = plus(orphanedComments, toComments(comments));
         return this;
     }
 
     @Override
     public Syntax orphanedComments(Syntax copyFrom) {
-        ImmutableList<Comment> toCopy = copyFrom.orphanedComments();
-        if (toCopy.isEmpty()) return this;
-
-        getOrCreateOrphanedComments(toCopy.size()).addAll(toCopy);
+        orphanedComments = plus(orphanedComments, copyFrom.orphanedComments());
         return this;
     }
 
     @Override
     public ImmutableList<Comment> orphanedComments() {
-        return orphanedComments == null ? ImmutableList.of() : ImmutableList.copyOf(orphanedComments);
+        return orphanedComments;
     }
 
     @Override
     public boolean hasAnnotation(String name) {
-        if (comments == null) return false;
-        return comments.stream().anyMatch(c -> c.hasAnnotation(name));
+        for (Comment comment : comments) {
+            if (comment.hasAnnotation(name)) return true;
+        }
+        return false;
     }
 
     @Override
     public boolean hasAnnotation(CssAnnotation annotation) {
-        if (comments == null) return false;
-        return comments.stream().anyMatch(c -> c.hasAnnotation(annotation));
+        for (Comment comment : comments) {
+            if (comment.hasAnnotation(annotation)) return true;
+        }
+        return false;
     }
 
     @Override
     public Optional<CssAnnotation> annotation(String name) {
-        if (comments == null) return Optional.empty();
-
         for (Comment comment : comments) {
             Optional<CssAnnotation> annotation = comment.annotation(name);
             if (annotation.isPresent()) return annotation;
@@ -218,8 +202,6 @@ public abstract class AbstractSyntax implements Syntax {
 
     @Override
     public List<CssAnnotation> annotations() {
-        if (comments == null) return new ArrayList<>();
-
         return comments.stream()
             .map(Comment::annotation)
             .filter(Optional::isPresent)
@@ -229,7 +211,7 @@ public abstract class AbstractSyntax implements Syntax {
 
     @Override
     public void annotate(CssAnnotation annotation) {
-        getOrCreateComments(4).add(annotation.toComment(true));
+        comments = plus(comments, ImmutableList.of(annotation.toComment(true)));
     }
 
     @Override
@@ -308,27 +290,22 @@ public abstract class AbstractSyntax implements Syntax {
         return As.simpleString(this, includeUnitType);
     }
 
-    /**
-     * utility to ensure the comments list is created before using it
-     *
-     * @param initialSize
-     *     The initial array size.
-     * @return The comment list.
-     */
-    private List<Comment> getOrCreateComments(int initialSize) {
-        if (comments == null) comments = new ArrayList<>(initialSize);
-        return comments;
+    /** creates comments from the given strings */
+    private static ImmutableList<Comment> toComments(Collection<String> comments) {
+        ImmutableList.Builder<Comment> builder = ImmutableList.builderWithExpectedSize(comments.size());
+        for (String comment : comments) {
+            builder.add(new Comment(comment));
+        }
+        return builder.build();
     }
 
-    /**
-     * utility to ensure the orphaned comments list is created before using it
-     *
-     * @param initialSize
-     *     The initial array size.
-     * @return The comment list.
-     */
-    private List<Comment> getOrCreateOrphanedComments(int initialSize) {
-        if (orphanedComments == null) orphanedComments = new ArrayList<>(initialSize);
-        return orphanedComments;
+    /** combines the comments, reusing either list when the other one is empty */
+    private static ImmutableList<Comment> plus(ImmutableList<Comment> existing, ImmutableList<Comment> added) {
+        if (added.isEmpty()) return existing;
+        if (existing.isEmpty()) return added;
+        return ImmutableList.<Comment>builderWithExpectedSize(existing.size() + added.size())
+            .addAll(existing)
+            .addAll(added)
+            .build();
     }
 }
@@ -29,6 +29,8 @@ package com.salesforce.omakase.ast;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 import com.salesforce.omakase.broadcast.BroadcastRequirement;
 import com.salesforce.omakase.broadcast.annotation.Description;
@@ -114,6 +116,11 @@ public final class RawFunction extends AbstractSyntax implements Named, Refinabl
         return args;
     }
 
+    @Override
+    public List<String> rawContent() {
+        return Collections.singletonList(args);
+    }
+
     @Override
     public void write(StyleWriter writer, StyleAppendable appendable) throws IOException {
         appendable.append(name).append('(').append(args).append(')');
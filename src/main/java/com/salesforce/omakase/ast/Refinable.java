@@ -26,6 +26,9 @@
 
 package com.salesforce.omakase.ast;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Designates that an {@link Syntax} unit is <em>refinable</em> to a more specified or detailed representation.
  * <p>
@@ -47,4 +50,15 @@ public interface Refinable extends Syntax {
      * @return True if this unit is refined.
      */
     boolean isRefined();
+
+    /**
+     * Gets the original, raw text of this unit that is used for refinement. This is mainly used for quick text-based checks that
+     * don't require refinement, e.g., the {@code contains} filter on subscription annotations.
+     *
+     * @return The raw text (possibly in more than one segment), or an empty list if there is no raw content (e.g., a dynamically
+     * created unit).
+     */
+    default List<String> rawContent() {
+        return Collections.emptyList();
+    }
 }
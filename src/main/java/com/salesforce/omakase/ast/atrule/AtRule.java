@@ -32,6 +32,8 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.salesforce.omakase.broadcast.BroadcastRequirement.AUTOMATIC;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import com.salesforce.omakase.ast.Named;
@@ -264,6 +266,14 @@ public final class AtRule extends AbstractGroupable<StatementIterable, Statement
     public boolean isRefined() {
         return expression != null || block != null;
     }
+
+    @Override
+    public List<String> rawContent() {
+        List<String> content = new ArrayList<>(2);
+        if (rawExpression != null) content.add(rawExpression.content());
+        if (rawBlock != null) content.add(rawBlock.content());
+        return content;
+    }
     
     /**
      * Setter to indicate this at rule is a conditional rule ({@code @if}).
@@ -29,10 +29,8 @@ package com.salesforce.omakase.ast.collection;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -42,7 +40,6 @@ import java.util.stream.StreamSupport;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.salesforce.omakase.ast.Status;
-import com.salesforce.omakase.ast.Syntax;
 import com.salesforce.omakase.broadcast.Broadcaster;
 import com.salesforce.omakase.util.As;
 
@@ -60,11 +57,14 @@ import com.salesforce.omakase.util.As;
  * @author nmcwilliams
  */
 public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implements SyntaxCollection<P, T> {
-    private final P parent;
-    private final Lookup<T> lookup = new Lookup<>();
+    /** collections larger than this keep an index of the nodes by unit id */
+    private static final int INDEX_THRESHOLD = 64;
 
+    private final P parent;
     private Node<T> first;
     private Node<T> last;
+    private int size;
+    private Map<Integer, Node<T>> index;
     private transient Broadcaster propagatingBroadcaster;
 
     /**
@@ -79,7 +79,7 @@ public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implemen
 
     @Override
     public int size() {
-        return lookup.size();
+        return size;
     }
 
     @Override
@@ -113,16 +113,15 @@ public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implemen
 
     @Override
     public boolean isEmptyOrNoneWritable() {
-        if (isEmpty()) return true;
-        for (T unit : this) {
-            if (unit.isWritable()) return false;
+        for (Node<T> node = first; node != null; node = node.next) {
+            if (node.unit.isWritable()) return false;
         }
         return true;
     }
 
     @Override
     public boolean contains(T unit) {
-        return lookup.contains(unit.id());
+        return node(unit.id()) != null;
     }
 
     @Override
@@ -137,7 +136,7 @@ public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implemen
 
     @Override
     public Optional<T> next(T unit) {
-        Node<T> node = lookup.get(unit.id());
+        Node<T> node = node(unit.id());
         if (node == null) throw new IllegalArgumentException("the specified unit does not exist in this collection!");
         if (node.next == null) return Optional.empty();
         return Optional.of(node.next.unit);
@@ -145,7 +144,7 @@ public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implemen
 
     @Override
     public Optional<T> previous(T unit) {
-        Node<T> node = lookup.get(unit.id());
+        Node<T> node = node(unit.id());
         if (node == null) throw new IllegalArgumentException("the specified unit does not exist in this collection!");
         if (node.previous == null) return Optional.empty();
         return Optional.of(node.previous.unit);
@@ -166,7 +165,7 @@ public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implemen
 
         // create a new node
         first = new Node<>(null, first, unit);
-        lookup.put(unit.id(), first);
+        track(first);
         if (last == null) {
             last = first;
         }
@@ -190,7 +189,7 @@ public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implemen
         checkArgument(!unit.isDestroyed(), "cannot prepend a destroyed unit!");
 
         // find the node for the index unit
-        Node<T> node = lookup.get(index.id());
+        Node<T> node = node(index.id());
         if (node == null) throw new IllegalArgumentException("the specified unit does not exist in this collection!");
 
         // disassociate with old group and associate with this group
@@ -200,7 +199,7 @@ public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implemen
         if (node == first || isEmpty()) return prepend(unit);
 
         // create a new node
-        lookup.put(unit.id(), new Node<>(node.previous, node, unit));
+        track(new Node<>(node.previous, node, unit));
 
         // broadcast if it hasn't been already
         propagateNewUnit(unit);
@@ -218,7 +217,7 @@ public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implemen
 
         // create a new node
         last = new Node<>(last, null, unit);
-        lookup.put(unit.id(), last);
+        track(last);
         if (first == null) first = last;
 
         // broadcast if it hasn't been already
@@ -240,7 +239,7 @@ public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implemen
         checkArgument(!unit.isDestroyed(), "cannot append a destroyed unit!");
 
         // find the node for the index unit
-        Node<T> node = lookup.get(index.id());
+        Node<T> node = node(index.id());
         if (node == null) throw new IllegalArgumentException("the specified unit does not exist in this collection!");
 
         // disassociate with old group and associate with this group
@@ -250,7 +249,7 @@ public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implemen
         if (node == last || (node.previous == null && node.next == null)) return append(unit);
 
         // create a new node
-        lookup.put(unit.id(), new Node<>(node, node.next, unit));
+        track(new Node<>(node, node.next, unit));
 
         // broadcast if it hasn't been already
         propagateNewUnit(unit);
@@ -260,11 +259,13 @@ public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implemen
 
     @Override
     public SyntaxCollection<P, T> remove(T unit) {
-        Node<T> removed = lookup.remove(unit.id());
+        Node<T> removed = node(unit.id());
 
         if (removed != null) {
             // update our links
             unlink(removed);
+            size--;
+            if (index != null) index.remove(unit.id());
 
             // ensure the unit is not associated with this group any longer
             unit.group(null);
@@ -326,6 +327,28 @@ public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implemen
         }
     }
 
+    /** finds the node for the unit with the given id. Small collections are searched, larger ones use an index */
+    private Node<T> node(int id) {
+        if (index != null) return index.get(id);
+        for (Node<T> node = first; node != null; node = node.next) {
+            if (node.unit.id() == id) return node;
+        }
+        return null;
+    }
+
+    /** keeps track of a newly linked node */
+    private void track(Node<T> node) {
+        size++;
+        if (index != null) {
+            index.put(node.unit.id(), node);
+        } else if (size > INDEX_THRESHOLD) {
+            index = new HashMap<>(size * 2);
+            for (Node<T> n = first; n != null; n = n.next) {
+                index.put(n.unit.id(), n);
+            }
+        }
+    }
+
     private void unlink(Node<T> node) {
         if (node == first) first = node.next;
         if (node == last) last = node.previous;
@@ -351,73 +374,4 @@ public final class LinkedSyntaxCollection<P, T extends Groupable<P, T>> implemen
             }
         }
     }
-
-    // todo - move to regular linked list or such
-    private static final class Lookup<E extends Syntax> {
-        private List<Node<E>> sparse = new ArrayList<>();
-        private Map<Integer, Node<E>> dense;
-        private int count = 0;
-
-        public void put(int id, Node<E> node) {
-            // for small collections use an array list, for larger use a map
-            if (count < 64) {
-                sparse.add(node);
-                count++;
-            } else if (count == 64) {
-                dense = new HashMap<>(128);
-                for (Node<E> n : sparse) {
-                    dense.put(n.unit.id(), n);
-                }
-                dense.put(id, node);
-                sparse = null;
-                count++;
-            } else {
-                dense.put(id, node);
-            }
-        }
-
-        public Node<E> get(int id) {
-            if (sparse != null) {
-                for (Node<E> n : sparse) {
-                    if (n.unit.id() == id) return n;
-                }
-                return null;
-            }
-            return dense.get(id);
-        }
-
-        public Node<E> remove(int id) {
-            if (sparse != null) {
-                for (Iterator<Node<E>> it = sparse.iterator(); it.hasNext(); ) {
-                    Node<E> next = it.next();
-                    if (next.unit.id() == id) {
-                        it.remove();
-                        count--;
-                        return next;
-                    }
-                }
-                return null;
-            }
-            return dense.remove(id);
-        }
-
-        public int size() {
-            return sparse != null ? sparse.size() : dense.size();
-        }
-
-        @SuppressWarnings("unused")
-        public boolean isEmpty() {
-            return sparse != null ? sparse.isEmpty() : dense.isEmpty();
-        }
-
-        public boolean contains(int id) {
-            if (sparse != null) {
-                for (Node<E> n : sparse) {
-                    if (n.unit.id() == id) return true;
-                }
-                return false;
-            }
-            return dense.containsKey(id);
-        }
-    }
 }
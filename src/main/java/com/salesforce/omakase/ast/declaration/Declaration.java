@@ -31,6 +31,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.salesforce.omakase.broadcast.BroadcastRequirement.AUTOMATIC;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import com.salesforce.omakase.ast.Named;
@@ -168,6 +170,27 @@ public final class Declaration extends AbstractGroupable<Rule, Declaration> impl
      *     The {@link PropertyValue}.
      */
     public Declaration(PropertyName propertyName, PropertyValue propertyValue) {
+        this(-1, -1, propertyName, propertyValue);
+    }
+
+    /**
+     * Creates a new, already refined {@link Declaration} with the given line and column numbers.
+     * <p>
+     * This is used when loading declarations that were refined ahead of time (see {@link
+     * com.salesforce.omakase.binary.PrecompiledStylesheet}). For dynamically created declarations use {@link
+     * #Declaration(PropertyName, PropertyValue)} instead.
+     *
+     * @param line
+     *     The line number.
+     * @param column
+     *     The column number.
+     * @param propertyName
+     *     The {@link PropertyName}.
+     * @param propertyValue
+     *     The {@link PropertyValue}.
+     */
+    public Declaration(int line, int column, PropertyName propertyName, PropertyValue propertyValue) {
+        super(line, column);
         this.rawName = null;
         this.rawValue = null;
         propertyName(propertyName);
@@ -431,6 +454,11 @@ public final class Declaration extends AbstractGroupable<Rule, Declaration> impl
         return rawValue == null || !propertyValue.members().isEmpty();
     }
 
+    @Override
+    public List<String> rawContent() {
+        return rawValue != null ? Collections.singletonList(rawValue.content()) : Collections.emptyList();
+    }
+
     @Override
     public boolean shouldBreakBroadcast(SubscriptionPhase phase) {
         return super.shouldBreakBroadcast(phase) || (phase == SubscriptionPhase.REFINE && isRefined());
@@ -177,7 +177,8 @@ public final class LinearGradientFunctionValue extends AbstractTerm implements F
 
     @Override
     public void write(StyleWriter writer, StyleAppendable appendable) throws IOException {
-        appendable.append(name()).append('(');
+        if (prefix != null) appendable.append(prefix.toString());
+        appendable.append(unprefixedName()).append('(');
         appendable.append(writer.isVerbose() ? args : Args.clean(args));
         appendable.append(')');
     }
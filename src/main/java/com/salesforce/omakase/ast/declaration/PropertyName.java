@@ -107,6 +107,16 @@ public final class PropertyName extends AbstractSyntax implements Named {
         this.unprefixed = property.toString();
     }
 
+    /** private -- used for copies, reusing the already parsed parts of the name */
+    private PropertyName(PropertyName original) {
+        super(-1, -1);
+
+        this.prefix = original.prefix;
+        this.starHack = original.starHack;
+        this.cached = original.cached;
+        this.unprefixed = original.unprefixed;
+    }
+
     /**
      * Gets whether this {@link PropertyName} includes an IE7 star hack (http://en.wikipedia.org/wiki/CSS_filter#Star_hack).
      *
@@ -297,15 +307,13 @@ public final class PropertyName extends AbstractSyntax implements Named {
     @Override
     public void write(StyleWriter writer, StyleAppendable appendable) throws IOException {
         if (starHack) appendable.append(STAR);
-        appendable.append(name());
+        if (prefix != null) appendable.append(prefix.toString());
+        appendable.append(unprefixed);
     }
 
     @Override
     public PropertyName copy() {
-        if (cached != null) {
-            return PropertyName.of(cached).prefix(prefix).starHack(starHack).copiedFrom(this);
-        }
-        return PropertyName.of(name()).starHack(starHack).copiedFrom(this);
+        return new PropertyName(this).copiedFrom(this);
     }
 
     /**
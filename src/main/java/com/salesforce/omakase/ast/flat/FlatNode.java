@@ -0,0 +1,390 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.ast.flat;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.salesforce.omakase.ast.flat.FlatStylesheet.NONE;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import com.salesforce.omakase.ast.RawSyntax;
+import com.salesforce.omakase.ast.Rule;
+import com.salesforce.omakase.ast.Statement;
+import com.salesforce.omakase.ast.Stylesheet;
+import com.salesforce.omakase.ast.Syntax;
+import com.salesforce.omakase.ast.atrule.AtRule;
+import com.salesforce.omakase.ast.atrule.AtRuleBlock;
+import com.salesforce.omakase.ast.atrule.AtRuleExpression;
+import com.salesforce.omakase.ast.atrule.GenericAtRuleBlock;
+import com.salesforce.omakase.ast.atrule.GenericAtRuleExpression;
+import com.salesforce.omakase.ast.declaration.Declaration;
+import com.salesforce.omakase.ast.declaration.PropertyValue;
+import com.salesforce.omakase.ast.extended.ConditionalAtRuleBlock;
+import com.salesforce.omakase.ast.selector.Selector;
+import com.salesforce.omakase.ast.selector.SelectorPart;
+import com.salesforce.omakase.broadcast.Broadcaster;
+import com.salesforce.omakase.broadcast.ConsumingBroadcaster;
+import com.salesforce.omakase.broadcast.NoopBroadcaster;
+import com.salesforce.omakase.writer.StyleWriter;
+
+/**
+ * A lightweight cursor to a node within a {@link FlatStylesheet}.
+ * <p>
+ * Instances only hold the stylesheet and the node index, and are created as needed when navigating. Two instances are equal if
+ * they point to the same node.
+ *
+ * @author nmcwilliams
+ */
+public final class FlatNode {
+    /** The kinds of nodes */
+    public enum Kind {
+        /** the root node */
+        STYLESHEET,
+        /** a rule, containing selectors and declarations */
+        RULE,
+        /** a selector, within a rule */
+        SELECTOR,
+        /** a declaration, within a rule or at-rule */
+        DECLARATION,
+        /** an at-rule, possibly containing other nodes */
+        AT_RULE
+    }
+
+    private static final Broadcaster NOOP = new NoopBroadcaster();
+
+    private final FlatStylesheet stylesheet;
+    private final int index;
+
+    FlatNode(FlatStylesheet stylesheet, int index) {
+        this.stylesheet = stylesheet;
+        this.index = index;
+    }
+
+    /**
+     * Gets the index of this node within the {@link FlatStylesheet}.
+     *
+     * @return The node index.
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * Gets the kind of node.
+     *
+     * @return The kind of node.
+     */
+    public Kind kind() {
+        return stylesheet.kind(index);
+    }
+
+    /**
+     * Gets the offset of the first character of this node in the source.
+     * <p>
+     * Together with {@link #end()} this gives the span of source text for the node, including any comments within it. The span
+     * of a rule or at-rule includes its block, the span of a declaration does not include the terminating ';', and selectors
+     * have the span of the whole selector sequence of their rule (not including the '{'). The root spans the whole source.
+     *
+     * @return The offset of the first character.
+     */
+    public int start() {
+        return stylesheet.start(index);
+    }
+
+    /**
+     * Gets the offset just past the last character of this node in the source. See {@link #start()}.
+     *
+     * @return The offset just past the last character.
+     */
+    public int end() {
+        return stylesheet.end(index);
+    }
+
+    /**
+     * Gets the line number.
+     *
+     * @return The line number. Selectors have the line number of their rule.
+     */
+    public int line() {
+        return stylesheet.line(index);
+    }
+
+    /**
+     * Gets the column number.
+     *
+     * @return The column number. Selectors have the column number of their rule.
+     */
+    public int column() {
+        return stylesheet.column(index);
+    }
+
+    /**
+     * Gets the name of this node. This is the selector text for selectors, the property name for declarations and the name
+     * (without the '@') for at-rules.
+     *
+     * @return The name, or an empty {@link Optional} for the stylesheet and rules.
+     */
+    public Optional<String> name() {
+        return Optional.ofNullable(stylesheet.name(index));
+    }
+
+    /**
+     * Gets the value of this node. This is the property value (without any "!important") for declarations and the expression for
+     * at-rules.
+     *
+     * @return The value, or an empty {@link Optional} if not applicable or if the at-rule has no expression.
+     */
+    public Optional<String> value() {
+        return Optional.ofNullable(stylesheet.value(index));
+    }
+
+    /**
+     * Gets whether this is a declaration marked "!important".
+     *
+     * @return True if this is an important declaration.
+     */
+    public boolean isImportant() {
+        return stylesheet.isImportant(index);
+    }
+
+    /**
+     * Gets the parent node.
+     *
+     * @return The parent, or an empty {@link Optional} for the root.
+     */
+    public Optional<FlatNode> parent() {
+        return cursor(stylesheet.parent(index));
+    }
+
+    /**
+     * Gets the first child node.
+     *
+     * @return The first child, or an empty {@link Optional} if there are no children.
+     */
+    public Optional<FlatNode> firstChild() {
+        return cursor(stylesheet.firstChild(index));
+    }
+
+    /**
+     * Gets the next sibling node.
+     *
+     * @return The next sibling, or an empty {@link Optional} if this is the last child.
+     */
+    public Optional<FlatNode> nextSibling() {
+        return cursor(stylesheet.nextSibling(index));
+    }
+
+    /**
+     * Gets whether this node has any children.
+     *
+     * @return True if there is at least one child.
+     */
+    public boolean hasChildren() {
+        return stylesheet.firstChild(index) != NONE;
+    }
+
+    /**
+     * Gets the child nodes, in order.
+     *
+     * @return The children.
+     */
+    public Iterable<FlatNode> children() {
+        return () -> new Iterator<FlatNode>() {
+            private int next = stylesheet.firstChild(index);
+
+            @Override
+            public boolean hasNext() {
+                return next != NONE;
+            }
+
+            @Override
+            public FlatNode next() {
+                if (next == NONE) throw new NoSuchElementException();
+                FlatNode node = new FlatNode(stylesheet, next);
+                next = stylesheet.nextSibling(next);
+                return node;
+            }
+        };
+    }
+
+    /**
+     * Creates the regular syntax units for this node and everything within it.
+     * <p>
+     * The stylesheet becomes a {@link Stylesheet}, rules a {@link Rule}, selectors an unrefined {@link Selector} and declarations
+     * an unrefined {@link Declaration}. At-rules containing rules or other at-rules become an {@link AtRule} with a {@link
+     * GenericAtRuleBlock}, and other at-rules become an unrefined {@link AtRule}. Each call creates new units.
+     * <p>
+     * The units are not delivered to any plugins. To run plugins such as validators on this node, use {@link
+     * com.salesforce.omakase.Omakase#source(FlatNode)} instead.
+     *
+     * @return The syntax unit.
+     */
+    public Syntax toSyntax() {
+        return build(NOOP);
+    }
+
+    /**
+     * Creates a {@link Stylesheet} for this node, broadcasting each new unit to the given {@link Broadcaster} in the same order
+     * as the parser would (inner units before the units that contain them, and the stylesheet last). For the root this is the
+     * whole stylesheet, and for a rule or at-rule it is a stylesheet containing just that statement.
+     * <p>
+     * This is used by {@link com.salesforce.omakase.Omakase#source(FlatNode)}.
+     *
+     * @param broadcaster
+     *     Broadcast the new units to this {@link Broadcaster}.
+     *
+     * @return The stylesheet.
+     */
+    public Stylesheet toStylesheet(Broadcaster broadcaster) {
+        Syntax syntax = build(broadcaster);
+        if (syntax instanceof Stylesheet) return (Stylesheet)syntax;
+
+        checkState(syntax instanceof Statement, "only the root, rules and at-rules can be turned into a stylesheet");
+        Stylesheet sheet = new Stylesheet();
+        sheet.append((Statement)syntax);
+        broadcaster.broadcast(sheet);
+        return sheet;
+    }
+
+    /** creates the units, broadcasting them like the parser does so that refinement attaches the refined parts */
+    private Syntax build(Broadcaster broadcaster) {
+        switch (kind()) {
+        case STYLESHEET:
+            Stylesheet sheet = new Stylesheet();
+            for (FlatNode child : children()) {
+                sheet.append((Statement)child.build(broadcaster));
+            }
+            broadcaster.broadcast(sheet);
+            return sheet;
+        case RULE:
+            Rule rule = new Rule(line(), column());
+            for (FlatNode child : children()) {
+                if (child.kind() == Kind.SELECTOR) {
+                    rule.selectors().append((Selector)child.build(broadcaster));
+                } else {
+                    rule.declarations().append((Declaration)child.build(broadcaster));
+                }
+            }
+            broadcaster.broadcast(rule);
+            return rule;
+        case SELECTOR:
+            Selector selector = new Selector(raw(name().get()));
+            broadcaster.chainBroadcast(selector, new ConsumingBroadcaster<>(SelectorPart.class, selector::append));
+            return selector;
+        case DECLARATION:
+            String value = isImportant() ? value().get() + " !important" : value().get();
+            Declaration declaration = new Declaration(raw(name().get()), raw(value));
+            broadcaster.chainBroadcast(declaration,
+                new ConsumingBroadcaster<>(PropertyValue.class, declaration::propertyValue));
+            return declaration;
+        default:
+            return atRule(broadcaster);
+        }
+    }
+
+    private AtRule atRule(Broadcaster broadcaster) {
+        String name = name().get();
+        String expression = value().orElse(null);
+        boolean hasDeclarations = false;
+
+        for (FlatNode child : children()) {
+            if (child.kind() == Kind.DECLARATION) {
+                hasDeclarations = true;
+                break;
+            }
+        }
+
+        if (!hasChildren() || hasDeclarations) {
+            // left unrefined, with the content of the block rebuilt from the declarations and any nested statements
+            RawSyntax block = null;
+            if (hasDeclarations) {
+                StringBuilder content = new StringBuilder(64);
+                StyleWriter writer = StyleWriter.compressed();
+                for (FlatNode child : children()) {
+                    if (child.kind() == Kind.DECLARATION) {
+                        content.append(child.name().get()).append(':').append(child.value().get());
+                        if (child.isImportant()) content.append(" !important");
+                        content.append(';');
+                    } else {
+                        // only written into the raw block, so not broadcasted
+                        content.append(writer.writeSingle(child.build(NOOP)));
+                    }
+                }
+                block = raw(content.toString());
+            }
+            AtRule atRule = new AtRule(line(), column(), name, expression != null ? raw(expression) : null, block);
+            broadcaster.chainBroadcast(atRule,
+                new ConsumingBroadcaster<>(AtRuleExpression.class, atRule::expression, t -> !atRule.isConditional()),
+                new ConsumingBroadcaster<>(AtRuleBlock.class, atRule::block, t ->
+                    atRule.isConditional() == (t instanceof ConditionalAtRuleBlock)));
+            return atRule;
+        }
+
+        List<Statement> statements = new ArrayList<>();
+        for (FlatNode child : children()) {
+            statements.add((Statement)child.build(broadcaster));
+        }
+
+        AtRule atRule = new AtRule(line(), column(), name, null, null);
+        if (expression != null) {
+            atRule.expression(new GenericAtRuleExpression(line(), column(), expression));
+        }
+        atRule.block(new GenericAtRuleBlock(statements));
+        broadcaster.broadcast(atRule);
+        return atRule;
+    }
+
+    private RawSyntax raw(String content) {
+        return new RawSyntax(line(), column(), content);
+    }
+
+    private Optional<FlatNode> cursor(int target) {
+        return target == NONE ? Optional.empty() : Optional.of(new FlatNode(stylesheet, target));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof FlatNode)) return false;
+        FlatNode other = (FlatNode)obj;
+        return stylesheet == other.stylesheet && index == other.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(stylesheet) + index;
+    }
+
+    @Override
+    public String toString() {
+        return kind() + "#" + index;
+    }
+}
@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.ast.flat;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.salesforce.omakase.Omakase;
+import com.salesforce.omakase.broadcast.annotation.Observe;
+import com.salesforce.omakase.broadcast.annotation.Rework;
+import com.salesforce.omakase.broadcast.annotation.Validate;
+import com.salesforce.omakase.parser.ParserException;
+import com.salesforce.omakase.parser.stream.StreamHandler;
+import com.salesforce.omakase.parser.stream.StreamingParser;
+
+/**
+ * A read-only stylesheet stored in parallel primitive arrays instead of one object per syntax unit.
+ * <p>
+ * Each node (the stylesheet, rules, selectors, declarations and at-rules) is an index into arrays holding its kind, parent,
+ * first child, next sibling, source span (start and end character offsets), line, column and the ids of its name and value in a
+ * table of interned strings. Repeated text such as
+ * property names and common values is stored once. For large stylesheets this uses a fraction of the memory of the regular
+ * syntax tree and produces far fewer objects for the garbage collector.
+ * <p>
+ * Nodes are accessed through {@link FlatNode} cursors, which are created on demand and hold nothing but the index. Any node can
+ * be turned into regular (unrefined) syntax units with {@link FlatNode#toSyntax()}, so that existing writers and other consumers
+ * can work on one part of the stylesheet at a time:
+ * <pre><code>
+ * FlatStylesheet flat = FlatStylesheet.parse(reader);
+ * StyleWriter writer = StyleWriter.compressed();
+ * for (FlatNode statement : flat.root().children()) {
+ *     out.append(writer.writeSingle(statement.toSyntax()));
+ * }
+ * </code></pre>
+ * To run plugins such as validators, pass a statement (or the root) to {@link Omakase#source(FlatNode)}. The units are then
+ * refined and delivered to {@link Observe}, {@link Rework} and {@link Validate} subscriptions as if they had just been parsed:
+ * <pre><code>
+ * for (FlatNode statement : flat.root().children()) {
+ *     Omakase.source(statement).use(em).use(new StandardValidation()).process();
+ * }
+ * </code></pre>
+ * The content is parsed with a {@link StreamingParser}, so the text of each node has comments removed and whitespace collapsed.
+ * Instances are immutable and can be shared between threads.
+ *
+ * @author nmcwilliams
+ */
+public final class FlatStylesheet {
+    static final int NONE = -1;
+    private static final FlatNode.Kind[] KINDS = FlatNode.Kind.values();
+
+    private final byte[] kinds;
+    private final int[] parents;
+    private final int[] firstChildren;
+    private final int[] nextSiblings;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] lines;
+    private final int[] columns;
+    private final int[] names;
+    private final int[] values;
+    private final boolean[] important;
+    private final String[] strings;
+    private final int size;
+
+    private FlatStylesheet(Builder builder) {
+        this.size = builder.size;
+        this.kinds = Arrays.copyOf(builder.kinds, size);
+        this.parents = Arrays.copyOf(builder.parents, size);
+        this.firstChildren = Arrays.copyOf(builder.firstChildren, size);
+        this.nextSiblings = Arrays.copyOf(builder.nextSiblings, size);
+        this.starts = Arrays.copyOf(builder.starts, size);
+        this.ends = Arrays.copyOf(builder.ends, size);
+        this.lines = Arrays.copyOf(builder.lines, size);
+        this.columns = Arrays.copyOf(builder.columns, size);
+        this.names = Arrays.copyOf(builder.names, size);
+        this.values = Arrays.copyOf(builder.values, size);
+        this.important = Arrays.copyOf(builder.important, size);
+        this.strings = new String[builder.strings.size()];
+        for (Map.Entry<String, Integer> entry : builder.strings.entrySet()) {
+            strings[entry.getValue()] = entry.getKey();
+        }
+    }
+
+    /**
+     * Parses the given source.
+     *
+     * @param source
+     *     The CSS source.
+     *
+     * @return The parsed stylesheet.
+     *
+     * @throws ParserException
+     *     If the source is malformed.
+     */
+    public static FlatStylesheet parse(CharSequence source) {
+        Builder builder = new Builder();
+        builder.parser.parse(source);
+        builder.finish();
+        return new FlatStylesheet(builder);
+    }
+
+    /**
+     * Parses the source from the given {@link Reader}. The reader is read until the end, but is not closed.
+     *
+     * @param reader
+     *     Read the CSS source from this reader.
+     *
+     * @return The parsed stylesheet.
+     *
+     * @throws IOException
+     *     If thrown by the reader.
+     * @throws ParserException
+     *     If the source is malformed.
+     */
+    public static FlatStylesheet parse(Reader reader) throws IOException {
+        Builder builder = new Builder();
+        builder.parser.parse(reader);
+        builder.finish();
+        return new FlatStylesheet(builder);
+    }
+
+    /**
+     * Gets the root node, representing the stylesheet itself.
+     *
+     * @return The root node.
+     */
+    public FlatNode root() {
+        return new FlatNode(this, 0);
+    }
+
+    /**
+     * Gets the node at the given index. The root is at index 0, and nodes are indexed in document order.
+     *
+     * @param index
+     *     The node index.
+     *
+     * @return The node.
+     */
+    public FlatNode node(int index) {
+        checkElementIndex(index, size);
+        return new FlatNode(this, index);
+    }
+
+    /**
+     * Gets the total number of nodes, including the root.
+     *
+     * @return The number of nodes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of distinct strings stored for names and values.
+     *
+     * @return The number of distinct strings.
+     */
+    public int distinctStrings() {
+        return strings.length;
+    }
+
+    FlatNode.Kind kind(int index) {
+        return KINDS[kinds[index]];
+    }
+
+    int parent(int index) {
+        return parents[index];
+    }
+
+    int firstChild(int index) {
+        return firstChildren[index];
+    }
+
+    int nextSibling(int index) {
+        return nextSiblings[index];
+    }
+
+    int start(int index) {
+        return starts[index];
+    }
+
+    int end(int index) {
+        return ends[index];
+    }
+
+    int line(int index) {
+        return lines[index];
+    }
+
+    int column(int index) {
+        return columns[index];
+    }
+
+    String name(int index) {
+        return names[index] == NONE ? null : strings[names[index]];
+    }
+
+    String value(int index) {
+        return values[index] == NONE ? null : strings[values[index]];
+    }
+
+    boolean isImportant(int index) {
+        return important[index];
+    }
+
+    /** builds up the arrays from the streaming parser events */
+    private static final class Builder implements StreamHandler {
+        private final StreamingParser parser = new StreamingParser(this);
+        private byte[] kinds = new byte[256];
+        private int[] parents = new int[256];
+        private int[] firstChildren = new int[256];
+        private int[] lastChildren = new int[256];
+        private int[] nextSiblings = new int[256];
+        private int[] starts = new int[256];
+        private int[] ends = new int[256];
+        private int[] lines = new int[256];
+        private int[] columns = new int[256];
+        private int[] names = new int[256];
+        private int[] values = new int[256];
+        private boolean[] important = new boolean[256];
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private int size;
+        private int current;
+
+        Builder() {
+            add(FlatNode.Kind.STYLESHEET, null, null, false, 1, 1);
+            current = 0;
+        }
+
+        @Override
+        public void startRule(int line, int column) {
+            current = add(FlatNode.Kind.RULE, null, null, false, line, column);
+        }
+
+        @Override
+        public void selector(String selector) {
+            add(FlatNode.Kind.SELECTOR, selector, null, false, lines[current], columns[current]);
+        }
+
+        @Override
+        public void declaration(String property, String value, boolean isImportant, int line, int column) {
+            add(FlatNode.Kind.DECLARATION, property, value, isImportant, line, column);
+        }
+
+        @Override
+        public void endRule() {
+            ends[current] = offset(parser.offset());
+            current = parents[current];
+        }
+
+        @Override
+        public void startAtRule(String name, String expression, int line, int column) {
+            current = add(FlatNode.Kind.AT_RULE, name, expression.isEmpty() ? null : expression, false, line, column);
+        }
+
+        @Override
+        public void endAtRule() {
+            ends[current] = offset(parser.offset());
+            current = parents[current];
+        }
+
+        /** sets the end of the root node once the whole source has been parsed */
+        void finish() {
+            ends[0] = offset(parser.offset());
+        }
+
+        /** appends a new node as the last child of the current node */
+        private int add(FlatNode.Kind kind, String name, String value, boolean isImportant, int line, int column) {
+            if (size == kinds.length) {
+                grow();
+            }
+
+            int index = size++;
+            kinds[index] = (byte)kind.ordinal();
+            parents[index] = index == 0 ? NONE : current;
+            firstChildren[index] = NONE;
+            lastChildren[index] = NONE;
+            nextSiblings[index] = NONE;
+            starts[index] = index == 0 ? 0 : offset(parser.itemStart());
+            ends[index] = index == 0 ? 0 : offset(parser.itemEnd());
+            lines[index] = line;
+            columns[index] = column;
+            names[index] = intern(name);
+            values[index] = intern(value);
+            important[index] = isImportant;
+
+            if (index != 0) {
+                if (firstChildren[current] == NONE) {
+                    firstChildren[current] = index;
+                } else {
+                    nextSiblings[lastChildren[current]] = index;
+                }
+                lastChildren[current] = index;
+            }
+            return index;
+        }
+
+        /** offsets are stored as ints, which is plenty for a source that is held in memory this way */
+        private static int offset(long offset) {
+            return Math.toIntExact(offset);
+        }
+
+        private int intern(String string) {
+            if (string == null) return NONE;
+            Integer id = strings.get(string);
+            if (id == null) {
+                id = strings.size();
+                strings.put(string, id);
+            }
+            return id;
+        }
+
+        private void grow() {
+            int capacity = kinds.length * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            lastChildren = Arrays.copyOf(lastChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+            names = Arrays.copyOf(names, capacity);
+            values = Arrays.copyOf(values, capacity);
+            important = Arrays.copyOf(important, capacity);
+        }
+    }
+}
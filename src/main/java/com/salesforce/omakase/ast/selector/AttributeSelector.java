@@ -31,7 +31,6 @@ import static com.salesforce.omakase.broadcast.BroadcastRequirement.REFINED_SELE
 
 import java.io.IOException;
 import java.util.Optional;
-import java.util.regex.Pattern;
 
 import com.salesforce.omakase.broadcast.annotation.Description;
 import com.salesforce.omakase.broadcast.annotation.Subscribable;
@@ -47,7 +46,6 @@ import com.salesforce.omakase.writer.StyleWriter;
 @Subscribable
 @Description(value = "attribute selector segment", broadcasted = REFINED_SELECTOR)
 public final class AttributeSelector extends AbstractSelectorPart implements SimpleSelector {
-    private static final Pattern SIMPLE_VALUE = Pattern.compile("[a-zA-Z][a-zA-Z0-9-_]*");
 
     private String attribute;
     private AttributeMatchType matchType;
@@ -174,7 +172,7 @@ public final class AttributeSelector extends AbstractSelectorPart implements Sim
             // the value. In simple cases where we know quotes aren't needed we omit them.
             // This could be handled better...
             final String val = value;
-            if (SIMPLE_VALUE.matcher(val).matches()) {
+            if (isSimple(val)) {
                 appendable.append(val);
             } else {
                 appendable.append('"').append(val).append('"');
@@ -193,4 +191,18 @@ public final class AttributeSelector extends AbstractSelectorPart implements Sim
         }
         return copy;
     }
+
+    /** same as matching [a-zA-Z][a-zA-Z0-9-_]*, without a regex matcher for each write */
+    private static boolean isSimple(String value) {
+        if (value.isEmpty() || !isLetter(value.charAt(0))) return false;
+        for (int i = 1; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!isLetter(c) && !(c >= '0' && c <= '9') && c != '-' && c != '_') return false;
+        }
+        return true;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
 }
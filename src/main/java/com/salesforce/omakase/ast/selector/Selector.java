@@ -30,6 +30,7 @@ import static com.salesforce.omakase.broadcast.BroadcastRequirement.AUTOMATIC;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -216,6 +217,11 @@ public final class Selector extends AbstractGroupable<Rule, Selector> implements
         return raw == null || !parts.isEmpty();
     }
 
+    @Override
+    public List<String> rawContent() {
+        return raw != null ? Collections.singletonList(raw.content()) : Collections.emptyList();
+    }
+
     @Override
     public boolean shouldBreakBroadcast(SubscriptionPhase phase) {
         return super.shouldBreakBroadcast(phase) || (phase == SubscriptionPhase.REFINE && isRefined());
@@ -0,0 +1,578 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.binary;
+
+import static com.salesforce.omakase.binary.BinaryFormat.ATTRIBUTE_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.AT_RULE;
+import static com.salesforce.omakase.binary.BinaryFormat.AT_RULE_RAW;
+import static com.salesforce.omakase.binary.BinaryFormat.CLASS_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.COMBINATOR;
+import static com.salesforce.omakase.binary.BinaryFormat.DECLARATION;
+import static com.salesforce.omakase.binary.BinaryFormat.DECLARATION_RAW;
+import static com.salesforce.omakase.binary.BinaryFormat.FONT_DESCRIPTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.FONT_FACE_BLOCK;
+import static com.salesforce.omakase.binary.BinaryFormat.FUNCTION;
+import static com.salesforce.omakase.binary.BinaryFormat.GENERIC_EXPRESSION;
+import static com.salesforce.omakase.binary.BinaryFormat.HAS_BLOCK;
+import static com.salesforce.omakase.binary.BinaryFormat.HAS_COMMENTS;
+import static com.salesforce.omakase.binary.BinaryFormat.HAS_EXPRESSION;
+import static com.salesforce.omakase.binary.BinaryFormat.HAS_ORPHANED_COMMENTS;
+import static com.salesforce.omakase.binary.BinaryFormat.HEX_COLOR;
+import static com.salesforce.omakase.binary.BinaryFormat.ID_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.IMPORTANT;
+import static com.salesforce.omakase.binary.BinaryFormat.KEYFRAME_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.KEYWORD;
+import static com.salesforce.omakase.binary.BinaryFormat.LINEAR_GRADIENT;
+import static com.salesforce.omakase.binary.BinaryFormat.MAGIC;
+import static com.salesforce.omakase.binary.BinaryFormat.MEDIA_QUERY;
+import static com.salesforce.omakase.binary.BinaryFormat.MEDIA_QUERY_EXPRESSION;
+import static com.salesforce.omakase.binary.BinaryFormat.MEDIA_QUERY_LIST;
+import static com.salesforce.omakase.binary.BinaryFormat.NUMBER;
+import static com.salesforce.omakase.binary.BinaryFormat.OPERATOR;
+import static com.salesforce.omakase.binary.BinaryFormat.PSEUDO_CLASS_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.PSEUDO_ELEMENT_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.REPEATING;
+import static com.salesforce.omakase.binary.BinaryFormat.RULE;
+import static com.salesforce.omakase.binary.BinaryFormat.SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.SELECTOR_RAW;
+import static com.salesforce.omakase.binary.BinaryFormat.STATEMENT_BLOCK;
+import static com.salesforce.omakase.binary.BinaryFormat.STRING;
+import static com.salesforce.omakase.binary.BinaryFormat.TYPE_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.UNICODE_RANGE;
+import static com.salesforce.omakase.binary.BinaryFormat.UNIVERSAL_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.URL;
+import static com.salesforce.omakase.binary.BinaryFormat.VERSION;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.salesforce.omakase.Message;
+import com.salesforce.omakase.ast.RawSyntax;
+import com.salesforce.omakase.ast.Rule;
+import com.salesforce.omakase.ast.Statement;
+import com.salesforce.omakase.ast.Status;
+import com.salesforce.omakase.ast.Stylesheet;
+import com.salesforce.omakase.ast.Syntax;
+import com.salesforce.omakase.ast.atrule.AtRule;
+import com.salesforce.omakase.ast.atrule.AtRuleBlock;
+import com.salesforce.omakase.ast.atrule.AtRuleExpression;
+import com.salesforce.omakase.ast.atrule.FontDescriptor;
+import com.salesforce.omakase.ast.atrule.FontFaceBlock;
+import com.salesforce.omakase.ast.atrule.GenericAtRuleBlock;
+import com.salesforce.omakase.ast.atrule.GenericAtRuleExpression;
+import com.salesforce.omakase.ast.atrule.MediaQuery;
+import com.salesforce.omakase.ast.atrule.MediaQueryExpression;
+import com.salesforce.omakase.ast.atrule.MediaQueryList;
+import com.salesforce.omakase.ast.atrule.MediaRestriction;
+import com.salesforce.omakase.ast.declaration.Declaration;
+import com.salesforce.omakase.ast.declaration.GenericFunctionValue;
+import com.salesforce.omakase.ast.declaration.HexColorValue;
+import com.salesforce.omakase.ast.declaration.KeywordValue;
+import com.salesforce.omakase.ast.declaration.LinearGradientFunctionValue;
+import com.salesforce.omakase.ast.declaration.NumericalValue;
+import com.salesforce.omakase.ast.declaration.Operator;
+import com.salesforce.omakase.ast.declaration.OperatorType;
+import com.salesforce.omakase.ast.declaration.PropertyName;
+import com.salesforce.omakase.ast.declaration.PropertyValue;
+import com.salesforce.omakase.ast.declaration.PropertyValueMember;
+import com.salesforce.omakase.ast.declaration.QuotationMode;
+import com.salesforce.omakase.ast.declaration.StringValue;
+import com.salesforce.omakase.ast.declaration.UnicodeRangeValue;
+import com.salesforce.omakase.ast.declaration.UrlFunctionValue;
+import com.salesforce.omakase.ast.selector.AttributeMatchType;
+import com.salesforce.omakase.ast.selector.AttributeSelector;
+import com.salesforce.omakase.ast.selector.ClassSelector;
+import com.salesforce.omakase.ast.selector.Combinator;
+import com.salesforce.omakase.ast.selector.CombinatorType;
+import com.salesforce.omakase.ast.selector.IdSelector;
+import com.salesforce.omakase.ast.selector.KeyframeSelector;
+import com.salesforce.omakase.ast.selector.PseudoClassSelector;
+import com.salesforce.omakase.ast.selector.PseudoElementSelector;
+import com.salesforce.omakase.ast.selector.Selector;
+import com.salesforce.omakase.ast.selector.SelectorPart;
+import com.salesforce.omakase.ast.selector.SelectorPartType;
+import com.salesforce.omakase.ast.selector.TypeSelector;
+import com.salesforce.omakase.ast.selector.UniversalSelector;
+import com.salesforce.omakase.data.Prefix;
+
+/**
+ * Reads data in the precompiled binary format (see {@link BinaryFormat}).
+ * <p>
+ * The header, string offsets and statement offsets are read up front. Strings are decoded the first time they are referenced,
+ * and statements are decoded only when requested.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author nmcwilliams
+ */
+final class BinaryDecoder {
+    private static final AttributeMatchType[] MATCH_TYPES = AttributeMatchType.values();
+    private static final SelectorPartType[] PART_TYPES = SelectorPartType.values();
+    private static final OperatorType[] OPERATOR_TYPES = OperatorType.values();
+    private static final MediaRestriction[] RESTRICTIONS = MediaRestriction.values();
+    private static final QuotationMode[] QUOTATION_MODES = QuotationMode.values();
+    private static final NumericalValue.Sign[] SIGNS = NumericalValue.Sign.values();
+    private static final Prefix[] PREFIXES = Prefix.values();
+
+    private final byte[] data;
+    private int position;
+
+    /* string table */
+    private final int[] stringOffsets;
+    private final String[] strings;
+
+    /* the header of the node currently being read */
+    private int flags;
+    private int line;
+    private int column;
+    private List<String> comments;
+    private List<String> orphanedComments;
+
+    /* stylesheet level */
+    private final List<String> stylesheetComments;
+    private final List<String> stylesheetOrphanedComments;
+    private final int[] statementOffsets;
+
+    /**
+     * Reads the header and indexes of the given data.
+     *
+     * @param data
+     *     The precompiled data.
+     *
+     * @throws IllegalArgumentException
+     *     If the data is not in the precompiled format, or was written with a different version of the format.
+     */
+    BinaryDecoder(byte[] data) {
+        this.data = data;
+
+        for (byte b : MAGIC) {
+            if (data.length <= position || data[position++] != b) {
+                throw new IllegalArgumentException(Message.BINARY_HEADER);
+            }
+        }
+
+        int version = u8();
+        if (version != VERSION) {
+            throw new IllegalArgumentException(Message.fmt(Message.BINARY_VERSION, version, VERSION));
+        }
+
+        // strings are located now, but only decoded when needed
+        int stringCount = varint();
+        stringOffsets = new int[stringCount];
+        strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            stringOffsets[i] = position;
+            skip(varint());
+        }
+
+        int stylesheetFlags = u8();
+        stylesheetComments = (stylesheetFlags & HAS_COMMENTS) != 0 ? strings() : null;
+        stylesheetOrphanedComments = (stylesheetFlags & HAS_ORPHANED_COMMENTS) != 0 ? strings() : null;
+
+        // statements are located now, but only decoded when needed
+        int statementCount = varint();
+        statementOffsets = new int[statementCount];
+        for (int i = 0; i < statementCount; i++) {
+            int length = varint();
+            statementOffsets[i] = position;
+            skip(length);
+        }
+    }
+
+    /**
+     * Gets the number of top-level statements.
+     *
+     * @return The number of statements.
+     */
+    int statementCount() {
+        return statementOffsets.length;
+    }
+
+    /**
+     * Decodes the top-level statement at the given index. Each call returns a new instance.
+     *
+     * @param index
+     *     Index of the statement.
+     *
+     * @return The decoded statement.
+     */
+    Statement statement(int index) {
+        position = statementOffsets[index];
+        return statement();
+    }
+
+    /**
+     * Creates a new, empty {@link Stylesheet} with the stylesheet level comments.
+     *
+     * @return The stylesheet.
+     */
+    Stylesheet stylesheet() {
+        Stylesheet stylesheet = new Stylesheet();
+        stylesheet.comments(stylesheetComments);
+        stylesheet.orphanedComments(stylesheetOrphanedComments);
+        return stylesheet;
+    }
+
+    private Statement statement() {
+        int tag = u8();
+        switch (tag) {
+        case RULE:
+            return rule();
+        case AT_RULE_RAW:
+            return rawAtRule();
+        case AT_RULE:
+            return atRule();
+        default:
+            throw corrupt(tag);
+        }
+    }
+
+    private Rule rule() {
+        header();
+        Rule rule = apply(new Rule(line, column));
+
+        for (int i = varint(); i > 0; i--) {
+            rule.selectors().append(selector());
+        }
+        for (int i = varint(); i > 0; i--) {
+            rule.declarations().append(declaration());
+        }
+        return rule;
+    }
+
+    private AtRule rawAtRule() {
+        header();
+        String name = string();
+        RawSyntax expression = (flags & HAS_EXPRESSION) != 0 ? new RawSyntax(line, column, string()) : null;
+        RawSyntax block = (flags & HAS_BLOCK) != 0 ? new RawSyntax(line, column, string()) : null;
+        return apply(new AtRule(line, column, name, expression, block));
+    }
+
+    private AtRule atRule() {
+        header();
+        AtRule atRule = apply(new AtRule(line, column, string(), null, null));
+        boolean hasBlock = (flags & HAS_BLOCK) != 0; // the flags are replaced when reading the expression
+
+        if ((flags & HAS_EXPRESSION) != 0) {
+            atRule.expression(expression());
+        }
+        if (hasBlock) {
+            atRule.block(block());
+        }
+        atRule.status(Status.PARSED);
+        return atRule;
+    }
+
+    private AtRuleExpression expression() {
+        int tag = u8();
+        header();
+
+        if (tag == GENERIC_EXPRESSION) {
+            return apply(new GenericAtRuleExpression(line, column, string()));
+        } else if (tag != MEDIA_QUERY_LIST) {
+            throw corrupt(tag);
+        }
+
+        MediaQueryList list = apply(new MediaQueryList(line, column));
+        for (int i = varint(); i > 0; i--) {
+            expect(MEDIA_QUERY);
+            MediaQuery query = apply(new MediaQuery(line, column));
+            MediaRestriction restriction = optional(RESTRICTIONS);
+            String type = optionalString();
+            if (restriction != null) query.restriction(restriction);
+            if (type != null) query.type(type);
+
+            for (int j = varint(); j > 0; j--) {
+                expect(MEDIA_QUERY_EXPRESSION);
+                MediaQueryExpression expression = apply(new MediaQueryExpression(line, column, string()));
+                List<PropertyValueMember> terms = members();
+                if (!terms.isEmpty()) {
+                    expression.terms(terms);
+                }
+                query.expressions().append(expression);
+            }
+            list.queries().append(query);
+        }
+        return list;
+    }
+
+    private AtRuleBlock block() {
+        int tag = u8();
+        header();
+
+        if (tag == STATEMENT_BLOCK) {
+            GenericAtRuleBlock block = apply(new GenericAtRuleBlock());
+            for (int i = varint(); i > 0; i--) {
+                block.statements().append(statement());
+            }
+            return block;
+        } else if (tag != FONT_FACE_BLOCK) {
+            throw corrupt(tag);
+        }
+
+        FontFaceBlock block = apply(new FontFaceBlock(line, column));
+        for (int i = varint(); i > 0; i--) {
+            expect(FONT_DESCRIPTOR);
+            PropertyValue value = new PropertyValue(line, column).important((flags & IMPORTANT) != 0);
+            FontDescriptor descriptor = apply(new FontDescriptor(PropertyName.of(line, column, string()), value));
+            for (PropertyValueMember member : members()) {
+                value.append(member);
+            }
+            block.fontDescriptors().append(descriptor);
+        }
+        return block;
+    }
+
+    private Selector selector() {
+        int tag = u8();
+        header();
+
+        if (tag == SELECTOR_RAW) {
+            return apply(new Selector(new RawSyntax(line, column, string())));
+        } else if (tag != SELECTOR) {
+            throw corrupt(tag);
+        }
+
+        Selector selector = apply(new Selector(line, column, Collections.emptyList()));
+        for (int i = varint(); i > 0; i--) {
+            selector.parts().append(selectorPart());
+        }
+        return selector;
+    }
+
+    private SelectorPart selectorPart() {
+        int tag = u8();
+        header();
+
+        switch (tag) {
+        case CLASS_SELECTOR:
+            return apply(new ClassSelector(line, column, string()));
+        case ID_SELECTOR:
+            return apply(new IdSelector(line, column, string()));
+        case TYPE_SELECTOR:
+            return apply(new TypeSelector(line, column, string()));
+        case UNIVERSAL_SELECTOR:
+            return apply(new UniversalSelector(line, column));
+        case ATTRIBUTE_SELECTOR:
+            AttributeSelector attribute = apply(new AttributeSelector(line, column, string()));
+            AttributeMatchType matchType = optional(MATCH_TYPES);
+            String value = optionalString();
+            if (matchType != null) {
+                attribute.match(matchType, value);
+            }
+            return attribute;
+        case PSEUDO_CLASS_SELECTOR:
+            return apply(new PseudoClassSelector(line, column, string(), optionalString()));
+        case PSEUDO_ELEMENT_SELECTOR:
+            return apply(new PseudoElementSelector(line, column, string()));
+        case COMBINATOR:
+            return apply(new Combinator(line, column, combinatorType(PART_TYPES[u8()])));
+        case KEYFRAME_SELECTOR:
+            return apply(new KeyframeSelector(line, column, string()));
+        default:
+            throw corrupt(tag);
+        }
+    }
+
+    private CombinatorType combinatorType(SelectorPartType type) {
+        switch (type) {
+        case DESCENDANT_COMBINATOR:
+            return CombinatorType.DESCENDANT;
+        case CHILD_COMBINATOR:
+            return CombinatorType.CHILD;
+        case ADJACENT_SIBLING_COMBINATOR:
+            return CombinatorType.ADJACENT_SIBLING;
+        case GENERAL_SIBLING_COMBINATOR:
+            return CombinatorType.GENERAL_SIBLING;
+        default:
+            throw new IllegalArgumentException(Message.fmt(Message.BINARY_UNKNOWN_TAG, type.ordinal(), position - 1));
+        }
+    }
+
+    private Declaration declaration() {
+        int tag = u8();
+        header();
+
+        if (tag == DECLARATION_RAW) {
+            RawSyntax name = new RawSyntax(line, column, string());
+            RawSyntax value = new RawSyntax(line, column, string());
+            return apply(new Declaration(name, value));
+        } else if (tag != DECLARATION) {
+            throw corrupt(tag);
+        }
+
+        PropertyValue value = new PropertyValue(line, column).important((flags & IMPORTANT) != 0);
+        Declaration declaration = apply(new Declaration(line, column, PropertyName.of(line, column, string()), value));
+        for (PropertyValueMember member : members()) {
+            value.append(member);
+        }
+        return declaration;
+    }
+
+    private List<PropertyValueMember> members() {
+        int count = varint();
+        List<PropertyValueMember> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            members.add(member());
+        }
+        return members;
+    }
+
+    private PropertyValueMember member() {
+        int tag = u8();
+        header();
+
+        switch (tag) {
+        case KEYWORD:
+            return apply(new KeywordValue(line, column, string()));
+        case NUMBER:
+            NumericalValue number = apply(new NumericalValue(line, column, string()));
+            String unit = optionalString();
+            NumericalValue.Sign sign = optional(SIGNS);
+            if (unit != null) number.unit(unit);
+            if (sign != null) number.explicitSign(sign);
+            return number;
+        case HEX_COLOR:
+            return apply(new HexColorValue(line, column, string()));
+        case STRING:
+            QuotationMode mode = QUOTATION_MODES[u8()];
+            return apply(new StringValue(line, column, mode, string()));
+        case URL:
+            UrlFunctionValue url = apply(new UrlFunctionValue(line, column, string()));
+            QuotationMode quotationMode = optional(QUOTATION_MODES);
+            if (quotationMode != null) url.quotationMode(quotationMode);
+            return url;
+        case FUNCTION:
+            return apply(new GenericFunctionValue(line, column, string(), string()));
+        case LINEAR_GRADIENT:
+            LinearGradientFunctionValue gradient = apply(new LinearGradientFunctionValue(line, column, string()));
+            gradient.repeating((flags & REPEATING) != 0);
+            Prefix prefix = optional(PREFIXES);
+            if (prefix != null) gradient.prefix(prefix);
+            return gradient;
+        case UNICODE_RANGE:
+            return apply(new UnicodeRangeValue(line, column, string()));
+        case OPERATOR:
+            return apply(new Operator(line, column, OPERATOR_TYPES[u8()]));
+        default:
+            throw corrupt(tag);
+        }
+    }
+
+    /** reads the tag and common start of a node record that must be of the given type */
+    private void expect(int expected) {
+        int tag = u8();
+        if (tag != expected) {
+            throw corrupt(tag);
+        }
+        header();
+    }
+
+    /** reads the common start of a node record, following the tag */
+    private void header() {
+        flags = u8();
+        line = varint() - 1;
+        column = varint() - 1;
+        comments = (flags & HAS_COMMENTS) != 0 ? strings() : null;
+        orphanedComments = (flags & HAS_ORPHANED_COMMENTS) != 0 ? strings() : null;
+    }
+
+    /** adds the comments from the last read header to the given unit */
+    private <T extends Syntax> T apply(T unit) {
+        if (comments != null) unit.comments(comments);
+        if (orphanedComments != null) unit.orphanedComments(orphanedComments);
+        return unit;
+    }
+
+    private List<String> strings() {
+        int count = varint();
+        List<String> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(string());
+        }
+        return list;
+    }
+
+    private String string() {
+        return string(varint());
+    }
+
+    private String optionalString() {
+        int index = varint();
+        return index == 0 ? null : string(index - 1);
+    }
+
+    private String string(int index) {
+        String string = strings[index];
+        if (string == null) {
+            int saved = position;
+            position = stringOffsets[index];
+            int length = varint();
+            string = new String(data, position, length, StandardCharsets.UTF_8);
+            strings[index] = string;
+            position = saved;
+        }
+        return string;
+    }
+
+    private <E extends Enum<E>> E optional(E[] values) {
+        int ordinal = u8();
+        return ordinal == 0 ? null : values[ordinal - 1];
+    }
+
+    private int u8() {
+        if (position >= data.length) {
+            throw new IllegalArgumentException(Message.BINARY_TRUNCATED);
+        }
+        return data[position++] & 0xFF;
+    }
+
+    private int varint() {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = u8();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private void skip(int length) {
+        if (length < 0 || position + length > data.length) {
+            throw new IllegalArgumentException(Message.BINARY_TRUNCATED);
+        }
+        position += length;
+    }
+
+    private IllegalArgumentException corrupt(int tag) {
+        return new IllegalArgumentException(Message.fmt(Message.BINARY_UNKNOWN_TAG, tag, position - 1));
+    }
+}
@@ -0,0 +1,541 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.binary;
+
+import static com.salesforce.omakase.binary.BinaryFormat.ATTRIBUTE_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.AT_RULE;
+import static com.salesforce.omakase.binary.BinaryFormat.AT_RULE_RAW;
+import static com.salesforce.omakase.binary.BinaryFormat.CLASS_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.COMBINATOR;
+import static com.salesforce.omakase.binary.BinaryFormat.DECLARATION;
+import static com.salesforce.omakase.binary.BinaryFormat.DECLARATION_RAW;
+import static com.salesforce.omakase.binary.BinaryFormat.FONT_DESCRIPTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.FONT_FACE_BLOCK;
+import static com.salesforce.omakase.binary.BinaryFormat.FUNCTION;
+import static com.salesforce.omakase.binary.BinaryFormat.GENERIC_EXPRESSION;
+import static com.salesforce.omakase.binary.BinaryFormat.HAS_BLOCK;
+import static com.salesforce.omakase.binary.BinaryFormat.HAS_COMMENTS;
+import static com.salesforce.omakase.binary.BinaryFormat.HAS_EXPRESSION;
+import static com.salesforce.omakase.binary.BinaryFormat.HAS_ORPHANED_COMMENTS;
+import static com.salesforce.omakase.binary.BinaryFormat.HEX_COLOR;
+import static com.salesforce.omakase.binary.BinaryFormat.ID_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.IMPORTANT;
+import static com.salesforce.omakase.binary.BinaryFormat.KEYFRAME_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.KEYWORD;
+import static com.salesforce.omakase.binary.BinaryFormat.LINEAR_GRADIENT;
+import static com.salesforce.omakase.binary.BinaryFormat.MAGIC;
+import static com.salesforce.omakase.binary.BinaryFormat.MEDIA_QUERY;
+import static com.salesforce.omakase.binary.BinaryFormat.MEDIA_QUERY_EXPRESSION;
+import static com.salesforce.omakase.binary.BinaryFormat.MEDIA_QUERY_LIST;
+import static com.salesforce.omakase.binary.BinaryFormat.NUMBER;
+import static com.salesforce.omakase.binary.BinaryFormat.OPERATOR;
+import static com.salesforce.omakase.binary.BinaryFormat.PSEUDO_CLASS_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.PSEUDO_ELEMENT_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.REPEATING;
+import static com.salesforce.omakase.binary.BinaryFormat.RULE;
+import static com.salesforce.omakase.binary.BinaryFormat.SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.SELECTOR_RAW;
+import static com.salesforce.omakase.binary.BinaryFormat.STATEMENT_BLOCK;
+import static com.salesforce.omakase.binary.BinaryFormat.STRING;
+import static com.salesforce.omakase.binary.BinaryFormat.TYPE_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.UNICODE_RANGE;
+import static com.salesforce.omakase.binary.BinaryFormat.UNIVERSAL_SELECTOR;
+import static com.salesforce.omakase.binary.BinaryFormat.URL;
+import static com.salesforce.omakase.binary.BinaryFormat.VERSION;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.salesforce.omakase.Message;
+import com.salesforce.omakase.ast.Comment;
+import com.salesforce.omakase.ast.RawSyntax;
+import com.salesforce.omakase.ast.Rule;
+import com.salesforce.omakase.ast.Statement;
+import com.salesforce.omakase.ast.Stylesheet;
+import com.salesforce.omakase.ast.Syntax;
+import com.salesforce.omakase.ast.atrule.AtRule;
+import com.salesforce.omakase.ast.atrule.AtRuleBlock;
+import com.salesforce.omakase.ast.atrule.AtRuleExpression;
+import com.salesforce.omakase.ast.atrule.FontDescriptor;
+import com.salesforce.omakase.ast.atrule.FontFaceBlock;
+import com.salesforce.omakase.ast.atrule.GenericAtRuleBlock;
+import com.salesforce.omakase.ast.atrule.GenericAtRuleExpression;
+import com.salesforce.omakase.ast.atrule.MediaQuery;
+import com.salesforce.omakase.ast.atrule.MediaQueryExpression;
+import com.salesforce.omakase.ast.atrule.MediaQueryList;
+import com.salesforce.omakase.ast.declaration.Declaration;
+import com.salesforce.omakase.ast.declaration.GenericFunctionValue;
+import com.salesforce.omakase.ast.declaration.HexColorValue;
+import com.salesforce.omakase.ast.declaration.KeywordValue;
+import com.salesforce.omakase.ast.declaration.LinearGradientFunctionValue;
+import com.salesforce.omakase.ast.declaration.NumericalValue;
+import com.salesforce.omakase.ast.declaration.Operator;
+import com.salesforce.omakase.ast.declaration.PropertyName;
+import com.salesforce.omakase.ast.declaration.PropertyValue;
+import com.salesforce.omakase.ast.declaration.PropertyValueMember;
+import com.salesforce.omakase.ast.declaration.StringValue;
+import com.salesforce.omakase.ast.declaration.UnicodeRangeValue;
+import com.salesforce.omakase.ast.declaration.UrlFunctionValue;
+import com.salesforce.omakase.ast.selector.AttributeSelector;
+import com.salesforce.omakase.ast.selector.ClassSelector;
+import com.salesforce.omakase.ast.selector.Combinator;
+import com.salesforce.omakase.ast.selector.IdSelector;
+import com.salesforce.omakase.ast.selector.KeyframeSelector;
+import com.salesforce.omakase.ast.selector.PseudoClassSelector;
+import com.salesforce.omakase.ast.selector.PseudoElementSelector;
+import com.salesforce.omakase.ast.selector.Selector;
+import com.salesforce.omakase.ast.selector.SelectorPart;
+import com.salesforce.omakase.ast.selector.TypeSelector;
+import com.salesforce.omakase.ast.selector.UniversalSelector;
+import com.salesforce.omakase.writer.StyleWriter;
+
+/**
+ * Writes a {@link Stylesheet} in the precompiled binary format (see {@link BinaryFormat}).
+ * <p>
+ * Refined units are stored in their refined form. Unrefined units are stored as their raw content, and so are refined units of a
+ * type the format doesn't cover (using the written CSS of the unit). Either way these units remain refinable after loading.
+ * <p>
+ * Not thread-safe. Use a new instance for each stylesheet.
+ *
+ * @author nmcwilliams
+ */
+final class BinaryEncoder {
+    private final StyleWriter writer = StyleWriter.inline();
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+    /**
+     * Encodes the given {@link Stylesheet}.
+     *
+     * @param stylesheet
+     *     The stylesheet to encode.
+     *
+     * @return The encoded bytes.
+     */
+    byte[] encode(Stylesheet stylesheet) {
+        // statements are encoded first so that the string table is complete before it's written
+        List<byte[]> statements = new ArrayList<>();
+        for (Statement statement : stylesheet.statements()) {
+            if (include(statement)) {
+                out.reset();
+                statement(statement);
+                statements.add(out.toByteArray());
+            }
+        }
+
+        out.reset();
+        flags(0, stylesheet);
+        comments(stylesheet);
+        byte[] stylesheetComments = out.toByteArray();
+
+        out.reset();
+        out.write(MAGIC, 0, MAGIC.length);
+        out.write(VERSION);
+
+        varint(strings.size());
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        out.write(stylesheetComments, 0, stylesheetComments.length);
+
+        varint(statements.size());
+        for (byte[] statement : statements) {
+            varint(statement.length);
+            out.write(statement, 0, statement.length);
+        }
+
+        return out.toByteArray();
+    }
+
+    /** metadata at-rules are never written, so they aren't stored either */
+    private static boolean include(Statement statement) {
+        return !(statement instanceof AtRule) || ((AtRule)statement).shouldWriteName();
+    }
+
+    private void statement(Statement statement) {
+        if (statement instanceof Rule) {
+            rule((Rule)statement);
+        } else if (statement instanceof AtRule) {
+            atRule((AtRule)statement);
+        } else {
+            throw new IllegalArgumentException(Message.fmt(Message.BINARY_UNSUPPORTED, statement.getClass()));
+        }
+    }
+
+    private void rule(Rule rule) {
+        node(RULE, 0, rule);
+
+        varint(rule.selectors().size());
+        for (Selector selector : rule.selectors()) {
+            selector(selector);
+        }
+
+        varint(rule.declarations().size());
+        for (Declaration declaration : rule.declarations()) {
+            declaration(declaration);
+        }
+    }
+
+    private void atRule(AtRule atRule) {
+        AtRuleExpression expression = atRule.expression().orElse(null);
+        AtRuleBlock block = atRule.block().orElse(null);
+
+        if (atRule.isRefined() && isSupported(expression) && isSupported(block)) {
+            node(AT_RULE, (expression != null ? HAS_EXPRESSION : 0) | (block != null ? HAS_BLOCK : 0), atRule);
+            string(atRule.name());
+            if (expression != null) {
+                expression(expression);
+            }
+            if (block != null) {
+                block(block);
+            }
+            return;
+        }
+
+        // the original source is preferred, otherwise the refined content is stored as written
+        String expressionText = atRule.rawExpression().map(RawSyntax::content).orElse(null);
+        String blockText = atRule.rawBlock().map(RawSyntax::content).orElse(null);
+
+        if (atRule.isRefined() && expressionText == null && blockText == null) {
+            if (expression != null) {
+                expressionText = writer.writeSingle(expression);
+            }
+            if (block != null) {
+                blockText = unwrap(writer.writeSingle(block));
+            }
+        }
+
+        node(AT_RULE_RAW, (expressionText != null ? HAS_EXPRESSION : 0) | (blockText != null ? HAS_BLOCK : 0), atRule);
+        string(atRule.name());
+        if (expressionText != null) {
+            string(expressionText);
+        }
+        if (blockText != null) {
+            string(blockText);
+        }
+    }
+
+    private static boolean isSupported(AtRuleExpression expression) {
+        if (expression == null || expression instanceof GenericAtRuleExpression) return true;
+        if (!(expression instanceof MediaQueryList)) return false;
+
+        for (MediaQuery query : ((MediaQueryList)expression).queries()) {
+            for (MediaQueryExpression queryExpression : query.expressions()) {
+                if (!queryExpression.terms().stream().allMatch(BinaryEncoder::isSupported)) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSupported(AtRuleBlock block) {
+        if (block == null || block instanceof GenericAtRuleBlock) return true;
+        if (!(block instanceof FontFaceBlock)) return false;
+
+        return ((FontFaceBlock)block).fontDescriptors().stream()
+            .allMatch(descriptor -> descriptor.propertyValue().members().stream().allMatch(BinaryEncoder::isSupported));
+    }
+
+    private void expression(AtRuleExpression expression) {
+        if (expression instanceof GenericAtRuleExpression) {
+            node(GENERIC_EXPRESSION, 0, expression);
+            string(((GenericAtRuleExpression)expression).expression());
+            return;
+        }
+
+        MediaQueryList list = (MediaQueryList)expression;
+        node(MEDIA_QUERY_LIST, 0, list);
+        varint(list.queries().size());
+        for (MediaQuery query : list.queries()) {
+            node(MEDIA_QUERY, 0, query);
+            optionalOrdinal(query.restriction().orElse(null));
+            optionalString(query.type().orElse(null));
+            varint(query.expressions().size());
+            for (MediaQueryExpression queryExpression : query.expressions()) {
+                node(MEDIA_QUERY_EXPRESSION, 0, queryExpression);
+                string(queryExpression.feature());
+                members(queryExpression.terms().size(), queryExpression.terms());
+            }
+        }
+    }
+
+    private void block(AtRuleBlock block) {
+        if (block instanceof GenericAtRuleBlock) {
+            // nested statements (e.g., inside media queries) are stored as nodes so that they are loaded refined too
+            List<Statement> statements = new ArrayList<>();
+            for (Statement statement : block) {
+                if (include(statement)) {
+                    statements.add(statement);
+                }
+            }
+
+            node(STATEMENT_BLOCK, 0, block);
+            varint(statements.size());
+            for (Statement statement : statements) {
+                statement(statement);
+            }
+            return;
+        }
+
+        FontFaceBlock fontFace = (FontFaceBlock)block;
+        node(FONT_FACE_BLOCK, 0, fontFace);
+        varint(fontFace.fontDescriptors().size());
+        for (FontDescriptor descriptor : fontFace.fontDescriptors()) {
+            PropertyValue value = descriptor.propertyValue();
+            node(FONT_DESCRIPTOR, value.isImportant() ? IMPORTANT : 0, descriptor);
+            string(descriptor.propertyName().name());
+            members(value.members().size(), value.members());
+        }
+    }
+
+    /** removes the outer braces from a written block */
+    private static String unwrap(String block) {
+        String trimmed = block.trim();
+        if (trimmed.length() >= 2 && trimmed.charAt(0) == '{' && trimmed.charAt(trimmed.length() - 1) == '}') {
+            return trimmed.substring(1, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+
+    private void selector(Selector selector) {
+        if (!selector.isRefined()) {
+            node(SELECTOR_RAW, 0, selector);
+            string(selector.raw().get().content());
+        } else if (selector.parts().stream().allMatch(BinaryEncoder::isSupported)) {
+            node(SELECTOR, 0, selector);
+            varint(selector.parts().size());
+            for (SelectorPart part : selector.parts()) {
+                selectorPart(part);
+            }
+        } else {
+            node(SELECTOR_RAW, 0, selector);
+            string(writer.writeSingle(selector));
+        }
+    }
+
+    private static boolean isSupported(SelectorPart part) {
+        return part instanceof ClassSelector
+            || part instanceof IdSelector
+            || part instanceof TypeSelector
+            || part instanceof UniversalSelector
+            || part instanceof AttributeSelector
+            || part instanceof PseudoClassSelector
+            || part instanceof PseudoElementSelector
+            || part instanceof Combinator
+            || part instanceof KeyframeSelector;
+    }
+
+    private void selectorPart(SelectorPart part) {
+        if (part instanceof ClassSelector) {
+            node(CLASS_SELECTOR, 0, part);
+            string(((ClassSelector)part).name());
+        } else if (part instanceof IdSelector) {
+            node(ID_SELECTOR, 0, part);
+            string(((IdSelector)part).name());
+        } else if (part instanceof TypeSelector) {
+            node(TYPE_SELECTOR, 0, part);
+            string(((TypeSelector)part).name());
+        } else if (part instanceof UniversalSelector) {
+            node(UNIVERSAL_SELECTOR, 0, part);
+        } else if (part instanceof AttributeSelector) {
+            AttributeSelector attribute = (AttributeSelector)part;
+            node(ATTRIBUTE_SELECTOR, 0, part);
+            string(attribute.attribute());
+            optionalOrdinal(attribute.matchType().orElse(null));
+            optionalString(attribute.value().orElse(null));
+        } else if (part instanceof PseudoClassSelector) {
+            PseudoClassSelector pseudo = (PseudoClassSelector)part;
+            node(PSEUDO_CLASS_SELECTOR, 0, part);
+            string(pseudo.name());
+            optionalString(pseudo.args().orElse(null));
+        } else if (part instanceof PseudoElementSelector) {
+            node(PSEUDO_ELEMENT_SELECTOR, 0, part);
+            string(((PseudoElementSelector)part).name());
+        } else if (part instanceof Combinator) {
+            // the combinator type is only exposed as a selector part type
+            node(COMBINATOR, 0, part);
+            out.write(part.type().ordinal());
+        } else {
+            node(KEYFRAME_SELECTOR, 0, part);
+            string(((KeyframeSelector)part).keyframe());
+        }
+    }
+
+    private void declaration(Declaration declaration) {
+        if (!declaration.isRefined()) {
+            node(DECLARATION_RAW, 0, declaration);
+            string(declaration.rawPropertyName().get().content());
+            string(declaration.rawPropertyValue().get().content());
+            return;
+        }
+
+        PropertyName name = declaration.propertyName();
+        PropertyValue value = declaration.propertyValue();
+        String fullName = name.hasStarHack() ? "*" + name.name() : name.name();
+
+        if (!value.members().stream().allMatch(BinaryEncoder::isSupported)) {
+            node(DECLARATION_RAW, 0, declaration);
+            string(fullName);
+            string(writer.writeSingle(value));
+            return;
+        }
+
+        node(DECLARATION, value.isImportant() ? IMPORTANT : 0, declaration);
+        string(fullName);
+        members(value.members().size(), value.members());
+    }
+
+    private static boolean isSupported(PropertyValueMember member) {
+        return member instanceof KeywordValue
+            || member instanceof NumericalValue
+            || member instanceof HexColorValue
+            || member instanceof StringValue
+            || member instanceof UrlFunctionValue
+            || member instanceof GenericFunctionValue
+            || member instanceof LinearGradientFunctionValue
+            || member instanceof UnicodeRangeValue
+            || member instanceof Operator;
+    }
+
+    private void members(int count, Iterable<PropertyValueMember> members) {
+        varint(count);
+        for (PropertyValueMember member : members) {
+            member(member);
+        }
+    }
+
+    private void member(PropertyValueMember member) {
+        if (member instanceof KeywordValue) {
+            node(KEYWORD, 0, member);
+            string(((KeywordValue)member).keyword());
+        } else if (member instanceof NumericalValue) {
+            NumericalValue number = (NumericalValue)member;
+            node(NUMBER, 0, member);
+            string(number.value());
+            optionalString(number.unit().orElse(null));
+            optionalOrdinal(number.explicitSign().orElse(null));
+        } else if (member instanceof HexColorValue) {
+            node(HEX_COLOR, 0, member);
+            string(((HexColorValue)member).color());
+        } else if (member instanceof StringValue) {
+            StringValue string = (StringValue)member;
+            node(STRING, 0, member);
+            out.write(string.mode().ordinal());
+            string(string.content());
+        } else if (member instanceof UrlFunctionValue) {
+            UrlFunctionValue url = (UrlFunctionValue)member;
+            node(URL, 0, member);
+            string(url.url());
+            optionalOrdinal(url.quotationMode().orElse(null));
+        } else if (member instanceof GenericFunctionValue) {
+            GenericFunctionValue function = (GenericFunctionValue)member;
+            node(FUNCTION, 0, member);
+            string(function.name());
+            string(function.args());
+        } else if (member instanceof LinearGradientFunctionValue) {
+            LinearGradientFunctionValue gradient = (LinearGradientFunctionValue)member;
+            node(LINEAR_GRADIENT, gradient.repeating() ? REPEATING : 0, member);
+            string(gradient.args());
+            optionalOrdinal(gradient.prefix().orElse(null));
+        } else if (member instanceof UnicodeRangeValue) {
+            node(UNICODE_RANGE, 0, member);
+            string(((UnicodeRangeValue)member).value());
+        } else {
+            node(OPERATOR, 0, member);
+            out.write(((Operator)member).type().ordinal());
+        }
+    }
+
+    /** writes the common start of a node record */
+    private void node(int tag, int flags, Syntax unit) {
+        out.write(tag);
+        flags(flags, unit);
+        varint(unit.line() + 1);
+        varint(unit.column() + 1);
+        comments(unit);
+    }
+
+    /** writes the flags byte, adding the flags for any comments */
+    private void flags(int flags, Syntax unit) {
+        if (!unit.comments().isEmpty()) flags |= HAS_COMMENTS;
+        if (!unit.orphanedComments().isEmpty()) flags |= HAS_ORPHANED_COMMENTS;
+        out.write(flags);
+    }
+
+    /** writes the comments and orphaned comments, if present */
+    private void comments(Syntax unit) {
+        commentList(unit.comments());
+        commentList(unit.orphanedComments());
+    }
+
+    private void commentList(List<Comment> comments) {
+        if (!comments.isEmpty()) {
+            varint(comments.size());
+            for (Comment comment : comments) {
+                string(comment.content());
+            }
+        }
+    }
+
+    private void string(String string) {
+        varint(index(string));
+    }
+
+    private void optionalString(String string) {
+        varint(string == null ? 0 : index(string) + 1);
+    }
+
+    private void optionalOrdinal(Enum<?> value) {
+        out.write(value == null ? 0 : value.ordinal() + 1);
+    }
+
+    /** gets the string table index of the given string, adding it to the table if necessary */
+    private int index(String string) {
+        Integer index = indexes.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.add(string);
+            indexes.put(string, index);
+        }
+        return index;
+    }
+
+    private void varint(int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
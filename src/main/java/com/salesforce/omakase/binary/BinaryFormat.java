@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.binary;
+
+/**
+ * Constants describing the precompiled stylesheet format.
+ * <p>
+ * Layout (all integers are unsigned LEB128 varints unless noted):
+ * <pre>
+ * header      magic bytes "OMKB", version (1 byte)
+ * strings     count, then for each string its UTF-8 byte length followed by the bytes
+ * stylesheet  flags byte, then the comments and orphaned comments of the stylesheet when the flags say so
+ * statements  count, then for each statement its byte length followed by its node record
+ * </pre>
+ * Each node record starts with a tag byte, a flags byte, the line and column (each stored plus one so that -1 fits), and then
+ * the comments and orphaned comments when the corresponding flags are set (each a count followed by strings). Strings are
+ * referenced by their index in the string table. Optional strings and enums are stored as the index/ordinal plus one, with zero
+ * meaning absent.
+ * <p>
+ * Bump {@link #VERSION} whenever the layout changes. Loading a different version fails rather than misreading the data.
+ *
+ * @author nmcwilliams
+ */
+final class BinaryFormat {
+    static final byte[] MAGIC = {'O', 'M', 'K', 'B'};
+    static final int VERSION = 1;
+
+    /* statements */
+    static final int RULE = 1;
+    static final int AT_RULE_RAW = 2;
+    static final int AT_RULE = 3;
+
+    /* at-rule expressions and blocks */
+    static final int GENERIC_EXPRESSION = 30;
+    static final int MEDIA_QUERY_LIST = 31;
+    static final int MEDIA_QUERY = 32;
+    static final int MEDIA_QUERY_EXPRESSION = 33;
+    static final int STATEMENT_BLOCK = 34;
+    static final int FONT_FACE_BLOCK = 35;
+    static final int FONT_DESCRIPTOR = 36;
+
+    /* selectors */
+    static final int SELECTOR_RAW = 10;
+    static final int SELECTOR = 11;
+
+    /* selector parts */
+    static final int CLASS_SELECTOR = 20;
+    static final int ID_SELECTOR = 21;
+    static final int TYPE_SELECTOR = 22;
+    static final int UNIVERSAL_SELECTOR = 23;
+    static final int ATTRIBUTE_SELECTOR = 24;
+    static final int PSEUDO_CLASS_SELECTOR = 25;
+    static final int PSEUDO_ELEMENT_SELECTOR = 26;
+    static final int COMBINATOR = 27;
+    static final int KEYFRAME_SELECTOR = 28;
+
+    /* declarations */
+    static final int DECLARATION_RAW = 40;
+    static final int DECLARATION = 41;
+
+    /* property value members */
+    static final int KEYWORD = 50;
+    static final int NUMBER = 51;
+    static final int HEX_COLOR = 52;
+    static final int STRING = 53;
+    static final int URL = 54;
+    static final int FUNCTION = 55;
+    static final int LINEAR_GRADIENT = 56;
+    static final int UNICODE_RANGE = 57;
+    static final int OPERATOR = 58;
+
+    /* flags common to all nodes */
+    static final int HAS_COMMENTS = 1;
+    static final int HAS_ORPHANED_COMMENTS = 1 << 1;
+
+    /* node specific flags */
+    static final int IMPORTANT = 1 << 2;
+    static final int REPEATING = 1 << 2;
+    static final int HAS_EXPRESSION = 1 << 2;
+    static final int HAS_BLOCK = 1 << 3;
+
+    private BinaryFormat() {}
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.binary;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.salesforce.omakase.ast.Stylesheet;
+import com.salesforce.omakase.ast.flat.FlatNode;
+import com.salesforce.omakase.ast.flat.FlatStylesheet;
+import com.salesforce.omakase.writer.StyleWriter;
+import com.salesforce.omakase.writer.WriterMode;
+
+/**
+ * An immutable snapshot of a {@link Stylesheet} that can be safely shared between threads.
+ * <p>
+ * A regular {@link Stylesheet} is freely mutable and not safe to share once processing has completed, which means concurrent
+ * requests either have to parse the source again or hold a lock while writing. Freezing stores the stylesheet in the precompiled
+ * binary format (see {@link PrecompiledStylesheet}) and writes the output for each {@link WriterMode} up front, so there is no
+ * lazy state left to resolve and nothing that can be changed afterwards. The frozen instance can then be written or queried by
+ * any number of threads at the same time:
+ * <pre><code>
+ * SyntaxTree tree = new SyntaxTree();
+ * Omakase.source(css).use(AutoRefine.everything()).use(tree).process();
+ * FrozenStylesheet frozen = FrozenStylesheet.freeze(tree.stylesheet());
+ *
+ * // on any thread
+ * String css = frozen.write(WriterMode.COMPRESSED);
+ * </code></pre>
+ * Requests that need to make changes use {@link #fork()} to get their own mutable working copy. Forking reads the shared binary
+ * data instead of parsing and refining the source again, and each top-level statement is only constructed the first time it's
+ * accessed. Changes to a fork are never visible to the frozen stylesheet or to other forks.
+ * <p>
+ * Freezing takes a snapshot, so the given stylesheet can continue to be used (and changed) without affecting the frozen instance.
+ * As with {@link PrecompiledStylesheet}, the stylesheet should be fully refined first for best results.
+ *
+ * @author nmcwilliams
+ */
+public final class FrozenStylesheet {
+    private final byte[] data;
+    private final int size;
+    private final Map<WriterMode, String> output = new EnumMap<>(WriterMode.class);
+    private volatile FlatStylesheet flat;
+
+    private FrozenStylesheet(Stylesheet stylesheet) {
+        this.data = new BinaryEncoder().encode(stylesheet);
+
+        // write from the stored data so that the output always matches the forks
+        PrecompiledStylesheet snapshot = PrecompiledStylesheet.load(data);
+        this.size = snapshot.size();
+        for (WriterMode mode : WriterMode.values()) {
+            output.put(mode, new StyleWriter(mode).writeSingle(snapshot.stylesheet()));
+        }
+    }
+
+    /**
+     * Freezes the given {@link Stylesheet}.
+     *
+     * @param stylesheet
+     *     The stylesheet to freeze.
+     *
+     * @return The frozen stylesheet.
+     */
+    public static FrozenStylesheet freeze(Stylesheet stylesheet) {
+        checkNotNull(stylesheet, "stylesheet cannot be null");
+        return new FrozenStylesheet(stylesheet);
+    }
+
+    /**
+     * Gets the number of top-level statements.
+     *
+     * @return The number of statements.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the CSS output for the given {@link WriterMode}. The output is written once when freezing, so this is only a lookup.
+     * <p>
+     * The output is written with the default {@link StyleWriter} settings. Use {@link #write(StyleWriter)} for other settings.
+     *
+     * @param mode
+     *     The output mode.
+     *
+     * @return The CSS output.
+     */
+    public String write(WriterMode mode) {
+        checkNotNull(mode, "mode cannot be null");
+        return output.get(mode);
+    }
+
+    /**
+     * Appends the CSS output for the given {@link WriterMode} to the given {@link Appendable}.
+     *
+     * @param mode
+     *     The output mode.
+     * @param appendable
+     *     Append the output to this.
+     *
+     * @throws IOException
+     *     If thrown by the appendable.
+     */
+    public void write(WriterMode mode, Appendable appendable) throws IOException {
+        checkNotNull(appendable, "appendable cannot be null");
+        appendable.append(write(mode));
+    }
+
+    /**
+     * Writes the CSS output using the given {@link StyleWriter}, e.g., one that has custom writers or writes comments.
+     * <p>
+     * This writes a new fork each time, so it's slower than {@link #write(WriterMode)}. The given writer is not thread-safe, so
+     * it must not be shared between threads.
+     *
+     * @param writer
+     *     The writer to use.
+     *
+     * @return The CSS output.
+     */
+    public String write(StyleWriter writer) {
+        checkNotNull(writer, "writer cannot be null");
+        return writer.writeSingle(fork().stylesheet());
+    }
+
+    /**
+     * Gets a read-only {@link FlatStylesheet} view for querying the rules, selectors, declarations and at-rules.
+     * <p>
+     * The view is created on first use and the same instance is returned afterwards. It's built from the verbose output, so
+     * comments are not included.
+     * <p>
+     * For the same reason, the positions of the nodes ({@link FlatNode#line()}, {@link FlatNode#column()}, {@link
+     * FlatNode#start()} and {@link FlatNode#end()}) refer to the text returned by {@link #write(WriterMode)} with {@link
+     * WriterMode#VERBOSE}, not to the source that the stylesheet was originally parsed from. Use {@link #fork()} for the original
+     * line and column numbers.
+     *
+     * @return The flat view.
+     */
+    public FlatStylesheet flat() {
+        // FlatStylesheet is immutable, so at worst a few threads each build one the first time
+        FlatStylesheet result = flat;
+        if (result == null) {
+            result = FlatStylesheet.parse(output.get(WriterMode.VERBOSE));
+            flat = result;
+        }
+        return result;
+    }
+
+    /**
+     * Creates a new mutable working copy of the stylesheet.
+     * <p>
+     * The fork shares the frozen binary data, and only constructs each top-level statement the first time it's accessed, either
+     * individually with {@link PrecompiledStylesheet#statement(int)} or all together with {@link
+     * PrecompiledStylesheet#stylesheet()}. The fork belongs to the caller and is not thread-safe.
+     *
+     * @return The working copy.
+     */
+    public PrecompiledStylesheet fork() {
+        return PrecompiledStylesheet.load(data);
+    }
+
+    /**
+     * Gets a copy of the binary data. This can be stored and later loaded with {@link PrecompiledStylesheet#load(byte[])}.
+     *
+     * @return The binary data.
+     */
+    public byte[] toByteArray() {
+        return data.clone();
+    }
+}
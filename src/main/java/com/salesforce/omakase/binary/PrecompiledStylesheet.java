@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.binary;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.salesforce.omakase.ast.Statement;
+import com.salesforce.omakase.ast.Stylesheet;
+
+/**
+ * A stylesheet that was parsed and refined ahead of time (e.g., as part of a build) and stored in a compact binary form.
+ * <p>
+ * Loading a precompiled stylesheet skips scanning the source and refinement entirely. Syntax units are constructed directly from
+ * the stored records, and each top-level statement (with everything inside of it) is only constructed the first time it's
+ * requested.
+ * <p>
+ * Example build step:
+ * <pre><code>
+ * SyntaxTree tree = new SyntaxTree();
+ * Omakase.source(css).use(AutoRefine.everything()).use(tree).process();
+ * byte[] bytes = PrecompiledStylesheet.compile(tree.stylesheet());
+ * </code></pre>
+ * Example runtime usage:
+ * <pre><code>
+ * Stylesheet stylesheet = PrecompiledStylesheet.load(bytes).stylesheet();
+ * String css = StyleWriter.compressed().writeSingle(stylesheet);
+ * </code></pre>
+ * Refined units are stored in their refined form. This covers rules, selectors, declarations and their standard terms, media
+ * queries, font-face blocks and at-rules containing statements. Unrefined units are stored as raw content and stay unrefined
+ * after loading. At-rules with other kinds of refined content (e.g., conditionals) are stored as raw at-rules, using the original
+ * source.
+ * <p>
+ * The binary format is versioned. Data written by a different version of the format is rejected when loading, in which case the
+ * stylesheet must be compiled again.
+ * <p>
+ * Instances are not thread-safe.
+ *
+ * @author nmcwilliams
+ */
+public final class PrecompiledStylesheet {
+    private final BinaryDecoder decoder;
+    private final Statement[] statements;
+    private Stylesheet stylesheet;
+
+    private PrecompiledStylesheet(byte[] data) {
+        this.decoder = new BinaryDecoder(data);
+        this.statements = new Statement[decoder.statementCount()];
+    }
+
+    /**
+     * Compiles the given {@link Stylesheet} into the binary format.
+     * <p>
+     * For best results the stylesheet should be fully refined, e.g., by using {@link
+     * com.salesforce.omakase.plugin.core.AutoRefine#everything()} when parsing.
+     *
+     * @param stylesheet
+     *     The stylesheet to compile.
+     *
+     * @return The compiled bytes.
+     */
+    public static byte[] compile(Stylesheet stylesheet) {
+        checkNotNull(stylesheet, "stylesheet cannot be null");
+        return new BinaryEncoder().encode(stylesheet);
+    }
+
+    /**
+     * Loads a stylesheet previously compiled with {@link #compile(Stylesheet)}.
+     * <p>
+     * Only the header and indexes are read here. Statements are constructed when first accessed.
+     *
+     * @param data
+     *     The compiled bytes. The array must not be modified afterwards.
+     *
+     * @return The loaded stylesheet.
+     *
+     * @throws IllegalArgumentException
+     *     If the data isn't a precompiled stylesheet or was compiled with a different version of the format.
+     */
+    public static PrecompiledStylesheet load(byte[] data) {
+        checkNotNull(data, "data cannot be null");
+        return new PrecompiledStylesheet(data);
+    }
+
+    /**
+     * Gets the number of top-level statements.
+     *
+     * @return The number of statements.
+     */
+    public int size() {
+        return statements.length;
+    }
+
+    /**
+     * Gets the top-level statement at the given index, constructing it if this is the first time it's accessed.
+     * <p>
+     * The same instance is returned on subsequent calls, and it's the same instance that's placed within {@link #stylesheet()}.
+     *
+     * @param index
+     *     Index of the statement.
+     *
+     * @return The statement.
+     */
+    public Statement statement(int index) {
+        checkElementIndex(index, statements.length);
+        Statement statement = statements[index];
+        if (statement == null) {
+            statement = decoder.statement(index);
+            statements[index] = statement;
+        }
+        return statement;
+    }
+
+    /**
+     * Gets the full {@link Stylesheet}, constructing any statements that haven't been accessed yet.
+     *
+     * @return The stylesheet.
+     */
+    public Stylesheet stylesheet() {
+        if (stylesheet == null) {
+            Stylesheet loaded = decoder.stylesheet();
+            for (int i = 0; i < statements.length; i++) {
+                loaded.append(statement(i));
+            }
+            stylesheet = loaded;
+        }
+        return stylesheet;
+    }
+}
@@ -28,9 +28,16 @@ package com.salesforce.omakase.broadcast;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 import com.salesforce.omakase.ast.Status;
 import com.salesforce.omakase.broadcast.emitter.Emitter;
 import com.salesforce.omakase.broadcast.emitter.SubscriptionPhase;
+import com.salesforce.omakase.error.BufferedErrorManager;
 import com.salesforce.omakase.error.ErrorManager;
 import com.salesforce.omakase.parser.Grammar;
 
@@ -46,6 +53,7 @@ public final class EmittingBroadcaster extends AbstractBroadcaster {
     private Grammar grammar;
     private Broadcaster broadcaster;
     private ErrorManager em;
+    private boolean fused;
 
     /**
      * Specifies the {@link Grammar} to pass along to {@link Refine} subscription methods.
@@ -87,6 +95,104 @@ public final class EmittingBroadcaster extends AbstractBroadcaster {
         emitter.register(subscriber);
     }
 
+    /**
+     * See {@link Emitter#subscribedTypes(SubscriptionPhase)}.
+     *
+     * @param phase
+     *     Only include subscriptions in this phase.
+     *
+     * @return The subscribed types.
+     */
+    public Set<Class<?>> subscribedTypes(SubscriptionPhase phase) {
+        return emitter.subscribedTypes(phase);
+    }
+
+    /**
+     * See {@link Emitter#hasReworkSubscriptions()}.
+     *
+     * @return True if there is at least one {@link Rework} subscription.
+     */
+    public boolean hasReworkSubscriptions() {
+        return emitter.hasReworkSubscriptions();
+    }
+
+    /**
+     * Sets whether {@link Validate} subscriptions should be delivered during the {@link SubscriptionPhase#PROCESS} phase, right
+     * after the {@link Observe} subscriptions for each unit, instead of in a separate pass.
+     * <p>
+     * This is only safe when the tree can no longer change during the {@link SubscriptionPhase#PROCESS} phase, i.e., when there
+     * are no {@link Rework} subscriptions (see {@link #hasReworkSubscriptions()}). Otherwise validators could see a unit that is
+     * later changed.
+     *
+     * @param fused
+     *     Whether to deliver validation together with processing.
+     */
+    public void fused(boolean fused) {
+        this.fused = fused;
+    }
+
+    /**
+     * Delivers the {@link Validate} subscriptions that are marked as parallel (see {@link Validate#parallel()}) to each of the
+     * given units and their inner units, with each of the given units processed concurrently, and then to the parent unit.
+     * Afterwards, these subscriptions are skipped when broadcasting in the {@link SubscriptionPhase#VALIDATE} phase, so that they
+     * are only delivered once.
+     * <p>
+     * The given units must be independent of each other (e.g., the top-level statements of a stylesheet). The status of the units
+     * is not changed. Problems are reported to the {@link ErrorManager} in the order of the given units, once all of the units
+     * are done, regardless of the order in which the units actually finish.
+     *
+     * @param parent
+     *     Deliver to this unit last (but not its inner units).
+     * @param units
+     *     Deliver to these units and their inner units.
+     * @param status
+     *     Only deliver to units with this status.
+     */
+    public void validateParallel(Broadcastable parent, List<? extends Broadcastable> units, Status status) {
+        emitter.parallel(true);
+
+        List<BufferedErrorManager> buffers = new ArrayList<>(units.size());
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(units.size());
+
+        for (Broadcastable unit : units) {
+            BufferedErrorManager buffer = new BufferedErrorManager(em);
+            Broadcaster validator = new ParallelValidator(buffer);
+            buffers.add(buffer);
+            tasks.add(ForkJoinPool.commonPool().submit(() -> unit.propagateBroadcast(validator, status)));
+        }
+
+        // wait for everything to finish before reporting, as the error manager isn't necessarily thread-safe
+        RuntimeException failure = null;
+        int last = tasks.size() - 1;
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                tasks.get(i).join();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                    last = i;
+                }
+            }
+        }
+
+        // same result as if the units were validated serially
+        for (int i = 0; i <= last; i++) {
+            buffers.get(i).flush();
+        }
+        if (failure != null) throw failure;
+
+        if (parent.status() == status) {
+            emitter.emitParallel(parent, em);
+        }
+    }
+
+    /**
+     * See {@link Emitter#flush(ErrorManager)}.
+     */
+    public void flush() {
+        emitter.flush(em);
+    }
+
     /**
      * See {@link Emitter#phase(SubscriptionPhase)}.
      *
@@ -113,8 +219,33 @@ public final class EmittingBroadcaster extends AbstractBroadcaster {
             if (broadcastable.status() != Status.NEVER_EMIT) {
                 broadcastable.status(phase.nextStatus());
             }
+
+            // validate right away when fused, as nothing else can change the unit by this point
+            if (fused && phase == SubscriptionPhase.PROCESS && broadcastable.status() == Status.PROCESSED) {
+                emitter.phase(SubscriptionPhase.VALIDATE);
+                broadcastable.status(Status.EMITTING);
+                emitter.emit(broadcastable, grammar, broadcaster, em);
+                if (broadcastable.status() != Status.NEVER_EMIT) {
+                    broadcastable.status(SubscriptionPhase.VALIDATE.nextStatus());
+                }
+                emitter.phase(SubscriptionPhase.PROCESS);
+            }
         }
 
         relay(broadcastable);
     }
+
+    /** delivers parallel validate subscriptions, see {@link #validateParallel(Broadcastable, List, Status)} */
+    private final class ParallelValidator extends AbstractBroadcaster {
+        private final ErrorManager em;
+
+        ParallelValidator(ErrorManager em) {
+            this.em = em;
+        }
+
+        @Override
+        public void broadcast(Broadcastable broadcastable) {
+            emitter.emitParallel(broadcastable, em);
+        }
+    }
 }
@@ -63,6 +63,15 @@ public final class VisitingBroadcaster extends AbstractBroadcaster {
         relay(broadcastable);
     }
 
+    /**
+     * Gets the top unit, i.e., the last unit that was broadcasted before the first call to {@link #visit(Broadcaster, Status)}.
+     *
+     * @return The top unit, or null if nothing has been broadcasted.
+     */
+    public Broadcastable target() {
+        return target;
+    }
+
     /**
      * Calls {@link Broadcastable#propagateBroadcast(Broadcaster, Status)} on the top unit using the given {@link Broadcaster}
      * and status.
@@ -31,6 +31,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import com.salesforce.omakase.data.Property;
+
 /**
  * Use this annotation to subscribe to unrefined {@link Syntax} objects in order to provide or trigger refinement on them.
  * <p>
@@ -55,6 +57,16 @@ import java.lang.annotation.Target;
  * will only deliver {@link RawFunction}s with the name <em>myFunction</em>. Any {@link Refinable} that is an instance of {@link
  * Named} can be scoped in this manner. This matching is case-insensitive.
  * <p>
+ * You can also scope refinement to units with certain raw content. For example,
+ * <pre><code>
+ * {@literal @}Refine(contains = "url(")
+ *  public void refine(Declaration declaration, Grammar grammar, Broadcaster broadcaster) {
+ *      DeclarationPlugin.delegateRefinement(declaration, grammar, broadcaster);
+ *  }
+ * </code></pre>
+ * will only refine declarations with a raw value containing <em>url(</em>, leaving all other declarations unrefined (as long as
+ * {@link DeclarationPlugin} isn't otherwise registered). The raw content is scanned for all such strings at once.
+ * <p>
  * All {@link Refine} subscriptions will be delivered before {@link Rework} and {@link Validate}. Only perform refinement inside
  * of these methods, and prefer to broadcast units instead of directly attaching them to the subscribed unit. Once the subscribed
  * unit is refined ({@link Refinable#isRefined()}) then subsequent refiners will be skipped.
@@ -70,4 +82,22 @@ public @interface Refine {
      * @return The filter name.
      */
     String value() default "";
+
+    /**
+     * Optionally specify properties to filter {@link Declaration}s. Only declarations with one of these properties (ignoring any
+     * vendor prefix) will be delivered. This can be used to only refine the declarations that are actually needed.
+     *
+     * @return The filter properties.
+     */
+    Property[] property() default {};
+
+    /**
+     * Optionally specify literal strings to filter {@link Refinable} units by their raw content. Only units whose raw content
+     * contains at least one of these strings will be delivered. This matching is case-sensitive, for example {@code "url("}.
+     * <p>
+     * Units that have no raw content (e.g., units that were created dynamically) are always delivered.
+     *
+     * @return The raw content filter strings.
+     */
+    String[] contains() default {};
 }
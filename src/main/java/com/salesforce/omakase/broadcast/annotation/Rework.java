@@ -31,6 +31,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import com.salesforce.omakase.data.Property;
+
 /**
  * Use this annotation to subscribe to {@link Syntax} objects when the method is expected to change or modify the object/source
  * code.
@@ -54,10 +56,52 @@ import java.lang.annotation.Target;
  * {@link Groupable#isDestroyed()} upon later access as the unit may have been destroyed by another plugin.
  * <p>
  * See SimpleReworkTest.java for same rework method implementations.
+ * <p>
+ * The first parameter can also be a {@link java.util.List} of a {@link Syntax} type, for example
+ * <pre><code>
+ * {@literal @}Rework
+ *  public void rework(List<Declaration> declarations)
+ * </code></pre>
+ * Such bulk methods are invoked after every unit of that type has been delivered to the regular methods, with all of the units
+ * in document order. Any filters still apply to each unit. Units destroyed in the meantime are not included. If bulk methods add
+ * new units, those are delivered in another round, so the method may be invoked more than once, each time with only the units
+ * it hasn't received yet.
+ * <p>
+ * You can optionally filter which units are delivered by name or property, for example
+ * <pre><code>
+ * {@literal @}Rework(property = {Property.MARGIN_LEFT, Property.MARGIN_RIGHT})
+ *  public void rework(Declaration declaration)}
+ * </code></pre>
+ * will only deliver declarations for the <em>margin-left</em> and <em>margin-right</em> properties.
  *
  * @author nmcwilliams
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Rework {
+    /**
+     * Optionally specify names to filter units. Only {@link Named} units with one of these names will be delivered, for example
+     * keywords ({@link KeywordValue}) or functions ({@link RawFunction}). This matching is case-insensitive.
+     *
+     * @return The filter names.
+     */
+    String[] value() default {};
+
+    /**
+     * Optionally specify properties to filter {@link Declaration}s. Only declarations with one of these properties (ignoring any
+     * vendor prefix) will be delivered. Other declarations are not dispatched to the method at all.
+     *
+     * @return The filter properties.
+     */
+    Property[] property() default {};
+
+    /**
+     * Optionally specify literal strings to filter {@link Refinable} units by their raw content. Only units whose raw content
+     * contains at least one of these strings will be delivered. This matching is case-sensitive, for example {@code "url("}.
+     * <p>
+     * Units that have no raw content (e.g., units that were created dynamically) are always delivered.
+     *
+     * @return The raw content filter strings.
+     */
+    String[] contains() default {};
 }
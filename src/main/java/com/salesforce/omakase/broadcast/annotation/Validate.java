@@ -31,6 +31,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import com.salesforce.omakase.data.Property;
+
 /**
  * Use this annotation for methods that validate and report errors to an {@link ErrorManager}.
  * <p>
@@ -54,10 +56,64 @@ import java.lang.annotation.Target;
  * and one with {@link Validate}. Of course as mentioned, the assumption is that all validation should be done last, not before,
  * any rework is done. If this is not true, perhaps try rethinking about the relationship between the rework and validation and
  * refactor accordingly.
+ * <p>
+ * The first parameter can also be a {@link java.util.List} of a {@link Syntax} type, for example
+ * <pre><code>
+ * {@literal @}Validate
+ *  public void validate(List<Declaration> declarations, ErrorManager em)
+ * </code></pre>
+ * Such bulk methods are invoked after every unit of that type has been delivered to the regular methods, with all of the units
+ * in document order. Any filters still apply to each unit. Units destroyed in the meantime are not included. As with bulk {@link
+ * Rework} methods, units added during delivery are delivered in another round, so the method may be invoked more than once.
+ * <p>
+ * You can optionally filter which units are delivered by name or property, for example
+ * <pre><code>
+ * {@literal @}Validate(property = {Property.MARGIN_LEFT, Property.MARGIN_RIGHT})
+ *  public void validate(Declaration declaration, ErrorManager em)}
+ * </code></pre>
+ * will only deliver declarations for the <em>margin-left</em> and <em>margin-right</em> properties.
  *
  * @author nmcwilliams
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Validate {
+    /**
+     * Optionally specify names to filter units. Only {@link Named} units with one of these names will be delivered, for example
+     * keywords ({@link KeywordValue}) or functions ({@link RawFunction}). This matching is case-insensitive.
+     *
+     * @return The filter names.
+     */
+    String[] value() default {};
+
+    /**
+     * Optionally specify properties to filter {@link Declaration}s. Only declarations with one of these properties (ignoring any
+     * vendor prefix) will be delivered. Other declarations are not dispatched to the method at all.
+     *
+     * @return The filter properties.
+     */
+    Property[] property() default {};
+
+    /**
+     * Optionally specify literal strings to filter {@link Refinable} units by their raw content. Only units whose raw content
+     * contains at least one of these strings will be delivered. This matching is case-sensitive, for example {@code "url("}.
+     * <p>
+     * Units that have no raw content (e.g., units that were created dynamically) are always delivered.
+     *
+     * @return The raw content filter strings.
+     */
+    String[] contains() default {};
+
+    /**
+     * Optionally specify that this method is safe to invoke from multiple threads at the same time. When parallel validation is
+     * enabled (see {@code Omakase.Request#parallel(boolean)}), such methods are delivered the units within different top-level
+     * statements concurrently.
+     * <p>
+     * The method must only read the syntax tree (and not change it), and any state in the plugin instance must be thread-safe.
+     * The given {@link ErrorManager} is always safe to use. Problems reported by parallel methods are forwarded in the document
+     * order of the statements they were found in, all before any problems reported by the other {@link Validate} methods.
+     *
+     * @return True if the method can be invoked concurrently.
+     */
+    boolean parallel() default false;
 }
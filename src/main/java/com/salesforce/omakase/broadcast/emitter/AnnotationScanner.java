@@ -26,9 +26,20 @@
 
 package com.salesforce.omakase.broadcast.emitter;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import com.google.common.base.Strings;
@@ -38,13 +49,17 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.salesforce.omakase.Message;
 import com.salesforce.omakase.ast.Refinable;
+import com.salesforce.omakase.ast.declaration.Declaration;
 import com.salesforce.omakase.broadcast.Broadcaster;
 import com.salesforce.omakase.broadcast.annotation.Observe;
 import com.salesforce.omakase.broadcast.annotation.Refine;
 import com.salesforce.omakase.broadcast.annotation.Rework;
 import com.salesforce.omakase.broadcast.annotation.Validate;
+import com.salesforce.omakase.data.Property;
 import com.salesforce.omakase.error.ErrorManager;
 import com.salesforce.omakase.parser.Grammar;
 
@@ -58,14 +73,63 @@ final class AnnotationScanner {
         "wait", "equals", "hashCode", "getClass", "notify", "notifyAll", "toString", "dependencies");
 
     /** cache of which methods on a {@link Plugin} are {@link Subscription} methods */
-    private static final LoadingCache<Class<?>, Set<SubscriptionMetadata>> subscriptionCache = CacheBuilder.newBuilder()
+    private static final ClassValue<Set<SubscriptionMetadata>> subscriptionCache = new ClassValue<Set<SubscriptionMetadata>>() {
+        @Override
+        protected Set<SubscriptionMetadata> computeValue(Class<?> klass) {
+            SubscriptionTable table = generatedTable(klass);
+            return table != null ? readSubscriptionTable(table) : readSubscriptionAnnotations(klass);
+        }
+    };
+
+    /** binary names of the plugin classes with a generated table, by class loader. This way classes without one are skipped */
+    private static final LoadingCache<ClassLoader, Set<String>> indexCache = CacheBuilder.newBuilder()
         .weakKeys()
-        .build(new CacheLoader<Class<?>, Set<SubscriptionMetadata>>() {
-            @Override
-            public Set<SubscriptionMetadata> load(Class<?> klass) throws Exception {
-                return readSubscriptionAnnotations(klass);
+        .build(CacheLoader.from(AnnotationScanner::readIndex));
+
+    /** gets the {@link SubscriptionTable} generated for exactly the given class, or null if there isn't one */
+    private static SubscriptionTable generatedTable(Class<?> klass) {
+        ClassLoader loader = klass.getClassLoader();
+        if (loader == null || !indexCache.getUnchecked(loader).contains(klass.getName())) return null;
+
+        try {
+            Class<?> generated = Class.forName(klass.getName() + SubscriptionTable.SUFFIX, true, loader);
+            return (SubscriptionTable)generated.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            // e.g., a table generated by an incompatible version of the processor
+            return null;
+        }
+    }
+
+    /** reads the names listed in every {@link SubscriptionTable#INDEX} resource visible to the class loader */
+    static Set<String> readIndex(ClassLoader loader) {
+        ImmutableSet.Builder<String> names = ImmutableSet.builder();
+        try {
+            Enumeration<URL> resources = loader.getResources(SubscriptionTable.INDEX);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                InputStreamReader stream = new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8);
+                try (BufferedReader reader = new BufferedReader(stream)) {
+                    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                        if (!line.trim().isEmpty()) names.add(line.trim());
+                    }
+                }
             }
-        });
+        } catch (IOException e) {
+            // the tables that couldn't be read are skipped, and those classes are scanned instead
+        }
+        return names.build();
+    }
+
+    private static Set<SubscriptionMetadata> readSubscriptionTable(SubscriptionTable table) {
+        Set<SubscriptionMetadata> set = new HashSet<>();
+
+        SubscriptionMethod[] methods = table.methods();
+        for (int i = 0; i < methods.length; i++) {
+            set.add(new SubscriptionMetadata(table, i));
+        }
+
+        return set;
+    }
 
     private static Set<SubscriptionMetadata> readSubscriptionAnnotations(Class<?> klass) {
         Set<SubscriptionMetadata> set = new HashSet<>();
@@ -84,7 +148,9 @@ final class AnnotationScanner {
                 if (params.length != 1) throw new SubscriptionException(Message.ONE_PARAM, method);
 
                 // add the metadata
-                set.add(new SubscriptionMetadata(method, params[0], SubscriptionPhase.PROCESS, null));
+                Observe observe = method.getAnnotation(Observe.class);
+                set.add(new SubscriptionMetadata(method, eventType(method), SubscriptionPhase.PROCESS, observe.value(),
+                    observe.property()));
             }
 
             // the rework annotation
@@ -97,7 +163,9 @@ final class AnnotationScanner {
                 if (params.length != 1) throw new SubscriptionException(Message.ONE_PARAM, method);
 
                 // add the metadata
-                set.add(new SubscriptionMetadata(method, params[0], SubscriptionPhase.PROCESS, null));
+                Rework rework = method.getAnnotation(Rework.class);
+                set.add(new SubscriptionMetadata(method, eventType(method), SubscriptionPhase.PROCESS, rework.value(),
+                    rework.property()));
             }
 
             // the validate annotation
@@ -114,7 +182,9 @@ final class AnnotationScanner {
                 if (!errorManager) throw new SubscriptionException(Message.MISSING_ERROR_MANAGER, method);
 
                 // add the metadata
-                set.add(new SubscriptionMetadata(method, params[0], SubscriptionPhase.VALIDATE, null));
+                Validate validate = method.getAnnotation(Validate.class);
+                set.add(new SubscriptionMetadata(method, eventType(method), SubscriptionPhase.VALIDATE, validate.value(),
+                    validate.property()));
             }
 
             // the refine annotation
@@ -141,7 +211,18 @@ final class AnnotationScanner {
                 if (!broadcaster) throw new SubscriptionException(Message.MISSING_BROADCASTER, method);
 
                 // add the metadata
-                set.add(new SubscriptionMetadata(method, params[0], SubscriptionPhase.REFINE, refine.value()));
+                String[] names = Strings.isNullOrEmpty(refine.value()) ? new String[0] : new String[]{refine.value()};
+                set.add(new SubscriptionMetadata(method, params[0], SubscriptionPhase.REFINE, names, refine.property()));
+            }
+
+            // property filters only apply to declarations
+            if (annotated && hasPropertyFilter(method) && !eventType(method).isAssignableFrom(Declaration.class)) {
+                throw new SubscriptionException(Message.PROPERTY_FILTER, method);
+            }
+
+            // raw content filters only apply to refinables
+            if (annotated && containsFilter(method).length > 0 && !Refinable.class.isAssignableFrom(eventType(method))) {
+                throw new SubscriptionException(Message.CONTAINS_FILTER, method);
             }
 
             // this is required for anonymous inner classes
@@ -153,6 +234,46 @@ final class AnnotationScanner {
         return set;
     }
 
+    /**
+     * Gets the type of unit that the method subscribes to. This is the type of the first parameter, or the element type for bulk
+     * subscriptions (a first parameter of type {@link List}, e.g., {@code List<Declaration>}).
+     */
+    private static Class<?> eventType(Method method) {
+        Class<?> type = method.getParameterTypes()[0];
+        if (type != List.class) return type;
+
+        Type generic = method.getGenericParameterTypes()[0];
+        if (generic instanceof ParameterizedType) {
+            Type element = ((ParameterizedType)generic).getActualTypeArguments()[0];
+            if (element instanceof Class) return (Class<?>)element;
+        }
+        throw new SubscriptionException(Message.BULK_TYPE, method);
+    }
+
+    /** whether the subscription annotation on the method specifies any properties */
+    private static boolean hasPropertyFilter(Method method) {
+        Observe observe = method.getAnnotation(Observe.class);
+        if (observe != null) return observe.property().length > 0;
+        Rework rework = method.getAnnotation(Rework.class);
+        if (rework != null) return rework.property().length > 0;
+        Validate validate = method.getAnnotation(Validate.class);
+        if (validate != null) return validate.property().length > 0;
+        Refine refine = method.getAnnotation(Refine.class);
+        return refine != null && refine.property().length > 0;
+    }
+
+    /** the raw content filter strings specified by the subscription annotation on the method */
+    private static String[] containsFilter(Method method) {
+        Observe observe = method.getAnnotation(Observe.class);
+        if (observe != null) return observe.contains();
+        Rework rework = method.getAnnotation(Rework.class);
+        if (rework != null) return rework.contains();
+        Validate validate = method.getAnnotation(Validate.class);
+        if (validate != null) return validate.contains();
+        Refine refine = method.getAnnotation(Refine.class);
+        return refine != null ? refine.contains() : new String[0];
+    }
+
     /**
      * Creates subscription objects for each subscribed event on the class of the given instance.
      *
@@ -165,8 +286,22 @@ final class AnnotationScanner {
         // linked multimap because we need to maintain insertion order
         Multimap<Class<?>, Subscription> subscriptions = LinkedHashMultimap.create();
 
-        for (SubscriptionMetadata sm : subscriptionCache.getUnchecked(subscriber.getClass())) {
-            subscriptions.put(sm.event, new Subscription(sm.phase, subscriber, sm.method, sm.name));
+        Set<SubscriptionMetadata> metadata;
+        try {
+            metadata = subscriptionCache.get(subscriber.getClass());
+        } catch (RuntimeException e) {
+            // wrapped the same way as when this was a guava cache, which callers may depend on
+            throw new UncheckedExecutionException(e);
+        }
+
+        for (SubscriptionMetadata sm : metadata) {
+            if (sm.table != null) {
+                subscriptions.put(sm.event, new Subscription(sm.phase, subscriber, sm.table, sm.index, sm.names, sm.properties,
+                    sm.contains));
+            } else {
+                subscriptions.put(sm.event, new Subscription(sm.phase, subscriber, sm.method, sm.names, sm.properties,
+                    sm.contains));
+            }
         }
 
         return subscriptions;
@@ -175,15 +310,40 @@ final class AnnotationScanner {
     /** data object */
     private static final class SubscriptionMetadata {
         final Method method;
+        final SubscriptionTable table;
+        final int index;
         final Class<?> event;
         final SubscriptionPhase phase;
-        final String name;
+        final Set<String> names;
+        final Set<Property> properties;
+        final Set<String> contains;
 
-        public SubscriptionMetadata(Method method, Class<?> event, SubscriptionPhase phase, String name) {
+        public SubscriptionMetadata(Method method, Class<?> event, SubscriptionPhase phase, String[] names,
+            Property[] properties) {
             this.method = method;
+            this.table = null;
+            this.index = -1;
             this.event = event;
             this.phase = phase;
-            this.name = Strings.emptyToNull(name);
+            this.names = names.length == 0 ? null : ImmutableSet.copyOf(names);
+            this.properties = properties.length == 0 ? null : Sets.immutableEnumSet(Arrays.asList(properties));
+
+            String[] contains = containsFilter(method);
+            this.contains = contains.length == 0 ? null : ImmutableSet.copyOf(contains);
+        }
+
+        public SubscriptionMetadata(SubscriptionTable table, int index) {
+            SubscriptionMethod generated = table.methods()[index];
+            this.method = null;
+            this.table = table;
+            this.index = index;
+            this.event = generated.event;
+            this.phase = generated.annotation == Validate.class ? SubscriptionPhase.VALIDATE
+                : generated.annotation == Refine.class ? SubscriptionPhase.REFINE : SubscriptionPhase.PROCESS;
+            this.names = generated.names.length == 0 ? null : ImmutableSet.copyOf(generated.names);
+            this.properties = generated.properties.length == 0
+                ? null : Sets.immutableEnumSet(Arrays.asList(generated.properties));
+            this.contains = generated.contains.length == 0 ? null : ImmutableSet.copyOf(generated.contains);
         }
     }
 }
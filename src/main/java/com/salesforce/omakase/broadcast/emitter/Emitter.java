@@ -29,18 +29,23 @@ package com.salesforce.omakase.broadcast.emitter;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.reflect.TypeToken;
+import com.salesforce.omakase.ast.Named;
+import com.salesforce.omakase.ast.Refinable;
 import com.salesforce.omakase.broadcast.Broadcastable;
 import com.salesforce.omakase.broadcast.Broadcaster;
+import com.salesforce.omakase.broadcast.annotation.Rework;
 import com.salesforce.omakase.broadcast.annotation.Subscribable;
+import com.salesforce.omakase.broadcast.annotation.Validate;
 import com.salesforce.omakase.error.ErrorManager;
 import com.salesforce.omakase.parser.Grammar;
 
@@ -52,8 +57,27 @@ import com.salesforce.omakase.parser.Grammar;
 public final class Emitter {
     private static final AnnotationScanner scanner = new AnnotationScanner();
 
-    /** Cache of class -> (class + supers). Only supers marked as {@link Subscribable} are stored. */
-    private final Map<Class<?>, List<Class<?>>> hierarchyCache = new HashMap<>(32);
+    /**
+     * Cache of class -> (class + supers). Only supers marked as {@link Subscribable} are stored. This only depends on the class,
+     * so it's shared by all instances.
+     */
+    private static final ClassValue<List<Class<?>>> HIERARCHY = new ClassValue<List<Class<?>>>() {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> klass) {
+            if (!klass.isAnnotationPresent(Subscribable.class)) return ImmutableList.of();
+
+            Set<Class<?>> types = new LinkedHashSet<>();
+            collectTypes(klass, types);
+
+            ImmutableList.Builder<Class<?>> builder = ImmutableList.builder();
+            for (Class<?> type : types) {
+                if (type.isAnnotationPresent(Subscribable.class)) {
+                    builder.add(type);
+                }
+            }
+            return builder.build();
+        }
+    };
 
     /*
      * Map of (syntax) class (e.g., ClassSelector) to subscription Methods.
@@ -80,9 +104,31 @@ public final class Emitter {
      * SimpleSelector, in that order. However, since Class1 is registered first, its subscription to SimpleSelector must be
      * invoked before Class2's subscription to ClassSelector.
      */
-    private final Map<Class<?>, Iterable<Subscription>> expandedSubscriptions = new HashMap<>(32);
+    private final Map<Class<?>, Iterable<Subscription>> expandedSubscriptions = new ConcurrentHashMap<>(32);
+
+    /*
+     * Map of (syntax) class to name to the applicable subscription Methods, for classes that have subscriptions filtered by name
+     * or property (e.g., @Rework(property = Property.MARGIN)).
+     *
+     * The name is the name of the Named event, e.g., the property name for Declarations. Subscriptions with filters that don't
+     * match the name are excluded, so events are never dispatched to unrelated subscriptions.
+     */
+    private final Map<Class<?>, Map<String, Iterable<Subscription>>> namedSubscriptions = new ConcurrentHashMap<>(8);
+
+    /*
+     * Map of each literal string used in a raw content filter (e.g., @Rework(contains = "url(")) to its assigned bit. Each
+     * string gets its own bit, unless there are more than 64 strings, in which case bits are shared and matches are verified.
+     */
+    private final Map<String, Long> needles = new LinkedHashMap<>(8);
+
+    /** scans raw content for all of the {@link #needles} in one pass, created on demand */
+    private NeedleMatcher matcher;
+
+    /** bulk subscriptions (e.g., taking a List of Declarations), in registration order */
+    private final Set<Subscription> bulkSubscriptions = new TreeSet<>();
 
     private SubscriptionPhase phase = SubscriptionPhase.PROCESS;
+    private boolean parallel;
 
     /**
      * Sets the current {@link SubscriptionPhase}. This determines which registered subscribers receive broadcasts.
@@ -116,7 +162,59 @@ public final class Emitter {
         for (Entry<Class<?>, Subscription> entry : scanner.scanSubscriptions(subscriber).entries()) {
             Set<Subscription> set = directSubscriptions.computeIfAbsent(entry.getKey(), k -> new LinkedHashSet<>(8));
             set.add(entry.getValue());
+
+            if (entry.getValue().isBulk()) {
+                bulkSubscriptions.add(entry.getValue());
+            }
+
+            if (entry.getValue().hasContains()) {
+                long mask = 0;
+                for (String needle : entry.getValue().contains()) {
+                    mask |= needles.computeIfAbsent(needle, k -> 1L << (needles.size() & 63));
+                }
+                entry.getValue().needleMask(mask);
+                matcher = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the types that have at least one registered subscription in the given {@link SubscriptionPhase}.
+     * <p>
+     * Only direct references are included. For example, a subscription to {@code SimpleSelector} results in {@code
+     * SimpleSelector} being included but not {@code ClassSelector}.
+     *
+     * @param phase
+     *     Only include subscriptions in this phase.
+     *
+     * @return The subscribed types.
+     */
+    public Set<Class<?>> subscribedTypes(SubscriptionPhase phase) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (Entry<Class<?>, Set<Subscription>> entry : directSubscriptions.entrySet()) {
+            for (Subscription subscription : entry.getValue()) {
+                if (subscription.phase() == phase) {
+                    types.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Gets whether there are any registered {@link Rework} subscriptions. Unlike {@link Observe} subscriptions, these may change
+     * any aspect of the syntax tree during the {@link SubscriptionPhase#PROCESS} phase.
+     *
+     * @return True if there is at least one {@link Rework} subscription.
+     */
+    public boolean hasReworkSubscriptions() {
+        for (Set<Subscription> subscriptions : directSubscriptions.values()) {
+            for (Subscription subscription : subscriptions) {
+                if (subscription.isRework()) return true;
+            }
         }
+        return false;
     }
 
     /**
@@ -135,6 +233,66 @@ public final class Emitter {
      *     The {@link ErrorManager} instance.
      */
     public void emit(Broadcastable event, Grammar grammar, Broadcaster broadcaster, ErrorManager em) {
+        deliver(event, phase, false, grammar, broadcaster, em);
+    }
+
+    /**
+     * Sends an event to the registered {@link Validate} subscriptions that are marked as parallel (see {@link
+     * Validate#parallel()}), regardless of the current phase.
+     * <p>
+     * Unlike {@link #emit(Broadcastable, Grammar, Broadcaster, ErrorManager)}, this method can be called from multiple threads at
+     * the same time, as long as no subscribers are being registered.
+     *
+     * @param event
+     *     The event instance.
+     * @param em
+     *     The {@link ErrorManager} instance.
+     */
+    public void emitParallel(Broadcastable event, ErrorManager em) {
+        deliver(event, SubscriptionPhase.VALIDATE, true, null, null, em);
+    }
+
+    /**
+     * Sets whether the {@link Validate} subscriptions that are marked as parallel are being delivered separately via {@link
+     * #emitParallel(Broadcastable, ErrorManager)}. If true, {@link #emit(Broadcastable, Grammar, Broadcaster, ErrorManager)}
+     * skips them.
+     *
+     * @param parallel
+     *     Whether parallel subscriptions are delivered separately.
+     */
+    public void parallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Delivers all units collected for bulk subscriptions in the current phase (i.e., subscription methods that take a {@link
+     * List} of units). This should be called once all units have been emitted for the phase.
+     * <p>
+     * If any bulk subscriptions result in new units being emitted (e.g., a {@link Rework} subscription appending new
+     * declarations) then the new units are delivered in another round, until nothing remains.
+     *
+     * @param em
+     *     The {@link ErrorManager} instance.
+     */
+    public void flush(ErrorManager em) {
+        boolean delivered = true;
+        while (delivered) {
+            delivered = false;
+            for (Subscription subscription : bulkSubscriptions) {
+                if (subscription.phase() == phase && subscription.hasPending()) {
+                    subscription.deliverBulk(em);
+                    delivered = true;
+                }
+            }
+        }
+    }
+
+    /** sends the event to the subscriptions in the given phase, either only the parallel ones or all others */
+    private void deliver(Broadcastable event, SubscriptionPhase phase, boolean parallelOnly, Grammar grammar,
+        Broadcaster broadcaster, ErrorManager em) {
+        long found = 0;
+        boolean scanned = false;
+
         // for each subscribable type in the event's hierarchy, inform each subscription to that type
         for (Subscription subscription : subscriptions(event)) {
             if (subscription.phase() == phase) {
@@ -143,6 +301,25 @@ public final class Emitter {
                     return; // break out when we no longer need to emit, e.g., for a destroyed unit or already refined
                 }
 
+                // parallel subscriptions are either delivered exclusively or skipped
+                if (parallelOnly != subscription.isParallel() && (parallelOnly || parallel)) continue;
+
+                // skip subscriptions filtered by raw content that isn't present. The raw content is scanned at most once.
+                if (subscription.hasContains()) {
+                    if (!scanned) {
+                        found = scan(event);
+                        scanned = true;
+                    }
+                    if ((found & subscription.needleMask()) == 0) continue;
+                    if (needles.size() > 64 && !subscription.containedIn(((Refinable)event).rawContent())) continue;
+                }
+
+                // bulk subscriptions receive everything at once later on
+                if (subscription.isBulk()) {
+                    subscription.collect(event);
+                    continue;
+                }
+
                 switch (phase) {
                 case REFINE:
                     subscription.refine(event, grammar, broadcaster, em);
@@ -167,40 +344,83 @@ public final class Emitter {
 
         if (subscriptions == null) {
             Set<Subscription> tree = new TreeSet<>(); // tree set important for maintaining plugin registration order
+            boolean named = event instanceof Named;
+            boolean filtered = false;
 
             for (Class<?> klass : hierarchy(event.getClass())) {
                 Set<Subscription> matching = directSubscriptions.get(klass);
                 if (matching != null) {
-                    tree.addAll(matching);
+                    for (Subscription subscription : matching) {
+                        // filtered subscriptions can only ever match named units
+                        if (subscription.isFiltered()) {
+                            if (!named) continue;
+                            filtered = true;
+                        }
+                        tree.add(subscription);
+                    }
                 }
             }
             subscriptions = ImmutableList.copyOf(tree);
             expandedSubscriptions.put(event.getClass(), subscriptions);
-        }
 
-        return subscriptions;
-    }
+            if (filtered) {
+                namedSubscriptions.put(event.getClass(), new ConcurrentHashMap<>(32));
+            }
+        }
 
-    /** returns class -> (class + supers) */
-    private List<Class<?>> hierarchy(Class<?> klass) {
-        List<Class<?>> hierarchy = hierarchyCache.get(klass);
-
-        if (hierarchy == null) {
-            if (!klass.isAnnotationPresent(Subscribable.class)) {
-                hierarchy = ImmutableList.of();
-            } else {
-                ImmutableList.Builder<Class<?>> builder = ImmutableList.builder();
-                for (Class<?> type : TypeToken.of(klass).getTypes().rawTypes()) {
-                    if (type.isAnnotationPresent(Subscribable.class)) {
-                        builder.add(type);
+        // narrow down by name when there are filtered subscriptions
+        Map<String, Iterable<Subscription>> byName = namedSubscriptions.get(event.getClass());
+        if (byName != null) {
+            String name = ((Named)event).name();
+            Iterable<Subscription> matching = byName.get(name);
+            if (matching == null) {
+                ImmutableList.Builder<Subscription> builder = ImmutableList.builder();
+                for (Subscription subscription : subscriptions) {
+                    if (subscription.accepts(event)) {
+                        builder.add(subscription);
                     }
                 }
-                hierarchy = builder.build();
+                matching = builder.build();
+                byName.put(name, matching);
             }
+            return matching;
+        }
+
+        return subscriptions;
+    }
+
+    /**
+     * Gets the bits of all {@link #needles} found within the raw content of the given event. If the event doesn't have any raw
+     * content (e.g., it was created dynamically) then all bits are set, as there is nothing to rule out.
+     */
+    private long scan(Broadcastable event) {
+        List<String> rawContent = ((Refinable)event).rawContent();
+        if (rawContent.isEmpty()) return -1L;
+
+        NeedleMatcher current = matcher;
+        if (current == null) {
+            current = new NeedleMatcher(needles);
+            matcher = current;
+        }
 
-            hierarchyCache.put(klass, hierarchy);
+        long found = 0;
+        for (String raw : rawContent) {
+            found |= current.scan(raw);
         }
+        return found;
+    }
+
+    /** returns class -> (class + supers) */
+    private static List<Class<?>> hierarchy(Class<?> klass) {
+        return HIERARCHY.get(klass);
+    }
 
-        return hierarchy;
+    /** adds the class and all of its superclasses and interfaces to the set */
+    private static void collectTypes(Class<?> klass, Set<Class<?>> types) {
+        if (klass == null || !types.add(klass)) return;
+        collectTypes(klass.getSuperclass(), types);
+        for (Class<?> type : klass.getInterfaces()) {
+            collectTypes(type, types);
+        }
     }
 }
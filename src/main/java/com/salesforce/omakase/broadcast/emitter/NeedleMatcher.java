@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.broadcast.emitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds which of a set of literal strings ("needles") occur in some text, using a single pass over the text (Aho-Corasick).
+ * <p>
+ * Each needle is associated with a bit. Scanning returns the bits of all needles found in the text. Multiple needles may share
+ * the same bit, in which case the bit is set if any of them are found. Matching is case-sensitive.
+ * <p>
+ * Transitions for ASCII characters are precomputed into a table, so the common case is a single array lookup per character.
+ *
+ * @author nmcwilliams
+ */
+final class NeedleMatcher {
+    private static final int ASCII = 128;
+
+    /** precomputed transitions for ASCII characters, indexed by state then character */
+    private final int[][] ascii;
+
+    /** trie edges for non-ASCII characters, indexed by state */
+    private final List<Map<Character, Integer>> edges;
+
+    /** failure links, indexed by state */
+    private final int[] fail;
+
+    /** bits of the needles that end at (or are suffixes ending at) each state */
+    private final long[] output;
+
+    /**
+     * Creates a new matcher.
+     *
+     * @param needles
+     *     Map of each needle to its bit(s).
+     */
+    NeedleMatcher(Map<String, Long> needles) {
+        // build the trie
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<Long> out = new ArrayList<>();
+        trie.add(new HashMap<>());
+        out.add(0L);
+
+        for (Map.Entry<String, Long> entry : needles.entrySet()) {
+            int state = 0;
+            for (int i = 0; i < entry.getKey().length(); i++) {
+                char c = entry.getKey().charAt(i);
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(c, next);
+                    trie.add(new HashMap<>());
+                    out.add(0L);
+                }
+                state = next;
+            }
+            out.set(state, out.get(state) | entry.getValue());
+        }
+
+        int size = trie.size();
+        this.edges = trie;
+        this.fail = new int[size];
+        this.output = new long[size];
+        this.ascii = new int[size][ASCII];
+
+        for (int i = 0; i < size; i++) {
+            output[i] = out.get(i);
+        }
+
+        // breadth first so that the failure state is always computed before it's needed
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (char c = 0; c < ASCII; c++) {
+            Integer next = trie.get(0).get(c);
+            if (next != null) {
+                ascii[0][c] = next;
+            }
+        }
+        for (int next : trie.get(0).values()) {
+            queue.add(next);
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            output[state] |= output[fail[state]];
+
+            for (Map.Entry<Character, Integer> edge : trie.get(state).entrySet()) {
+                fail[edge.getValue()] = step(fail[state], edge.getKey());
+                queue.add(edge.getValue());
+            }
+
+            for (char c = 0; c < ASCII; c++) {
+                Integer next = trie.get(state).get(c);
+                ascii[state][c] = next != null ? next : ascii[fail[state]][c];
+            }
+        }
+    }
+
+    /** the next state from the given state for the given character */
+    private int step(int state, char c) {
+        if (c < ASCII) return ascii[state][c];
+
+        int current = state;
+        while (true) {
+            Integer next = edges.get(current).get(c);
+            if (next != null) return next;
+            if (current == 0) return 0;
+            current = fail[current];
+        }
+    }
+
+    /**
+     * Scans the given text.
+     *
+     * @param text
+     *     The text to scan.
+     *
+     * @return The bits of all needles found in the text.
+     */
+    long scan(String text) {
+        long found = 0;
+        int state = 0;
+        for (int i = 0, len = text.length(); i < len; i++) {
+            state = step(state, text.charAt(i));
+            found |= output[state];
+        }
+        return found;
+    }
+}
@@ -28,12 +28,22 @@ package com.salesforce.omakase.broadcast.emitter;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.google.common.collect.ImmutableSet;
 import com.salesforce.omakase.ast.Named;
+import com.salesforce.omakase.ast.declaration.Declaration;
 import com.salesforce.omakase.broadcast.Broadcastable;
 import com.salesforce.omakase.broadcast.Broadcaster;
+import com.salesforce.omakase.broadcast.annotation.Rework;
+import com.salesforce.omakase.broadcast.annotation.Validate;
+import com.salesforce.omakase.data.Property;
 import com.salesforce.omakase.error.ErrorManager;
 import com.salesforce.omakase.parser.Grammar;
 import com.salesforce.omakase.parser.ParserException;
@@ -49,15 +59,61 @@ final class Subscription implements Comparable<Subscription> {
 
     private final SubscriptionPhase phase;
     private final Object subscriber;
-    private final Method method;
-    private final String name;
+    private final SubscriptionTable table;
+    private final int index;
+    private final Object key;
+    private final boolean rework;
+    private Method method;
+    private final Set<String> names;
+    private final Set<Property> properties;
+    private final Set<String> contains;
+    private final boolean parallel;
+    private final boolean bulk;
     private final int number;
+    private long needleMask;
+    private List<Broadcastable> pending;
 
     Subscription(SubscriptionPhase phase, Object subscriber, Method method, String name) {
+        this(phase, subscriber, method, name != null ? ImmutableSet.of(name) : null, null);
+    }
+
+    Subscription(SubscriptionPhase phase, Object subscriber, Method method, Set<String> names, Set<Property> properties) {
+        this(phase, subscriber, method, names, properties, null);
+    }
+
+    Subscription(SubscriptionPhase phase, Object subscriber, Method method, Set<String> names, Set<Property> properties,
+        Set<String> contains) {
         this.phase = phase;
         this.subscriber = subscriber;
+        this.table = null;
+        this.index = -1;
+        this.key = method;
         this.method = method;
-        this.name = name != null ? name.toLowerCase() : null;
+        this.names = names != null ? names.stream().map(String::toLowerCase).collect(ImmutableSet.toImmutableSet()) : null;
+        this.properties = properties;
+        this.contains = contains;
+        this.bulk = method.getParameterTypes().length > 0 && method.getParameterTypes()[0] == List.class;
+        Validate validate = method.getAnnotation(Validate.class);
+        this.parallel = validate != null && validate.parallel() && !bulk;
+        this.rework = method.isAnnotationPresent(Rework.class);
+        this.number = counter.addAndGet(1);
+    }
+
+    /** a subscription to a method in a generated {@link SubscriptionTable}, which is invoked without reflection */
+    Subscription(SubscriptionPhase phase, Object subscriber, SubscriptionTable table, int index, Set<String> names,
+        Set<Property> properties, Set<String> contains) {
+        SubscriptionMethod generated = table.methods()[index];
+        this.phase = phase;
+        this.subscriber = subscriber;
+        this.table = table;
+        this.index = index;
+        this.key = generated;
+        this.names = names != null ? names.stream().map(String::toLowerCase).collect(ImmutableSet.toImmutableSet()) : null;
+        this.properties = properties;
+        this.contains = contains;
+        this.bulk = generated.parameters.length > 0 && generated.parameters[0] == List.class;
+        this.parallel = generated.parallel && !bulk;
+        this.rework = generated.annotation == Rework.class;
         this.number = counter.addAndGet(1);
     }
 
@@ -65,16 +121,120 @@ final class Subscription implements Comparable<Subscription> {
         return phase;
     }
 
+    /** the subscription method. For generated subscriptions this is looked up through reflection on first use */
     public Method method() {
+        if (method == null) {
+            SubscriptionMethod generated = (SubscriptionMethod)key;
+            try {
+                method = subscriber.getClass().getMethod(generated.name, generated.parameters);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
         return method;
     }
 
+    /** whether this is a {@link Rework} subscription */
+    public boolean isRework() {
+        return rework;
+    }
+
+    /** whether this subscription is restricted to certain names or properties */
+    public boolean isFiltered() {
+        return names != null || properties != null;
+    }
+
+    /** whether this subscription can be delivered from multiple threads at the same time */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /** whether this subscription receives all units at once as a list, instead of one at a time */
+    public boolean isBulk() {
+        return bulk;
+    }
+
+    /** adds the unit to the list given to a bulk subscription upon {@link #deliverBulk(ErrorManager)} */
+    public void collect(Broadcastable event) {
+        if (!accepts(event)) return;
+
+        if (pending == null) {
+            pending = new ArrayList<>(64);
+        }
+        pending.add(event);
+    }
+
+    /** whether there are any units collected for a bulk subscription that haven't been delivered yet */
+    public boolean hasPending() {
+        return pending != null && !pending.isEmpty();
+    }
+
+    /** deliver a bulk subscription, with all of the collected units that haven't been destroyed in the meantime */
+    public void deliverBulk(ErrorManager em) {
+        if (!hasPending()) return;
+
+        List<Broadcastable> units = new ArrayList<>(pending.size());
+        for (Broadcastable unit : pending) {
+            if (!unit.shouldBreakBroadcast(phase)) {
+                units.add(unit);
+            }
+        }
+        pending = null;
+        if (units.isEmpty()) return;
+
+        List<Broadcastable> list = Collections.unmodifiableList(units);
+        try {
+            if (phase == SubscriptionPhase.VALIDATE) {
+                invoke(list, em);
+            } else {
+                invoke(list);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new SubscriptionException("CSS Parser plugin bulk method does not have expected parameters", e);
+        } catch (IllegalAccessException e) {
+            throw new SubscriptionException("CSS Parser plugin bulk method is not accessible", e);
+        } catch (InvocationTargetException e) {
+            handlePluginError(e, em, "Exception thrown from a CSS Parser plugin bulk method");
+        }
+    }
+
+    /** whether this subscription is restricted to units with certain raw content */
+    public boolean hasContains() {
+        return contains != null;
+    }
+
+    /** the literal strings that the raw content of a unit must contain (one of), or null if unrestricted */
+    public Set<String> contains() {
+        return contains;
+    }
+
+    /** the bits assigned to the {@link #contains()} strings by the {@link Emitter} */
+    public long needleMask() {
+        return needleMask;
+    }
+
+    /** sets the bits assigned to the {@link #contains()} strings */
+    void needleMask(long needleMask) {
+        this.needleMask = needleMask;
+    }
+
+    /** exact check for whether any of the given raw content contains any of the {@link #contains()} strings */
+    public boolean containedIn(List<String> rawContent) {
+        if (contains == null || rawContent.isEmpty()) return true;
+        for (String raw : rawContent) {
+            for (String needle : contains) {
+                if (raw.contains(needle)) return true;
+            }
+        }
+        return false;
+    }
+
     /** deliver a refine subscription */
     public void refine(Broadcastable event, Grammar grammar, Broadcaster broadcaster, ErrorManager em) {
-        if (name != null && !filter(event)) return;
+        if (!accepts(event)) return;
 
         try {
-            method.invoke(subscriber, event, grammar, broadcaster);
+            invoke(event, grammar, broadcaster);
         } catch (IllegalArgumentException e) {
             throw new SubscriptionException("CSS Parser plugin 'refine' method does not have expected parameters (3)", e);
         } catch (IllegalAccessException e) {
@@ -86,8 +246,10 @@ final class Subscription implements Comparable<Subscription> {
 
     /** deliver a rework/observe subscription */
     public void process(Broadcastable event, ErrorManager em) {
+        if (!accepts(event)) return;
+
         try {
-            method.invoke(subscriber, event);
+            invoke(event);
         } catch (IllegalArgumentException e) {
             throw new SubscriptionException("CSS Parser plugin method does not have expected parameters (1)", e);
         } catch (IllegalAccessException e) {
@@ -99,8 +261,10 @@ final class Subscription implements Comparable<Subscription> {
 
     /** deliver a validate subscription */
     public void validate(Broadcastable event, ErrorManager em) {
+        if (!accepts(event)) return;
+
         try {
-            method.invoke(subscriber, event, em);
+            invoke(event, em);
         } catch (IllegalArgumentException e) {
             throw new SubscriptionException("CSS Parser plugin 'validate' method does not have expected parameters (2)", e);
         } catch (IllegalAccessException e) {
@@ -113,13 +277,64 @@ final class Subscription implements Comparable<Subscription> {
     /**
      * Checks whether the subscription should be delivered based on subscription method restrictions.
      * <p>
-     * 1. If this subscription is restricted to a certain name (e.g., name of a raw function) then this will return true if the
-     * event is an instance of {@link Named} and the name matches (case insensitive), otherwise it will return false.
+     * 1. If this subscription is restricted to certain names (e.g., name of a raw function) then this will return true if the
+     * event is an instance of {@link Named} and the name matches (case insensitive).
+     * <p>
+     * 2. If this subscription is restricted to certain properties then this will return true if the event is a {@link
+     * Declaration} with one of the properties (ignoring any prefix).
+     * <p>
+     * ...Otherwise returns true if there are no restrictions, or false if none of the restrictions are met.
      * <p>
-     * ...Otherwise returns true.
+     * The result only depends on the name of the event, which allows the {@link Emitter} to index the results by name.
      */
-    private boolean filter(Broadcastable event) {
-        return name == null || (event instanceof Named && ((Named)event).name().toLowerCase().equals(name));
+    public boolean accepts(Broadcastable event) {
+        if (names == null && properties == null) return true;
+        if (!(event instanceof Named)) return false;
+
+        if (names != null && names.contains(((Named)event).name().toLowerCase())) return true;
+
+        if (properties != null && event instanceof Declaration) {
+            Optional<Property> property = ((Declaration)event).propertyName().asPropertyIgnorePrefix();
+            return property.isPresent() && properties.contains(property.get());
+        }
+
+        return false;
+    }
+
+    /** invokes a one parameter subscription method */
+    private void invoke(Object unit) throws IllegalAccessException, InvocationTargetException {
+        if (table != null) {
+            invokeGenerated(unit, null, null);
+        } else {
+            method.invoke(subscriber, unit);
+        }
+    }
+
+    /** invokes a two parameter subscription method */
+    private void invoke(Object unit, Object second) throws IllegalAccessException, InvocationTargetException {
+        if (table != null) {
+            invokeGenerated(unit, second, null);
+        } else {
+            method.invoke(subscriber, unit, second);
+        }
+    }
+
+    /** invokes a three parameter subscription method */
+    private void invoke(Object unit, Object second, Object third) throws IllegalAccessException, InvocationTargetException {
+        if (table != null) {
+            invokeGenerated(unit, second, third);
+        } else {
+            method.invoke(subscriber, unit, second, third);
+        }
+    }
+
+    /** invokes the method through the generated table, wrapping errors the same way as reflection does */
+    private void invokeGenerated(Object unit, Object second, Object third) throws InvocationTargetException {
+        try {
+            table.invoke(index, subscriber, unit, second, third);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
     }
 
     private void handlePluginError(Throwable t, ErrorManager em, String msg) {
@@ -134,7 +349,7 @@ final class Subscription implements Comparable<Subscription> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(subscriber, method);
+        return Objects.hash(subscriber, key);
     }
 
     @Override
@@ -143,7 +358,7 @@ final class Subscription implements Comparable<Subscription> {
             Subscription other = (Subscription)object;
             // must be same instance of the same class (identity)
             // this keeps plugins that are registered twice only stored once in the Emitter
-            return subscriber == other.subscriber && Objects.equals(this.method, other.method);
+            return subscriber == other.subscriber && Objects.equals(this.key, other.key);
         }
         return false;
     }
@@ -31,12 +31,20 @@ import com.salesforce.omakase.error.OmakaseException;
 
 /**
  * An error that occurs while invoking a subscription method.
+ * <p>
+ * When wrapping an exception thrown from a subscription method the stack trace is not captured (it would only show the
+ * internals of the emitter), and the message is not built until requested. The full stack trace is available from {@link
+ * #getCause()}.
  *
  * @author nmcwilliams
  */
 public final class SubscriptionException extends OmakaseException {
     private static final long serialVersionUID = 7730100425922298149L;
 
+    private String prefix;
+    private transient Object[] args;
+    private String message;
+
     /**
      * Constructs a new {@link SubscriptionException} with the given message.
      *
@@ -45,6 +53,7 @@ public final class SubscriptionException extends OmakaseException {
      */
     public SubscriptionException(String message) {
         super(message);
+        this.message = message;
     }
 
     /**
@@ -56,7 +65,9 @@ public final class SubscriptionException extends OmakaseException {
      *     The {@link String#format(String, Object...)} parameters.
      */
     public SubscriptionException(String message, Object... args) {
-        super(Message.fmt(message, args));
+        super((String)null);
+        this.prefix = message;
+        this.args = args;
     }
 
     /**
@@ -66,7 +77,16 @@ public final class SubscriptionException extends OmakaseException {
      *     The underlying cause.
      */
     public SubscriptionException(String message, Throwable cause) {
-        super(message + ":\n" + findMessage(cause), cause);
+        super(null, cause, false);
+        this.prefix = message;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null && prefix != null) {
+            message = getCause() != null ? prefix + ":\n" + findMessage(getCause()) : Message.fmt(prefix, args);
+        }
+        return message;
     }
 
     private static String findMessage(Throwable cause) {
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.broadcast.emitter;
+
+import java.lang.annotation.Annotation;
+
+import com.salesforce.omakase.data.Property;
+
+/**
+ * Describes one subscription method in a generated {@link SubscriptionTable}, with the details that would otherwise be read from
+ * the method and its annotation at runtime.
+ * <p>
+ * This class is only meant to be used by generated code.
+ *
+ * @author nmcwilliams
+ */
+public final class SubscriptionMethod {
+    final String name;
+    final Class<?>[] parameters;
+    final Class<?> event;
+    final Class<? extends Annotation> annotation;
+    final String[] names;
+    final Property[] properties;
+    final String[] contains;
+    final boolean parallel;
+
+    /**
+     * Creates a new {@link SubscriptionMethod}.
+     *
+     * @param name
+     *     Name of the method.
+     * @param parameters
+     *     The (erased) parameter types of the method.
+     * @param event
+     *     The type of unit subscribed to (the element type for bulk subscriptions).
+     * @param annotation
+     *     The subscription annotation on the method, e.g., {@code Rework.class}.
+     * @param names
+     *     The names given to the annotation, if any.
+     * @param properties
+     *     The properties given to the annotation, if any.
+     * @param contains
+     *     The raw content filters given to the annotation, if any.
+     * @param parallel
+     *     Whether the annotation is a {@code Validate} annotation with {@code parallel} set to true.
+     */
+    public SubscriptionMethod(String name, Class<?>[] parameters, Class<?> event, Class<? extends Annotation> annotation,
+        String[] names, Property[] properties, String[] contains, boolean parallel) {
+        this.name = name;
+        this.parameters = parameters;
+        this.event = event;
+        this.annotation = annotation;
+        this.names = names;
+        this.properties = properties;
+        this.contains = contains;
+        this.parallel = parallel;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.broadcast.emitter;
+
+import com.salesforce.omakase.broadcast.emitter.processor.SubscriptionProcessor;
+
+/**
+ * The subscription methods of one plugin class, generated at compile time by the {@link SubscriptionProcessor}.
+ * <p>
+ * Generated tables are named after the binary name of the plugin class with a {@value #SUFFIX} suffix, in the same package, and
+ * the binary names of the plugin classes are listed in {@value #INDEX} resources. When a table is listed for the exact class of a
+ * registered plugin instance, it's used instead of scanning the class for annotated methods, and subscription methods are invoked
+ * directly instead of through reflection. Otherwise the class is scanned as usual.
+ * <p>
+ * Tables aren't checked against the plugin class at runtime. Keeping them in sync is left to the build, which regenerates or
+ * deletes a table along with the class it was generated from (see {@link SubscriptionProcessor}).
+ * <p>
+ * This interface is only meant to be implemented by generated code.
+ *
+ * @author nmcwilliams
+ */
+public interface SubscriptionTable {
+    /** suffix added to the binary name of the plugin class to get the name of the generated table */
+    String SUFFIX = "$$SubscriptionTable";
+
+    /** resource listing the binary names of the plugin classes with a generated table, one per line */
+    String INDEX = "META-INF/omakase/subscription-tables";
+
+    /**
+     * Gets the subscription methods of the plugin class. The index of each method in the array is the index given to {@link
+     * #invoke(int, Object, Object, Object, Object)}. The returned array must not be modified.
+     *
+     * @return The subscription methods.
+     */
+    SubscriptionMethod[] methods();
+
+    /**
+     * Invokes a subscription method.
+     *
+     * @param index
+     *     Index of the method in {@link #methods()}.
+     * @param subscriber
+     *     The plugin instance.
+     * @param unit
+     *     The first argument: the syntax unit, or the list of units for bulk subscriptions.
+     * @param second
+     *     The second argument, if the method has one (the {@code ErrorManager} or {@code Grammar}).
+     * @param third
+     *     The third argument, if the method has one (the {@code Broadcaster}).
+     *
+     * @throws Throwable
+     *     Anything thrown by the subscription method.
+     */
+    void invoke(int index, Object subscriber, Object unit, Object second, Object third) throws Throwable;
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.broadcast.emitter.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/**
+ * An annotation processor that generates a {@code SubscriptionTable} for each plugin class with subscription methods (methods
+ * annotated with {@code Observe}, {@code Rework}, {@code Validate} or {@code Refine}).
+ * <p>
+ * The generated table describes each subscription method and invokes it directly, so registering an instance of the plugin
+ * doesn't need to scan the class for annotations and delivering events doesn't go through reflection. This helps startup time and
+ * makes plugins easier to use with ahead-of-time compilation.
+ * <p>
+ * The processor is opt-in. It isn't registered as a service, so it must be named explicitly when compiling plugins, e.g., with
+ * {@code -processor com.salesforce.omakase.broadcast.emitter.processor.SubscriptionProcessor} or in the {@code
+ * annotationProcessors} of the maven-compiler-plugin, with this library on the processor path. The generated code depends on
+ * {@code SubscriptionTable} and {@code SubscriptionMethod}, so plugins compiled with the processor must be used with the same
+ * version of this library. Plugin classes without a generated table (for example, when the processor didn't run, or for
+ * anonymous classes) are scanned at runtime as before.
+ * <p>
+ * No table is generated for a class that has malformed subscription methods, or methods that can't be called from generated code
+ * in the same package. Those classes are left to the runtime scanner, which reports any errors.
+ * <p>
+ * Each table is generated with its plugin class as the originating element, so incremental builds regenerate or delete it along
+ * with the class. The processor also writes an index of the plugin classes with a table ({@code
+ * META-INF/omakase/subscription-tables}), so the runtime doesn't need to look for tables that weren't generated. Stop using the
+ * processor with a clean build, as tables left over from an earlier build would otherwise still be used.
+ *
+ * @author nmcwilliams
+ */
+@SupportedAnnotationTypes("*")
+public final class SubscriptionProcessor extends AbstractProcessor {
+    private static final String PACKAGE = "com.salesforce.omakase.";
+    private static final String OBSERVE = PACKAGE + "broadcast.annotation.Observe";
+    private static final String REWORK = PACKAGE + "broadcast.annotation.Rework";
+    private static final String VALIDATE = PACKAGE + "broadcast.annotation.Validate";
+    private static final String REFINE = PACKAGE + "broadcast.annotation.Refine";
+    private static final String TABLE = PACKAGE + "broadcast.emitter.SubscriptionTable";
+    private static final String METHOD = PACKAGE + "broadcast.emitter.SubscriptionMethod";
+    private static final String PROPERTY = PACKAGE + "data.Property";
+    private static final String DECLARATION = PACKAGE + "ast.declaration.Declaration";
+    private static final String REFINABLE = PACKAGE + "ast.Refinable";
+    private static final String ERROR_MANAGER = PACKAGE + "error.ErrorManager";
+    private static final String GRAMMAR = PACKAGE + "parser.Grammar";
+    private static final String BROADCASTER = PACKAGE + "broadcast.Broadcaster";
+
+    /** must match the suffix in SubscriptionTable */
+    private static final String SUFFIX = "$$SubscriptionTable";
+
+    /** must match the index in SubscriptionTable */
+    private static final String INDEX = "META-INF/omakase/subscription-tables";
+
+    private static final List<String> ANNOTATIONS = Arrays.asList(OBSERVE, REWORK, VALIDATE, REFINE);
+
+    /** same as the methods skipped by the runtime scanner */
+    private static final Set<String> SKIP = new HashSet<>(Arrays.asList(
+        "wait", "equals", "hashCode", "getClass", "notify", "notifyAll", "toString", "dependencies"));
+
+    private final Set<String> generated = new HashSet<>();
+
+    /** binary names of the plugin classes with a generated table, and the class each table was generated from */
+    private final Map<String, TypeElement> indexed = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        // nothing to do unless the library is available to the code being compiled
+        if (processingEnv.getElementUtils().getTypeElement(TABLE) == null) return false;
+
+        for (Element element : round.getRootElements()) {
+            scan(element);
+        }
+        if (round.processingOver() && !indexed.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    /** generates a table for the class if applicable, then does the same for nested classes */
+    private void scan(Element element) {
+        if (element.getKind() == ElementKind.CLASS) {
+            generate((TypeElement)element);
+        }
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (enclosed.getKind().isClass() || enclosed.getKind().isInterface()) {
+                scan(enclosed);
+            }
+        }
+    }
+
+    /** generates the table for the class, unless it doesn't have (valid) subscription methods */
+    private void generate(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) return;
+
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        if (!accessible(type, pkg)) return;
+
+        List<Entry> entries = new ArrayList<>();
+        for (Element member : processingEnv.getElementUtils().getAllMembers(type)) {
+            if (member.getKind() != ElementKind.METHOD) continue;
+
+            // same as the runtime scanner, which only looks at public methods
+            ExecutableElement method = (ExecutableElement)member;
+            if (!method.getModifiers().contains(Modifier.PUBLIC) || SKIP.contains(method.getSimpleName().toString())) continue;
+
+            List<AnnotationMirror> subscriptions = new ArrayList<>(1);
+            for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+                if (ANNOTATIONS.contains(name(annotation.getAnnotationType()))) {
+                    subscriptions.add(annotation);
+                }
+            }
+            if (subscriptions.isEmpty()) continue;
+
+            // leave everything to the runtime scanner if any subscription can't be handled here
+            Entry entry = entry(method, subscriptions, pkg);
+            if (entry == null) return;
+            entries.add(entry);
+        }
+
+        if (!entries.isEmpty()) {
+            write(type, pkg, entries);
+        }
+    }
+
+    /** creates the entry for a subscription method, or returns null if it's malformed or can't be invoked from the package */
+    private Entry entry(ExecutableElement method, List<AnnotationMirror> subscriptions, PackageElement pkg) {
+        if (subscriptions.size() > 1 || method.getModifiers().contains(Modifier.STATIC)) return null;
+        if (!accessible((TypeElement)method.getEnclosingElement(), pkg)) return null;
+
+        AnnotationMirror annotation = subscriptions.get(0);
+        String kind = name(annotation.getAnnotationType());
+
+        // check the parameters
+        int expected = kind.equals(VALIDATE) ? 2 : kind.equals(REFINE) ? 3 : 1;
+        if (method.getParameters().size() != expected) return null;
+
+        List<TypeMirror> parameters = new ArrayList<>(expected);
+        for (VariableElement parameter : method.getParameters()) {
+            TypeMirror erased = processingEnv.getTypeUtils().erasure(parameter.asType());
+            if (erased.getKind() != TypeKind.DECLARED) return null;
+            if (!accessible((TypeElement)((DeclaredType)erased).asElement(), pkg)) return null;
+            parameters.add(erased);
+        }
+
+        if (kind.equals(VALIDATE) && !isSubtype(parameters.get(1), ERROR_MANAGER)) return null;
+        if (kind.equals(REFINE)) {
+            if (!isSubtype(parameters.get(0), REFINABLE)) return null;
+            if (!isSubtype(parameters.get(1), GRAMMAR)) return null;
+            if (!isSubtype(parameters.get(2), BROADCASTER)) return null;
+        }
+
+        TypeMirror event = kind.equals(REFINE) ? parameters.get(0) : eventType(method.getParameters().get(0).asType());
+        if (event == null || !accessible((TypeElement)((DeclaredType)event).asElement(), pkg)) return null;
+
+        // read the annotation values
+        Entry entry = new Entry(method, parameters, event, kind);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value :
+            processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+            String name = value.getKey().getSimpleName().toString();
+            Object content = value.getValue().getValue();
+
+            if (name.equals("value")) {
+                if (content instanceof String) {
+                    if (!((String)content).isEmpty()) entry.names.add((String)content);
+                } else {
+                    for (AnnotationValue element : values(content)) {
+                        entry.names.add((String)element.getValue());
+                    }
+                }
+            } else if (name.equals("property")) {
+                for (AnnotationValue element : values(content)) {
+                    entry.properties.add(((VariableElement)element.getValue()).getSimpleName().toString());
+                }
+            } else if (name.equals("contains")) {
+                for (AnnotationValue element : values(content)) {
+                    entry.contains.add((String)element.getValue());
+                }
+            } else if (name.equals("parallel")) {
+                entry.parallel = (Boolean)content;
+            }
+        }
+
+        // property filters only apply to declarations, raw content filters only apply to refinables
+        TypeElement declaration = processingEnv.getElementUtils().getTypeElement(DECLARATION);
+        if (!entry.properties.isEmpty() && !processingEnv.getTypeUtils().isAssignable(declaration.asType(), event)) return null;
+        if (!entry.contains.isEmpty() && !isSubtype(event, REFINABLE)) return null;
+
+        return entry;
+    }
+
+    /** the type of unit subscribed to, which for bulk subscriptions is the element type of the list */
+    private TypeMirror eventType(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        TypeElement list = processingEnv.getElementUtils().getTypeElement(List.class.getName());
+        if (!processingEnv.getTypeUtils().isSameType(erased, processingEnv.getTypeUtils().erasure(list.asType()))) return erased;
+
+        // must be a specific, non-generic element type, e.g., List<Declaration>
+        List<? extends TypeMirror> arguments = ((DeclaredType)type).getTypeArguments();
+        if (arguments.size() != 1 || arguments.get(0).getKind() != TypeKind.DECLARED) return null;
+        if (!((DeclaredType)arguments.get(0)).getTypeArguments().isEmpty()) return null;
+        return arguments.get(0);
+    }
+
+    /** whether the (erased) type is a subtype of the type with the given name */
+    private boolean isSubtype(TypeMirror type, String name) {
+        TypeElement element = processingEnv.getElementUtils().getTypeElement(name);
+        if (element == null) return false;
+        return processingEnv.getTypeUtils().isAssignable(type, processingEnv.getTypeUtils().erasure(element.asType()));
+    }
+
+    /** whether generated code in the given package can refer to the type */
+    private boolean accessible(TypeElement type, PackageElement pkg) {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            NestingKind nesting = ((TypeElement)element).getNestingKind();
+            if (nesting == NestingKind.LOCAL || nesting == NestingKind.ANONYMOUS) return false;
+
+            Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) return false;
+            if (!modifiers.contains(Modifier.PUBLIC) && !processingEnv.getElementUtils().getPackageOf(element).equals(pkg)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** writes the source of the generated table */
+    private void write(TypeElement type, PackageElement pkg, List<Entry> entries) {
+        String binary = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simple = (pkg.isUnnamed() ? binary : binary.substring(pkg.getQualifiedName().length() + 1)) + SUFFIX;
+        String qualified = pkg.isUnnamed() ? simple : pkg.getQualifiedName() + "." + simple;
+        if (!generated.add(qualified)) return;
+        indexed.put(binary, type);
+
+        String subscriber = type.getQualifiedName().toString();
+
+        StringBuilder out = new StringBuilder(2048);
+        if (!pkg.isUnnamed()) {
+            out.append("package ").append(pkg.getQualifiedName()).append(";\n\n");
+        }
+        out.append("/** Subscription methods of {@code ").append(subscriber).append("}. Generated by ")
+            .append(SubscriptionProcessor.class.getName()).append(", do not edit. */\n")
+            .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+            .append("public final class ").append(simple).append(" implements ").append(TABLE).append(" {\n")
+            .append("    private static final ").append(METHOD).append("[] METHODS = {\n");
+
+        for (Entry entry : entries) {
+            out.append("        new ").append(METHOD).append("(")
+                .append(literal(entry.method.getSimpleName().toString())).append(", new Class<?>[]{");
+            for (int i = 0; i < entry.parameters.size(); i++) {
+                out.append(i > 0 ? ", " : "").append(name(entry.parameters.get(i))).append(".class");
+            }
+            out.append("}, ").append(name(entry.event)).append(".class, ").append(entry.kind).append(".class, new String[]{");
+            for (int i = 0; i < entry.names.size(); i++) {
+                out.append(i > 0 ? ", " : "").append(literal(entry.names.get(i)));
+            }
+            out.append("}, new ").append(PROPERTY).append("[]{");
+            for (int i = 0; i < entry.properties.size(); i++) {
+                out.append(i > 0 ? ", " : "").append(PROPERTY).append('.').append(entry.properties.get(i));
+            }
+            out.append("}, new String[]{");
+            for (int i = 0; i < entry.contains.size(); i++) {
+                out.append(i > 0 ? ", " : "").append(literal(entry.contains.get(i)));
+            }
+            out.append("}, ").append(entry.parallel).append("),\n");
+        }
+
+        out.append("    };\n\n")
+            .append("    @Override\n")
+            .append("    public ").append(METHOD).append("[] methods() {\n")
+            .append("        return METHODS;\n")
+            .append("    }\n\n")
+            .append("    @Override\n")
+            .append("    public void invoke(int index, Object subscriber, Object unit, Object second, Object third)")
+            .append(" throws Throwable {\n")
+            .append("        switch (index) {\n");
+
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            out.append("        case ").append(i).append(":\n")
+                .append("            ((").append(subscriber).append(")subscriber).")
+                .append(entry.method.getSimpleName()).append('(');
+            String[] arguments = {"unit", "second", "third"};
+            for (int j = 0; j < entry.parameters.size(); j++) {
+                out.append(j > 0 ? ", " : "").append('(').append(name(entry.parameters.get(j))).append(')').append(arguments[j]);
+            }
+            out.append(");\n")
+                .append("            return;\n");
+        }
+
+        out.append("        default:\n")
+            .append("            throw new IllegalArgumentException(\"unknown subscription method \" + index);\n")
+            .append("        }\n")
+            .append("    }\n")
+            .append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualified, type).openWriter()) {
+            writer.write(out.toString());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "unable to write " + qualified + ": " + e, type);
+        }
+    }
+
+    /** writes the index of plugin classes with a table, so that the runtime doesn't look for tables that don't exist */
+    private void writeIndex() {
+        Element[] originating = indexed.values().toArray(new Element[0]);
+        try (Writer writer = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX, originating)
+            .openWriter()) {
+            for (String name : indexed.keySet()) {
+                writer.write(name);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "unable to write " + INDEX + ": " + e);
+        }
+    }
+
+    /** the canonical name of a declared type */
+    private static String name(TypeMirror type) {
+        return ((TypeElement)((DeclaredType)type).asElement()).getQualifiedName().toString();
+    }
+
+    /** the elements of an array annotation value */
+    @SuppressWarnings("unchecked")
+    private static List<? extends AnnotationValue> values(Object content) {
+        return (List<? extends AnnotationValue>)content;
+    }
+
+    /** the string as a java literal */
+    private String literal(String string) {
+        return processingEnv.getElementUtils().getConstantExpression(string);
+    }
+
+    /** details of one subscription method */
+    private static final class Entry {
+        final ExecutableElement method;
+        final List<TypeMirror> parameters;
+        final TypeMirror event;
+        final String kind;
+        final List<String> names = new ArrayList<>();
+        final List<String> properties = new ArrayList<>();
+        final List<String> contains = new ArrayList<>();
+        boolean parallel;
+
+        Entry(ExecutableElement method, List<TypeMirror> parameters, TypeMirror event, String kind) {
+            this.method = method;
+            this.parameters = parameters;
+            this.event = event;
+            this.kind = kind;
+        }
+    }
+}
@@ -44,7 +44,7 @@ public final class PrefixTablesUtil {
      * @return True of prefix info exists for the given property.
      */
     public static boolean isPrefixableProperty(Property property) {
-        return PrefixTables.PROPERTIES.containsRow(property);
+        return PrefixTables.PROPERTIES[property.ordinal()] != null;
     }
 
     /**
@@ -56,7 +56,7 @@ public final class PrefixTablesUtil {
      * @return True of prefix info exists for the given keyword.
      */
     public static boolean isPrefixableKeyword(Keyword keyword) {
-        return PrefixTables.KEYWORDS.containsRow(keyword);
+        return PrefixTables.KEYWORDS[keyword.ordinal()] != null;
     }
 
     /**
@@ -68,7 +68,7 @@ public final class PrefixTablesUtil {
      * @return True of prefix info exists for the given at-rule.
      */
     public static boolean isPrefixableAtRule(String name) {
-        return PrefixTables.AT_RULES.containsRow(name);
+        return PrefixTables.AT_RULES.containsKey(name);
     }
 
     /**
@@ -80,7 +80,7 @@ public final class PrefixTablesUtil {
      * @return True of prefix info exists for the given selector name.
      */
     public static boolean isPrefixableSelector(String name) {
-        return PrefixTables.SELECTORS.containsRow(name);
+        return PrefixTables.SELECTORS.containsKey(name);
     }
 
     /**
@@ -92,7 +92,7 @@ public final class PrefixTablesUtil {
      * @return True of prefix info exists for the given function name.
      */
     public static boolean isPrefixableFunction(String function) {
-        return PrefixTables.FUNCTIONS.containsRow(function);
+        return PrefixTables.FUNCTIONS.containsKey(function);
     }
 
     /**
@@ -106,8 +106,21 @@ public final class PrefixTablesUtil {
      * @return The last version, or -1 if all known versions of the browser supports the property unprefixed.
      */
     public static Double lastVersionPropertyIsPrefixed(Property property, Browser browser) {
-        final Double val = PrefixTables.PROPERTIES.get(property, browser);
-        return val != null ? val : -1d;
+        return lastVersionPropertyIsPrefixedAsDouble(property, browser);
+    }
+
+    /**
+     * Same as {@link #lastVersionPropertyIsPrefixed(Property, Browser)}, without boxing the result.
+     *
+     * @param property
+     *     The property.
+     * @param browser
+     *     The browser.
+     *
+     * @return The last version, or -1 if all known versions of the browser supports the property unprefixed.
+     */
+    public static double lastVersionPropertyIsPrefixedAsDouble(Property property, Browser browser) {
+        return version(PrefixTables.PROPERTIES[property.ordinal()], browser);
     }
 
     /**
@@ -121,8 +134,21 @@ public final class PrefixTablesUtil {
      * @return The last version, or -1 if all known versions of the browser supports the keyword unprefixed.
      */
     public static Double lastVersionKeywordIsPrefixed(Keyword keyword, Browser browser) {
-        final Double val = PrefixTables.KEYWORDS.get(keyword, browser);
-        return val != null ? val : -1d;
+        return lastVersionKeywordIsPrefixedAsDouble(keyword, browser);
+    }
+
+    /**
+     * Same as {@link #lastVersionKeywordIsPrefixed(Keyword, Browser)}, without boxing the result.
+     *
+     * @param keyword
+     *     The keyword.
+     * @param browser
+     *     The browser.
+     *
+     * @return The last version, or -1 if all known versions of the browser supports the keyword unprefixed.
+     */
+    public static double lastVersionKeywordIsPrefixedAsDouble(Keyword keyword, Browser browser) {
+        return version(PrefixTables.KEYWORDS[keyword.ordinal()], browser);
     }
 
     /**
@@ -136,8 +162,21 @@ public final class PrefixTablesUtil {
      * @return The last version, or -1 if all known versions of the browser supports the at-rule unprefixed.
      */
     public static Double lastVersionAtRuleIsPrefixed(String name, Browser browser) {
-        final Double val = PrefixTables.AT_RULES.get(name, browser);
-        return val != null ? val : -1d;
+        return lastVersionAtRuleIsPrefixedAsDouble(name, browser);
+    }
+
+    /**
+     * Same as {@link #lastVersionAtRuleIsPrefixed(String, Browser)}, without boxing the result.
+     *
+     * @param name
+     *     The at-rule name.
+     * @param browser
+     *     The browser.
+     *
+     * @return The last version, or -1 if all known versions of the browser supports the at-rule unprefixed.
+     */
+    public static double lastVersionAtRuleIsPrefixedAsDouble(String name, Browser browser) {
+        return version(PrefixTables.AT_RULES.get(name), browser);
     }
 
     /**
@@ -151,8 +190,21 @@ public final class PrefixTablesUtil {
      * @return The last version, or -1 if all known versions of the browser supports the selector unprefixed.
      */
     public static Double lastVersionSelectorIsPrefixed(String name, Browser browser) {
-        final Double val = PrefixTables.SELECTORS.get(name, browser);
-        return val != null ? val : -1d;
+        return lastVersionSelectorIsPrefixedAsDouble(name, browser);
+    }
+
+    /**
+     * Same as {@link #lastVersionSelectorIsPrefixed(String, Browser)}, without boxing the result.
+     *
+     * @param name
+     *     The selector name.
+     * @param browser
+     *     The browser.
+     *
+     * @return The last version, or -1 if all known versions of the browser supports the selector unprefixed.
+     */
+    public static double lastVersionSelectorIsPrefixedAsDouble(String name, Browser browser) {
+        return version(PrefixTables.SELECTORS.get(name), browser);
     }
 
     /**
@@ -166,7 +218,25 @@ public final class PrefixTablesUtil {
      * @return The last version, or -1 if all known versions of the browser supports the function name unprefixed.
      */
     public static Double lastVersionFunctionIsPrefixed(String name, Browser browser) {
-        final Double val = PrefixTables.FUNCTIONS.get(name, browser);
-        return val != null ? val : -1d;
+        return lastVersionFunctionIsPrefixedAsDouble(name, browser);
+    }
+
+    /**
+     * Same as {@link #lastVersionFunctionIsPrefixed(String, Browser)}, without boxing the result.
+     *
+     * @param name
+     *     The function name.
+     * @param browser
+     *     The browser.
+     *
+     * @return The last version, or -1 if all known versions of the browser supports the function name unprefixed.
+     */
+    public static double lastVersionFunctionIsPrefixedAsDouble(String name, Browser browser) {
+        return version(PrefixTables.FUNCTIONS.get(name), browser);
+    }
+
+    /** gets the version for the browser from the row, if there is one */
+    private static double version(double[] row, Browser browser) {
+        return row != null ? row[browser.ordinal()] : -1d;
     }
 }
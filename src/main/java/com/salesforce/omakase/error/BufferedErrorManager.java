@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.error;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.salesforce.omakase.ast.Syntax;
+import com.salesforce.omakase.broadcast.emitter.SubscriptionException;
+import com.salesforce.omakase.parser.ParserException;
+
+/**
+ * An {@link ErrorManager} that records reported problems so that they can be forwarded to another {@link ErrorManager} later.
+ * <p>
+ * This is used when {@link Validate} subscriptions are run in parallel. Each parallel task reports to its own instance, and once
+ * all of the tasks are done each instance is {@link #flush()}ed in document order. This way the final {@link ErrorManager}
+ * doesn't need to be thread-safe, and problems are reported in the same order every time.
+ * <p>
+ * Problems are recorded as-is, so any throwing behavior of the other {@link ErrorManager} only happens upon flushing.
+ *
+ * @author nmcwilliams
+ */
+public final class BufferedErrorManager implements ErrorManager {
+    private final ErrorManager delegate;
+    private final List<Consumer<ErrorManager>> reports = new ArrayList<>();
+    private boolean errors;
+
+    /**
+     * Creates a new {@link BufferedErrorManager}.
+     *
+     * @param delegate
+     *     Forward problems to this {@link ErrorManager} upon {@link #flush()}.
+     */
+    public BufferedErrorManager(ErrorManager delegate) {
+        this.delegate = checkNotNull(delegate, "delegate cannot be null");
+    }
+
+    @Override
+    public String getSourceName() {
+        return delegate.getSourceName();
+    }
+
+    @Override
+    public void report(ErrorLevel level, Syntax cause, String message) {
+        if (level == ErrorLevel.FATAL) errors = true;
+        reports.add(em -> em.report(level, cause, message));
+    }
+
+    @Override
+    public void report(ParserException exception) {
+        errors = true;
+        reports.add(em -> em.report(exception));
+    }
+
+    @Override
+    public void report(Diagnostic diagnostic) {
+        if (diagnostic.level() == ErrorLevel.FATAL) errors = true;
+        reports.add(em -> em.report(diagnostic));
+    }
+
+    @Override
+    public void report(SubscriptionException exception) {
+        errors = true;
+        reports.add(em -> em.report(exception));
+    }
+
+    @Override
+    public boolean hasErrors() {
+        return errors || delegate.hasErrors();
+    }
+
+    @Override
+    public boolean autoSummarize() {
+        return delegate.autoSummarize();
+    }
+
+    @Override
+    public String summarize() {
+        return delegate.summarize();
+    }
+
+    /**
+     * Gets the number of problems that have been recorded and not yet forwarded.
+     *
+     * @return The number of recorded problems.
+     */
+    public int size() {
+        return reports.size();
+    }
+
+    /**
+     * Forwards all recorded problems to the delegate {@link ErrorManager}, in the order they were reported.
+     */
+    public void flush() {
+        List<Consumer<ErrorManager>> copy = new ArrayList<>(reports);
+        reports.clear();
+        errors = false;
+        for (Consumer<ErrorManager> report : copy) {
+            report.accept(delegate);
+        }
+    }
+}
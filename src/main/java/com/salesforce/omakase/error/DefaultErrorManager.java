@@ -41,8 +41,8 @@ import com.salesforce.omakase.parser.ParserException;
 public class DefaultErrorManager implements ErrorManager {
     private final String sourceName;
 
-    private final List<String> errors = new ArrayList<>();
-    private final List<String> warnings = new ArrayList<>();
+    private final List<Diagnostic> errors = new ArrayList<>();
+    private final List<Diagnostic> warnings = new ArrayList<>();
     private final List<SubscriptionException> exceptions = new ArrayList<>();
 
     private boolean rethrow;
@@ -103,14 +103,9 @@ public class DefaultErrorManager implements ErrorManager {
 
     @Override
     public void report(ErrorLevel level, Syntax cause, String message) {
-        switch (level) {
-        case FATAL:
-            errors.add(ErrorUtils.format(sourceName, cause, message));
-            break;
-        case WARNING:
-            warnings.add(ErrorUtils.format(sourceName, cause, message));
-            break;
-        }
+        // the message is only rendered if it's actually requested, e.g., in the summary
+        record(new Diagnostic(level, cause.line(), cause.column(), message, null,
+            name -> ErrorUtils.format(name, cause, message)));
     }
 
     @Override
@@ -118,7 +113,12 @@ public class DefaultErrorManager implements ErrorManager {
         if (rethrow) {
             throw exception;
         }
-        errors.add(ErrorUtils.format(sourceName, exception.getMessage()));
+        record(exception.diagnostic());
+    }
+
+    @Override
+    public void report(Diagnostic diagnostic) {
+        record(diagnostic);
     }
 
     @Override
@@ -129,6 +129,18 @@ public class DefaultErrorManager implements ErrorManager {
         this.exceptions.add(exception);
     }
 
+    /**
+     * Gets all reported errors and warnings (excluding {@link SubscriptionException}s), errors first, each in the order reported.
+     *
+     * @return The reported problems.
+     */
+    public List<Diagnostic> diagnostics() {
+        List<Diagnostic> all = new ArrayList<>(errors.size() + warnings.size());
+        all.addAll(errors);
+        all.addAll(warnings);
+        return all;
+    }
+
     @Override
     public boolean hasErrors() {
         return !errors.isEmpty() || !exceptions.isEmpty() || (showWarnings && !warnings.isEmpty());
@@ -169,9 +181,9 @@ public class DefaultErrorManager implements ErrorManager {
             builder.append("Omakase CSS Parser - Errors\n");
             builder.append("----------------------------");
 
-            for (String error : errors) {
+            for (Diagnostic error : errors) {
                 builder.append("\n");
-                builder.append(error);
+                builder.append(error.message(sourceName));
                 builder.append("\n");
             }
         }
@@ -184,13 +196,25 @@ public class DefaultErrorManager implements ErrorManager {
             builder.append("Omakase CSS Parser - Warnings\n");
             builder.append("------------------------------");
 
-            for (String warning : warnings) {
+            for (Diagnostic warning : warnings) {
                 builder.append("\n");
-                builder.append(warning);
+                builder.append(warning.message(sourceName));
                 builder.append("\n");
             }
         }
 
         return builder.toString();
     }
+
+    /** adds the diagnostic to the list for its level */
+    private void record(Diagnostic diagnostic) {
+        switch (diagnostic.level()) {
+        case FATAL:
+            errors.add(diagnostic);
+            break;
+        case WARNING:
+            warnings.add(diagnostic);
+            break;
+        }
+    }
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.error;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A structured description of a problem, such as a parser error that was recovered from.
+ * <p>
+ * The message text (which may include the surrounding source code context) is not rendered until it is actually requested via
+ * {@link #message()}, so recording a large number of diagnostics is cheap when most of them are never read.
+ *
+ * @author nmcwilliams
+ */
+public final class Diagnostic {
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final ErrorLevel level;
+    private final int line;
+    private final int column;
+    private final String code;
+    private final Object[] args;
+    private final Function<String, String> renderer;
+
+    private String message;
+
+    /**
+     * Creates a new {@link Diagnostic}.
+     *
+     * @param level
+     *     The {@link ErrorLevel}.
+     * @param line
+     *     The line number where the problem occurred, or -1 if unknown.
+     * @param column
+     *     The column number where the problem occurred, or -1 if unknown.
+     * @param code
+     *     The unformatted message, usually one of the constants in {@link com.salesforce.omakase.Message}.
+     * @param args
+     *     The {@link String#format(String, Object...)} parameters for the message.
+     * @param renderer
+     *     Renders the full message text. The argument to the function is the name of the source (may be null).
+     */
+    public Diagnostic(ErrorLevel level, int line, int column, String code, Object[] args, Function<String, String> renderer) {
+        this.level = checkNotNull(level, "level cannot be null");
+        this.line = line;
+        this.column = column;
+        this.code = checkNotNull(code, "code cannot be null");
+        this.args = args == null ? NO_ARGS : args;
+        this.renderer = checkNotNull(renderer, "renderer cannot be null");
+    }
+
+    /**
+     * Gets the {@link ErrorLevel}.
+     *
+     * @return The error level.
+     */
+    public ErrorLevel level() {
+        return level;
+    }
+
+    /**
+     * Gets the line number where the problem occurred.
+     *
+     * @return The line number, or -1 if unknown.
+     */
+    public int line() {
+        return line;
+    }
+
+    /**
+     * Gets the column number where the problem occurred.
+     *
+     * @return The column number, or -1 if unknown.
+     */
+    public int column() {
+        return column;
+    }
+
+    /**
+     * Gets the unformatted message, usually one of the constants in {@link com.salesforce.omakase.Message}. This can be used to
+     * identify the type of problem without rendering the full message.
+     *
+     * @return The unformatted message.
+     */
+    public String code() {
+        return code;
+    }
+
+    /**
+     * Gets the {@link String#format(String, Object...)} parameters for the message.
+     *
+     * @return The message parameters.
+     */
+    public List<Object> args() {
+        return Collections.unmodifiableList(Arrays.asList(args));
+    }
+
+    /**
+     * Gets the full message text. The message is rendered on the first call to this method.
+     *
+     * @return The message text.
+     */
+    public String message() {
+        if (message == null) {
+            message = renderer.apply(null);
+        }
+        return message;
+    }
+
+    /**
+     * Gets the full message text, including the given source name.
+     *
+     * @param sourceName
+     *     Name of the resource (e.g., file name) that has the problem, or null.
+     *
+     * @return The message text.
+     */
+    public String message(String sourceName) {
+        return sourceName == null ? message() : renderer.apply(sourceName);
+    }
+
+    @Override
+    public String toString() {
+        return message();
+    }
+
+    /**
+     * Creates a {@link Diagnostic} with an already formatted message.
+     *
+     * @param level
+     *     The {@link ErrorLevel}.
+     * @param line
+     *     The line number where the problem occurred, or -1 if unknown.
+     * @param column
+     *     The column number where the problem occurred, or -1 if unknown.
+     * @param message
+     *     The message.
+     *
+     * @return The new {@link Diagnostic} instance.
+     */
+    public static Diagnostic of(ErrorLevel level, int line, int column, String message) {
+        return new Diagnostic(level, line, column, message, NO_ARGS, name -> ErrorUtils.format(name, message));
+    }
+}
@@ -73,6 +73,20 @@ public interface ErrorManager {
      */
     void report(ParserException exception);
 
+    /**
+     * Reports a problem that the parser has recovered from. See {@link com.salesforce.omakase.Omakase.Request#recover(boolean)}.
+     * <p>
+     * Parsing continues after this method returns, so implementations should usually record the problem instead of throwing an
+     * exception. The default implementation reports the problem as a {@link ParserException} via {@link
+     * #report(ParserException)}.
+     *
+     * @param diagnostic
+     *     The details of the problem.
+     */
+    default void report(Diagnostic diagnostic) {
+        report(new ParserException(diagnostic));
+    }
+
     /**
      * Reports an uncaught exception from a subscription method.
      * <p>
@@ -72,14 +72,37 @@ public final class ErrorUtils {
      * @return The formatted message.
      */
     public static String format(String sourceName, Source source, String message) {
+        return format(sourceName, source.snapshot(), message);
+    }
+
+    /**
+     * Formats a parsing error message.
+     *
+     * @param position The captured position in the source where the error occurred.
+     * @param message  The error message.
+     * @return The formatted message.
+     */
+    public static String format(Source.Snapshot position, String message) {
+        return format(null, position, message);
+    }
+
+    /**
+     * Formats a parsing error message.
+     *
+     * @param sourceName Name of the resource (e.g., file name) that has the problem.
+     * @param position   The captured position in the source where the error occurred.
+     * @param message    The error message.
+     * @return The formatted message.
+     */
+    public static String format(String sourceName, Source.Snapshot position, String message) {
         String fmt = "%s:\nat line %s, column %s%s %s\n'%s'";
         return String.format(fmt,
             message,
-            source.originalLine(),
-            source.originalColumn(),
+            position.originalLine,
+            position.originalColumn,
             sourceName != null ? " (" + sourceName + ") " : "",
-            source.isSubSource() ? "near" : "in",
-            source.toStringContextual()
+            position.isSubSource() ? "near" : "in",
+            position.toStringContextual()
         );
     }
 
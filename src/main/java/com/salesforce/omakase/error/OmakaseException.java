@@ -65,4 +65,22 @@ public class OmakaseException extends RuntimeException {
     public OmakaseException(Throwable cause) {
         super(cause);
     }
+
+    /**
+     * Creates a new exception with the given message and cause, optionally without capturing the stack trace.
+     * <p>
+     * Capturing the stack trace is by far the most expensive part of creating an exception. It can be skipped for exceptions
+     * that describe a problem in the CSS input, where the position in the source is the interesting location and not the
+     * position in the code.
+     *
+     * @param message
+     *     The description of the exception.
+     * @param cause
+     *     The cause of the exception (may be null).
+     * @param writableStackTrace
+     *     Whether the stack trace should be captured.
+     */
+    protected OmakaseException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, true, writableStackTrace);
+    }
 }
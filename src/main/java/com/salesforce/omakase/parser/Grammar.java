@@ -26,6 +26,9 @@
 
 package com.salesforce.omakase.parser;
 
+import static com.google.common.base.Preconditions.checkState;
+
+import com.salesforce.omakase.error.ErrorManager;
 import com.salesforce.omakase.parser.factory.ParserFactory;
 import com.salesforce.omakase.parser.factory.StandardParserFactory;
 import com.salesforce.omakase.parser.factory.StandardTokenFactory;
@@ -43,6 +46,7 @@ import com.salesforce.omakase.parser.factory.TokenFactory;
 public final class Grammar {
     private final TokenFactory tokenFactory;
     private final ParserFactory parserFactory;
+    private final ErrorManager recovery;
 
     /**
      * Creates a new instance using standard grammar constructs.
@@ -60,8 +64,26 @@ public final class Grammar {
      *     The parser factory, or null to use the standard.
      */
     public Grammar(TokenFactory tokenFactory, ParserFactory parserFactory) {
+        this(tokenFactory, parserFactory, null);
+    }
+
+    /**
+     * Creates a new instance using standard or custom grammar constructs, optionally in error recovery mode.
+     * <p>
+     * In error recovery mode, parsers that support it will report errors to the given {@link ErrorManager} and then skip past the
+     * malformed content instead of aborting the entire parse operation. See {@link #isRecovering()}.
+     *
+     * @param tokenFactory
+     *     The token factory, or null to use the standard.
+     * @param parserFactory
+     *     The parser factory, or null to use the standard.
+     * @param recovery
+     *     Report recovered errors to this error manager, or null to disable error recovery.
+     */
+    public Grammar(TokenFactory tokenFactory, ParserFactory parserFactory, ErrorManager recovery) {
         this.tokenFactory = tokenFactory != null ? tokenFactory : StandardTokenFactory.instance();
         this.parserFactory = parserFactory != null ? parserFactory : StandardParserFactory.instance();
+        this.recovery = recovery;
     }
 
     /**
@@ -81,4 +103,28 @@ public final class Grammar {
     public ParserFactory parser() {
         return parserFactory;
     }
+
+    /**
+     * Gets whether parsers should recover from errors.
+     * <p>
+     * When true, parsers that catch a {@link ParserException} should report it with {@link #recover(ParserException)} and then
+     * skip to the next point where parsing can safely resume (e.g., with {@link Source#skipMalformed(Token, Token, Token,
+     * boolean)}). Otherwise the exception should be left to propagate as usual.
+     *
+     * @return True if parsers should recover from errors.
+     */
+    public boolean isRecovering() {
+        return recovery != null;
+    }
+
+    /**
+     * Reports an error that is being recovered from. Only call this when {@link #isRecovering()} is true.
+     *
+     * @param exception
+     *     The error.
+     */
+    public void recover(ParserException exception) {
+        checkState(recovery != null, "not in error recovery mode");
+        recovery.report(exception.diagnostic());
+    }
 }
@@ -28,17 +28,29 @@ package com.salesforce.omakase.parser;
 
 import com.salesforce.omakase.Message;
 import com.salesforce.omakase.ast.Syntax;
+import com.salesforce.omakase.error.Diagnostic;
+import com.salesforce.omakase.error.ErrorLevel;
 import com.salesforce.omakase.error.ErrorUtils;
 import com.salesforce.omakase.error.OmakaseException;
 
 /**
  * An error encountered while parsing.
+ * <p>
+ * The details of the error are available in structured form from {@link #diagnostic()}. The message text (which includes the
+ * surrounding source code context) is not rendered until it is requested.
+ * <p>
+ * Instances do not capture a stack trace. The message already identifies where in the CSS source the problem is, and the
+ * exception is frequently created just to be reported to an {@link com.salesforce.omakase.error.ErrorManager} that never
+ * rethrows it. Exceptions thrown from plugins are still available with their stack trace through {@link #getCause()}.
  *
  * @author nmcwilliams
  */
 public final class ParserException extends OmakaseException {
     private static final long serialVersionUID = -8952238331167900360L;
 
+    private final transient Diagnostic diagnostic;
+    private final transient Source source;
+
     /**
      * Constructs a new instance of a {@link ParserException} with the given message and message parameters.
      *
@@ -50,7 +62,11 @@ public final class ParserException extends OmakaseException {
      *     The {@link String#format(String, Object...)} parameters.
      */
     public ParserException(Source source, String message, Object... args) {
-        this(source, Message.fmt(message, args));
+        super(null, null, false);
+        Source.Snapshot position = source.snapshot();
+        this.source = source;
+        this.diagnostic = new Diagnostic(ErrorLevel.FATAL, position.originalLine, position.originalColumn, message, args,
+            name -> ErrorUtils.format(name, ErrorUtils.format(position, Message.fmt(message, args))));
     }
 
     /**
@@ -64,7 +80,7 @@ public final class ParserException extends OmakaseException {
      *     The error message.
      */
     public ParserException(Syntax cause, String message) {
-        super(ErrorUtils.format(cause, message));
+        this(cause, message, (Object[])null);
     }
 
     /**
@@ -78,7 +94,10 @@ public final class ParserException extends OmakaseException {
      *     The {@link String#format(String, Object...)} parameters.
      */
     public ParserException(Syntax cause, String message, Object... args) {
-        this(cause, Message.fmt(message, args));
+        super(null, null, false);
+        this.source = null;
+        this.diagnostic = new Diagnostic(ErrorLevel.FATAL, cause.line(), cause.column(), message, args,
+            name -> ErrorUtils.format(name, ErrorUtils.format(cause, Message.fmt(message, args))));
     }
 
     /**
@@ -90,7 +109,7 @@ public final class ParserException extends OmakaseException {
      *     The error message.
      */
     public ParserException(Source source, String message) {
-        super(ErrorUtils.format(source, message));
+        this(source, message, (Object[])null);
     }
 
     /**
@@ -101,6 +120,46 @@ public final class ParserException extends OmakaseException {
      *     The cause of the exception.
      */
     public ParserException(Throwable cause) {
-        super(cause);
+        super(cause == null ? null : cause.toString(), cause, false);
+        this.source = null;
+        this.diagnostic = Diagnostic.of(ErrorLevel.FATAL, -1, -1, super.getMessage());
+    }
+
+    /**
+     * Constructs a new instance of a {@link ParserException} from the given {@link Diagnostic}.
+     *
+     * @param diagnostic
+     *     The details of the error.
+     */
+    public ParserException(Diagnostic diagnostic) {
+        super(null, null, false);
+        this.source = null;
+        this.diagnostic = diagnostic;
+    }
+
+    /**
+     * Gets the structured details of the error.
+     *
+     * @return The {@link Diagnostic}.
+     */
+    public Diagnostic diagnostic() {
+        return diagnostic;
+    }
+
+    /**
+     * Gets whether this error was found while reading the given {@link Source}.
+     *
+     * @param source
+     *     Check against this source.
+     *
+     * @return True if the error was found in the given source.
+     */
+    boolean isFrom(Source source) {
+        return this.source == source;
+    }
+
+    @Override
+    public String getMessage() {
+        return diagnostic != null ? diagnostic.message() : super.getMessage();
     }
 }
@@ -687,6 +687,69 @@ public final class Source {
         throw new ParserException(this, Message.EXPECTED_CLOSING, closingToken.description());
     }
 
+    /**
+     * Skips over malformed content so that parsing can resume after an error. This is used when parsing in error recovery mode
+     * (see {@link Grammar#isRecovering()}).
+     * <p>
+     * Characters are skipped until the given termination {@link Token} is found outside of any string, comment, parenthesis or
+     * block, or until an unmatched block end is found. If {@code consume} is true then the matching token is skipped as well, and
+     * the closing of a block that was opened within the malformed content also ends the skipping (e.g., a rule with an
+     * unparsable selector). Comments within the skipped content are discarded.
+     *
+     * @param termination
+     *     Stop at this token.
+     * @param blockBegin
+     *     The token that opens a block.
+     * @param blockEnd
+     *     The token that closes a block.
+     * @param consume
+     *     Whether to skip past the token that ends the malformed content.
+     * @return this, for chaining.
+     */
+    public Source skipMalformed(Token termination, Token blockBegin, Token blockEnd, boolean consume) {
+        int blocks = 0;
+        int parens = 0;
+
+        try {
+            while (!eof()) {
+                if (!inString && findComments(false)) continue;
+
+                char current = chars[index];
+
+                if (!inString && !isEscaped()) {
+                    if (OPEN_PAREN.matches(current)) {
+                        parens++;
+                    } else if (parens > 0) {
+                        if (CLOSE_PAREN.matches(current)) parens--;
+                    } else if (blocks == 0 && termination.matches(current)) {
+                        if (consume) next();
+                        break;
+                    } else if (blockBegin.matches(current)) {
+                        blocks++;
+                    } else if (blockEnd.matches(current)) {
+                        if (blocks == 0) {
+                            // unmatched, e.g., the end of the enclosing block
+                            if (consume) next();
+                            break;
+                        }
+                        if (--blocks == 0 && consume) {
+                            next();
+                            break;
+                        }
+                    }
+                }
+
+                next();
+            }
+        } catch (ParserException e) {
+            // unclosed comment, so there is nothing left to recover
+            forward(length);
+        }
+
+        comments = null;
+        return this;
+    }
+
     /**
      * Parses all comments and whitespace at the current position in the source.
      * <p>
@@ -961,8 +1024,7 @@ public final class Source {
 
     @Override
     public String toString() {
-        String source = new String(chars);
-        return String.format("%s\u00BB%s", source.substring(0, index), source.substring(index));
+        return toString(index);
     }
 
     /**
@@ -972,14 +1034,25 @@ public final class Source {
      * @return The contextualized string.
      */
     public String toStringContextual() {
-        if (length < 255) return toString();
+        return toStringContextual(index);
+    }
+
+    /** string representation with the position marker at the given index */
+    private String toString(int index) {
+        String source = new String(chars);
+        return String.format("%s\u00BB%s", source.substring(0, index), source.substring(index));
+    }
+
+    /** contextual string representation with the position marker at the given index */
+    private String toStringContextual(int index) {
+        if (length < 255) return toString(index);
 
         // ensure we stay within the index bounds
         int start = Math.max(0, index - 75);
         int end = Math.min(length, index + 75);
 
         // take a substring of the whole source
-        String contextual = toString().substring(start, end);
+        String contextual = toString(index).substring(start, end);
 
         StringBuilder builder = new StringBuilder(256);
         if (start > 0) {
@@ -1058,6 +1131,24 @@ public final class Source {
             this.originalColumn = source.originalColumn();
         }
 
+        /**
+         * Gets whether the source of this snapshot is a sub-source. See {@link Source#isSubSource()}.
+         *
+         * @return True if the source is a sub-source.
+         */
+        public boolean isSubSource() {
+            return source.isSubSource();
+        }
+
+        /**
+         * Same as {@link Source#toStringContextual()}, except the position is the one captured within this snapshot.
+         *
+         * @return The contextualized string.
+         */
+        public String toStringContextual() {
+            return source.toStringContextual(index);
+        }
+
         /**
          * Reverts to the state (index, line, column, etc...) captured within this given snapshot.
          *
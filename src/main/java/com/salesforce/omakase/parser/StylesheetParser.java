@@ -32,6 +32,7 @@ import com.salesforce.omakase.ast.Stylesheet;
 import com.salesforce.omakase.broadcast.Broadcaster;
 import com.salesforce.omakase.broadcast.InterestBroadcaster;
 import com.salesforce.omakase.broadcast.TypeInterestBroadcaster;
+import com.salesforce.omakase.parser.factory.TokenFactory;
 
 /**
  * Parses a top-level {@link Stylesheet}.
@@ -50,17 +51,24 @@ public final class StylesheetParser implements Parser {
         interest.chain(broadcaster);
 
         while (true) {
-            if (!statement.parse(source, grammar, interest)) {
-                break;
-            }
-        }
+            int start = source.index();
 
-        // collect any orphaned comments and move past trailing space
-        source.collectComments();
+            try {
+                if (!statement.parse(source, grammar, interest)) {
+                    // collect any orphaned comments and move past trailing space
+                    source.collectComments();
 
-        // after all rules and content is parsed, there should be nothing left in the source
-        if (!source.eof()) {
-            throw new ParserException(source, Message.EXTRANEOUS, source.remaining());
+                    // after all rules and content is parsed, there should be nothing left in the source
+                    if (!source.eof()) {
+                        throw new ParserException(source, Message.EXTRANEOUS, source.remaining());
+                    }
+                    break;
+                }
+            } catch (ParserException e) {
+                if (!grammar.isRecovering()) throw e;
+                grammar.recover(e);
+                recover(source, grammar.token(), start, e);
+            }
         }
 
         // create the stylesheet
@@ -76,4 +84,15 @@ public final class StylesheetParser implements Parser {
         return true;
     }
 
+    /** skips to the next statement after an error */
+    private static void recover(Source source, TokenFactory tf, int start, ParserException e) {
+        // refinement errors (e.g., from an at-rule block) can surface after the statement was completely parsed, in which case we
+        // are already at the beginning of the next statement
+        if (!e.isFrom(source) && source.index() > start) {
+            char previous = source.peekPrevious();
+            if (tf.atRuleTermination().matches(previous) || tf.atRuleBlockEnd().matches(previous)) return;
+        }
+        source.skipMalformed(tf.atRuleTermination(), tf.atRuleBlockBegin(), tf.atRuleBlockEnd(), true);
+    }
+
 }
@@ -26,10 +26,13 @@
 
 package com.salesforce.omakase.parser.declaration;
 
+import com.salesforce.omakase.Message;
 import com.salesforce.omakase.broadcast.Broadcaster;
 import com.salesforce.omakase.parser.Grammar;
 import com.salesforce.omakase.parser.Parser;
+import com.salesforce.omakase.parser.ParserException;
 import com.salesforce.omakase.parser.Source;
+import com.salesforce.omakase.parser.factory.TokenFactory;
 import com.salesforce.omakase.parser.token.Token;
 
 /**
@@ -42,10 +45,25 @@ public final class DeclarationSequenceParser implements Parser {
     @Override
     public boolean parse(Source source, Grammar grammar, Broadcaster broadcaster) {
         Parser declaration = grammar.parser().rawDeclarationParser();
-        Token delimiter = grammar.token().declarationDelimiter();
+        TokenFactory tf = grammar.token();
+        Token delimiter = tf.declarationDelimiter();
         boolean parsed = false;
         do {
-            if (declaration.parse(source.skipWhitepace(), grammar, broadcaster)) parsed = true;
+            try {
+                if (declaration.parse(source.skipWhitepace(), grammar, broadcaster)) {
+                    parsed = true;
+                } else if (grammar.isRecovering() && !source.eof() && !delimiter.matches(source.current())
+                    && !tf.declarationBlockEnd().matches(source.current())) {
+                    // only when recovering, otherwise the enclosing parser reports the unexpected content
+                    throw new ParserException(source, Message.EXPECTED_TO_FIND, "a declaration");
+                }
+            } catch (ParserException e) {
+                if (!grammar.isRecovering()) throw e;
+                grammar.recover(e);
+
+                // skip to the next delimiter or the end of the block
+                source.skipMalformed(delimiter, tf.declarationBlockBegin(), tf.declarationBlockEnd(), false);
+            }
         } while (source.skipWhitepace().optionallyPresent(delimiter));
 
         return parsed;
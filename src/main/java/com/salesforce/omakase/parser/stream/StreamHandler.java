@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.parser.stream;
+
+/**
+ * Receives the events from a {@link StreamingParser}.
+ * <p>
+ * All methods have a default empty implementation, so only the events of interest need to be implemented. Events are delivered
+ * in document order. For example, the CSS <code>.a, .b { color: red }</code> results in {@link #startRule(int, int)}, {@link
+ * #selector(String)} (".a"), {@link #selector(String)} (".b"), {@link #declaration(String, String, boolean, int, int)} ("color",
+ * "red") and then {@link #endRule()}.
+ * <p>
+ * Text given to these methods has comments removed, runs of whitespace collapsed into a single space, and leading and trailing
+ * whitespace removed. The content is not otherwise validated or refined.
+ *
+ * @author nmcwilliams
+ */
+public interface StreamHandler {
+    /**
+     * Called at the beginning of a rule, before its selectors.
+     *
+     * @param line
+     *     The line number of the rule.
+     * @param column
+     *     The column number of the rule.
+     */
+    default void startRule(int line, int column) {}
+
+    /**
+     * Called for each selector (separated by commas) of the current rule.
+     *
+     * @param selector
+     *     The selector text, e.g., ".a > .b".
+     */
+    default void selector(String selector) {}
+
+    /**
+     * Called for each declaration. Declarations are usually within a rule, but may also be directly within an at-rule (e.g.,
+     * {@code @font-face}).
+     *
+     * @param property
+     *     The property name, e.g., "color".
+     * @param value
+     *     The property value, without any "!important", e.g., "red".
+     * @param important
+     *     Whether the declaration is marked "!important".
+     * @param line
+     *     The line number of the declaration.
+     * @param column
+     *     The column number of the declaration.
+     */
+    default void declaration(String property, String value, boolean important, int line, int column) {}
+
+    /**
+     * Called at the end of the current rule.
+     */
+    default void endRule() {}
+
+    /**
+     * Called at the beginning of an at-rule. If the at-rule has a block then everything in the block is reported before the
+     * matching call to {@link #endAtRule()}. Otherwise {@link #endAtRule()} is called immediately after.
+     *
+     * @param name
+     *     The at-rule name, without the '@', e.g., "media".
+     * @param expression
+     *     The at-rule expression, e.g., "all and (min-width: 800px)". Empty if there isn't one.
+     * @param line
+     *     The line number of the at-rule.
+     * @param column
+     *     The column number of the at-rule.
+     */
+    default void startAtRule(String name, String expression, int line, int column) {}
+
+    /**
+     * Called at the end of the current at-rule.
+     */
+    default void endAtRule() {}
+}
@@ -0,0 +1,477 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.parser.stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.salesforce.omakase.Message;
+import com.salesforce.omakase.error.Diagnostic;
+import com.salesforce.omakase.error.ErrorLevel;
+import com.salesforce.omakase.parser.ParserException;
+import com.salesforce.omakase.parser.token.Tokens;
+
+/**
+ * Parses CSS into a sequence of events (see {@link StreamHandler}), without creating any {@link Syntax} units.
+ * <p>
+ * This is useful when only certain facts need to be extracted from the CSS (e.g., all selectors or all url values) and the syntax
+ * tree itself isn't needed. The source is read incrementally from a {@link Reader}, and only the text of the current selector,
+ * declaration or at-rule prelude is held in memory at any one time. This allows very large inputs to be parsed in constant
+ * memory.
+ * <p>
+ * Only the high-level structure is parsed: rules, selectors, declarations and at-rules (including nested blocks). Selectors and
+ * declaration values are reported as text and are not validated. Use {@link Omakase} for full parsing.
+ * <p>
+ * The character offsets of the current event in the source are available from {@link #itemStart()}, {@link #itemEnd()} and
+ * {@link #offset()}, for handlers that need to refer back to the source text.
+ * <p>
+ * Instances are not thread-safe, but can be reused for multiple sources.
+ * <p>
+ * Example:
+ * <pre><code>
+ * new StreamingParser(new StreamHandler() {
+ *     {@literal @}Override
+ *     public void selector(String selector) {
+ *         System.out.println(selector);
+ *     }
+ * }).parse(reader);
+ * </code></pre>
+ *
+ * @author nmcwilliams
+ */
+public final class StreamingParser {
+    private static final int CHUNK_SIZE = 8192;
+
+    private final StreamHandler handler;
+
+    /** text of the current selector sequence, declaration or at-rule */
+    private final StringBuilder item = new StringBuilder(256);
+
+    /** the open blocks, true for rules and false for at-rules */
+    private final Deque<Boolean> blocks = new ArrayDeque<>();
+
+    private long offset;
+    private long itemStart;
+    private long itemEnd;
+    private int line;
+    private int column;
+    private int itemLine;
+    private int itemColumn;
+    private int depth;
+    private char quote;
+    private boolean escaped;
+    private boolean slash;
+    private boolean comment;
+    private boolean star;
+
+    /**
+     * Creates a new {@link StreamingParser}.
+     *
+     * @param handler
+     *     Send events to this {@link StreamHandler}.
+     */
+    public StreamingParser(StreamHandler handler) {
+        this.handler = checkNotNull(handler, "handler cannot be null");
+    }
+
+    /**
+     * Parses the given source.
+     *
+     * @param source
+     *     The CSS source.
+     *
+     * @throws ParserException
+     *     If the source is malformed, e.g., has an unclosed block.
+     */
+    public void parse(CharSequence source) {
+        try {
+            parse(new StringReader(source.toString()));
+        } catch (IOException e) {
+            throw new AssertionError(e); // not possible with a string reader
+        }
+    }
+
+    /**
+     * Parses the source from the given {@link Reader}. The reader is read until the end, but is not closed.
+     *
+     * @param reader
+     *     Read the CSS source from this reader.
+     *
+     * @throws IOException
+     *     If thrown by the reader.
+     * @throws ParserException
+     *     If the source is malformed, e.g., has an unclosed block.
+     */
+    public void parse(Reader reader) throws IOException {
+        reset();
+
+        char[] chunk = new char[CHUNK_SIZE];
+        int read;
+        while ((read = reader.read(chunk)) != -1) {
+            for (int i = 0; i < read; i++) {
+                accept(chunk[i]);
+            }
+        }
+
+        finish();
+    }
+
+    /**
+     * Gets the number of characters read from the source so far. During {@link StreamHandler#endRule()} and {@link
+     * StreamHandler#endAtRule()}, this is the offset just past the '}' or ';' that ended the block or at-rule.
+     *
+     * @return The number of characters read.
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * Gets the offset of the first character of the current selector sequence, declaration or at-rule prelude. This is only
+     * meaningful during {@link StreamHandler#startRule(int, int)}, {@link StreamHandler#selector(String)}, {@link
+     * StreamHandler#declaration(String, String, boolean, int, int)} and {@link StreamHandler#startAtRule(String, String, int,
+     * int)}.
+     *
+     * @return The offset of the first character.
+     */
+    public long itemStart() {
+        return itemStart;
+    }
+
+    /**
+     * Gets the offset just past the last character of the current selector sequence, declaration or at-rule prelude, not
+     * including any trailing whitespace or comments, or the '{', ';' or '}' that ended it. See {@link #itemStart()}.
+     *
+     * @return The offset just past the last character.
+     */
+    public long itemEnd() {
+        return itemEnd;
+    }
+
+    /** resets all state for a new source */
+    private void reset() {
+        item.setLength(0);
+        blocks.clear();
+        offset = 0;
+        itemStart = 0;
+        itemEnd = 0;
+        line = 1;
+        column = 0;
+        depth = 0;
+        quote = 0;
+        escaped = false;
+        slash = false;
+        comment = false;
+        star = false;
+    }
+
+    /** handles the next character */
+    private void accept(char c) {
+        offset++;
+        if (c == '\n') {
+            line++;
+            column = 0;
+        } else {
+            column++;
+        }
+
+        // skip comments
+        if (comment) {
+            if (star && c == '/') {
+                comment = false;
+            }
+            star = c == '*';
+            return;
+        }
+
+        // strings and escaped characters are kept as-is
+        if (quote != 0 || escaped) {
+            item.append(c);
+            itemEnd = offset;
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == quote) {
+                quote = 0;
+            }
+            return;
+        }
+
+        // a slash may be the start of a comment
+        if (slash) {
+            slash = false;
+            if (c == '*') {
+                comment = true;
+                star = false;
+                return;
+            }
+
+            // the slash was the previous character
+            offset--;
+            append('/');
+            offset++;
+        }
+
+        switch (c) {
+        case '/':
+            slash = true;
+            break;
+        case '\\':
+            append(c);
+            escaped = true;
+            break;
+        case '"':
+        case '\'':
+            append(c);
+            quote = c;
+            break;
+        case '(':
+        case '[':
+            append(c);
+            depth++;
+            break;
+        case ')':
+        case ']':
+            append(c);
+            if (depth > 0) depth--;
+            break;
+        case '{':
+            if (depth == 0) {
+                openBlock();
+            } else {
+                append(c);
+            }
+            break;
+        case '}':
+            if (depth == 0) {
+                closeBlock();
+            } else {
+                append(c);
+            }
+            break;
+        case ';':
+            if (depth == 0) {
+                endItem();
+            } else {
+                append(c);
+            }
+            break;
+        default:
+            append(c);
+        }
+    }
+
+    /** adds the character to the current item, collapsing whitespace */
+    private void append(char c) {
+        if (Tokens.WHITESPACE.matches(c)) {
+            if (item.length() > 0 && item.charAt(item.length() - 1) != ' ') {
+                item.append(' ');
+            }
+        } else {
+            if (item.length() == 0) {
+                itemLine = line;
+                itemColumn = column;
+                itemStart = offset - 1;
+            }
+            item.append(c);
+            itemEnd = offset;
+        }
+    }
+
+    /** the current item without trailing whitespace */
+    private String text() {
+        int length = item.length();
+        if (length > 0 && item.charAt(length - 1) == ' ') {
+            length--;
+        }
+        return item.substring(0, length);
+    }
+
+    /** handles the start of a block, i.e., the item is a selector sequence or an at-rule prelude */
+    private void openBlock() {
+        String text = text();
+        item.setLength(0);
+
+        if (text.isEmpty()) {
+            throw error(Message.fmt(Message.EXPECTED_TO_FIND, "a selector or at-rule before '{'"));
+        }
+
+        if (text.charAt(0) == '@') {
+            startAtRule(text);
+            blocks.push(false);
+        } else {
+            handler.startRule(itemLine, itemColumn);
+            selectors(text);
+            blocks.push(true);
+        }
+    }
+
+    /** handles the end of a block */
+    private void closeBlock() {
+        endItem();
+
+        if (blocks.isEmpty()) {
+            throw error(Message.fmt(Message.EXTRANEOUS, "}"));
+        }
+
+        if (blocks.pop()) {
+            handler.endRule();
+        } else {
+            handler.endAtRule();
+        }
+    }
+
+    /** handles the end of a declaration or of an at-rule without a block */
+    private void endItem() {
+        String text = text();
+        item.setLength(0);
+
+        if (text.isEmpty()) return;
+
+        if (text.charAt(0) == '@') {
+            startAtRule(text);
+            handler.endAtRule();
+        } else if (blocks.isEmpty()) {
+            throw error(Message.fmt(Message.EXTRANEOUS, text));
+        } else {
+            declaration(text);
+        }
+    }
+
+    /** reports the at-rule with the given prelude */
+    private void startAtRule(String text) {
+        int end = 1;
+        while (end < text.length() && text.charAt(end) != ' ' && text.charAt(end) != '(') {
+            end++;
+        }
+        if (end == 1) {
+            throw error(Message.MISSING_AT_RULE_NAME);
+        }
+        handler.startAtRule(text.substring(1, end), text.substring(end).trim(), itemLine, itemColumn);
+    }
+
+    /** reports each selector in the given comma-separated text */
+    private void selectors(String text) {
+        int start = 0;
+        int nesting = 0;
+        char inQuote = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (inQuote != 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == inQuote) {
+                    inQuote = 0;
+                }
+            } else if (c == '\\') {
+                i++;
+            } else if (c == '"' || c == '\'') {
+                inQuote = c;
+            } else if (c == '(' || c == '[') {
+                nesting++;
+            } else if (c == ')' || c == ']') {
+                nesting--;
+            } else if (c == ',' && nesting == 0) {
+                selector(text, start, i);
+                start = i + 1;
+            }
+        }
+        selector(text, start, text.length());
+    }
+
+    /** reports a single selector */
+    private void selector(String text, int start, int end) {
+        String selector = text.substring(start, end).trim();
+        if (selector.isEmpty()) {
+            throw error(Message.fmt(Message.EXPECTED_SELECTOR, ","));
+        }
+        handler.selector(selector);
+    }
+
+    /** reports the declaration with the given text */
+    private void declaration(String text) {
+        int colon = text.indexOf(':');
+        if (colon < 1) {
+            throw error(Message.MISSING_COLON);
+        }
+
+        String property = text.substring(0, colon).trim();
+        String value = text.substring(colon + 1).trim();
+        boolean important = false;
+
+        // e.g., "red !important" or "red ! important"
+        int length = value.length();
+        if (length >= 10 && value.regionMatches(true, length - 9, "important", 0, 9)) {
+            int bang = length - 10;
+            if (bang >= 0 && value.charAt(bang) == ' ') bang--;
+            if (bang >= 0 && value.charAt(bang) == '!') {
+                important = true;
+                value = value.substring(0, bang).trim();
+            }
+        }
+
+        handler.declaration(property, value, important, itemLine, itemColumn);
+    }
+
+    /** checks for unterminated content at the end of the source */
+    private void finish() {
+        if (comment) {
+            throw error(Message.MISSING_COMMENT_CLOSE);
+        }
+        if (quote != 0) {
+            throw error(Message.fmt(Message.EXPECTED_CLOSING, "quote " + quote));
+        }
+        if (slash) {
+            append('/');
+        }
+
+        // at-rules such as @import may omit the final semicolon
+        if (item.length() > 0) {
+            if (item.charAt(0) == '@' || !blocks.isEmpty()) {
+                endItem();
+            } else {
+                throw error(Message.fmt(Message.EXTRANEOUS, text()));
+            }
+        }
+
+        if (!blocks.isEmpty()) {
+            throw error(Message.fmt(Message.EXPECTED_CLOSING, "brace '}'"));
+        }
+    }
+
+    /** creates an exception for the current position */
+    private ParserException error(String message) {
+        return new ParserException(Diagnostic.of(ErrorLevel.FATAL, line, column, message));
+    }
+}
@@ -27,9 +27,46 @@
 package com.salesforce.omakase.plugin.core;
 
 import java.util.EnumSet;
+import java.util.Map.Entry;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
 import com.salesforce.omakase.PluginRegistry;
+import com.salesforce.omakase.ast.RawFunction;
+import com.salesforce.omakase.ast.Rule;
+import com.salesforce.omakase.ast.atrule.AtRule;
+import com.salesforce.omakase.ast.atrule.FontDescriptor;
+import com.salesforce.omakase.ast.atrule.FontFaceBlock;
+import com.salesforce.omakase.ast.atrule.GenericAtRuleBlock;
+import com.salesforce.omakase.ast.atrule.GenericAtRuleExpression;
+import com.salesforce.omakase.ast.atrule.MediaQuery;
+import com.salesforce.omakase.ast.atrule.MediaQueryExpression;
+import com.salesforce.omakase.ast.atrule.MediaQueryList;
+import com.salesforce.omakase.ast.declaration.Declaration;
+import com.salesforce.omakase.ast.declaration.GenericFunctionValue;
+import com.salesforce.omakase.ast.declaration.HexColorValue;
+import com.salesforce.omakase.ast.declaration.KeywordValue;
+import com.salesforce.omakase.ast.declaration.LinearGradientFunctionValue;
+import com.salesforce.omakase.ast.declaration.NumericalValue;
+import com.salesforce.omakase.ast.declaration.Operator;
+import com.salesforce.omakase.ast.declaration.PropertyValue;
+import com.salesforce.omakase.ast.declaration.StringValue;
+import com.salesforce.omakase.ast.declaration.UnicodeRangeValue;
+import com.salesforce.omakase.ast.declaration.UrlFunctionValue;
+import com.salesforce.omakase.ast.selector.AttributeSelector;
+import com.salesforce.omakase.ast.selector.ClassSelector;
+import com.salesforce.omakase.ast.selector.Combinator;
+import com.salesforce.omakase.ast.selector.IdSelector;
+import com.salesforce.omakase.ast.selector.KeyframeSelector;
+import com.salesforce.omakase.ast.selector.PseudoClassSelector;
+import com.salesforce.omakase.ast.selector.PseudoElementSelector;
+import com.salesforce.omakase.ast.selector.Selector;
+import com.salesforce.omakase.ast.selector.TypeSelector;
+import com.salesforce.omakase.ast.selector.UniversalSelector;
+import com.salesforce.omakase.broadcast.annotation.Observe;
+import com.salesforce.omakase.broadcast.annotation.Rework;
+import com.salesforce.omakase.broadcast.annotation.Validate;
 import com.salesforce.omakase.plugin.DependentPlugin;
 import com.salesforce.omakase.plugin.Plugin;
 import com.salesforce.omakase.plugin.syntax.DeclarationPlugin;
@@ -58,6 +95,17 @@ import com.salesforce.omakase.plugin.syntax.UrlPlugin;
  * </code></pre>
  * If including this plugin as a dependency then it's preferred to refine everything, otherwise consider requiring a more
  * specific refiner plugin such as {@link DeclarationPlugin} instead.
+ * <p>
+ * Alternatively, {@link #demanded()} determines what to refine from the {@link Observe}, {@link Rework} and {@link Validate}
+ * subscriptions of all registered plugins. Only the refiners needed to deliver the subscribed types are added, once all plugins
+ * have been registered. For example, when the only subscriptions are to {@link ClassSelector} then selectors are refined (as well
+ * as at-rules that may contain selectors) but declarations are left unrefined:
+ * <pre><code>
+ *     Omakase.use(AutoRefine.demanded()).use(...).process();
+ * </code></pre>
+ * Note that only the subscribed types themselves are considered. Plugins that look at the refined content of a unit they
+ * subscribe to (e.g., {@link Declaration#propertyValue()} from a {@link Declaration} subscription) should require the
+ * specific refiner plugin as a dependency.
  *
  * @author nmcwilliams
  */
@@ -111,13 +159,51 @@ public final class AutoRefine implements DependentPlugin {
         }
     }
 
+    /** units nested within at-rule blocks, which are only delivered if the at-rule is refined */
+    private static final ImmutableList<Class<?>> NESTED = ImmutableList.<Class<?>>builder()
+        .add(Rule.class, AtRule.class, Selector.class, Declaration.class)
+        .addAll(Delivered.SELECTOR).addAll(Delivered.DECLARATION)
+        .build();
+
+    /** refiner plugin -> types that are only delivered when that refiner is present, for {@link #demanded()} */
+    private static final ImmutableMap<Class<? extends Plugin>, Iterable<Class<?>>> DEMAND =
+        ImmutableMap.<Class<? extends Plugin>, Iterable<Class<?>>>builder()
+            .put(SelectorPlugin.class, Delivered.SELECTOR)
+            .put(DeclarationPlugin.class, Delivered.DECLARATION)
+            .put(UrlPlugin.class, ImmutableList.of(UrlFunctionValue.class))
+            .put(LinearGradientPlugin.class, ImmutableList.of(LinearGradientFunctionValue.class))
+            .put(MediaPlugin.class, Iterables.concat(NESTED, ImmutableList.of(
+                MediaQueryList.class, MediaQuery.class, MediaQueryExpression.class, GenericAtRuleBlock.class)))
+            .put(SupportsPlugin.class, Iterables.concat(NESTED, ImmutableList.of(
+                GenericAtRuleExpression.class, GenericAtRuleBlock.class)))
+            .put(KeyframesPlugin.class, Iterables.concat(Delivered.DECLARATION, ImmutableList.of(
+                GenericAtRuleExpression.class, GenericAtRuleBlock.class, Rule.class, Selector.class, KeyframeSelector.class,
+                Declaration.class)))
+            .put(FontFacePlugin.class, Iterables.concat(Delivered.DECLARATION, ImmutableList.of(
+                FontFaceBlock.class, FontDescriptor.class)))
+            .build();
+
+    /** types delivered by the most common refiners (separate class to avoid forward references) */
+    private static final class Delivered {
+        static final ImmutableList<Class<?>> SELECTOR = ImmutableList.of(
+            ClassSelector.class, IdSelector.class, TypeSelector.class, UniversalSelector.class, AttributeSelector.class,
+            PseudoClassSelector.class, PseudoElementSelector.class, Combinator.class);
+
+        static final ImmutableList<Class<?>> DECLARATION = ImmutableList.of(
+            PropertyValue.class, KeywordValue.class, NumericalValue.class, HexColorValue.class, StringValue.class,
+            UnicodeRangeValue.class, Operator.class, RawFunction.class, GenericFunctionValue.class, UrlFunctionValue.class,
+            LinearGradientFunctionValue.class);
+    }
+
     private final EnumSet<Match> matches;
+    private final boolean demanded;
 
     /**
      * Creates a new {@link AutoRefine} matching all {@link Refinable}s.
      */
     public AutoRefine() {
         this.matches = EnumSet.allOf(Match.class);
+        this.demanded = false;
     }
 
     /**
@@ -136,6 +222,49 @@ public final class AutoRefine implements DependentPlugin {
             matches.add(Match.FUNCTIONS);
         }
         this.matches = matches;
+        this.demanded = false;
+    }
+
+    /** used by {@link #demanded()} */
+    private AutoRefine(boolean demanded) {
+        this.matches = EnumSet.noneOf(Match.class);
+        this.demanded = demanded;
+    }
+
+    /**
+     * Gets whether the refiners are determined by the registered subscriptions. See {@link #demanded()}.
+     *
+     * @return True if this was created with {@link #demanded()}.
+     */
+    public boolean isDemanded() {
+        return demanded;
+    }
+
+    /**
+     * Requires the refiner plugins that are needed to deliver the given subscribed types. This is automatically called once all
+     * plugins have been registered when this instance was created with {@link #demanded()}.
+     *
+     * @param subscribedTypes
+     *     The types with {@link Observe}, {@link Rework} or {@link Validate} subscriptions.
+     * @param registry
+     *     Register the refiner plugins to this registry.
+     */
+    public void demand(Iterable<Class<?>> subscribedTypes, PluginRegistry registry) {
+        for (Entry<Class<? extends Plugin>, Iterable<Class<?>>> entry : DEMAND.entrySet()) {
+            if (isDemanded(entry.getValue(), subscribedTypes)) {
+                registry.require(entry.getKey());
+            }
+        }
+    }
+
+    /** whether any of the subscribed types is the same as or a super type of one of the delivered types */
+    private static boolean isDemanded(Iterable<Class<?>> delivered, Iterable<Class<?>> subscribedTypes) {
+        for (Class<?> subscribed : subscribedTypes) {
+            for (Class<?> type : delivered) {
+                if (subscribed.isAssignableFrom(type)) return true;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -169,4 +298,13 @@ public final class AutoRefine implements DependentPlugin {
     public static AutoRefine only(Match match, Match... matches) {
         return new AutoRefine(EnumSet.of(match, matches));
     }
+
+    /**
+     * Creates an {@link AutoRefine} that only refines what is needed by the subscriptions of the registered plugins.
+     *
+     * @return The new {@link AutoRefine} instance.
+     */
+    public static AutoRefine demanded() {
+        return new AutoRefine(true);
+    }
 }
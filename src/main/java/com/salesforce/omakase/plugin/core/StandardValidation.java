@@ -39,6 +39,9 @@ import com.salesforce.omakase.plugin.validator.PseudoElementValidator;
  * <p>
  * Generally this should always be included except in cases where you want partial refinement. It should be added last so that
  * other custom refiners will not be preempted. For more information on refinement see the main readme file.
+ * <p>
+ * To only refine what is needed by the registered subscriptions, register {@link AutoRefine#demanded()} before this plugin. Note
+ * that refinement errors in units that are not refined will not be found.
  *
  * @author nmcwilliams
  */
@@ -26,6 +26,7 @@
 
 package com.salesforce.omakase.plugin.misc;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,7 @@ import java.util.Set;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import com.salesforce.omakase.PluginRegistry;
 import com.salesforce.omakase.ast.declaration.Declaration;
 import com.salesforce.omakase.ast.declaration.KeywordValue;
@@ -49,15 +51,31 @@ import com.salesforce.omakase.plugin.DependentPlugin;
 import com.salesforce.omakase.plugin.syntax.DeclarationPlugin;
 import com.salesforce.omakase.util.CssAnnotations;
 import com.salesforce.omakase.util.Values;
+import com.salesforce.omakase.writer.CustomWriter;
+import com.salesforce.omakase.writer.StyleAppendable;
+import com.salesforce.omakase.writer.StyleWriter;
 
 /**
  * DirectionFlipPlugin changes the direction of CSS property names, keywords, and term lists from left to right, or from right to
  * left.
+ * <p>
+ * By default the syntax tree is changed while processing. To write out the same processed tree in both directions, use {@link
+ * #deferred()} instead, which only prepares the tree, together with a writer set up with {@link #flipOnWrite(StyleWriter)}, which
+ * applies the same flips while writing:
+ * <pre><code>
+ * SyntaxTree tree = new SyntaxTree();
+ * Omakase.source(input).use(DirectionFlipPlugin.deferred()).use(tree).process();
+ *
+ * String ltr = StyleWriter.compressed().writeSingle(tree.stylesheet());
+ * String rtl = DirectionFlipPlugin.flipOnWrite(StyleWriter.compressed()).writeSingle(tree.stylesheet());
+ * </code></pre>
+ * Declarations annotated with {@link CssAnnotations#NOFLIP} are left as-is either way.
  *
  * @author david.brady
  */
 public final class DirectionFlipPlugin implements DependentPlugin {
-    private static final Map<Property, Property> PROPERTIES_TO_FLIP = new ImmutableMap.Builder<Property, Property>()
+    // these tables are package-private so that tests can check them against the @Rework filters below
+    static final Map<Property, Property> PROPERTIES_TO_FLIP = new ImmutableMap.Builder<Property, Property>()
         .put(Property.LEFT, Property.RIGHT)
         .put(Property.RIGHT, Property.LEFT)
 
@@ -85,7 +103,7 @@ public final class DirectionFlipPlugin implements DependentPlugin {
 
         .build();
 
-    private static final Map<Keyword, Keyword> KEYWORDS_TO_FLIP = new ImmutableMap.Builder<Keyword, Keyword>()
+    static final Map<Keyword, Keyword> KEYWORDS_TO_FLIP = new ImmutableMap.Builder<Keyword, Keyword>()
         .put(Keyword.LTR, Keyword.RTL)
         .put(Keyword.RTL, Keyword.LTR)
         .put(Keyword.LEFT, Keyword.RIGHT)
@@ -102,18 +120,66 @@ public final class DirectionFlipPlugin implements DependentPlugin {
 
         .build();
 
-    private static final Set<Property> FLIP_PERCENTAGE = ImmutableSet.of(
+    static final Set<Property> FLIP_PERCENTAGE = ImmutableSet.of(
         Property.BACKGROUND,
         Property.BACKGROUND_POSITION,
         Property.BACKGROUND_POSITION_X);
 
-    private static final Set<Property> FOUR_TERM_PROPERTIES = ImmutableSet.of(
+    static final Set<Property> FOUR_TERM_PROPERTIES = ImmutableSet.of(
         Property.PADDING,
         Property.MARGIN,
         Property.BORDER_COLOR,
         Property.BORDER_STYLE,
         Property.BORDER_WIDTH);
 
+    /** all properties with a name or value that may be flipped */
+    private static final Set<Property> FLIPPABLE = ImmutableSet.copyOf(Sets.union(
+        Sets.union(PROPERTIES_TO_FLIP.keySet(), ImmutableSet.of(Property.BORDER_RADIUS)),
+        Sets.union(FLIP_PERCENTAGE, FOUR_TERM_PROPERTIES)));
+
+    private final boolean deferred;
+
+    /**
+     * Creates a new {@link DirectionFlipPlugin} that flips the syntax tree while processing.
+     */
+    public DirectionFlipPlugin() {
+        this(false);
+    }
+
+    private DirectionFlipPlugin(boolean deferred) {
+        this.deferred = deferred;
+    }
+
+    /**
+     * Creates a new {@link DirectionFlipPlugin} that doesn't change the syntax tree, but only ensures that the declarations with
+     * something to flip are refined. Use this with a writer set up with {@link #flipOnWrite(StyleWriter)} to write out the
+     * flipped output, while regular writers still write the tree in its original direction.
+     *
+     * @return The new plugin instance.
+     */
+    public static DirectionFlipPlugin deferred() {
+        return new DirectionFlipPlugin(true);
+    }
+
+    /**
+     * Adds {@link CustomWriter}s to the given {@link StyleWriter} that flip the direction of the output, without changing the
+     * syntax tree itself. The tree should be processed with {@link #deferred()}, otherwise declarations may not be refined
+     * enough to flip.
+     * <p>
+     * The custom writers are safe for parallel writing, and the writer can be turned into a reusable {@link
+     * com.salesforce.omakase.writer.WriterConfig} as usual.
+     *
+     * @param writer
+     *     Add the custom writers to this writer.
+     *
+     * @return The given writer, for chaining.
+     */
+    public static StyleWriter flipOnWrite(StyleWriter writer) {
+        writer.addCustomWriter(Declaration.class, new DeclarationWriter());
+        writer.addCustomWriter(KeywordValue.class, new KeywordWriter());
+        return writer;
+    }
+
     @Override
     public void dependencies(PluginRegistry registry) {
         registry.require(DeclarationPlugin.class);
@@ -122,7 +188,7 @@ public final class DirectionFlipPlugin implements DependentPlugin {
     /**
      * Checks for a {@link CssAnnotation} indicating not to flip anything.
      */
-    private boolean hasNoFlip(Declaration declaration) {
+    private static boolean hasNoFlip(Declaration declaration) {
         return declaration.hasAnnotation(CssAnnotations.NOFLIP);
     }
 
@@ -132,38 +198,61 @@ public final class DirectionFlipPlugin implements DependentPlugin {
      * @param value
      *     keywordValue to be flipped.
      */
-    @Rework
+    @Rework({"ltr", "rtl", "left", "right", "e-resize", "w-resize", "ne-resize", "nw-resize", "nesw-resize", "nwse-resize",
+        "se-resize", "sw-resize"})
     public void flipKeyword(KeywordValue value) {
-        if (!hasNoFlip(value.declaration())) {
+        if (!deferred && !hasNoFlip(value.declaration())) {
             value.asKeyword().map(KEYWORDS_TO_FLIP::get).ifPresent(value::keyword);
         }
     }
 
     /**
      * Flips property names and/or property values.
+     * <p>
+     * Only declarations for the properties handled by this plugin are delivered (the property names to flip, plus the properties
+     * with values to flip).
      *
      * @param declaration
      *     Declaration to be flipped.
      */
-    @Rework
+    @Rework(property = {
+        Property.LEFT, Property.RIGHT,
+        Property.BORDER_LEFT, Property.BORDER_LEFT_COLOR, Property.BORDER_LEFT_STYLE, Property.BORDER_LEFT_WIDTH,
+        Property.BORDER_RIGHT, Property.BORDER_RIGHT_COLOR, Property.BORDER_RIGHT_STYLE, Property.BORDER_RIGHT_WIDTH,
+        Property.BORDER_TOP_LEFT_RADIUS, Property.BORDER_TOP_RIGHT_RADIUS,
+        Property.BORDER_BOTTOM_LEFT_RADIUS, Property.BORDER_BOTTOM_RIGHT_RADIUS,
+        Property.PADDING_LEFT, Property.PADDING_RIGHT, Property.MARGIN_LEFT, Property.MARGIN_RIGHT,
+        Property.NAV_LEFT, Property.NAV_RIGHT,
+        Property.BACKGROUND, Property.BACKGROUND_POSITION, Property.BACKGROUND_POSITION_X,
+        Property.PADDING, Property.MARGIN, Property.BORDER_COLOR, Property.BORDER_STYLE, Property.BORDER_WIDTH,
+        Property.BORDER_RADIUS
+    })
     public void flipDeclaration(Declaration declaration) {
-        if (hasNoFlip(declaration)) return;
+        if (deferred || hasNoFlip(declaration)) return;
 
         Optional<Property> property = declaration.propertyName().asPropertyIgnorePrefix();
         if (!property.isPresent()) return; // must be a known property
 
+        flip(declaration, property.get());
+    }
+
+    /** flips the property name and value of the given declaration, which has the given (known) property */
+    private static void flip(Declaration declaration, Property property) {
         // flip the property name if applicable
-        property.map(PROPERTIES_TO_FLIP::get).ifPresent(declaration::propertyName);
+        Property flipped = PROPERTIES_TO_FLIP.get(property);
+        if (flipped != null) {
+            declaration.propertyName(flipped);
+        }
 
         // flip property values
         // Careful!  If a handler depends on the changes a previous handler made,
         // it won't be able to use the property or property value we've grabbed above.
-        if (handleFourTerms(declaration, property.get())) return;
-        if (handlePercentages(declaration, property.get())) return;
-        handleBorderRadius(declaration, property.get());
+        if (handleFourTerms(declaration, property)) return;
+        if (handlePercentages(declaration, property)) return;
+        handleBorderRadius(declaration, property);
     }
 
-    private boolean handleFourTerms(Declaration declaration, Property property) {
+    private static boolean handleFourTerms(Declaration declaration, Property property) {
         // for patterns such as 1 2 3 4, swap 2 and 4
         if (FOUR_TERM_PROPERTIES.contains(property) && declaration.propertyValue().countTerms() == 4) {
             ImmutableList<Term> terms = declaration.propertyValue().terms();
@@ -173,7 +262,7 @@ public final class DirectionFlipPlugin implements DependentPlugin {
         return false;
     }
 
-    private boolean handlePercentages(Declaration declaration, Property property) {
+    private static boolean handlePercentages(Declaration declaration, Property property) {
         if (FLIP_PERCENTAGE.contains(property)) {
             for (Term term : declaration.propertyValue().terms()) {
                 // can't handle left, right, or center yet
@@ -195,7 +284,7 @@ public final class DirectionFlipPlugin implements DependentPlugin {
         return false;
     }
 
-    private boolean handleBorderRadius(Declaration declaration, Property property) {
+    private static boolean handleBorderRadius(Declaration declaration, Property property) {
         if (Property.BORDER_RADIUS == property) {
             List<PropertyValue> split = Values.split(OperatorType.SLASH, declaration.propertyValue());
             List<PropertyValue> join = new ArrayList<>();
@@ -219,7 +308,7 @@ public final class DirectionFlipPlugin implements DependentPlugin {
      *     <li>a b c d => b a d c</li>
      * </ul>
      */
-    private PropertyValue flipBorderRadiusSet(PropertyValue value) {
+    private static PropertyValue flipBorderRadiusSet(PropertyValue value) {
         List<Term> terms = value.terms();
         switch (terms.size()) {
         case 2:
@@ -234,4 +323,51 @@ public final class DirectionFlipPlugin implements DependentPlugin {
             return value;
         }
     }
+
+    /** writes a flipped copy of declarations in place of the original */
+    private static final class DeclarationWriter implements CustomWriter<Declaration> {
+        @Override
+        public boolean write(Declaration declaration, StyleWriter writer, StyleAppendable appendable) throws IOException {
+            if (!declaration.isRefined() || hasNoFlip(declaration)) return false;
+
+            Property property = declaration.propertyName().asPropertyIgnorePrefix().orElse(null);
+            if (property == null || !FLIPPABLE.contains(property)) return false;
+
+            Declaration copy = declaration.copy();
+            flip(copy, property);
+
+            // write the copy at the same depth as the original, so that it's separated from its peers as usual
+            writer.decrementDepth();
+            writer.writeInner(copy, appendable, false);
+            writer.incrementDepth();
+            return true;
+        }
+
+        @Override
+        public boolean parallel() {
+            return true;
+        }
+    }
+
+    /** writes the flipped keyword in place of the original */
+    private static final class KeywordWriter implements CustomWriter<KeywordValue> {
+        @Override
+        public boolean write(KeywordValue value, StyleWriter writer, StyleAppendable appendable) throws IOException {
+            Keyword flipped = value.asKeyword().map(KEYWORDS_TO_FLIP::get).orElse(null);
+            if (flipped == null) return false;
+
+            Declaration declaration = value.declaration();
+            if (declaration != null && hasNoFlip(declaration)) return false;
+
+            writer.appendComments(value.comments(), appendable);
+            appendable.append(flipped.toString());
+            writer.appendComments(value.orphanedComments(), appendable);
+            return true;
+        }
+
+        @Override
+        public boolean parallel() {
+            return true;
+        }
+    }
 }
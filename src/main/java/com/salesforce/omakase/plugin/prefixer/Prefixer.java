@@ -35,6 +35,12 @@ import static com.salesforce.omakase.data.Browser.IE_MOBILE;
 import static com.salesforce.omakase.data.Browser.IOS_SAFARI;
 import static com.salesforce.omakase.data.Browser.SAFARI;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 import com.salesforce.omakase.PluginRegistry;
 import com.salesforce.omakase.ast.atrule.AtRule;
 import com.salesforce.omakase.ast.declaration.Declaration;
@@ -42,6 +48,8 @@ import com.salesforce.omakase.ast.declaration.FunctionValue;
 import com.salesforce.omakase.ast.declaration.KeywordValue;
 import com.salesforce.omakase.ast.selector.PseudoElementSelector;
 import com.salesforce.omakase.broadcast.annotation.Rework;
+import com.salesforce.omakase.data.PrefixTablesUtil;
+import com.salesforce.omakase.data.Property;
 import com.salesforce.omakase.plugin.DependentPlugin;
 import com.salesforce.omakase.util.SupportMatrix;
 
@@ -149,6 +157,16 @@ public final class Prefixer implements DependentPlugin {
     // function handlers
     private static final Handler<FunctionValue> STANDARD_FUNCTION = new HandleFunction();
 
+    // the handlers to run for each type of unit, in order
+    private static final Handler<AtRule>[] AT_RULE_HANDLERS = handlers(STANDARD_AT_RULE);
+    private static final Handler<PseudoElementSelector>[] PSEUDO_HANDLERS = handlers(PLACEHOLDER, STANDARD_PSEUDO);
+    private static final Handler<KeywordValue>[] KEYWORD_HANDLERS = handlers(FLEX);
+    private static final Handler<FunctionValue>[] FUNCTION_HANDLERS = handlers(STANDARD_FUNCTION);
+
+    // the declaration handlers to run for each property, in order, indexed by the property's ordinal. Each declaration handler
+    // only applies to specific properties, so this is null for the (many) properties that never need anything done
+    private static final Handler<Declaration>[][] PROPERTY_HANDLERS = propertyHandlers();
+
     private final SupportMatrix support;
     private boolean rearrange;
     private boolean prune;
@@ -236,8 +254,7 @@ public final class Prefixer implements DependentPlugin {
      * @param <T>
      *     The type of syntax unit.
      */
-    @SafeVarargs
-    private final <T> void run(T instance, Handler<T>... handlers) {
+    private <T> void run(T instance, Handler<T>[] handlers) {
         boolean finished;
         for (Handler<T> handler : handlers) {
             finished = handler.handle(instance, rearrange, prune, support);
@@ -245,6 +262,51 @@ public final class Prefixer implements DependentPlugin {
         }
     }
 
+    /** creates the array of handlers */
+    @SafeVarargs
+    private static <T> Handler<T>[] handlers(Handler<T>... handlers) {
+        return handlers;
+    }
+
+    /** builds the table of declaration handlers, keeping the same order as when running all handlers on every declaration */
+    private static Handler<Declaration>[][] propertyHandlers() {
+        Map<Property, List<Handler<Declaration>>> map = new EnumMap<>(Property.class);
+        add(map, TRANSITION, Property.TRANSITION, Property.TRANSITION_PROPERTY);
+        add(map, FLEX_PROP, Property.FLEX);
+        add(map, FLEX_FLOW, Property.FLEX_FLOW);
+        add(map, FLEX_DIRECTION, Property.FLEX_DIRECTION);
+        add(map, FLEX_ALIGN_ITEMS, Property.ALIGN_ITEMS);
+        add(map, FLEX_JUSTIFY_CONTENT, Property.JUSTIFY_CONTENT);
+        add(map, FLEX_ORDER, Property.ORDER);
+        add(map, FLEX_WRAP, Property.FLEX_WRAP);
+        add(map, FLEX_ALIGN_CONTENT, Property.ALIGN_CONTENT);
+        add(map, FLEX_ALIGN_SELF, Property.ALIGN_SELF);
+        add(map, FLEX_GROW, Property.FLEX_GROW);
+        add(map, FLEX_SHRINK, Property.FLEX_SHRINK);
+        add(map, FLEX_BASIS, Property.FLEX_BASIS);
+        for (Property property : Property.values()) {
+            if (PrefixTablesUtil.isPrefixableProperty(property)) {
+                add(map, STANDARD_PROPERTY, property);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        Handler<Declaration>[][] table = new Handler[Property.values().length][];
+        for (Map.Entry<Property, List<Handler<Declaration>>> entry : map.entrySet()) {
+            @SuppressWarnings("unchecked")
+            Handler<Declaration>[] handlers = entry.getValue().toArray(new Handler[0]);
+            table[entry.getKey().ordinal()] = handlers;
+        }
+        return table;
+    }
+
+    /** adds the handler to the end of the list of handlers for each of the given properties */
+    private static void add(Map<Property, List<Handler<Declaration>>> map, Handler<Declaration> handler, Property... properties) {
+        for (Property property : properties) {
+            map.computeIfAbsent(property, p -> new ArrayList<>(2)).add(handler);
+        }
+    }
+
     /**
      * Subscription method - do not invoke directly.
      *
@@ -256,8 +318,14 @@ public final class Prefixer implements DependentPlugin {
         // don't automatically trigger refinement on every declaration just to check if a prefix is needed.
         if (!declaration.isRefined() || declaration.isPrefixed()) return; // skip stuff already prefixed
 
-        run(declaration, TRANSITION, FLEX_PROP, FLEX_FLOW, FLEX_DIRECTION, FLEX_ALIGN_ITEMS, FLEX_JUSTIFY_CONTENT, FLEX_ORDER,
-            FLEX_WRAP, FLEX_ALIGN_CONTENT, FLEX_ALIGN_SELF, FLEX_GROW, FLEX_SHRINK, FLEX_BASIS, STANDARD_PROPERTY);
+        // unknown properties and properties without handlers (the vast majority) are skipped with a single lookup
+        Optional<Property> property = declaration.propertyName().asProperty();
+        if (!property.isPresent()) return;
+
+        Handler<Declaration>[] handlers = PROPERTY_HANDLERS[property.get().ordinal()];
+        if (handlers != null) {
+            run(declaration, handlers);
+        }
     }
 
     /**
@@ -268,7 +336,7 @@ public final class Prefixer implements DependentPlugin {
      */
     @Rework
     public void function(FunctionValue function) {
-        run(function, STANDARD_FUNCTION);
+        run(function, FUNCTION_HANDLERS);
     }
 
     /**
@@ -279,7 +347,7 @@ public final class Prefixer implements DependentPlugin {
      */
     @Rework
     public void keyword(KeywordValue keyword) {
-        run(keyword, FLEX);
+        run(keyword, KEYWORD_HANDLERS);
     }
 
     /**
@@ -292,7 +360,7 @@ public final class Prefixer implements DependentPlugin {
     public void atRule(AtRule atRule) {
         // don't automatically trigger refinement on every at rule just to check if a prefix is needed.
         if (!atRule.isRefined() || atRule.name().charAt(0) == '-') return; // skip stuff already prefixed
-        run(atRule, STANDARD_AT_RULE);
+        run(atRule, AT_RULE_HANDLERS);
     }
 
     /**
@@ -304,7 +372,7 @@ public final class Prefixer implements DependentPlugin {
     @Rework
     public void pseudoElementSelector(PseudoElementSelector selector) {
         if (selector.name().charAt(0) == '-') return; // skip stuff already prefixed
-        run(selector, PLACEHOLDER, STANDARD_PSEUDO);
+        run(selector, PSEUDO_HANDLERS);
     }
 
     /**
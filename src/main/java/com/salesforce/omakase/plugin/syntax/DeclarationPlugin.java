@@ -51,6 +51,24 @@ import com.salesforce.omakase.plugin.Plugin;
 public final class DeclarationPlugin implements Plugin {
     private static final DeclarationPlugin DELEGATE = new DeclarationPlugin();
 
+    private final RefinementCache cache;
+
+    /** Creates a new {@link DeclarationPlugin} that parses every declaration value. */
+    public DeclarationPlugin() {
+        this(null);
+    }
+
+    /**
+     * Creates a new {@link DeclarationPlugin} that reuses the refinement of previously seen declaration values. See {@link
+     * RefinementCache}.
+     *
+     * @param cache
+     *     The cache, or null to parse every declaration value.
+     */
+    public DeclarationPlugin(RefinementCache cache) {
+        this.cache = cache;
+    }
+
     /**
      * Refines the given {@link Declaration}.
      * <p>
@@ -66,6 +84,15 @@ public final class DeclarationPlugin implements Plugin {
      */
     @Refine
     public void refine(Declaration declaration, Grammar grammar, Broadcaster broadcaster) {
+        if (cache != null) {
+            cache.refineDeclaration(declaration.rawPropertyValue().get(), broadcaster, b -> parse(declaration, grammar, b));
+        } else {
+            parse(declaration, grammar, broadcaster);
+        }
+    }
+
+    /** parses the declaration value */
+    private static void parse(Declaration declaration, Grammar grammar, Broadcaster broadcaster) {
         // parse inner content
         Source source = new Source(declaration.rawPropertyValue().get());
         grammar.parser().propertyValueParser().parse(source, grammar, broadcaster);
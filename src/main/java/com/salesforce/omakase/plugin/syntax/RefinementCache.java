@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.plugin.syntax;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.salesforce.omakase.ast.RawFunction;
+import com.salesforce.omakase.ast.RawSyntax;
+import com.salesforce.omakase.ast.Syntax;
+import com.salesforce.omakase.ast.declaration.PropertyValue;
+import com.salesforce.omakase.ast.declaration.PropertyValueMember;
+import com.salesforce.omakase.broadcast.AbstractBroadcaster;
+import com.salesforce.omakase.broadcast.Broadcastable;
+import com.salesforce.omakase.broadcast.Broadcaster;
+import com.salesforce.omakase.broadcast.QueryableBroadcaster;
+
+/**
+ * A bounded cache of refinement results, keyed by the raw content of selectors and declaration values.
+ * <p>
+ * The same selectors (e.g., ".button" or "a:hover") and declaration values (e.g., "0", "none" or "1px solid #ccc") tend to be
+ * repeated many times within and across stylesheets. When given to the {@link SelectorPlugin} and {@link DeclarationPlugin}
+ * constructors, the result of refining each distinct raw content is remembered and later refinements of the same content copy
+ * the remembered units instead of parsing again:
+ * <pre><code>
+ * RefinementCache cache = new RefinementCache(); // reuse for each parse operation
+ * Omakase.source(input)
+ *     .use(new SelectorPlugin(cache), new DeclarationPlugin(cache))
+ *     .use(AutoRefine.everything())
+ *     .process();
+ * </code></pre>
+ * The refiners must be registered before anything that requires them (such as {@link
+ * com.salesforce.omakase.plugin.core.AutoRefine}), otherwise the default instances without a cache are used.
+ * <p>
+ * The copied units are broadcasted in the same order as the units created by parsing, so subscriptions receive everything as
+ * usual. The copies don't have line and column numbers of their own (except functions, which have the line and column of the
+ * declaration value); use the line and column of the parent selector or declaration instead. Content containing comments is
+ * never cached. The cache assumes the standard grammar, so don't share an instance between parse operations using different
+ * grammars.
+ * <p>
+ * Instances are thread-safe and are intended to be shared by all parse operations in the same JVM. When the maximum size is
+ * reached the least recently used entries are evicted. See {@link #stats()} for the hit rate.
+ *
+ * @author nmcwilliams
+ */
+public final class RefinementCache {
+    /** default maximum number of entries for each of selectors and declarations */
+    public static final int DEFAULT_SIZE = 10_000;
+
+    private final Cache<String, Template> selectors;
+    private final Cache<String, Template> declarations;
+
+    /**
+     * Creates a new {@link RefinementCache} with up to {@link #DEFAULT_SIZE} selectors and declaration values.
+     */
+    public RefinementCache() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a new {@link RefinementCache}.
+     *
+     * @param maximumSize
+     *     The maximum number of selectors and the maximum number of declaration values to keep.
+     */
+    public RefinementCache(int maximumSize) {
+        checkArgument(maximumSize > 0, "maximumSize must be greater than zero");
+        this.selectors = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+        this.declarations = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    /**
+     * Gets the combined statistics for selectors and declaration values, including the hit and eviction counts.
+     *
+     * @return The statistics.
+     */
+    public CacheStats stats() {
+        return selectors.stats().plus(declarations.stats());
+    }
+
+    /**
+     * Gets the current number of cached selectors and declaration values.
+     *
+     * @return The number of entries.
+     */
+    public long size() {
+        return selectors.size() + declarations.size();
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        selectors.invalidateAll();
+        declarations.invalidateAll();
+    }
+
+    /** refines the selector with the given raw content, using the parser to refine it when not cached */
+    void refineSelector(RawSyntax raw, Broadcaster broadcaster, Consumer<Broadcaster> parser) {
+        refine(selectors, raw, false, broadcaster, parser);
+    }
+
+    /** refines the declaration value with the given raw content, using the parser to refine it when not cached */
+    void refineDeclaration(RawSyntax raw, Broadcaster broadcaster, Consumer<Broadcaster> parser) {
+        refine(declarations, raw, true, broadcaster, parser);
+    }
+
+    private static void refine(Cache<String, Template> cache, RawSyntax raw, boolean value, Broadcaster broadcaster,
+        Consumer<Broadcaster> parser) {
+        String content = raw.content();
+
+        // comments become orphaned comments on the parent, which would be lost
+        if (content.contains("/*")) {
+            parser.accept(broadcaster);
+            return;
+        }
+
+        Template template = cache.getIfPresent(content);
+        if (template != null) {
+            template.replay(raw, value, broadcaster);
+            return;
+        }
+
+        Recorder recorder = new Recorder();
+        recorder.chain(broadcaster);
+        parser.accept(recorder);
+
+        // only reached if the content was successfully parsed
+        if (recorder.cacheable) {
+            cache.put(content, recorder.template());
+        }
+    }
+
+    /** copies the unit, including raw functions which can't normally be copied (they are replaced during refinement) */
+    private static Syntax copy(Syntax unit, Syntax position) {
+        if (unit instanceof RawFunction) {
+            RawFunction function = (RawFunction)unit;
+            return new RawFunction(position.line(), position.column(), function.name(), function.args());
+        }
+        return unit.copy();
+    }
+
+    /** the units broadcasted while refining some content */
+    private static final class Template {
+        private final ImmutableList<Syntax> units;
+        private final boolean important;
+
+        Template(ImmutableList<Syntax> units, boolean important) {
+            this.units = units;
+            this.important = important;
+        }
+
+        /** broadcasts copies of the units the same way as the parser */
+        void replay(RawSyntax raw, boolean value, Broadcaster broadcaster) {
+            if (!value) {
+                for (Syntax unit : units) {
+                    broadcaster.broadcast(copy(unit, raw));
+                }
+                return;
+            }
+
+            QueryableBroadcaster queryable = broadcaster.chain(new QueryableBroadcaster());
+            for (Syntax unit : units) {
+                broadcaster.broadcast(copy(unit, raw));
+            }
+            broadcaster.cut(queryable);
+
+            PropertyValue propertyValue = new PropertyValue(raw.line(), raw.column());
+            propertyValue.members().appendAll(queryable.filter(PropertyValueMember.class));
+            propertyValue.important(important);
+            broadcaster.broadcast(propertyValue);
+        }
+    }
+
+    /** keeps track of the units broadcasted by the parser */
+    private static final class Recorder extends AbstractBroadcaster {
+        private final List<Syntax> units = new ArrayList<>();
+        private boolean important;
+        private boolean cacheable = true;
+
+        @Override
+        public void broadcast(Broadcastable broadcastable) {
+            if (broadcastable instanceof PropertyValue) {
+                important = ((PropertyValue)broadcastable).isImportant();
+            } else if (broadcastable instanceof Syntax) {
+                units.add((Syntax)broadcastable);
+            } else {
+                cacheable = false;
+            }
+            relay(broadcastable);
+        }
+
+        /** copies are made at the end, as the parser may still change a unit after broadcasting it */
+        Template template() {
+            ImmutableList.Builder<Syntax> copies = ImmutableList.builder();
+            for (Syntax unit : units) {
+                copies.add(copy(unit, unit));
+            }
+            return new Template(copies.build(), important);
+        }
+    }
+}
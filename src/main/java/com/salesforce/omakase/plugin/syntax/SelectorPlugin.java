@@ -51,6 +51,23 @@ import com.salesforce.omakase.plugin.Plugin;
 public final class SelectorPlugin implements Plugin {
     private static final SelectorPlugin DELEGATE = new SelectorPlugin();
 
+    private final RefinementCache cache;
+
+    /** Creates a new {@link SelectorPlugin} that parses every selector. */
+    public SelectorPlugin() {
+        this(null);
+    }
+
+    /**
+     * Creates a new {@link SelectorPlugin} that reuses the refinement of previously seen selectors. See {@link RefinementCache}.
+     *
+     * @param cache
+     *     The cache, or null to parse every selector.
+     */
+    public SelectorPlugin(RefinementCache cache) {
+        this.cache = cache;
+    }
+
     /**
      * Refines the given {@link Selector}.
      * <p>
@@ -66,6 +83,15 @@ public final class SelectorPlugin implements Plugin {
      */
     @Refine
     public void refine(Selector selector, Grammar grammar, Broadcaster broadcaster) {
+        if (cache != null) {
+            cache.refineSelector(selector.raw().get(), broadcaster, b -> parse(selector, grammar, b));
+        } else {
+            parse(selector, grammar, broadcaster);
+        }
+    }
+
+    /** parses the selector content */
+    private static void parse(Selector selector, Grammar grammar, Broadcaster broadcaster) {
         // parse inner content
         Source source = new Source(selector.raw().get(), false);
         grammar.parser().complexSelectorParser().parse(source, grammar, broadcaster);
@@ -62,7 +62,7 @@ public final class PseudoElementValidator implements DependentPlugin {
      * @param em
      *     The error manager.
      */
-    @Validate
+    @Validate(parallel = true)
     public void validate(PseudoElementSelector selector, ErrorManager em) {
         // Selectors Level 3 spec does not allow anything after the pseudo.
         // Selectors Level 4 draft now allows it to be followed by a "user-action pseudo class"
@@ -27,7 +27,6 @@
 package com.salesforce.omakase.util;
 
 import java.util.List;
-import java.util.regex.Pattern;
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
@@ -38,9 +37,6 @@ import com.google.common.collect.Lists;
  * @author nmcwilliams
  */
 public final class Args {
-    private static final Pattern NEWLINES = Pattern.compile("\\r|\\n");
-    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
-
     private Args() {}
 
     /**
@@ -203,9 +199,42 @@ public final class Args {
      * @return The formatted arguments.
      */
     public static String clean(String originalArgs) {
-        String formatted = originalArgs;
-        formatted = NEWLINES.matcher(formatted).replaceAll("");
-        formatted = WHITESPACE.matcher(formatted).replaceAll(" ");
-        return formatted.trim();
+        // usually already clean, in which case there's nothing to allocate
+        if (isClean(originalArgs)) return originalArgs;
+
+        StringBuilder builder = new StringBuilder(originalArgs.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < originalArgs.length(); i++) {
+            char c = originalArgs.charAt(i);
+            if (c == '\r' || c == '\n') continue;
+            if (isWhitespace(c)) {
+                pendingSpace = true;
+            } else {
+                if (pendingSpace && builder.length() > 0) builder.append(' ');
+                pendingSpace = false;
+                builder.append(c);
+            }
+        }
+        return builder.toString().trim();
+    }
+
+    /** whether {@link #clean(String)} would return the string unchanged */
+    private static boolean isClean(String args) {
+        int length = args.length();
+        if (length > 0 && (args.charAt(0) <= ' ' || args.charAt(length - 1) <= ' ')) return false;
+        for (int i = 0; i < length; i++) {
+            char c = args.charAt(i);
+            if (c == ' ') {
+                if (args.charAt(i + 1) == ' ') return false; // can't be last, checked above
+            } else if (c == '\r' || c == '\n' || isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** same characters as {@code \s} in a regex */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 }
@@ -35,5 +35,8 @@ public final class CssAnnotations {
     /** The "noflip" annotation, for direction flipping */
     public static final String NOFLIP = "noflip";
 
+    /** The "var" annotation, for marking substitution points in a {@link com.salesforce.omakase.writer.StylesheetTemplate} */
+    public static final String VAR = "var";
+
     private CssAnnotations() {}
 }
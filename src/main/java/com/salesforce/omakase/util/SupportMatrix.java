@@ -264,7 +264,7 @@ public final class SupportMatrix {
             Set<Prefix> required = new HashSet<>();
 
             for (Browser browser : supported.keySet()) {
-                Double lastPrefixed = PrefixTablesUtil.lastVersionPropertyIsPrefixed(property, browser);
+                double lastPrefixed = PrefixTablesUtil.lastVersionPropertyIsPrefixedAsDouble(property, browser);
                 if (lowestSupportedVersion(browser) <= lastPrefixed) required.add(browser.prefix());
             }
 
@@ -290,7 +290,7 @@ public final class SupportMatrix {
             Set<Prefix> required = new HashSet<>();
 
             for (Browser browser : supported.keySet()) {
-                Double lastPrefixed = PrefixTablesUtil.lastVersionKeywordIsPrefixed(keyword, browser);
+                double lastPrefixed = PrefixTablesUtil.lastVersionKeywordIsPrefixedAsDouble(keyword, browser);
                 if (lowestSupportedVersion(browser) <= lastPrefixed) required.add(browser.prefix());
             }
 
@@ -316,7 +316,7 @@ public final class SupportMatrix {
             Set<Prefix> required = new HashSet<>();
 
             for (Browser browser : supported.keySet()) {
-                Double lastPrefixed = PrefixTablesUtil.lastVersionAtRuleIsPrefixed(name, browser);
+                double lastPrefixed = PrefixTablesUtil.lastVersionAtRuleIsPrefixedAsDouble(name, browser);
                 if (lowestSupportedVersion(browser) <= lastPrefixed) required.add(browser.prefix());
             }
 
@@ -342,7 +342,7 @@ public final class SupportMatrix {
             Set<Prefix> required = new HashSet<>();
 
             for (Browser browser : supported.keySet()) {
-                Double lastPrefixed = PrefixTablesUtil.lastVersionSelectorIsPrefixed(name, browser);
+                double lastPrefixed = PrefixTablesUtil.lastVersionSelectorIsPrefixedAsDouble(name, browser);
                 if (lowestSupportedVersion(browser) <= lastPrefixed) required.add(browser.prefix());
             }
 
@@ -369,7 +369,7 @@ public final class SupportMatrix {
             Set<Prefix> required = new HashSet<>();
 
             for (Browser browser : supported.keySet()) {
-                Double lastPrefixed = PrefixTablesUtil.lastVersionFunctionIsPrefixed(name, browser);
+                double lastPrefixed = PrefixTablesUtil.lastVersionFunctionIsPrefixedAsDouble(name, browser);
                 if (lowestSupportedVersion(browser) <= lastPrefixed) required.add(browser.prefix());
             }
 
@@ -85,4 +85,17 @@ public interface CustomWriter<T extends Writable> {
      *     If an I/O error occurs.
      */
     boolean write(T unit, StyleWriter writer, StyleAppendable appendable) throws IOException;
+
+    /**
+     * Optionally specify that this writer is safe to invoke from multiple threads at the same time. When parallel writing is
+     * enabled (see {@link StyleWriter#parallel(boolean)}), the top-level statements of a stylesheet are only written concurrently
+     * if every registered custom writer returns true from this method.
+     * <p>
+     * The writer must only read the syntax tree (and not change it), and any state in the writer instance must be thread-safe.
+     *
+     * @return True if the writer can be invoked concurrently.
+     */
+    default boolean parallel() {
+        return false;
+    }
 }
@@ -26,20 +26,32 @@
 
 package com.salesforce.omakase.writer;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * A wrapper around an {@link Appendable} that provides a few convenience functions.
  * <p>
  * When not specifying a particular {@link Appendable} then use {@link #toString()} to get the final output.
+ * <p>
+ * Output can also be encoded as UTF-8 straight into bytes, using {@link #utf8(OutputStream)} or {@link
+ * #utf8(WritableByteChannel, ByteBuffer)}. This avoids building the whole output as a string and then encoding it again. The
+ * bytes are buffered, so {@link #flush()} must be called once writing is complete.
  *
  * @author nmcwilliams
  */
 public final class StyleAppendable {
     private static final String INDENT_STRING = "            ";
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
     private final Appendable appendable;
+    private final Utf8Sink sink;
     private int indent = 0;
 
     /** Creates a new {@link StyleAppendable} using a {@link StringBuilder}. Use {@link #toString()} to get the final output. */
@@ -55,6 +67,49 @@ public final class StyleAppendable {
      */
     public StyleAppendable(Appendable appendable) {
         this.appendable = checkNotNull(appendable, "appendable cannot be null");
+        this.sink = null;
+    }
+
+    private StyleAppendable(Utf8Sink sink) {
+        this.appendable = null;
+        this.sink = sink;
+    }
+
+    /**
+     * Creates a new {@link StyleAppendable} that encodes the output as UTF-8 and writes the bytes to the given {@link
+     * OutputStream}. {@link #flush()} must be called once writing is complete. The stream is not closed.
+     *
+     * @param stream
+     *     Write the bytes to this stream.
+     *
+     * @return The new instance.
+     */
+    public static StyleAppendable utf8(OutputStream stream) {
+        checkNotNull(stream, "stream cannot be null");
+        return new StyleAppendable(new Utf8Sink(stream, DEFAULT_BUFFER_SIZE));
+    }
+
+    /**
+     * Creates a new {@link StyleAppendable} that encodes the output as UTF-8 into the given {@link ByteBuffer}, writing the
+     * buffer to the given {@link WritableByteChannel} each time it fills up. {@link #flush()} must be called once writing is
+     * complete. The channel is not closed.
+     * <p>
+     * The buffer can be a pooled or direct buffer. It is cleared before use and must not be used elsewhere until writing is
+     * complete.
+     *
+     * @param channel
+     *     Write the bytes to this channel.
+     * @param buffer
+     *     Encode into this buffer. Must have a capacity of at least 4 bytes.
+     *
+     * @return The new instance.
+     */
+    public static StyleAppendable utf8(WritableByteChannel channel, ByteBuffer buffer) {
+        checkNotNull(channel, "channel cannot be null");
+        checkNotNull(buffer, "buffer cannot be null");
+        checkArgument(buffer.capacity() >= 4, "buffer capacity must be at least 4");
+        ((Buffer)buffer).clear(); // Java 8 compatible signature, see Utf8Sink
+        return new StyleAppendable(new Utf8Sink(channel, buffer));
     }
 
     /**
@@ -69,7 +124,11 @@ public final class StyleAppendable {
      *     If an I/O error occurs.
      */
     public StyleAppendable append(char c) throws IOException {
-        appendable.append(c);
+        if (sink != null) {
+            sink.write(c);
+        } else {
+            appendable.append(c);
+        }
         return this;
     }
 
@@ -130,7 +189,11 @@ public final class StyleAppendable {
      *     If an I/O error occurs.
      */
     public StyleAppendable append(CharSequence sequence) throws IOException {
-        appendable.append(sequence);
+        if (sink != null) {
+            sink.write(sequence);
+        } else {
+            appendable.append(sequence);
+        }
         return this;
     }
 
@@ -249,8 +312,21 @@ public final class StyleAppendable {
         return indent;
     }
 
+    /**
+     * Writes out any buffered bytes when using {@link #utf8(OutputStream)} or {@link #utf8(WritableByteChannel, ByteBuffer)}, and
+     * flushes the stream if applicable. Does nothing otherwise.
+     *
+     * @throws IOException
+     *     If an I/O error occurs.
+     */
+    public void flush() throws IOException {
+        if (sink != null) {
+            sink.flush();
+        }
+    }
+
     @Override
     public String toString() {
-        return appendable.toString();
+        return appendable != null ? appendable.toString() : super.toString();
     }
 }
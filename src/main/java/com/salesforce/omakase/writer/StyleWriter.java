@@ -30,15 +30,21 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
-import java.util.Collection;
-import java.util.Deque;
-import java.util.Iterator;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Multimap;
 import com.salesforce.omakase.PluginRegistry;
 import com.salesforce.omakase.ast.Comment;
+import com.salesforce.omakase.ast.Statement;
+import com.salesforce.omakase.ast.Stylesheet;
 import com.salesforce.omakase.ast.Syntax;
 import com.salesforce.omakase.plugin.DependentPlugin;
 import com.salesforce.omakase.plugin.core.SyntaxTree;
@@ -66,25 +72,44 @@ import com.salesforce.omakase.util.As;
  * verbose.writeTo(System.out);
  * </code></pre>
  * <pre><code>
+ * StyleWriter compressed = StyleWriter.compressed();
+ * Omakase.source(input).use(compressed).process();
+ * compressed.writeUtf8To(response.getOutputStream());
+ * </code></pre>
+ * <pre><code>
  * String classSelector = StyleWriter.inline().writeSingle(new ClassSelector("test"));
  * </code></pre>
  * <p>
  * Unless otherwise specified, {@link WriterMode#INLINE} will be used.
  * <p>
  * By default this will not write out CSS comments, however you can change that behavior with {@link #writeAllComments(boolean)}.
+ * <p>
+ * Instances keep track of their position while writing, so they are not thread-safe and can only write one thing at a time. To
+ * write from multiple threads with the same settings, use {@link #config()} to get a reusable, thread-safe {@link
+ * WriterConfig}.
  *
  * @author nmcwilliams
  */
 public final class StyleWriter implements DependentPlugin {
     private WriterMode mode;
     private SyntaxTree tree;
-    private Multimap<Class<? extends Writable>, CustomWriter<?>> overrides;
+    private Map<Class<? extends Writable>, CustomWriter<?>[]> overrides;
+    private boolean overridesShared;
 
     private boolean writeAllComments;
     private boolean writeAnnotatedComments;
     private boolean writeBangComments;
 
-    private final Deque<StackEntry> stack = new ArrayDeque<>();
+    /* whether to write top-level statements concurrently, and whether all custom writers allow it */
+    private boolean parallel;
+    private boolean overridesParallel = true;
+
+    /* number of units written so far directly below each depth, indexed by depth (nothing allocated per written unit) */
+    private int[] peers = new int[16];
+    private int depth;
+
+    private static final int MIN_CHUNK_SIZE = 256;
+    private static final int MIN_PARALLEL_STATEMENTS = MIN_CHUNK_SIZE * 2;
 
     /** Creates a new {@link StyleWriter} instance using {@link WriterMode#INLINE}. */
     public StyleWriter() {
@@ -101,6 +126,18 @@ public final class StyleWriter implements DependentPlugin {
         this.mode = mode;
     }
 
+    /** creates a new session with the settings from the given config */
+    StyleWriter(WriterConfig config) {
+        this.mode = config.mode();
+        this.writeAllComments = config.writeAllComments();
+        this.writeAnnotatedComments = config.writeAnnotatedComments();
+        this.writeBangComments = config.writeBangComments();
+        this.parallel = config.parallel();
+        this.overridesParallel = config.overridesParallel();
+        this.overrides = config.overrides();
+        this.overridesShared = true;
+    }
+
     @Override
     public void dependencies(PluginRegistry registry) {
         tree = registry.require(SyntaxTree.class);
@@ -225,6 +262,37 @@ public final class StyleWriter implements DependentPlugin {
         return writeAllComments || writeBangComments;
     }
 
+    /**
+     * Sets whether the top-level statements of a {@link Stylesheet} should be written in parallel (default false).
+     * <p>
+     * When enabled, the statements are split into chunks that are each written into their own buffer using the common fork-join
+     * pool, and the buffers are then appended in order. The output is identical to writing sequentially. This is only worthwhile
+     * for stylesheets with many thousands of top-level statements; smaller stylesheets (or any stylesheet when only one
+     * processor is available) are always written sequentially.
+     * <p>
+     * Statements are only written in parallel if every custom writer added with {@link #addCustomWriter(Class, CustomWriter)}
+     * returns true from {@link CustomWriter#parallel()} (and none are added for {@link Stylesheet} itself). Otherwise the
+     * stylesheet is written sequentially as usual.
+     *
+     * @param parallel
+     *     Specify true to write top-level statements in parallel.
+     *
+     * @return this, for chaining.
+     */
+    public StyleWriter parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Gets whether parallel writing is enabled. See {@link #parallel(boolean)}.
+     *
+     * @return True if parallel writing is enabled.
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
     /**
      * Overrides the writing of a unit with the given {@link CustomWriter} instance. See {@link CustomWriter} for more details on
      * overriding.
@@ -240,12 +308,39 @@ public final class StyleWriter implements DependentPlugin {
      */
     public <T extends Writable> StyleWriter addCustomWriter(Class<T> writable, CustomWriter<T> writer) {
         if (overrides == null) {
-            overrides = ArrayListMultimap.create();
+            overrides = new HashMap<>();
+        } else if (overridesShared) {
+            overrides = new HashMap<>(overrides); // shared with a config, so copy before changing
+            overridesShared = false;
+        }
+
+        if (!writer.parallel() || writable == Stylesheet.class) {
+            overridesParallel = false;
+        }
+
+        // stored as an array per class so that dispatch while writing doesn't allocate an iterator
+        CustomWriter<?>[] existing = overrides.get(writable);
+        if (existing == null) {
+            overrides.put(writable, new CustomWriter<?>[]{writer});
+        } else {
+            CustomWriter<?>[] updated = Arrays.copyOf(existing, existing.length + 1);
+            updated[existing.length] = writer;
+            overrides.put(writable, updated);
         }
-        overrides.put(writable, writer);
         return this;
     }
 
+    /**
+     * Creates an immutable, thread-safe snapshot of the current settings (mode, comment options, parallel writing and custom
+     * writers). Changes made to this writer afterwards don't affect the snapshot. See {@link WriterConfig}.
+     *
+     * @return The snapshot of the settings.
+     */
+    public WriterConfig config() {
+        return new WriterConfig(mode, writeAllComments, writeAnnotatedComments, writeBangComments, parallel, overridesParallel,
+            overrides);
+    }
+
     /**
      * Writes the entire processed stylesheet to a string.
      *
@@ -278,6 +373,45 @@ public final class StyleWriter implements DependentPlugin {
         writeInner(tree.stylesheet(), new StyleAppendable(appendable));
     }
 
+    /**
+     * Writes the entire processed stylesheet as UTF-8 bytes to the given {@link OutputStream}.
+     * <p>
+     * The output is encoded while writing, so the full output is never held as a string or char array. This is preferred over
+     * {@link #write()} when the output ends up as bytes anyway, e.g., for an HTTP response or a file. The stream is flushed but
+     * not closed.
+     *
+     * @param stream
+     *     Write the processed CSS source code to this stream.
+     *
+     * @throws IOException
+     *     If an I/O error occurs.
+     */
+    public void writeUtf8To(OutputStream stream) throws IOException {
+        checkState(tree != null, "syntax tree not set (did you add this writer plugin before parsing?)");
+        StyleAppendable appendable = StyleAppendable.utf8(stream);
+        writeInner(tree.stylesheet(), appendable);
+        appendable.flush();
+    }
+
+    /**
+     * Writes the entire processed stylesheet as UTF-8 bytes to the given {@link WritableByteChannel}, encoding into the given
+     * (e.g., pooled) {@link ByteBuffer}. See {@link #writeUtf8To(OutputStream)}. The channel is not closed.
+     *
+     * @param channel
+     *     Write the processed CSS source code to this channel.
+     * @param buffer
+     *     Encode into this buffer. See {@link StyleAppendable#utf8(WritableByteChannel, ByteBuffer)}.
+     *
+     * @throws IOException
+     *     If an I/O error occurs.
+     */
+    public void writeUtf8To(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        checkState(tree != null, "syntax tree not set (did you add this writer plugin before parsing?)");
+        StyleAppendable appendable = StyleAppendable.utf8(channel, buffer);
+        writeInner(tree.stylesheet(), appendable);
+        appendable.flush();
+    }
+
     /**
      * Writes the given syntax unit to the given {@link StyleAppendable}, taking into account any {@link CustomWriter} overrides
      * specified on this {@link StyleWriter}.
@@ -332,22 +466,29 @@ public final class StyleWriter implements DependentPlugin {
      *     If an I/O error occurs.
      */
     public <T extends Writable> void writeInner(T writable, StyleAppendable appendable, boolean useOverrides) throws IOException {
-        incrementDepth();
+        if (parallel && overridesParallel && depth == 0 && writable instanceof Stylesheet) {
+            Stylesheet stylesheet = (Stylesheet)writable;
+            if (stylesheet.isWritable() && stylesheet.statements().size() >= MIN_PARALLEL_STATEMENTS
+                && ForkJoinPool.getCommonPoolParallelism() > 1) {
+                writeParallel(stylesheet, appendable);
+                return;
+            }
+        }
 
-        Class<? extends Writable> klass = writable.getClass();
+        incrementDepth();
 
         if (writable.isWritable()) {
             boolean handled = false;
 
-            if (useOverrides && overrides != null && overrides.containsKey(klass)) {
-                Collection<CustomWriter<?>> writers = overrides.get(klass);
-                Iterator<CustomWriter<?>> iterator = writers.iterator();
-
-                while (!handled && iterator.hasNext()) {
-                    // cast is safe as long as the map is guarded by #override
-                    @SuppressWarnings("unchecked")
-                    CustomWriter<T> writer = (CustomWriter<T>)iterator.next();
-                    handled = writer.write(writable, this, appendable);
+            if (useOverrides && overrides != null) {
+                CustomWriter<?>[] writers = overrides.get(writable.getClass());
+                if (writers != null) {
+                    for (int i = 0; !handled && i < writers.length; i++) {
+                        // cast is safe as long as the map is guarded by #addCustomWriter
+                        @SuppressWarnings("unchecked")
+                        CustomWriter<T> writer = (CustomWriter<T>)writers[i];
+                        handled = writer.write(writable, this, appendable);
+                    }
                 }
             }
 
@@ -366,7 +507,9 @@ public final class StyleWriter implements DependentPlugin {
                 }
 
                 // keep track of how many syntax units written at this depth
-                stack.peek().incrementPeerCountAtDepth();
+                if (depth > 1) {
+                    peers[depth - 2]++;
+                }
             }
         }
 
@@ -415,17 +558,33 @@ public final class StyleWriter implements DependentPlugin {
      */
     public void appendComments(Iterable<Comment> comments, StyleAppendable appendable) throws
         IOException {
-        for (Comment comment : comments) {
-            if (shouldWriteAllComments()) {
-                writeInner(comment, appendable);
-            } else if (shouldWriteAnnotatedComments() && comment.annotation().isPresent()) {
-                writeInner(comment, appendable);
-            } else if (shouldWriteBangComments() && comment.startsWithBang()) {
-                writeInner(comment, appendable);
+        if (!shouldWriteAnnotatedComments() && !shouldWriteBangComments()) {
+            return; // the default, so skip creating an iterator for each unit
+        }
+
+        if (comments instanceof List) {
+            List<Comment> list = (List<Comment>)comments;
+            for (int i = 0; i < list.size(); i++) {
+                appendComment(list.get(i), appendable);
+            }
+        } else {
+            for (Comment comment : comments) {
+                appendComment(comment, appendable);
             }
         }
     }
 
+    /** writes the comment if applicable according to the current options */
+    private void appendComment(Comment comment, StyleAppendable appendable) throws IOException {
+        if (shouldWriteAllComments()) {
+            writeInner(comment, appendable);
+        } else if (shouldWriteAnnotatedComments() && comment.annotation().isPresent()) {
+            writeInner(comment, appendable);
+        } else if (shouldWriteBangComments() && comment.startsWithBang()) {
+            writeInner(comment, appendable);
+        }
+    }
+
     /**
      * Increments the stack depth.
      * <p>
@@ -435,7 +594,10 @@ public final class StyleWriter implements DependentPlugin {
      * @return this, for chaining.
      */
     public StyleWriter incrementDepth() {
-        stack.push(new StackEntry(stack.peek()));
+        if (depth == peers.length) {
+            peers = Arrays.copyOf(peers, depth * 2);
+        }
+        peers[depth++] = 0;
         return this;
     }
 
@@ -448,7 +610,8 @@ public final class StyleWriter implements DependentPlugin {
      * @return this, for chaining.
      */
     public StyleWriter decrementDepth() {
-        stack.pop();
+        checkState(depth > 0, "depth is already at zero");
+        depth--;
         return this;
     }
 
@@ -459,7 +622,7 @@ public final class StyleWriter implements DependentPlugin {
      * @return The number of peers previously written out at the current depth level.
      */
     public int countAtCurrentDepth() {
-        return stack.isEmpty() ? 0 : stack.peek().numberOfPreviousPeers();
+        return depth > 1 ? peers[depth - 2] : 0;
     }
 
     /**
@@ -477,6 +640,71 @@ public final class StyleWriter implements DependentPlugin {
         return countAtCurrentDepth() == 0;
     }
 
+    /** same as writing the stylesheet with writeInner, but with the top-level statements in chunks written concurrently */
+    private void writeParallel(Stylesheet stylesheet, StyleAppendable appendable) throws IOException {
+        incrementDepth();
+        if (!stylesheet.writesOwnComments()) {
+            appendComments(stylesheet.comments(), appendable);
+        }
+
+        List<Statement> statements = new ArrayList<>(stylesheet.statements().size());
+        for (Statement statement : stylesheet.statements()) {
+            statements.add(statement);
+        }
+
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, statements.size() / (ForkJoinPool.getCommonPoolParallelism() * 4));
+        int chunks = (statements.size() + chunkSize - 1) / chunkSize;
+
+        // each chunk assumes every statement before it was written. This only needs correcting below if some weren't
+        int base = peers[depth - 1];
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            int start = i * chunkSize;
+            List<Statement> slice = statements.subList(start, Math.min(start + chunkSize, statements.size()));
+            tasks.add(ForkJoinPool.commonPool().submit(() -> writeChunk(slice, base + start)));
+        }
+
+        int count = base;
+        for (int i = 0; i < chunks; i++) {
+            Chunk chunk = tasks.get(i).join();
+            if (chunk.before != count) {
+                chunk = writeChunk(chunk.statements, count);
+            }
+            appendable.append(chunk.output);
+            count += chunk.written;
+        }
+
+        // continue from the correct peer count, e.g., for orphaned comments
+        peers[depth - 1] = count;
+        if (!stylesheet.writesOwnOrphanedComments()) {
+            appendComments(stylesheet.orphanedComments(), appendable);
+        }
+        decrementDepth();
+    }
+
+    /** writes the given statements with a separate writer, as if the given number of peers were already written before them */
+    private Chunk writeChunk(List<Statement> statements, int before) {
+        StyleWriter worker = new StyleWriter(mode);
+        worker.overrides = overrides;
+        worker.writeAllComments = writeAllComments;
+        worker.writeAnnotatedComments = writeAnnotatedComments;
+        worker.writeBangComments = writeBangComments;
+
+        // one level for the stylesheet itself, the same as when writing the statements sequentially
+        worker.incrementDepth();
+        worker.peers[0] = before;
+
+        StyleAppendable buffer = new StyleAppendable(new StringBuilder(statements.size() * 64));
+        try {
+            for (Statement statement : statements) {
+                worker.writeInner(statement, buffer);
+            }
+        } catch (IOException e) {
+            throw new AssertionError("Using a StringBuilder shouldn't cause an IOException.", e);
+        }
+        return new Chunk(statements, buffer.toString(), before, worker.peers[0] - before);
+    }
+
     @Override
     public String toString() {
         return As.string(this).add("mode", mode).add("writeComments", writeAllComments).toString();
@@ -509,35 +737,18 @@ public final class StyleWriter implements DependentPlugin {
         return new StyleWriter(WriterMode.COMPRESSED);
     }
 
-    /** used to help keep track of how many inner units are written at a certain depth. */
-    private static final class StackEntry {
-        private final StackEntry parent;
-        private int numChildren;
-
-        public StackEntry(StackEntry parent) {
-            this.parent = parent;
-        }
-
-        /** increment the count of children directly below this depth */
-        public void incrementNumChildren() {
-            numChildren++;
-        }
-
-        /** gets the number of children directly below this depth */
-        public int totalChildren() {
-            return numChildren;
-        }
-
-        /** increment the number of peers at this depth */
-        public void incrementPeerCountAtDepth() {
-            if (this.parent != null) {
-                this.parent.incrementNumChildren();
-            }
-        }
-
-        /** gets the number of peers at this depth */
-        public int numberOfPreviousPeers() {
-            return this.parent != null ? this.parent.totalChildren() : 0;
+    /** the output of one chunk of statements written in parallel */
+    private static final class Chunk {
+        final List<Statement> statements;
+        final String output;
+        final int before;
+        final int written;
+
+        Chunk(List<Statement> statements, String output, int before, int written) {
+            this.statements = statements;
+            this.output = output;
+            this.before = before;
+            this.written = written;
         }
     }
 }
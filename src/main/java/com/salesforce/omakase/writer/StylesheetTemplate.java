@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.writer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.google.common.collect.ImmutableSet;
+import com.salesforce.omakase.ast.CssAnnotation;
+import com.salesforce.omakase.ast.RawSyntax;
+import com.salesforce.omakase.ast.Rule;
+import com.salesforce.omakase.ast.Statement;
+import com.salesforce.omakase.ast.StatementIterable;
+import com.salesforce.omakase.ast.Stylesheet;
+import com.salesforce.omakase.ast.atrule.AtRule;
+import com.salesforce.omakase.ast.atrule.AtRuleBlock;
+import com.salesforce.omakase.ast.declaration.Declaration;
+import com.salesforce.omakase.ast.declaration.PropertyValue;
+import com.salesforce.omakase.util.CssAnnotations;
+
+/**
+ * A stylesheet written out ahead of time, with the values of certain declarations left as holes to be filled in later.
+ * <p>
+ * This is for when the same CSS source is needed many times with only a few values changing, for example a theme with different
+ * colors for each customer. Instead of parsing and processing the source again for each variation, compile the processed {@link
+ * Stylesheet} once into a template and then {@link #render(WriterMode, Map)} each variation. Rendering only appends the
+ * pre-written text and the given values, and is safe to do from multiple threads at once.
+ * <p>
+ * By default the holes are the declarations annotated with {@link CssAnnotations#VAR}, where the annotation argument is the name
+ * of the hole (when there is no argument the property name is used instead):
+ * <pre><code>
+ * .header {
+ *     /* {@literal @}var brand-color *&#47;
+ *     background: #16325c;
+ * }
+ * </code></pre>
+ * A different function for picking the holes can be given to {@link #compile(Stylesheet, Function)}.
+ * <p>
+ * The whole value of a declaration is replaced, including any "!important". Values are inserted as-is, so they must already be
+ * valid CSS for the output mode. Holes without a given value render the original value. Declarations within at-rules are only
+ * considered when the at-rule is refined. The stylesheet is written out for every
+ * {@link WriterMode} when compiling, using the default {@link StyleWriter} settings. Changes made to the stylesheet afterwards
+ * have no effect on the template.
+ *
+ * @author nmcwilliams
+ */
+public final class StylesheetTemplate {
+    private final ImmutableSet<String> holes;
+    private final Map<WriterMode, Compiled> compiled;
+
+    private StylesheetTemplate(ImmutableSet<String> holes, Map<WriterMode, Compiled> compiled) {
+        this.holes = holes;
+        this.compiled = compiled;
+    }
+
+    /**
+     * Compiles a template from the given stylesheet, using the declarations annotated with {@link CssAnnotations#VAR} as the
+     * holes.
+     *
+     * @param stylesheet
+     *     The processed stylesheet.
+     *
+     * @return The template.
+     */
+    public static StylesheetTemplate compile(Stylesheet stylesheet) {
+        return compile(stylesheet, StylesheetTemplate::annotated);
+    }
+
+    /**
+     * Compiles a template from the given stylesheet, using the given function to pick the holes.
+     *
+     * @param stylesheet
+     *     The processed stylesheet.
+     * @param holes
+     *     Called for each declaration, returning the name of the hole or an empty {@link Optional} if the declaration should be
+     *     written as normal. The same name can be used for more than one declaration.
+     *
+     * @return The template.
+     */
+    public static StylesheetTemplate compile(Stylesheet stylesheet, Function<Declaration, Optional<String>> holes) {
+        checkNotNull(stylesheet, "stylesheet cannot be null");
+        checkNotNull(holes, "holes cannot be null");
+
+        // the value units to replace, mapped to the name of the hole
+        Map<Object, String> values = new IdentityHashMap<>();
+        LinkedHashSet<String> names = new LinkedHashSet<>();
+        collect(stylesheet, holes, values, names);
+
+        Map<WriterMode, Compiled> compiled = new EnumMap<>(WriterMode.class);
+        for (WriterMode mode : WriterMode.values()) {
+            compiled.put(mode, new Compiled(stylesheet, mode, values));
+        }
+
+        return new StylesheetTemplate(ImmutableSet.copyOf(names), compiled);
+    }
+
+    /**
+     * Gets the names of all holes in this template.
+     *
+     * @return The hole names.
+     */
+    public ImmutableSet<String> holes() {
+        return holes;
+    }
+
+    /**
+     * Renders the template, filling in the holes with the given values.
+     *
+     * @param mode
+     *     The output mode.
+     * @param values
+     *     The value to use for each hole, by name. Holes without an entry render the original value.
+     *
+     * @return The CSS output.
+     */
+    public String render(WriterMode mode, Map<String, String> values) {
+        checkNotNull(values, "values cannot be null");
+        Compiled template = compiled.get(checkNotNull(mode, "mode cannot be null"));
+        StringBuilder builder = new StringBuilder(template.length + 16 * template.names.length);
+        try {
+            template.render(values, builder);
+        } catch (IOException e) {
+            throw new AssertionError("Using a StringBuilder shouldn't cause an IOException.", e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Renders the template to the given {@link Appendable}, filling in the holes with the given values.
+     *
+     * @param mode
+     *     The output mode.
+     * @param values
+     *     The value to use for each hole, by name. Holes without an entry render the original value.
+     * @param appendable
+     *     Write the CSS output to this appendable.
+     *
+     * @throws IOException
+     *     If an I/O error occurs.
+     */
+    public void render(WriterMode mode, Map<String, String> values, Appendable appendable) throws IOException {
+        checkNotNull(values, "values cannot be null");
+        checkNotNull(appendable, "appendable cannot be null");
+        compiled.get(checkNotNull(mode, "mode cannot be null")).render(values, appendable);
+    }
+
+    /** the default hole function */
+    private static Optional<String> annotated(Declaration declaration) {
+        Optional<CssAnnotation> annotation = declaration.annotation(CssAnnotations.VAR);
+        if (!annotation.isPresent()) return Optional.empty();
+        String name = annotation.get().rawArgs().orElse(declaration.name());
+        return Optional.of(name);
+    }
+
+    /** finds the values of all declarations that are holes */
+    private static void collect(StatementIterable parent, Function<Declaration, Optional<String>> holes,
+        Map<Object, String> values, LinkedHashSet<String> names) {
+        for (Statement statement : parent.statements()) {
+            if (statement instanceof Rule) {
+                for (Declaration declaration : ((Rule)statement).declarations()) {
+                    Optional<String> name = holes.apply(declaration);
+                    if (name.isPresent()) {
+                        Object value = declaration.isRefined()
+                            ? declaration.propertyValue() : declaration.rawPropertyValue().get();
+                        values.put(value, name.get());
+                        names.add(name.get());
+                    }
+                }
+            } else if (statement instanceof AtRule) {
+                Optional<AtRuleBlock> block = ((AtRule)statement).block();
+                if (block.isPresent()) {
+                    collect(block.get(), holes, values, names);
+                }
+            }
+        }
+    }
+
+    /** the template text for one writer mode */
+    private static final class Compiled {
+        /** the text between the holes, one more than the number of holes */
+        private final String[] literals;
+        /** the hole name for each position */
+        private final String[] names;
+        /** the original value at each position */
+        private final String[] defaults;
+        /** total length of the literals and defaults */
+        private final int length;
+
+        Compiled(Stylesheet stylesheet, WriterMode mode, Map<Object, String> values) {
+            StringBuilder out = new StringBuilder(1024);
+            List<Integer> bounds = new ArrayList<>();
+            List<String> found = new ArrayList<>();
+
+            // record where each hole value was written
+            CustomWriter<Writable> marker = (unit, writer, appendable) -> {
+                String name = values.get(unit);
+                if (name == null) return false;
+                bounds.add(out.length());
+                writer.writeInner(unit, appendable, false);
+                bounds.add(out.length());
+                found.add(name);
+                return true;
+            };
+
+            StyleWriter writer = new StyleWriter(mode);
+            writer.addCustomWriter(PropertyValue.class, marker::write);
+            writer.addCustomWriter(RawSyntax.class, marker::write);
+
+            try {
+                writer.writeInner(stylesheet, new StyleAppendable(out));
+            } catch (IOException e) {
+                throw new AssertionError("Using a StringBuilder shouldn't cause an IOException.", e);
+            }
+
+            String text = out.toString();
+            this.length = text.length();
+            this.names = found.toArray(new String[found.size()]);
+            this.defaults = new String[names.length];
+            this.literals = new String[names.length + 1];
+
+            int start = 0;
+            for (int i = 0; i < names.length; i++) {
+                int holeStart = bounds.get(i * 2);
+                int holeEnd = bounds.get(i * 2 + 1);
+                literals[i] = text.substring(start, holeStart);
+                defaults[i] = text.substring(holeStart, holeEnd);
+                start = holeEnd;
+            }
+            literals[names.length] = text.substring(start);
+        }
+
+        void render(Map<String, String> values, Appendable appendable) throws IOException {
+            appendable.append(literals[0]);
+            for (int i = 0; i < names.length; i++) {
+                String value = values.get(names[i]);
+                appendable.append(value != null ? value : defaults[i]);
+                appendable.append(literals[i + 1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Encodes characters as UTF-8 directly into a {@link ByteBuffer}, which is drained to an {@link OutputStream} or {@link
+ * WritableByteChannel} whenever it fills up.
+ * <p>
+ * Most CSS output is ASCII, which is written with a single range check per character. Unpaired surrogates are written as '?', the
+ * same as {@link String#getBytes(java.nio.charset.Charset)}.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author nmcwilliams
+ */
+final class Utf8Sink {
+    private final ByteBuffer buffer;
+    private final OutputStream stream;
+    private final WritableByteChannel channel;
+
+    /* a high surrogate waiting for the low surrogate in the next character */
+    private char highSurrogate;
+
+    /** drains to the given stream, using a heap buffer of the given size */
+    Utf8Sink(OutputStream stream, int bufferSize) {
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.stream = stream;
+        this.channel = null;
+    }
+
+    /** drains to the given channel, using the given (possibly pooled or direct) buffer */
+    Utf8Sink(WritableByteChannel channel, ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.stream = null;
+        this.channel = channel;
+    }
+
+    /** encodes a single character */
+    void write(char c) throws IOException {
+        if (c < 0x80 && highSurrogate == 0) {
+            if (!buffer.hasRemaining()) drain();
+            buffer.put((byte)c);
+        } else {
+            encode(c);
+        }
+    }
+
+    /** encodes all characters in the given sequence */
+    void write(CharSequence sequence) throws IOException {
+        int length = sequence.length();
+        int i = 0;
+        while (i < length) {
+            // ASCII fast path, limited to what fits without draining
+            if (highSurrogate == 0) {
+                int limit = Math.min(length, i + buffer.remaining());
+                char c;
+                while (i < limit && (c = sequence.charAt(i)) < 0x80) {
+                    buffer.put((byte)c);
+                    i++;
+                }
+                if (i == length) return;
+            }
+            write(sequence.charAt(i++));
+        }
+    }
+
+    /** writes out all buffered bytes. A high surrogate still waiting for its pair is written as unpaired */
+    void flush() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            ensure(1);
+            buffer.put((byte)'?');
+        }
+        drain();
+        if (stream != null) {
+            stream.flush();
+        }
+    }
+
+    private void encode(char c) throws IOException {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                ensure(4);
+                buffer.put((byte)(0xF0 | (codePoint >> 18)));
+                buffer.put((byte)(0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte)(0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte)(0x80 | (codePoint & 0x3F)));
+                return;
+            }
+            ensure(1);
+            buffer.put((byte)'?'); // unpaired high surrogate, then continue with this character
+            write(c);
+        } else if (c < 0x800) {
+            ensure(2);
+            buffer.put((byte)(0xC0 | (c >> 6)));
+            buffer.put((byte)(0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            ensure(1);
+            buffer.put((byte)'?');
+        } else {
+            ensure(3);
+            buffer.put((byte)(0xE0 | (c >> 12)));
+            buffer.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte)(0x80 | (c & 0x3F)));
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) drain();
+    }
+
+    private void drain() throws IOException {
+        if (buffer.position() == 0) return;
+
+        // calls go through Buffer so that the Java 8 signatures are used when compiled on a newer JDK
+        if (stream != null) {
+            stream.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+            ((Buffer)buffer).clear();
+        } else {
+            ((Buffer)buffer).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            ((Buffer)buffer).clear();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.writer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+import com.salesforce.omakase.util.As;
+
+/**
+ * An immutable snapshot of the settings of a {@link StyleWriter}, which can be shared between threads and reused for any number
+ * of writes.
+ * <p>
+ * A {@link StyleWriter} keeps track of its position while writing, and when used as a plugin it's tied to the syntax tree of a
+ * single parsing operation. So each instance can only write one thing at a time. A {@link WriterConfig} instead holds only the
+ * settings (mode, comment options and custom writers), and each write uses a new, short-lived {@link StyleWriter} session:
+ * <pre><code>
+ * // once, e.g., at startup
+ * WriterConfig config = StyleWriter.compressed().writeBangComments(true).addCustomWriter(Selector.class, custom).config();
+ *
+ * // on any thread
+ * String css = config.write(stylesheet);
+ * </code></pre>
+ * Creating a session is cheap. The custom writers are shared between sessions rather than copied. Custom writers must be safe to
+ * call from multiple threads when the config is used concurrently.
+ *
+ * @author nmcwilliams
+ * @see StyleWriter#config()
+ */
+public final class WriterConfig {
+    private final WriterMode mode;
+    private final boolean writeAllComments;
+    private final boolean writeAnnotatedComments;
+    private final boolean writeBangComments;
+    private final boolean parallel;
+    private final boolean overridesParallel;
+    private final Map<Class<? extends Writable>, CustomWriter<?>[]> overrides;
+
+    WriterConfig(WriterMode mode, boolean writeAllComments, boolean writeAnnotatedComments, boolean writeBangComments,
+        boolean parallel, boolean overridesParallel, Map<Class<? extends Writable>, CustomWriter<?>[]> overrides) {
+        this.mode = mode;
+        this.writeAllComments = writeAllComments;
+        this.writeAnnotatedComments = writeAnnotatedComments;
+        this.writeBangComments = writeBangComments;
+        this.parallel = parallel;
+        this.overridesParallel = overridesParallel;
+        // the arrays are never modified (StyleWriter replaces them instead), so copying the map is enough
+        this.overrides = overrides == null ? null : ImmutableMap.copyOf(overrides);
+    }
+
+    /**
+     * Gets the {@link WriterMode}.
+     *
+     * @return The writer mode.
+     */
+    public WriterMode mode() {
+        return mode;
+    }
+
+    /**
+     * Creates a new {@link StyleWriter} session with these settings.
+     * <p>
+     * The session is not thread-safe, but it's independent of this config and of all other sessions. It can be used as a plugin
+     * or for writing individual units. Changing the settings of the session doesn't affect this config.
+     *
+     * @return The new session.
+     */
+    public StyleWriter session() {
+        return new StyleWriter(this);
+    }
+
+    /**
+     * Writes the given unit (e.g., a {@link com.salesforce.omakase.ast.Stylesheet}) to a string, using a new session.
+     *
+     * @param writable
+     *     The unit to write.
+     *
+     * @return The CSS output.
+     */
+    public String write(Writable writable) {
+        checkNotNull(writable, "writable cannot be null");
+        return session().writeSingle(writable);
+    }
+
+    /**
+     * Writes the given unit to the given {@link Appendable}, using a new session.
+     *
+     * @param writable
+     *     The unit to write.
+     * @param appendable
+     *     Write the output to this appendable.
+     *
+     * @throws IOException
+     *     If an I/O error occurs.
+     */
+    public void writeTo(Writable writable, Appendable appendable) throws IOException {
+        checkNotNull(writable, "writable cannot be null");
+        checkNotNull(appendable, "appendable cannot be null");
+        session().writeInner(writable, new StyleAppendable(appendable));
+    }
+
+    /**
+     * Writes the given unit as UTF-8 bytes to the given {@link OutputStream}, using a new session. The stream is flushed but not
+     * closed. See {@link StyleWriter#writeUtf8To(OutputStream)}.
+     *
+     * @param writable
+     *     The unit to write.
+     * @param stream
+     *     Write the output to this stream.
+     *
+     * @throws IOException
+     *     If an I/O error occurs.
+     */
+    public void writeUtf8To(Writable writable, OutputStream stream) throws IOException {
+        checkNotNull(writable, "writable cannot be null");
+        StyleAppendable appendable = StyleAppendable.utf8(stream);
+        session().writeInner(writable, appendable);
+        appendable.flush();
+    }
+
+    boolean writeAllComments() {
+        return writeAllComments;
+    }
+
+    boolean writeAnnotatedComments() {
+        return writeAnnotatedComments;
+    }
+
+    boolean writeBangComments() {
+        return writeBangComments;
+    }
+
+    boolean parallel() {
+        return parallel;
+    }
+
+    boolean overridesParallel() {
+        return overridesParallel;
+    }
+
+    Map<Class<? extends Writable>, CustomWriter<?>[]> overrides() {
+        return overrides;
+    }
+
+    @Override
+    public String toString() {
+        return As.string(this).add("mode", mode).add("writeComments", writeAllComments).toString();
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.salesforce.omakase.ast.selector.ClassSelector;
+import com.salesforce.omakase.broadcast.annotation.Rework;
+import com.salesforce.omakase.error.ErrorLevel;
+import com.salesforce.omakase.plugin.DependentPlugin;
+import com.salesforce.omakase.plugin.core.StandardValidation;
+import com.salesforce.omakase.plugin.syntax.SelectorPlugin;
+import com.salesforce.omakase.writer.StyleWriter;
+
+/**
+ * Unit tests for {@link Batch}.
+ *
+ * @author nmcwilliams
+ */
+@SuppressWarnings("JavaDoc")
+public class BatchTest {
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void processesAllSourcesInOrder() throws InterruptedException {
+        List<Batch.Result> results = Omakase.batch()
+            .add("a", ".a { color: red; }")
+            .add("b", ".b { color: blue; }")
+            .add("c", () -> ".c { color: green; }")
+            .executor(executor)
+            .process();
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).name()).isEqualTo("a");
+        assertThat(results.get(0).output().get()).isEqualTo(".a{color:red}");
+        assertThat(results.get(1).output().get()).isEqualTo(".b{color:blue}");
+        assertThat(results.get(2).index()).isEqualTo(2);
+        assertThat(results.get(2).output().get()).isEqualTo(".c{color:green}");
+        assertThat(results.get(2).hasErrors()).isFalse();
+    }
+
+    @Test
+    public void usesCustomWriter() throws InterruptedException {
+        List<Batch.Result> results = Omakase.batch()
+            .add("a", ".a{color:red}")
+            .writer(StyleWriter.inline().config())
+            .process();
+
+        assertThat(results.get(0).output().get()).isEqualTo(".a {color:red}");
+    }
+
+    @Test
+    public void setupIsCalledForEachSource() throws InterruptedException {
+        List<Batch.Result> results = Omakase.batch()
+            .add("a", ".a{color:red}")
+            .add("b", ".b{color:red}")
+            .setup(request -> request.use(new Renamer()))
+            .executor(executor)
+            .process();
+
+        assertThat(results.get(0).output().get()).isEqualTo(".a-renamed{color:red}");
+        assertThat(results.get(1).output().get()).isEqualTo(".b-renamed{color:red}");
+    }
+
+    @Test
+    public void setupCanRegisterWriter() throws InterruptedException {
+        List<Batch.Result> results = Omakase.batch()
+            .add("a", ".a{color:red}")
+            .setup(request -> request.use(StyleWriter.verbose()))
+            .process();
+
+        assertThat(results.get(0).output().get()).isEqualTo(".a{color:red}");
+    }
+
+    @Test
+    public void readsPaths() throws Exception {
+        File a = folder.newFile("a.css");
+        File b = folder.newFile("b.css");
+        Files.write(a.toPath(), ".a { color: red; }".getBytes(StandardCharsets.UTF_8));
+        Files.write(b.toPath(), ".b { content: \"✓\"; }".getBytes(StandardCharsets.UTF_8));
+
+        List<Batch.Result> results = Omakase.batch()
+            .add(ImmutableList.of(a.toPath(), b.toPath()))
+            .executor(executor)
+            .process();
+
+        assertThat(results.get(0).name()).isEqualTo(a.toPath().toString());
+        assertThat(results.get(0).output().get()).isEqualTo(".a{color:red}");
+        assertThat(results.get(1).output().get()).isEqualTo(".b{content:\"✓\"}");
+    }
+
+    @Test
+    public void missingFileIsFailure() throws InterruptedException {
+        List<Batch.Result> results = Omakase.batch()
+            .add(folder.getRoot().toPath().resolve("missing.css"))
+            .add("a", ".a{color:red}")
+            .process();
+
+        assertThat(results.get(0).hasErrors()).isTrue();
+        assertThat(results.get(0).output().isPresent()).isFalse();
+        assertThat(results.get(0).failure().get()).isInstanceOf(UncheckedIOException.class);
+        assertThat(results.get(1).hasErrors()).isFalse();
+    }
+
+    @Test
+    public void parserErrorsAreDiagnostics() throws InterruptedException {
+        List<Batch.Result> results = Omakase.batch()
+            .add("a", ".a{color:red} $")
+            .process();
+
+        Batch.Result result = results.get(0);
+        assertThat(result.hasErrors()).isTrue();
+        assertThat(result.failure().isPresent()).isFalse();
+        assertThat(result.diagnostics()).hasSize(1);
+        assertThat(result.diagnostics().get(0).level()).isSameAs(ErrorLevel.FATAL);
+        assertThat(result.output().isPresent()).isFalse();
+    }
+
+    @Test
+    public void recoveredParserErrorsHaveOutput() throws InterruptedException {
+        List<Batch.Result> results = Omakase.batch()
+            .add("a", ".a{color:red} $ .b{color:blue}")
+            .setup(request -> request.recover(true))
+            .process();
+
+        Batch.Result result = results.get(0);
+        assertThat(result.hasErrors()).isTrue();
+        assertThat(result.diagnostics()).isNotEmpty();
+        assertThat(result.output().isPresent()).isTrue();
+    }
+
+    @Test
+    public void validationWarningsAreNotErrors() throws InterruptedException {
+        List<Batch.Result> results = Omakase.batch()
+            .add("a", ".a{color:red}")
+            .setup(request -> request.use(new StandardValidation()))
+            .process();
+
+        assertThat(results.get(0).hasErrors()).isFalse();
+        assertThat(results.get(0).diagnostics()).isEmpty();
+    }
+
+    @Test
+    public void pluginErrorIsFailure() throws InterruptedException {
+        List<Batch.Result> results = Omakase.batch()
+            .add("a", ".a{color:red}")
+            .setup(request -> request.use(new Throwing()))
+            .process();
+
+        assertThat(results.get(0).hasErrors()).isTrue();
+        assertThat(results.get(0).output().isPresent()).isFalse();
+        assertThat(results.get(0).failure().isPresent()).isTrue();
+    }
+
+    @Test
+    public void unorderedDeliversEverySource() throws InterruptedException {
+        Batch batch = Omakase.batch().executor(executor);
+        for (int i = 0; i < 50; i++) {
+            batch.add("s" + i, ".s" + i + "{color:red}");
+        }
+
+        List<Integer> indices = new ArrayList<>();
+        batch.process(result -> {
+            assertThat(result.output().get()).isEqualTo(".s" + result.index() + "{color:red}");
+            indices.add(result.index());
+        });
+
+        assertThat(indices).hasSize(50);
+        assertThat(new HashSet<>(indices)).hasSize(50);
+    }
+
+    @Test
+    public void orderedDeliversInOrder() throws InterruptedException {
+        Batch batch = Omakase.batch().executor(executor).ordered(true);
+        for (int i = 0; i < 50; i++) {
+            int delay = i % 3;
+            batch.add("s" + i, () -> {
+                sleep(delay);
+                return ".a{color:red}";
+            });
+        }
+
+        List<Integer> indices = new ArrayList<>();
+        batch.process(result -> indices.add(result.index()));
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(indices.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void limitsSourcesInFlight() throws InterruptedException {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger max = new AtomicInteger();
+
+        Batch batch = Omakase.batch().executor(executor).maxInFlight(2);
+        for (int i = 0; i < 20; i++) {
+            batch.add("s" + i, () -> {
+                max.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                sleep(1);
+                return ".a{color:red}";
+            });
+        }
+
+        batch.process(result -> inFlight.decrementAndGet());
+
+        assertThat(max.get()).isLessThanOrEqualTo(2);
+        assertThat(inFlight.get()).isEqualTo(0);
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static final class Renamer implements DependentPlugin {
+        @Override
+        public void dependencies(PluginRegistry registry) {
+            registry.require(SelectorPlugin.class);
+        }
+
+        @Rework
+        public void rename(ClassSelector selector) {
+            selector.name(selector.name() + "-renamed");
+        }
+    }
+
+    public static final class Throwing implements DependentPlugin {
+        @Override
+        public void dependencies(PluginRegistry registry) {
+            registry.require(SelectorPlugin.class);
+        }
+
+        @Rework
+        public void fail(ClassSelector selector) {
+            throw new IllegalStateException("failed");
+        }
+    }
+}
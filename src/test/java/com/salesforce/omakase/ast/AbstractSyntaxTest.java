@@ -92,6 +92,18 @@ public class AbstractSyntaxTest {
         assertThat(copy.orphanedComments().get(0).content()).isEqualTo("orphaned comment");
     }
 
+    @Test
+    public void copySharesCommentsUntilChanged() {
+        TestSyntax t = new TestSyntax("name");
+        t.comments(Lists.newArrayList("comment"));
+        TestSyntax copy = t.copy();
+        assertThat(copy.comments()).isSameAs(t.comments());
+
+        copy.comment("another");
+        assertThat(copy.comments()).hasSize(2);
+        assertThat(t.comments()).hasSize(1);
+    }
+
     @Test
     public void testAddCommentString() {
         TestSyntax t = new TestSyntax(10, 15);
@@ -30,6 +30,8 @@ import static org.fest.assertions.api.Assertions.assertThat;
 import static org.junit.Assert.assertThrows;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.Before;
@@ -70,6 +72,28 @@ public class LinkedSyntaxCollectionTest {
         assertThat(collection.size()).isEqualTo(2);
     }
 
+    @Test
+    public void largeCollection() {
+        List<Child> children = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Child child = new Child(i);
+            children.add(child);
+            collection.append(child);
+        }
+        assertThat(collection.size()).isEqualTo(100);
+        assertThat(collection.contains(children.get(80))).isTrue();
+        assertThat(collection.next(children.get(80)).get()).isSameAs(children.get(81));
+
+        collection.remove(children.get(80));
+        assertThat(collection.size()).isEqualTo(99);
+        assertThat(collection.contains(children.get(80))).isFalse();
+        assertThat(collection.next(children.get(79)).get()).isSameAs(children.get(81));
+
+        collection.prependBefore(children.get(81), children.get(80));
+        assertThat(collection.previous(children.get(81)).get()).isSameAs(children.get(80));
+        assertThat(collection.size()).isEqualTo(100);
+    }
+
     @Test
     public void isEmptyTrue() {
         assertThat(collection.isEmpty()).isTrue();
@@ -443,6 +443,15 @@ public class PropertyNameTest {
         assertThat(copy.comments()).hasSameSizeAs(name.comments());
     }
 
+    @Test
+    public void copyIsIndependent() {
+        PropertyName name = PropertyName.of("-webkit-foo");
+        PropertyName copy = name.copy();
+        copy.prefix(Prefix.MOZ);
+        assertThat(copy.name()).isEqualTo("-moz-foo");
+        assertThat(name.name()).isEqualTo("-webkit-foo");
+    }
+
     @Test
     public void copyFromUnknownProperty() {
         PropertyName name = PropertyName.of("blah");
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.ast.flat;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.salesforce.omakase.Omakase;
+import com.salesforce.omakase.ast.Rule;
+import com.salesforce.omakase.ast.Stylesheet;
+import com.salesforce.omakase.ast.Syntax;
+import com.salesforce.omakase.ast.atrule.AtRule;
+import com.salesforce.omakase.ast.declaration.Declaration;
+import com.salesforce.omakase.ast.selector.ClassSelector;
+import com.salesforce.omakase.broadcast.annotation.Observe;
+import com.salesforce.omakase.broadcast.annotation.Validate;
+import com.salesforce.omakase.error.DefaultErrorManager;
+import com.salesforce.omakase.error.Diagnostic;
+import com.salesforce.omakase.error.ErrorLevel;
+import com.salesforce.omakase.error.ErrorManager;
+import com.salesforce.omakase.parser.ParserException;
+import com.salesforce.omakase.plugin.Plugin;
+import com.salesforce.omakase.plugin.core.AutoRefine;
+import com.salesforce.omakase.plugin.core.SyntaxTree;
+import com.salesforce.omakase.writer.StyleWriter;
+
+/**
+ * Unit tests for {@link FlatStylesheet} and {@link FlatNode}.
+ *
+ * @author nmcwilliams
+ */
+public class FlatStylesheetTest {
+    private static List<FlatNode> children(FlatNode node) {
+        List<FlatNode> list = new ArrayList<>();
+        node.children().forEach(list::add);
+        return list;
+    }
+
+    @Test
+    public void structure() {
+        FlatStylesheet flat = FlatStylesheet.parse(".a, .b { color: red; margin: 0 }\n@media print { p { color: blue } }");
+        assertThat(flat.size()).isEqualTo(10);
+
+        List<FlatNode> statements = children(flat.root());
+        assertThat(statements).hasSize(2);
+
+        FlatNode rule = statements.get(0);
+        assertThat(rule.kind()).isSameAs(FlatNode.Kind.RULE);
+        assertThat(rule.parent().get()).isEqualTo(flat.root());
+        assertThat(rule.name().isPresent()).isFalse();
+
+        List<FlatNode> parts = children(rule);
+        assertThat(parts).hasSize(4);
+        assertThat(parts.get(0).kind()).isSameAs(FlatNode.Kind.SELECTOR);
+        assertThat(parts.get(0).name().get()).isEqualTo(".a");
+        assertThat(parts.get(1).name().get()).isEqualTo(".b");
+        assertThat(parts.get(2).kind()).isSameAs(FlatNode.Kind.DECLARATION);
+        assertThat(parts.get(2).name().get()).isEqualTo("color");
+        assertThat(parts.get(2).value().get()).isEqualTo("red");
+        assertThat(parts.get(3).nextSibling().isPresent()).isFalse();
+
+        FlatNode media = statements.get(1);
+        assertThat(media.kind()).isSameAs(FlatNode.Kind.AT_RULE);
+        assertThat(media.name().get()).isEqualTo("media");
+        assertThat(media.value().get()).isEqualTo("print");
+        assertThat(media.line()).isEqualTo(2);
+        assertThat(media.column()).isEqualTo(1);
+        assertThat(media.firstChild().get().kind()).isSameAs(FlatNode.Kind.RULE);
+    }
+
+    @Test
+    public void spans() {
+        String css = ".a, .b { color: red; /* x */ margin: 0 }\n@import url(x.css);\n@media print { p { top: 0 } }";
+        FlatStylesheet flat = FlatStylesheet.parse(css);
+        FlatNode root = flat.root();
+        assertThat(css.substring(root.start(), root.end())).isEqualTo(css);
+
+        List<FlatNode> statements = children(root);
+        FlatNode rule = statements.get(0);
+        assertThat(css.substring(rule.start(), rule.end())).isEqualTo(".a, .b { color: red; /* x */ margin: 0 }");
+
+        List<FlatNode> parts = children(rule);
+        assertThat(css.substring(parts.get(0).start(), parts.get(0).end())).isEqualTo(".a, .b");
+        assertThat(css.substring(parts.get(2).start(), parts.get(2).end())).isEqualTo("color: red");
+        assertThat(css.substring(parts.get(3).start(), parts.get(3).end())).isEqualTo("margin: 0");
+
+        FlatNode atImport = statements.get(1);
+        assertThat(css.substring(atImport.start(), atImport.end())).isEqualTo("@import url(x.css);");
+
+        FlatNode media = statements.get(2);
+        assertThat(css.substring(media.start(), media.end())).isEqualTo("@media print { p { top: 0 } }");
+        FlatNode nested = media.firstChild().get();
+        assertThat(css.substring(nested.start(), nested.end())).isEqualTo("p { top: 0 }");
+    }
+
+    @Test
+    public void emptyStylesheet() {
+        FlatStylesheet flat = FlatStylesheet.parse("");
+        assertThat(flat.size()).isEqualTo(1);
+        assertThat(flat.root().kind()).isSameAs(FlatNode.Kind.STYLESHEET);
+        assertThat(flat.root().hasChildren()).isFalse();
+        assertThat(flat.root().parent().isPresent()).isFalse();
+    }
+
+    @Test
+    public void internsRepeatedText() {
+        FlatStylesheet flat = FlatStylesheet.parse(".a { color: red } .b { color: red } .c { color: red }");
+        assertThat(flat.distinctStrings()).isEqualTo(5);
+
+        List<FlatNode> rules = children(flat.root());
+        String first = rules.get(0).firstChild().get().nextSibling().get().name().get();
+        String second = rules.get(1).firstChild().get().nextSibling().get().name().get();
+        assertThat(first).isSameAs(second);
+    }
+
+    @Test
+    public void important() {
+        FlatStylesheet flat = FlatStylesheet.parse(".a { color: red !important; margin: 0 }");
+        List<FlatNode> parts = children(flat.root().firstChild().get());
+        assertThat(parts.get(1).isImportant()).isTrue();
+        assertThat(parts.get(1).value().get()).isEqualTo("red");
+        assertThat(parts.get(2).isImportant()).isFalse();
+    }
+
+    @Test
+    public void atRuleWithoutExpression() {
+        FlatStylesheet flat = FlatStylesheet.parse("@font-face { font-family: Foo; src: url(foo.woff) }");
+        FlatNode fontFace = flat.root().firstChild().get();
+        assertThat(fontFace.value().isPresent()).isFalse();
+        assertThat(children(fontFace)).hasSize(2);
+    }
+
+    @Test
+    public void nodeByIndex() {
+        FlatStylesheet flat = FlatStylesheet.parse(".a { color: red }");
+        assertThat(flat.node(3).name().get()).isEqualTo("color");
+        assertThat(flat.node(3).index()).isEqualTo(3);
+        assertThrows(IndexOutOfBoundsException.class, () -> flat.node(4));
+    }
+
+    @Test
+    public void equality() {
+        FlatStylesheet flat = FlatStylesheet.parse(".a { color: red }");
+        assertThat(flat.node(1)).isEqualTo(flat.root().firstChild().get());
+        assertThat(flat.node(1).hashCode()).isEqualTo(flat.root().firstChild().get().hashCode());
+        assertThat(flat.node(1)).isNotEqualTo(FlatStylesheet.parse(".a { color: red }").node(1));
+    }
+
+    @Test
+    public void reader() throws IOException {
+        FlatStylesheet flat = FlatStylesheet.parse(new StringReader(".a { color: red }"));
+        assertThat(flat.size()).isEqualTo(4);
+    }
+
+    @Test
+    public void malformed() {
+        assertThrows(ParserException.class, () -> FlatStylesheet.parse(".a { color: red"));
+    }
+
+    @Test
+    public void toSyntaxRule() {
+        FlatStylesheet flat = FlatStylesheet.parse(".a, .b { color: red !important; margin: 0 }");
+        Syntax syntax = flat.root().firstChild().get().toSyntax();
+        assertThat(syntax).isInstanceOf(Rule.class);
+
+        Rule rule = (Rule)syntax;
+        assertThat(rule.selectors()).hasSize(2);
+        assertThat(rule.declarations()).hasSize(2);
+        assertThat(rule.declarations().first().get().rawPropertyValue().get().content()).isEqualTo("red !important");
+    }
+
+    @Test
+    public void toSyntaxAtRules() {
+        FlatStylesheet flat = FlatStylesheet.parse("@media print { .a { color: red } } @font-face { font-family: Foo } " +
+            "@charset \"UTF-8\";");
+        List<FlatNode> statements = children(flat.root());
+
+        AtRule media = (AtRule)statements.get(0).toSyntax();
+        assertThat(media.name()).isEqualTo("media");
+        assertThat(media.block().isPresent()).isTrue();
+
+        AtRule fontFace = (AtRule)statements.get(1).toSyntax();
+        assertThat(fontFace.rawBlock().get().content()).isEqualTo("font-family:Foo;");
+
+        AtRule charset = (AtRule)statements.get(2).toSyntax();
+        assertThat(charset.rawExpression().get().content()).isEqualTo("\"UTF-8\"");
+        assertThat(charset.rawBlock().isPresent()).isFalse();
+    }
+
+    @Test
+    public void toSyntaxMixedAtRuleBlocks() {
+        FlatStylesheet flat = FlatStylesheet.parse("@page :first { margin: 1in; @top-left { content: 'x' } }\n" +
+            "@media print { .a{top:0} margin: 0; }");
+        List<FlatNode> statements = children(flat.root());
+
+        AtRule page = (AtRule)statements.get(0).toSyntax();
+        assertThat(page.rawExpression().get().content()).isEqualTo(":first");
+        assertThat(page.rawBlock().get().content()).isEqualTo("margin:1in;@top-left {content:'x';}");
+
+        AtRule media = (AtRule)statements.get(1).toSyntax();
+        assertThat(media.rawBlock().get().content()).isEqualTo(".a{top:0}margin:0;");
+
+        Stylesheet materialized = (Stylesheet)flat.root().toSyntax();
+        assertThat(materialized.statements()).hasSize(2);
+    }
+
+    @Test
+    public void toSyntaxDeclaration() {
+        FlatStylesheet flat = FlatStylesheet.parse(".a { margin: 0 1px }");
+        Declaration declaration = (Declaration)flat.node(3).toSyntax();
+        assertThat(declaration.line()).isEqualTo(1);
+        assertThat(declaration.column()).isEqualTo(6);
+        assertThat(StyleWriter.compressed().writeSingle(declaration)).isEqualTo("margin:0 1px");
+    }
+
+    @Test
+    public void toSyntaxMatchesRegularOutput() {
+        String css = ".a > .b, p { color: red; margin: 0 auto !important }\n" +
+            "/* comment */ #c:hover { display: none }";
+
+        SyntaxTree tree = new SyntaxTree();
+        Omakase.source(css).use(tree).process();
+        String expected = StyleWriter.compressed().writeSingle(tree.stylesheet());
+
+        Stylesheet materialized = (Stylesheet)FlatStylesheet.parse(css).root().toSyntax();
+        assertThat(StyleWriter.compressed().writeSingle(materialized)).isEqualTo(expected);
+    }
+
+    @Test
+    public void processStatementsWithPlugins() {
+        FlatStylesheet flat = FlatStylesheet.parse(".a { color: red }\n@media print { .bad { margin: 0 } }\n.bad { top: 0 }");
+        DefaultErrorManager em = new DefaultErrorManager().warnings(false);
+        ClassSelectorValidator validator = new ClassSelectorValidator();
+
+        for (FlatNode statement : flat.root().children()) {
+            Omakase.source(statement).use(em).use(AutoRefine.everything()).use(validator).process();
+        }
+
+        // units are refined and delivered as if they had been parsed, with their original positions
+        assertThat(validator.properties).containsExactly("color", "margin", "top");
+        List<Diagnostic> diagnostics = em.diagnostics();
+        assertThat(diagnostics).hasSize(2);
+        assertThat(diagnostics.get(0).line()).isEqualTo(2);
+        assertThat(diagnostics.get(0).column()).isEqualTo(16);
+        assertThat(diagnostics.get(1).line()).isEqualTo(3);
+        assertThat(diagnostics.get(1).column()).isEqualTo(1);
+    }
+
+    @Test
+    public void processWholeStylesheet() {
+        String css = ".a > .b, p { color: red; margin: 0 auto !important }\n@media print { #c:hover { display: none } }";
+        StyleWriter expected = StyleWriter.compressed();
+        Omakase.source(css).use(AutoRefine.everything()).use(expected).process();
+
+        StyleWriter writer = StyleWriter.compressed();
+        Omakase.source(FlatStylesheet.parse(css).root()).use(AutoRefine.everything()).use(writer).process();
+        assertThat(writer.write()).isEqualTo(expected.write());
+    }
+
+    @Test
+    public void processSelectorIsRejected() {
+        FlatStylesheet flat = FlatStylesheet.parse(".a { color: red }");
+        assertThrows(IllegalArgumentException.class, () -> Omakase.source(flat.node(2)));
+    }
+
+    public static final class ClassSelectorValidator implements Plugin {
+        final List<String> properties = new ArrayList<>();
+
+        @Observe
+        public void declaration(Declaration declaration) {
+            properties.add(declaration.propertyName().name());
+        }
+
+        @Validate
+        public void classSelector(ClassSelector selector, ErrorManager em) {
+            if (selector.name().equals("bad")) {
+                em.report(ErrorLevel.WARNING, selector, "bad class name");
+            }
+        }
+    }
+}
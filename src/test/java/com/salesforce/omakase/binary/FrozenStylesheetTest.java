@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.binary;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.salesforce.omakase.Omakase;
+import com.salesforce.omakase.ast.Rule;
+import com.salesforce.omakase.ast.Stylesheet;
+import com.salesforce.omakase.ast.flat.FlatNode;
+import com.salesforce.omakase.plugin.core.AutoRefine;
+import com.salesforce.omakase.plugin.core.SyntaxTree;
+import com.salesforce.omakase.writer.StyleWriter;
+import com.salesforce.omakase.writer.WriterMode;
+
+/**
+ * Unit tests for {@link FrozenStylesheet}.
+ *
+ * @author nmcwilliams
+ */
+@SuppressWarnings("JavaDoc")
+public class FrozenStylesheetTest {
+    private static final String SRC = "/* comment */ .a, .b { color: red; margin: 0 auto }\n" +
+        "@media screen { .c { display: none } }\n" +
+        ".d { color: blue }";
+
+    private static Stylesheet parse(String source) {
+        SyntaxTree tree = new SyntaxTree();
+        Omakase.source(source).use(AutoRefine.everything()).use(tree).process();
+        return tree.stylesheet();
+    }
+
+    @Test
+    public void writesEachMode() {
+        Stylesheet stylesheet = parse(SRC);
+        FrozenStylesheet frozen = FrozenStylesheet.freeze(stylesheet);
+        for (WriterMode mode : WriterMode.values()) {
+            assertThat(frozen.write(mode)).isEqualTo(new StyleWriter(mode).writeSingle(stylesheet));
+        }
+    }
+
+    @Test
+    public void writesToAppendable() throws IOException {
+        FrozenStylesheet frozen = FrozenStylesheet.freeze(parse(SRC));
+        StringBuilder builder = new StringBuilder();
+        frozen.write(WriterMode.COMPRESSED, builder);
+        assertThat(builder.toString()).isEqualTo(frozen.write(WriterMode.COMPRESSED));
+    }
+
+    @Test
+    public void writesWithCustomWriter() {
+        FrozenStylesheet frozen = FrozenStylesheet.freeze(parse(SRC));
+        StyleWriter writer = StyleWriter.compressed().writeAllComments(true);
+        assertThat(frozen.write(writer))
+            .isEqualTo("/* comment */.a,.b{color:red;margin:0 auto}@media screen{.c{display:none}}.d{color:blue}");
+    }
+
+    @Test
+    public void size() {
+        assertThat(FrozenStylesheet.freeze(parse(SRC)).size()).isEqualTo(3);
+    }
+
+    @Test
+    public void unaffectedByChangesToOriginal() {
+        Stylesheet stylesheet = parse(SRC);
+        FrozenStylesheet frozen = FrozenStylesheet.freeze(stylesheet);
+        stylesheet.statements().first().get().destroy();
+        assertThat(frozen.size()).isEqualTo(3);
+        assertThat(frozen.write(WriterMode.COMPRESSED)).startsWith(".a,.b{");
+    }
+
+    @Test
+    public void forksAreIndependent() {
+        FrozenStylesheet frozen = FrozenStylesheet.freeze(parse(SRC));
+        Stylesheet fork1 = frozen.fork().stylesheet();
+        Stylesheet fork2 = frozen.fork().stylesheet();
+
+        Rule rule = (Rule)fork1.statements().first().get();
+        rule.declarations().first().get().destroy();
+
+        assertThat(StyleWriter.compressed().writeSingle(fork1)).startsWith(".a,.b{margin:0 auto}");
+        assertThat(StyleWriter.compressed().writeSingle(fork2)).startsWith(".a,.b{color:red;margin:0 auto}");
+        assertThat(frozen.write(WriterMode.COMPRESSED)).startsWith(".a,.b{color:red;margin:0 auto}");
+    }
+
+    @Test
+    public void forkIsLazy() {
+        PrecompiledStylesheet fork = FrozenStylesheet.freeze(parse(SRC)).fork();
+        assertThat(fork.size()).isEqualTo(3);
+        assertThat(StyleWriter.compressed().writeSingle(fork.statement(2))).isEqualTo(".d{color:blue}");
+    }
+
+    @Test
+    public void flatView() {
+        FrozenStylesheet frozen = FrozenStylesheet.freeze(parse(SRC));
+        FlatNode rule = frozen.flat().root().firstChild().get();
+        assertThat(rule.kind()).isSameAs(FlatNode.Kind.RULE);
+        assertThat(rule.firstChild().get().name().get()).isEqualTo(".a");
+        assertThat(frozen.flat()).isSameAs(frozen.flat());
+    }
+
+    @Test
+    public void flatViewPositionsReferToVerboseOutput() {
+        FrozenStylesheet frozen = FrozenStylesheet.freeze(parse(SRC));
+        String verbose = frozen.write(WriterMode.VERBOSE);
+
+        FlatNode media = frozen.flat().root().firstChild().get().nextSibling().get();
+        assertThat(verbose.substring(media.start(), media.end())).startsWith("@media screen {");
+        assertThat(media.line()).isNotEqualTo(2); // line 2 in the original source
+        assertThat(verbose.split("\n", -1)[media.line() - 1].substring(media.column() - 1)).startsWith("@media");
+    }
+
+    @Test
+    public void byteArrayCanBeLoaded() {
+        FrozenStylesheet frozen = FrozenStylesheet.freeze(parse(SRC));
+        Stylesheet loaded = PrecompiledStylesheet.load(frozen.toByteArray()).stylesheet();
+        assertThat(StyleWriter.compressed().writeSingle(loaded)).isEqualTo(frozen.write(WriterMode.COMPRESSED));
+    }
+
+    @Test
+    public void concurrentUse() throws Exception {
+        FrozenStylesheet frozen = FrozenStylesheet.freeze(parse(SRC));
+        String expected = frozen.write(WriterMode.COMPRESSED);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                results.add(executor.submit(() -> {
+                    frozen.flat();
+                    return StyleWriter.compressed().writeSingle(frozen.fork().stylesheet());
+                }));
+            }
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo(expected);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
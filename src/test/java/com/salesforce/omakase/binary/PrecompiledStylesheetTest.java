@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.binary;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.google.common.io.Resources;
+import com.salesforce.omakase.Omakase;
+import com.salesforce.omakase.ast.Rule;
+import com.salesforce.omakase.ast.Statement;
+import com.salesforce.omakase.ast.Stylesheet;
+import com.salesforce.omakase.ast.atrule.AtRule;
+import com.salesforce.omakase.ast.atrule.GenericAtRuleBlock;
+import com.salesforce.omakase.ast.atrule.MediaQueryList;
+import com.salesforce.omakase.ast.declaration.Declaration;
+import com.salesforce.omakase.ast.declaration.KeywordValue;
+import com.salesforce.omakase.ast.declaration.NumericalValue;
+import com.salesforce.omakase.ast.declaration.UrlFunctionValue;
+import com.salesforce.omakase.ast.selector.ClassSelector;
+import com.salesforce.omakase.ast.selector.Combinator;
+import com.salesforce.omakase.ast.selector.Selector;
+import com.salesforce.omakase.plugin.core.AutoRefine;
+import com.salesforce.omakase.plugin.core.SyntaxTree;
+import com.salesforce.omakase.util.CssAnnotations;
+import com.salesforce.omakase.writer.StyleWriter;
+
+/**
+ * Unit tests for {@link PrecompiledStylesheet}.
+ *
+ * @author nmcwilliams
+ */
+@SuppressWarnings("JavaDoc")
+public class PrecompiledStylesheetTest {
+    private static final String SRC = "@charset \"UTF-8\";\n" +
+        "/* @noflip */ .a > .b, #id:hover::before, div[data-x^='y'] {\n" +
+        "  color: red !important; *zoom: 1; margin: -1px 0 2.5em auto;\n" +
+        "  background: url('img.png') no-repeat, linear-gradient(to right, #fff, #000);\n" +
+        "  font-family: \"Helvetica Neue\", Arial; width: calc(100% - 10px); /* orphaned */\n" +
+        "}\n" +
+        "@media screen and (max-width: 800px) { .c { display: none } }\n" +
+        "@keyframes spin { from { transform: rotate(0deg) } to { transform: rotate(360deg) } }\n" +
+        "@font-face { font-family: Foo; src: url(foo.woff); unicode-range: U+0025-00FF; }\n" +
+        "/* trailing */";
+
+    private static Stylesheet parse(String source, boolean refine) {
+        SyntaxTree tree = new SyntaxTree();
+        if (refine) {
+            Omakase.source(source).use(AutoRefine.everything()).use(tree).process();
+        } else {
+            Omakase.source(source).use(tree).process();
+        }
+        return tree.stylesheet();
+    }
+
+    private static Stylesheet roundTrip(Stylesheet stylesheet) {
+        return PrecompiledStylesheet.load(PrecompiledStylesheet.compile(stylesheet)).stylesheet();
+    }
+
+    private static void assertSameOutput(Stylesheet expected, Stylesheet actual) {
+        assertThat(StyleWriter.compressed().writeSingle(actual)).isEqualTo(StyleWriter.compressed().writeSingle(expected));
+        assertThat(StyleWriter.verbose().writeSingle(actual)).isEqualTo(StyleWriter.verbose().writeSingle(expected));
+    }
+
+    @Test
+    public void roundTripRefined() {
+        Stylesheet original = parse(SRC, true);
+        assertSameOutput(original, roundTrip(original));
+    }
+
+    @Test
+    public void roundTripUnrefined() {
+        Stylesheet original = parse(SRC, false);
+        assertSameOutput(original, roundTrip(original));
+    }
+
+    @Test
+    public void roundTripLargeStylesheet() throws IOException {
+        String source = Resources.toString(Resources.getResource("perftest/heavy.css"), StandardCharsets.UTF_8);
+        Stylesheet original = parse(source, true);
+        assertSameOutput(original, roundTrip(original));
+    }
+
+    @Test
+    public void loadsRefinedSelectors() {
+        Rule rule = (Rule)Iterables.get(roundTrip(parse(SRC, true)).statements(), 1);
+        Selector selector = rule.selectors().first().get();
+
+        assertThat(selector.isRefined()).isTrue();
+        assertThat(selector.parts()).hasSize(3);
+        assertThat(Iterables.get(selector.parts(), 0)).isInstanceOf(ClassSelector.class);
+        assertThat(Iterables.get(selector.parts(), 1)).isInstanceOf(Combinator.class);
+        assertThat(((ClassSelector)Iterables.get(selector.parts(), 2)).name()).isEqualTo("b");
+    }
+
+    @Test
+    public void loadsRefinedDeclarations() {
+        Rule rule = (Rule)Iterables.get(roundTrip(parse(SRC, true)).statements(), 1);
+
+        Declaration color = Iterables.get(rule.declarations(), 0);
+        assertThat(color.isRefined()).isTrue();
+        assertThat(color.propertyValue().isImportant()).isTrue();
+        assertThat(Iterables.get(color.propertyValue().members(), 0)).isInstanceOf(KeywordValue.class);
+
+        Declaration zoom = Iterables.get(rule.declarations(), 1);
+        assertThat(zoom.propertyName().hasStarHack()).isTrue();
+        assertThat(zoom.propertyName().name()).isEqualTo("zoom");
+
+        NumericalValue margin = (NumericalValue)Iterables.get(Iterables.get(rule.declarations(), 2).propertyValue().members(), 0);
+        assertThat(margin.isNegative()).isTrue();
+        assertThat(margin.unit().get()).isEqualTo("px");
+
+        Declaration background = Iterables.get(rule.declarations(), 3);
+        UrlFunctionValue url = (UrlFunctionValue)Iterables.get(background.propertyValue().members(), 0);
+        assertThat(url.url()).isEqualTo("img.png");
+    }
+
+    @Test
+    public void loadsNestedStatementsRefined() {
+        AtRule media = (AtRule)Iterables.get(roundTrip(parse(SRC, true)).statements(), 2);
+
+        assertThat(media.isRefined()).isTrue();
+        assertThat(media.expression().get()).isInstanceOf(MediaQueryList.class);
+        Rule rule = (Rule)((GenericAtRuleBlock)media.block().get()).statements().first().get();
+        assertThat(rule.declarations().first().get().isRefined()).isTrue();
+    }
+
+    @Test
+    public void unrefinedUnitsStayUnrefined() {
+        Rule rule = (Rule)Iterables.get(roundTrip(parse(SRC, false)).statements(), 1);
+        assertThat(rule.selectors().first().get().isRefined()).isFalse();
+        assertThat(rule.declarations().first().get().isRefined()).isFalse();
+        assertThat(rule.declarations().first().get().rawPropertyValue().get().content()).isEqualTo("red !important");
+    }
+
+    @Test
+    public void keepsSourcePositions() {
+        Stylesheet original = parse(SRC, true);
+        Rule expected = (Rule)Iterables.get(original.statements(), 1);
+        Rule actual = (Rule)Iterables.get(roundTrip(original).statements(), 1);
+
+        assertThat(actual.line()).isEqualTo(expected.line());
+        assertThat(actual.column()).isEqualTo(expected.column());
+        Declaration expectedMargin = Iterables.get(expected.declarations(), 2);
+        Declaration actualMargin = Iterables.get(actual.declarations(), 2);
+        assertThat(actualMargin.line()).isEqualTo(expectedMargin.line());
+        assertThat(actualMargin.column()).isEqualTo(expectedMargin.column());
+    }
+
+    @Test
+    public void keepsComments() {
+        Stylesheet loaded = roundTrip(parse(SRC, true));
+        Rule rule = (Rule)Iterables.get(loaded.statements(), 1);
+
+        assertThat(rule.hasAnnotation(CssAnnotations.NOFLIP)).isTrue();
+        assertThat(rule.orphanedComments()).hasSize(1);
+        assertThat(loaded.orphanedComments()).hasSize(1);
+    }
+
+    @Test
+    public void statementsAreLoadedLazily() {
+        PrecompiledStylesheet precompiled = PrecompiledStylesheet.load(PrecompiledStylesheet.compile(parse(SRC, true)));
+        assertThat(precompiled.size()).isEqualTo(5);
+
+        Statement statement = precompiled.statement(1);
+        assertThat(precompiled.statement(1)).isSameAs(statement);
+        assertThat(Iterables.get(precompiled.stylesheet().statements(), 1)).isSameAs(statement);
+        assertThat(precompiled.stylesheet()).isSameAs(precompiled.stylesheet());
+    }
+
+    @Test
+    public void rejectsBadHeader() {
+        assertThrows(IllegalArgumentException.class, () -> PrecompiledStylesheet.load(new byte[]{'a', 'b', 'c'}));
+    }
+
+    @Test
+    public void rejectsOtherVersion() {
+        byte[] data = PrecompiledStylesheet.compile(parse(SRC, true));
+        data[BinaryFormat.MAGIC.length] = (byte)(BinaryFormat.VERSION + 1);
+        assertThrows(IllegalArgumentException.class, () -> PrecompiledStylesheet.load(data));
+    }
+
+    @Test
+    public void rejectsTruncatedData() {
+        byte[] data = PrecompiledStylesheet.compile(parse(SRC, true));
+        assertThrows(IllegalArgumentException.class, () -> PrecompiledStylesheet.load(Arrays.copyOf(data, data.length - 3)));
+    }
+}
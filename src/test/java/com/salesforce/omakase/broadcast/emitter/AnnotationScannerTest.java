@@ -29,22 +29,30 @@ package com.salesforce.omakase.broadcast.emitter;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.junit.Assert.assertThrows;
 
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import com.google.common.collect.Maps;
 import com.salesforce.omakase.ast.RawFunction;
+import com.salesforce.omakase.ast.declaration.Declaration;
 import com.salesforce.omakase.ast.selector.ClassSelector;
 import com.salesforce.omakase.broadcast.Broadcaster;
 import com.salesforce.omakase.broadcast.annotation.Observe;
 import com.salesforce.omakase.broadcast.annotation.Refine;
 import com.salesforce.omakase.broadcast.annotation.Rework;
 import com.salesforce.omakase.broadcast.annotation.Validate;
+import com.salesforce.omakase.data.Property;
+import com.salesforce.omakase.error.DefaultErrorManager;
 import com.salesforce.omakase.error.ErrorManager;
 import com.salesforce.omakase.parser.Grammar;
 import com.salesforce.omakase.plugin.Plugin;
+import com.salesforce.omakase.plugin.prefixer.Prefixer;
 
 /**
  * Unit tests for {@link AnnotationScanner}.
@@ -128,6 +136,101 @@ public class AnnotationScannerTest {
         assertThrows(Exception.class, () -> scanner.scanSubscriptions(new InvalidValidate()));
     }
 
+    @Test
+    public void findsPropertyFilter() {
+        Subscription subscription = scanner.scanSubscriptions(new PropertyFiltered()).get(Declaration.class).iterator().next();
+        assertThat(subscription.isFiltered()).isTrue();
+    }
+
+    @Test
+    public void errorsIfPropertyFilterNotOnDeclaration() {
+        Exception e = assertThrows(Exception.class, () -> scanner.scanSubscriptions(new InvalidPropertyFilter()));
+        assertThat(e.getCause()).isInstanceOf(SubscriptionException.class);
+    }
+
+    @Test
+    public void findsContainsFilter() {
+        Subscription subscription = scanner.scanSubscriptions(new ContainsFiltered()).get(Declaration.class).iterator().next();
+        assertThat(subscription.hasContains()).isTrue();
+        assertThat(subscription.contains()).containsOnly("url(", "var(");
+        assertThat(subscription.isFiltered()).isFalse();
+    }
+
+    @Test
+    public void errorsIfContainsFilterNotOnRefinable() {
+        Exception e = assertThrows(Exception.class, () -> scanner.scanSubscriptions(new InvalidContainsFilter()));
+        assertThat(e.getCause()).isInstanceOf(SubscriptionException.class);
+    }
+
+    @Test
+    public void findsBulk() {
+        Subscription subscription = scanner.scanSubscriptions(new Bulk()).get(Declaration.class).iterator().next();
+        assertThat(subscription.isBulk()).isTrue();
+        assertThat(subscription.phase()).isSameAs(SubscriptionPhase.PROCESS);
+    }
+
+    @Test
+    public void errorsIfBulkWithoutElementType() {
+        Exception e = assertThrows(Exception.class, () -> scanner.scanSubscriptions(new InvalidBulk()));
+        assertThat(e.getCause()).isInstanceOf(SubscriptionException.class);
+    }
+
+    @Test
+    public void generatesTableAtCompileTime() throws Exception {
+        Class<?> generated = Class.forName(PropertyFiltered.class.getName() + SubscriptionTable.SUFFIX);
+        SubscriptionMethod method = ((SubscriptionTable)generated.getDeclaredConstructor().newInstance()).methods()[0];
+        assertThat(method.name).isEqualTo("rework");
+        assertThat(method.event == Declaration.class).isTrue();
+        assertThat(method.annotation == Rework.class).isTrue();
+        assertThat(method.properties).containsOnly(Property.MARGIN);
+    }
+
+    @Test
+    public void indexListsGeneratedTables() {
+        Set<String> index = AnnotationScanner.readIndex(getClass().getClassLoader());
+        assertThat(index).contains(AllValid.class.getName(), PropertyFiltered.class.getName(), ContainsFiltered.class.getName(),
+            Bulk.class.getName(), Prefixer.class.getName());
+        assertThat(index).doesNotContain(InvalidRework.class.getName());
+    }
+
+    @Test
+    public void indexIsEmptyWithoutResources() {
+        assertThat(AnnotationScanner.readIndex(new URLClassLoader(new URL[0], null))).isEmpty();
+    }
+
+    @Test
+    public void noTableGeneratedForMalformedSubscriptions() {
+        assertThrows(ClassNotFoundException.class, () -> Class.forName(InvalidRework.class.getName() + SubscriptionTable.SUFFIX));
+    }
+
+    @Test
+    public void generatedSubscriptionHasMethod() {
+        Subscription subscription = scanner.scanSubscriptions(new Bulk()).get(Declaration.class).iterator().next();
+        assertThat(subscription.method().getName()).isEqualTo("observe");
+        assertThat(subscription.method().getParameterTypes()).containsOnly(List.class);
+    }
+
+    @Test
+    public void generatedSubscriptionWrapsErrors() {
+        Subscription subscription = scanner.scanSubscriptions(new Throwing()).get(ClassSelector.class).iterator().next();
+        SubscriptionException e = assertThrows(SubscriptionException.class,
+            () -> subscription.process(new ClassSelector("test"), new DefaultErrorManager()));
+        assertThat(e.getCause().getCause()).isInstanceOf(IllegalStateException.class);
+
+        // called from the generated table, not through reflection
+        StackTraceElement caller = e.getCause().getCause().getStackTrace()[1];
+        assertThat(caller.getClassName()).isEqualTo(Throwing.class.getName() + SubscriptionTable.SUFFIX);
+    }
+
+    @Test
+    public void scansAnonymousClasses() {
+        Plugin plugin = new Plugin() {
+            @Observe
+            public void observe(ClassSelector cs) {}
+        };
+        assertThat(scanner.scanSubscriptions(plugin).get(ClassSelector.class)).hasSize(1);
+    }
+
     public static final class AllValid implements Plugin {
         @Observe
         public void observe(ClassSelector cs) {}
@@ -147,6 +250,13 @@ public class AnnotationScannerTest {
         public void observe() {}
     }
 
+    public static final class Throwing implements Plugin {
+        @Rework
+        public void rework(ClassSelector cs) {
+            throw new IllegalStateException();
+        }
+    }
+
     public static final class InvalidRework implements Plugin {
         @Rework
         public void rework() {}
@@ -161,4 +271,35 @@ public class AnnotationScannerTest {
         @Refine
         public void refine() {}
     }
+
+    public static final class PropertyFiltered implements Plugin {
+        @Rework(property = Property.MARGIN)
+        public void rework(Declaration declaration) {}
+    }
+
+    public static final class InvalidPropertyFilter implements Plugin {
+        @Rework(property = Property.MARGIN)
+        public void rework(ClassSelector cs) {}
+    }
+
+    public static final class ContainsFiltered implements Plugin {
+        @Rework(contains = {"url(", "var("})
+        public void rework(Declaration d) {}
+    }
+
+    public static final class InvalidContainsFilter implements Plugin {
+        @Rework(contains = "url(")
+        public void rework(ClassSelector cs) {}
+    }
+
+    public static final class Bulk implements Plugin {
+        @Observe(property = Property.COLOR)
+        public void observe(List<Declaration> declarations) {}
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static final class InvalidBulk implements Plugin {
+        @Observe
+        public void observe(List declarations) {}
+    }
 }
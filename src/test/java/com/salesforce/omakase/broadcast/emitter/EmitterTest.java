@@ -29,6 +29,7 @@ package com.salesforce.omakase.broadcast.emitter;
 import static org.fest.assertions.api.Assertions.assertThat;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Before;
@@ -36,8 +37,12 @@ import org.junit.Test;
 
 import com.google.common.collect.Lists;
 import com.salesforce.omakase.ast.AbstractSyntax;
+import com.salesforce.omakase.ast.RawSyntax;
 import com.salesforce.omakase.ast.Refinable;
 import com.salesforce.omakase.ast.Syntax;
+import com.salesforce.omakase.ast.declaration.Declaration;
+import com.salesforce.omakase.ast.declaration.KeywordValue;
+import com.salesforce.omakase.ast.declaration.NumericalValue;
 import com.salesforce.omakase.ast.selector.ClassSelector;
 import com.salesforce.omakase.ast.selector.SimpleSelector;
 import com.salesforce.omakase.broadcast.Broadcaster;
@@ -47,6 +52,8 @@ import com.salesforce.omakase.broadcast.annotation.Refine;
 import com.salesforce.omakase.broadcast.annotation.Rework;
 import com.salesforce.omakase.broadcast.annotation.Subscribable;
 import com.salesforce.omakase.broadcast.annotation.Validate;
+import com.salesforce.omakase.data.Keyword;
+import com.salesforce.omakase.data.Property;
 import com.salesforce.omakase.error.DefaultErrorManager;
 import com.salesforce.omakase.error.ErrorManager;
 import com.salesforce.omakase.parser.Grammar;
@@ -173,6 +180,237 @@ public class EmitterTest {
         assertThat(second.validateCalled).isFalse();
     }
 
+    @Test
+    public void propertyFilter() {
+        Emitter emitter = new Emitter();
+        FilteredPlugin plugin = new FilteredPlugin();
+        emitter.register(plugin);
+
+        emitter.emit(new Declaration(Property.MARGIN, NumericalValue.of(1)), new Grammar(), new NoopBroadcaster(), em);
+        emitter.emit(new Declaration(Property.COLOR, KeywordValue.of(Keyword.RED)), new Grammar(), new NoopBroadcaster(), em);
+        emitter.emit(new Declaration(Property.PADDING, NumericalValue.of(1)), new Grammar(), new NoopBroadcaster(), em);
+        emitter.emit(new Declaration(Property.MARGIN, NumericalValue.of(2)), new Grammar(), new NoopBroadcaster(), em);
+
+        assertThat(plugin.properties).containsExactly("margin", "padding", "margin");
+        assertThat(plugin.all).isEqualTo(4);
+    }
+
+    @Test
+    public void nameFilter() {
+        Emitter emitter = new Emitter();
+        FilteredPlugin plugin = new FilteredPlugin();
+        emitter.register(plugin);
+
+        emitter.emit(KeywordValue.of(Keyword.LEFT), new Grammar(), new NoopBroadcaster(), em);
+        emitter.emit(KeywordValue.of(Keyword.RED), new Grammar(), new NoopBroadcaster(), em);
+        emitter.emit(KeywordValue.of("RIGHT"), new Grammar(), new NoopBroadcaster(), em);
+
+        assertThat(plugin.keywords).containsExactly("left", "RIGHT");
+    }
+
+    @Test
+    public void filteredSubscriptionNotDeliveredToUnnamedUnits() {
+        Emitter emitter = new Emitter();
+        FilteredPlugin plugin = new FilteredPlugin();
+        emitter.register(plugin);
+
+        emitter.emit(new ClassSelector("left"), new Grammar(), new NoopBroadcaster(), em);
+        assertThat(plugin.syntax).isEqualTo(0);
+    }
+
+    public static final class FilteredPlugin implements Plugin {
+        List<String> properties = new ArrayList<>();
+        List<String> keywords = new ArrayList<>();
+        int all;
+        int syntax;
+
+        @Observe(property = {Property.MARGIN, Property.PADDING})
+        public void declaration(Declaration d) {
+            properties.add(d.name());
+        }
+
+        @Observe
+        public void all(Declaration d) {
+            all++;
+        }
+
+        @Observe({"left", "right"})
+        public void keyword(KeywordValue k) {
+            keywords.add(k.keyword());
+        }
+
+        @Observe("left")
+        public void syntax(Syntax s) {
+            if (s instanceof ClassSelector) syntax++;
+        }
+    }
+
+    @Test
+    public void containsFilter() {
+        Emitter emitter = new Emitter();
+        ContainsPlugin plugin = new ContainsPlugin();
+        emitter.register(plugin);
+
+        emitter.emit(rawDeclaration("background", "url(a.png) no-repeat"), grammar, broadcaster, em);
+        emitter.emit(rawDeclaration("color", "red"), grammar, broadcaster, em);
+        emitter.emit(rawDeclaration("width", "var(--w)"), grammar, broadcaster, em);
+        emitter.emit(rawDeclaration("width", "VAR(--w)"), grammar, broadcaster, em);
+
+        assertThat(plugin.urls).containsExactly("background");
+        assertThat(plugin.either).containsExactly("background", "width");
+        assertThat(plugin.all).isEqualTo(4);
+    }
+
+    @Test
+    public void containsFilterDeliversUnitsWithoutRawContent() {
+        Emitter emitter = new Emitter();
+        ContainsPlugin plugin = new ContainsPlugin();
+        emitter.register(plugin);
+
+        emitter.emit(new Declaration(Property.COLOR, KeywordValue.of(Keyword.RED)), grammar, broadcaster, em);
+        assertThat(plugin.urls).containsExactly("color");
+    }
+
+    @Test
+    public void containsFilterWithManyNeedles() {
+        Emitter emitter = new Emitter();
+        for (int i = 0; i < 70; i++) {
+            emitter.register(new ContainsPlugin());
+        }
+        ContainsPlugin plugin = new ContainsPlugin();
+        emitter.register(plugin);
+        emitter.register(new ManyNeedlesPlugin());
+
+        emitter.emit(rawDeclaration("background", "url(a.png)"), grammar, broadcaster, em);
+        emitter.emit(rawDeclaration("color", "red"), grammar, broadcaster, em);
+        emitter.emit(rawDeclaration("margin", "n62"), grammar, broadcaster, em); // shares a bit with "url("
+
+        assertThat(plugin.urls).containsExactly("background");
+    }
+
+    @Test
+    public void containsFilterOnRefine() {
+        Emitter emitter = new Emitter();
+        ContainsPlugin plugin = new ContainsPlugin();
+        emitter.register(plugin);
+        emitter.phase(SubscriptionPhase.REFINE);
+
+        emitter.emit(rawDeclaration("background", "url(a.png)"), grammar, broadcaster, em);
+        emitter.emit(rawDeclaration("color", "red"), grammar, broadcaster, em);
+
+        assertThat(plugin.refined).containsExactly("background");
+    }
+
+    private static Declaration rawDeclaration(String name, String value) {
+        return new Declaration(new RawSyntax(1, 1, name), new RawSyntax(1, 1, value));
+    }
+
+    public static final class ContainsPlugin implements Plugin {
+        List<String> urls = new ArrayList<>();
+        List<String> either = new ArrayList<>();
+        List<String> refined = new ArrayList<>();
+        int all;
+
+        @Refine(contains = "url(")
+        public void refine(Declaration d, Grammar grammar, Broadcaster broadcaster) {
+            refined.add(d.rawPropertyName().get().content());
+        }
+
+        @Observe(contains = "url(")
+        public void url(Declaration d) {
+            urls.add(d.name());
+        }
+
+        @Observe(contains = {"url(", "var("})
+        public void either(Declaration d) {
+            either.add(d.name());
+        }
+
+        @Observe
+        public void all(Declaration d) {
+            all++;
+        }
+    }
+
+    public static final class ManyNeedlesPlugin implements Plugin {
+        @Observe(contains = {"n0", "n1", "n2", "n3", "n4", "n5", "n6", "n7", "n8", "n9", "n10", "n11", "n12", "n13", "n14",
+            "n15", "n16", "n17", "n18", "n19", "n20", "n21", "n22", "n23", "n24", "n25", "n26", "n27", "n28", "n29", "n30", "n31",
+            "n32", "n33", "n34", "n35", "n36", "n37", "n38", "n39", "n40", "n41", "n42", "n43", "n44", "n45", "n46", "n47", "n48",
+            "n49", "n50", "n51", "n52", "n53", "n54", "n55", "n56", "n57", "n58", "n59", "n60", "n61", "n62", "n63", "n64"})
+        public void many(Declaration d) {}
+    }
+
+    @Test
+    public void bulkCollectsUntilFlush() {
+        Emitter emitter = new Emitter();
+        BulkPlugin plugin = new BulkPlugin();
+        emitter.register(plugin);
+
+        Declaration first = new Declaration(Property.COLOR, KeywordValue.of(Keyword.RED));
+        Declaration second = new Declaration(Property.MARGIN, NumericalValue.of(1));
+        Declaration third = new Declaration(Property.COLOR, KeywordValue.of(Keyword.BLUE));
+        emitter.emit(first, grammar, broadcaster, em);
+        emitter.emit(second, grammar, broadcaster, em);
+        emitter.emit(third, grammar, broadcaster, em);
+        assertThat(plugin.all).isEmpty();
+
+        emitter.flush(em);
+        assertThat(plugin.all).hasSize(1);
+        assertThat(plugin.all.get(0)).containsExactly(first, second, third);
+        assertThat(plugin.colors).hasSize(1);
+        assertThat(plugin.colors.get(0)).containsExactly(first, third);
+
+        emitter.flush(em);
+        assertThat(plugin.all).hasSize(1);
+    }
+
+    @Test
+    public void bulkOnlyFlushesCurrentPhase() {
+        Emitter emitter = new Emitter();
+        BulkPlugin plugin = new BulkPlugin();
+        emitter.register(plugin);
+
+        emitter.phase(SubscriptionPhase.VALIDATE);
+        emitter.emit(new Declaration(Property.COLOR, KeywordValue.of(Keyword.RED)), grammar, broadcaster, em);
+        emitter.phase(SubscriptionPhase.PROCESS);
+        emitter.flush(em);
+        assertThat(plugin.validated).isEmpty();
+
+        emitter.phase(SubscriptionPhase.VALIDATE);
+        emitter.flush(em);
+        assertThat(plugin.validated).hasSize(1);
+    }
+
+    public static final class BulkPlugin implements Plugin {
+        List<List<Declaration>> all = new ArrayList<>();
+        List<List<Declaration>> colors = new ArrayList<>();
+        List<List<Declaration>> validated = new ArrayList<>();
+
+        @Observe
+        public void all(List<Declaration> declarations) {
+            all.add(declarations);
+        }
+
+        @Observe(property = Property.COLOR)
+        public void colors(List<Declaration> declarations) {
+            colors.add(declarations);
+        }
+
+        @Validate
+        public void validate(List<Declaration> declarations, ErrorManager em) {
+            validated.add(declarations);
+        }
+    }
+
+    @Test
+    public void subscribedTypes() {
+        Emitter emitter = new Emitter();
+        emitter.register(new EmitterPlugin());
+
+        assertThat(emitter.subscribedTypes(SubscriptionPhase.PROCESS)).containsOnly(SimpleSelector.class, ClassSelector.class);
+        assertThat(emitter.subscribedTypes(SubscriptionPhase.VALIDATE)).isEmpty();
+    }
+
     public static final class EmitterPlugin implements Plugin {
         boolean calledSimpleSelector;
         boolean calledClassSelector;
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.broadcast.emitter;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link NeedleMatcher}.
+ *
+ * @author nmcwilliams
+ */
+public class NeedleMatcherTest {
+    private static NeedleMatcher matcher(String... needles) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int i = 0; i < needles.length; i++) {
+            map.put(needles[i], 1L << i);
+        }
+        return new NeedleMatcher(map);
+    }
+
+    @Test
+    public void findsSingleNeedle() {
+        NeedleMatcher matcher = matcher("url(");
+        assertThat(matcher.scan("url(a.png) no-repeat")).isEqualTo(1L);
+        assertThat(matcher.scan("no-repeat url(a.png)")).isEqualTo(1L);
+        assertThat(matcher.scan("red")).isEqualTo(0L);
+    }
+
+    @Test
+    public void findsMultipleNeedles() {
+        NeedleMatcher matcher = matcher("url(", "var(", "theme");
+        assertThat(matcher.scan("url(a.png) var(--x)")).isEqualTo(3L);
+        assertThat(matcher.scan("t(theme.color)")).isEqualTo(4L);
+        assertThat(matcher.scan("10px")).isEqualTo(0L);
+    }
+
+    @Test
+    public void findsOverlappingNeedles() {
+        NeedleMatcher matcher = matcher("he", "she", "hers", "his");
+        assertThat(matcher.scan("ushers")).isEqualTo(1L | 2L | 4L);
+        assertThat(matcher.scan("ahishe")).isEqualTo(1L | 2L | 8L);
+    }
+
+    @Test
+    public void findsNeedleAfterPartialMatch() {
+        NeedleMatcher matcher = matcher("abcd", "bce");
+        assertThat(matcher.scan("abce")).isEqualTo(2L);
+        assertThat(matcher.scan("aabcd")).isEqualTo(1L);
+    }
+
+    @Test
+    public void caseSensitive() {
+        assertThat(matcher("url(").scan("URL(a.png)")).isEqualTo(0L);
+    }
+
+    @Test
+    public void nonAscii() {
+        NeedleMatcher matcher = matcher("été", "☃");
+        assertThat(matcher.scan("l'été")).isEqualTo(1L);
+        assertThat(matcher.scan("a ☃ b")).isEqualTo(2L);
+        assertThat(matcher.scan("éét")).isEqualTo(0L);
+    }
+
+    @Test
+    public void sharedBits() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        map.put("a", 1L);
+        map.put("b", 1L);
+        NeedleMatcher matcher = new NeedleMatcher(map);
+        assertThat(matcher.scan("xbx")).isEqualTo(1L);
+    }
+}
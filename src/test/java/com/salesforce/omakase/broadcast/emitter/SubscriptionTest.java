@@ -315,6 +315,9 @@ public class SubscriptionTest {
         
         SubscriptionException thrown = assertThrows(SubscriptionException.class, () -> s.refine(event, new Grammar(), new NoopBroadcaster(), em));
         assertTrue(thrown.getMessage().contains("Exception thrown from a CSS Parser plugin method"));
+        assertTrue(thrown.getMessage().contains("foo"));
+        assertThat(thrown.getStackTrace()).isEmpty();
+        assertThat(thrown.getCause().getCause().getStackTrace()).isNotEmpty();
     }
 
     @Test
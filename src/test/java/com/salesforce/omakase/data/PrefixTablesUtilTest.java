@@ -102,6 +102,22 @@ public class PrefixTablesUtilTest {
         assertThat(PrefixTablesUtil.lastVersionPropertyIsPrefixed(Property.BORDER_RADIUS, Browser.IE)).isEqualTo(-1);
     }
 
+    @Test
+    public void lastVersionIsPrefixedAsDoubleMatchesBoxed() {
+        for (Browser browser : Browser.values()) {
+            assertThat(PrefixTablesUtil.lastVersionPropertyIsPrefixedAsDouble(Property.BORDER_RADIUS, browser))
+                .isEqualTo(PrefixTablesUtil.lastVersionPropertyIsPrefixed(Property.BORDER_RADIUS, browser).doubleValue());
+            assertThat(PrefixTablesUtil.lastVersionKeywordIsPrefixedAsDouble(Keyword.FLEX, browser))
+                .isEqualTo(PrefixTablesUtil.lastVersionKeywordIsPrefixed(Keyword.FLEX, browser).doubleValue());
+            assertThat(PrefixTablesUtil.lastVersionAtRuleIsPrefixedAsDouble("keyframes", browser))
+                .isEqualTo(PrefixTablesUtil.lastVersionAtRuleIsPrefixed("keyframes", browser).doubleValue());
+            assertThat(PrefixTablesUtil.lastVersionSelectorIsPrefixedAsDouble("selection", browser))
+                .isEqualTo(PrefixTablesUtil.lastVersionSelectorIsPrefixed("selection", browser).doubleValue());
+            assertThat(PrefixTablesUtil.lastVersionFunctionIsPrefixedAsDouble("calc", browser))
+                .isEqualTo(PrefixTablesUtil.lastVersionFunctionIsPrefixed("calc", browser).doubleValue());
+        }
+    }
+
     @Test
     public void lastPrefixedVersionForNotPrefixedProperty() {
         assertThat(PrefixTablesUtil.lastVersionPropertyIsPrefixed(Property.BORDER, Browser.CHROME)).isEqualTo(-1);
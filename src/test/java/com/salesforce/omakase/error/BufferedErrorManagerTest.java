@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.error;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+import com.salesforce.omakase.ast.selector.ClassSelector;
+import com.salesforce.omakase.parser.ParserException;
+import com.salesforce.omakase.parser.Source;
+
+/**
+ * Unit tests for {@link BufferedErrorManager}.
+ *
+ * @author nmcwilliams
+ */
+public class BufferedErrorManagerTest {
+    @Test
+    public void recordsWithoutForwarding() {
+        DefaultErrorManager delegate = new DefaultErrorManager().rethrow(false);
+        BufferedErrorManager em = new BufferedErrorManager(delegate);
+        em.report(ErrorLevel.WARNING, new ClassSelector("a"), "warning");
+        em.report(ErrorLevel.FATAL, new ClassSelector("b"), "error");
+
+        assertThat(em.size()).isEqualTo(2);
+        assertThat(delegate.hasErrors()).isFalse();
+        assertThat(em.hasErrors()).isTrue();
+    }
+
+    @Test
+    public void flushForwardsInOrder() {
+        DefaultErrorManager delegate = new DefaultErrorManager().rethrow(false);
+        BufferedErrorManager em = new BufferedErrorManager(delegate);
+        em.report(ErrorLevel.FATAL, new ClassSelector("a"), "first");
+        em.report(ErrorLevel.FATAL, new ClassSelector("b"), "second");
+        em.flush();
+
+        assertThat(em.size()).isEqualTo(0);
+        assertThat(delegate.hasErrors()).isTrue();
+        String summary = delegate.summarize();
+        assertThat(summary.indexOf("first")).isLessThan(summary.indexOf("second"));
+    }
+
+    @Test
+    public void warningsAreNotErrors() {
+        BufferedErrorManager em = new BufferedErrorManager(new DefaultErrorManager());
+        em.report(ErrorLevel.WARNING, new ClassSelector("a"), "warning");
+        assertThat(em.hasErrors()).isFalse();
+    }
+
+    @Test
+    public void throwingDelegateOnlyThrowsUponFlush() {
+        BufferedErrorManager em = new BufferedErrorManager(new DefaultErrorManager());
+        em.report(new ParserException(new Source("a"), "problem"));
+        assertThrows(ParserException.class, em::flush);
+    }
+
+    @Test
+    public void delegatesSourceName() {
+        BufferedErrorManager em = new BufferedErrorManager(new DefaultErrorManager("test.css"));
+        assertThat(em.getSourceName()).isEqualTo("test.css");
+    }
+}
@@ -302,4 +302,31 @@ public class DefaultErrorManagerTest {
 
         assertThat(em.hasErrors()).isTrue();
     }
+
+    @Test
+    public void reportDiagnostic() {
+        DefaultErrorManager em = new DefaultErrorManager();
+        em.report(Diagnostic.of(ErrorLevel.FATAL, 2, 4, "bad thing"));
+        em.report(Diagnostic.of(ErrorLevel.WARNING, 3, 1, "meh thing"));
+
+        assertThat(em.hasErrors()).isTrue();
+        assertThat(em.diagnostics()).hasSize(2);
+        assertThat(em.diagnostics().get(0).level()).isSameAs(ErrorLevel.FATAL);
+        assertThat(em.diagnostics().get(0).line()).isEqualTo(2);
+        assertThat(em.diagnostics().get(1).message()).contains("meh thing");
+    }
+
+    @Test
+    public void parserExceptionDiagnosticHasPosition() {
+        DefaultErrorManager em = new DefaultErrorManager().rethrow(false);
+        Source source = new Source("a\nbc");
+        source.forward(3);
+        em.report(new ParserException(source, "oops"));
+
+        Diagnostic d = em.diagnostics().get(0);
+        assertThat(d.line()).isEqualTo(2);
+        assertThat(d.column()).isEqualTo(2);
+        assertThat(d.code()).isEqualTo("oops");
+        assertThat(d.message()).contains("oops");
+    }
 }
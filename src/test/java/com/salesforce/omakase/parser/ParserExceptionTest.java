@@ -143,4 +143,32 @@ public class ParserExceptionTest {
         ParserException e = new ParserException(new RuntimeException("test"));
         assertThat(e.getCause()).isInstanceOf(RuntimeException.class);
     }
+
+    @Test
+    public void noStackTrace() {
+        ParserException e = new ParserException(new Source("abc"), "test exception");
+        assertThat(e.getStackTrace()).isEmpty();
+    }
+
+    @Test
+    public void diagnosticHasUnformattedMessage() {
+        Source source = new Source("abc");
+        source.forward(1);
+        ParserException e = new ParserException(source, "expected %s", "something");
+
+        assertThat(e.diagnostic().code()).isEqualTo("expected %s");
+        assertThat(e.diagnostic().args()).containsExactly("something");
+        assertThat(e.diagnostic().line()).isEqualTo(1);
+        assertThat(e.diagnostic().column()).isEqualTo(2);
+    }
+
+    @Test
+    public void messageRenderedAtErrorPosition() {
+        Source source = new Source("abc");
+        source.forward(1);
+        ParserException e = new ParserException(source, "test exception");
+        source.forward(2);
+
+        assertThat(e.getMessage()).isEqualTo("test exception:\nat line 1, column 2 in\n'a\u00BBbc'");
+    }
 }
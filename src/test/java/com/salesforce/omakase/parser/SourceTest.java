@@ -1153,6 +1153,43 @@ public class SourceTest {
         assertThat(source.inString()).isFalse();
     }
 
+    @Test
+    public void skipMalformedStopsAtTermination() {
+        Source source = new Source("a b(;) 'c;' /*;*/ d; e");
+        source.skipMalformed(Tokens.SEMICOLON, Tokens.OPEN_BRACE, Tokens.CLOSE_BRACE, false);
+        assertThat(source.current()).isEqualTo(';');
+        assertThat(source.index()).isEqualTo(19);
+    }
+
+    @Test
+    public void skipMalformedConsumesTermination() {
+        Source source = new Source("a b; e");
+        source.skipMalformed(Tokens.SEMICOLON, Tokens.OPEN_BRACE, Tokens.CLOSE_BRACE, true);
+        assertThat(source.current()).isEqualTo(' ');
+        assertThat(source.index()).isEqualTo(4);
+    }
+
+    @Test
+    public void skipMalformedStopsAtUnmatchedBlockEnd() {
+        Source source = new Source("a b } e");
+        source.skipMalformed(Tokens.SEMICOLON, Tokens.OPEN_BRACE, Tokens.CLOSE_BRACE, false);
+        assertThat(source.current()).isEqualTo('}');
+    }
+
+    @Test
+    public void skipMalformedSkipsNestedBlock() {
+        Source source = new Source("a { b; c } .d {}");
+        source.skipMalformed(Tokens.SEMICOLON, Tokens.OPEN_BRACE, Tokens.CLOSE_BRACE, true);
+        assertThat(source.index()).isEqualTo(10);
+    }
+
+    @Test
+    public void skipMalformedToEof() {
+        Source source = new Source("a { b /* c");
+        source.skipMalformed(Tokens.SEMICOLON, Tokens.OPEN_BRACE, Tokens.CLOSE_BRACE, true);
+        assertThat(source.eof()).isTrue();
+    }
+
     public enum SourceEnum implements TokenEnum {
         ONE(Tokens.ALPHA),
         TWO(Tokens.DIGIT);
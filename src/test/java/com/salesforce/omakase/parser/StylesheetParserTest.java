@@ -27,6 +27,7 @@
 package com.salesforce.omakase.parser;
 
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
 
 import java.util.List;
 
@@ -34,12 +35,21 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import com.google.common.collect.Lists;
+import com.salesforce.omakase.Message;
+import com.salesforce.omakase.Omakase;
 import com.salesforce.omakase.ast.Rule;
 import com.salesforce.omakase.ast.Stylesheet;
 import com.salesforce.omakase.ast.declaration.Declaration;
 import com.salesforce.omakase.ast.selector.Selector;
 import com.salesforce.omakase.broadcast.Broadcastable;
 import com.salesforce.omakase.broadcast.QueryableBroadcaster;
+import com.salesforce.omakase.error.DefaultErrorManager;
+import com.salesforce.omakase.error.Diagnostic;
+import com.salesforce.omakase.error.ErrorLevel;
+import com.salesforce.omakase.error.ProblemSummaryException;
+import com.salesforce.omakase.parser.factory.StandardParserFactory;
+import com.salesforce.omakase.parser.factory.StandardTokenFactory;
+import com.salesforce.omakase.writer.StyleWriter;
 
 /**
  * Unit tests for {@link StylesheetParser}.
@@ -81,6 +91,102 @@ public class StylesheetParserTest {
         assertThat(qb.find(Stylesheet.class).get().orphanedComments()).hasSize(1);
     }
     
+    @Test
+    public void recoversFromMalformedStatement() {
+        QueryableBroadcaster qb = new QueryableBroadcaster();
+        DefaultErrorManager em = new DefaultErrorManager().rethrow(false);
+        new StylesheetParser().parse(new Source(".a{color:red} .b{{ .c{color:blue}"), recoveringGrammar(em), qb);
+
+        // the nested block and the missing closing brace
+        assertThat(em.hasErrors()).isTrue();
+        assertThat(em.diagnostics()).hasSize(2);
+        assertThat(qb.filter(Rule.class)).hasSize(1);
+    }
+
+    @Test
+    public void recoversFromMalformedDeclaration() {
+        QueryableBroadcaster qb = new QueryableBroadcaster();
+        DefaultErrorManager em = new DefaultErrorManager().rethrow(false);
+        new StylesheetParser().parse(new Source(".a{color:red; $$$; margin:0} .b{color:blue}"), recoveringGrammar(em), qb);
+
+        assertThat(em.diagnostics()).hasSize(1);
+        assertThat(em.diagnostics().get(0).line()).isEqualTo(1);
+        assertThat(qb.filter(Rule.class)).hasSize(2);
+        assertThat(qb.filter(Declaration.class)).hasSize(3);
+    }
+
+    @Test
+    public void recoversFromTrailingContent() {
+        QueryableBroadcaster qb = new QueryableBroadcaster();
+        DefaultErrorManager em = new DefaultErrorManager().rethrow(false);
+        new StylesheetParser().parse(new Source(".abc{color:red}   `"), recoveringGrammar(em), qb);
+
+        assertThat(em.diagnostics()).hasSize(1);
+        assertThat(em.diagnostics().get(0).message()).contains("Unparsable text found at the end of the source");
+        assertThat(qb.find(Stylesheet.class).isPresent()).isTrue();
+    }
+
+    @Test
+    public void recoversFromMultipleErrors() {
+        QueryableBroadcaster qb = new QueryableBroadcaster();
+        DefaultErrorManager em = new DefaultErrorManager().rethrow(false);
+        String css = ".a{$} .b{color:red} .c{;$;} @media {.d{color:red}} .e{color:red}";
+        new StylesheetParser().parse(new Source(css), recoveringGrammar(em), qb);
+
+        List<Diagnostic> diagnostics = em.diagnostics();
+        assertThat(diagnostics).hasSize(2);
+        assertDiagnostic(diagnostics.get(0), 1, 4);
+        assertDiagnostic(diagnostics.get(1), 1, 25);
+
+        // .a and .c survive without their malformed declarations
+        List<Rule> rules = Lists.newArrayList(qb.filter(Rule.class));
+        assertThat(rules).hasSize(4);
+        assertThat(rules.get(0).column()).isEqualTo(1);
+        assertThat(rules.get(0).declarations().isEmpty()).isTrue();
+        assertThat(rules.get(1).column()).isEqualTo(7);
+        assertThat(rules.get(2).column()).isEqualTo(21);
+        assertThat(rules.get(2).declarations().isEmpty()).isTrue();
+        assertThat(rules.get(3).column()).isEqualTo(52);
+
+        Stylesheet stylesheet = qb.find(Stylesheet.class).get();
+        assertThat(StyleWriter.compressed().writeSingle(stylesheet)).isEqualTo(".b{color:red}@media {.d{color:red}}.e{color:red}");
+    }
+
+    @Test
+    public void recoversThroughRequest() {
+        String css = ".a{color:red}\n.b{$$}\n.c{margin:0; $$; padding:0}\n.d{color:blue}";
+        DefaultErrorManager em = new DefaultErrorManager();
+        StyleWriter writer = StyleWriter.compressed();
+
+        // recovered problems are still errors, so the request fails once everything has been processed
+        assertThrows(ProblemSummaryException.class,
+            () -> Omakase.source(css).recover(true).use(em).use(writer).process());
+
+        List<Diagnostic> diagnostics = em.diagnostics();
+        assertThat(diagnostics).hasSize(2);
+        assertDiagnostic(diagnostics.get(0), 2, 4);
+        assertDiagnostic(diagnostics.get(1), 3, 14);
+        assertThat(writer.write()).isEqualTo(".a{color:red}.c{margin:0;padding:0}.d{color:blue}");
+    }
+
+    @Test
+    public void noRecoveryByDefault() {
+        exception.expect(ParserException.class);
+        new StylesheetParser().parse(new Source(".a{color:red} .b{{ .c{color:blue}"), new Grammar(), new QueryableBroadcaster());
+    }
+
+    private static void assertDiagnostic(Diagnostic diagnostic, int line, int column) {
+        assertThat(diagnostic.level()).isSameAs(ErrorLevel.FATAL);
+        assertThat(diagnostic.line()).isEqualTo(line);
+        assertThat(diagnostic.column()).isEqualTo(column);
+        assertThat(diagnostic.code()).isEqualTo(Message.EXPECTED_TO_FIND);
+        assertThat(diagnostic.args()).containsExactly("a declaration");
+    }
+
+    private static Grammar recoveringGrammar(DefaultErrorManager em) {
+        return new Grammar(StandardTokenFactory.instance(), StandardParserFactory.instance(), em);
+    }
+
     @Test
     public void testComplexStyleSheet() {
         
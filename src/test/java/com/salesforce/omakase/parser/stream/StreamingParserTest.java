@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.parser.stream;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.salesforce.omakase.parser.ParserException;
+
+/**
+ * Unit tests for {@link StreamingParser}.
+ *
+ * @author nmcwilliams
+ */
+public class StreamingParserTest {
+    private static List<String> events(String css) {
+        Recorder recorder = new Recorder();
+        new StreamingParser(recorder).parse(css);
+        return recorder.events;
+    }
+
+    @Test
+    public void rule() {
+        assertThat(events(".a, #b > p { color: red; margin: 0 1px }")).containsExactly(
+            "rule 1:1", "selector .a", "selector #b > p", "declaration color=red 1:14", "declaration margin=0 1px 1:26",
+            "end rule");
+    }
+
+    @Test
+    public void important() {
+        assertThat(events(".a { color: red !important; margin: 0!IMPORTANT; x: y ! important }")).containsExactly(
+            "rule 1:1", "selector .a", "declaration color=red! 1:6", "declaration margin=0! 1:29",
+            "declaration x=y! 1:50", "end rule");
+    }
+
+    @Test
+    public void atRuleWithNestedRules() {
+        assertThat(events("@media all and (min-width: 800px) {\n  .a { color: red }\n}")).containsExactly(
+            "at-rule media(all and (min-width: 800px)) 1:1", "rule 2:3", "selector .a", "declaration color=red 2:8", "end rule",
+            "end at-rule");
+    }
+
+    @Test
+    public void atRuleWithDeclarations() {
+        assertThat(events("@font-face { font-family: Foo; src: url(foo.woff) }")).containsExactly(
+            "at-rule font-face() 1:1", "declaration font-family=Foo 1:14", "declaration src=url(foo.woff) 1:32", "end at-rule");
+    }
+
+    @Test
+    public void atRuleWithoutBlock() {
+        assertThat(events("@import url(a.css);\n@charset \"utf-8\"")).containsExactly(
+            "at-rule import(url(a.css)) 1:1", "end at-rule", "at-rule charset(\"utf-8\") 2:1", "end at-rule");
+    }
+
+    @Test
+    public void keyframes() {
+        assertThat(events("@keyframes x { from { top: 0 } 50% { top: 1px } }")).containsExactly(
+            "at-rule keyframes(x) 1:1", "rule 1:16", "selector from", "declaration top=0 1:23", "end rule", "rule 1:32",
+            "selector 50%", "declaration top=1px 1:38", "end rule", "end at-rule");
+    }
+
+    @Test
+    public void commentsRemoved() {
+        assertThat(events("/* a { } */ .a /* , .b */ { /* x: y; */ color: /*;*/red }")).containsExactly(
+            "rule 1:13", "selector .a", "declaration color=red 1:41", "end rule");
+    }
+
+    @Test
+    public void whitespaceCollapsed() {
+        assertThat(events(".a\n  .b\t{\n  color :\n red\n}")).containsExactly(
+            "rule 1:1", "selector .a .b", "declaration color=red 3:3", "end rule");
+    }
+
+    @Test
+    public void delimitersInStringsAndFunctions() {
+        assertThat(events(".a[title=\"{;}\"], .b:not(.c, .d) { content: '\\'};'; background: url(data:image/png;base64,xyz) }"))
+            .containsExactly("rule 1:1", "selector .a[title=\"{;}\"]", "selector .b:not(.c, .d)",
+                "declaration content='\\'};' 1:35", "declaration background=url(data:image/png;base64,xyz) 1:52", "end rule");
+    }
+
+    @Test
+    public void slashNotComment() {
+        assertThat(events(".a { font: 12px/1.5 serif }")).containsExactly(
+            "rule 1:1", "selector .a", "declaration font=12px/1.5 serif 1:6", "end rule");
+    }
+
+    @Test
+    public void emptySource() {
+        assertThat(events("  /* nothing */  ")).isEmpty();
+    }
+
+    @Test
+    public void errorsOnUnclosedBlock() {
+        ParserException e = assertThrows(ParserException.class, () -> events(".a { color: red"));
+        assertThat(e.getMessage()).contains("Expected to find closing brace");
+    }
+
+    @Test
+    public void errorsOnExtraClosingBrace() {
+        assertThrows(ParserException.class, () -> events(".a { color: red } }"));
+    }
+
+    @Test
+    public void errorsOnMissingColon() {
+        ParserException e = assertThrows(ParserException.class, () -> events(".a {\n color red }"));
+        assertThat(e.diagnostic().line()).isEqualTo(2);
+    }
+
+    @Test
+    public void errorsOnUnclosedComment() {
+        assertThrows(ParserException.class, () -> events(".a { color: red } /* "));
+    }
+
+    @Test
+    public void errorsOnMissingSelector() {
+        assertThrows(ParserException.class, () -> events(".a, { color: red }"));
+    }
+
+    @Test
+    public void reusable() {
+        Recorder recorder = new Recorder();
+        StreamingParser parser = new StreamingParser(recorder);
+        assertThrows(ParserException.class, () -> parser.parse(".a { "));
+        recorder.events.clear();
+        parser.parse(".b{}");
+        assertThat(recorder.events).containsExactly("rule 1:1", "selector .b", "end rule");
+    }
+
+    @Test
+    public void offsets() {
+        String css = ".a /* x */ { color: 'a;b' ; grid-area: 1/2 }\n@import url(x.css)";
+        SpanRecorder recorder = new SpanRecorder(css);
+        recorder.parser.parse(css);
+
+        assertThat(recorder.spans).containsExactly(".a", "color: 'a;b'", "grid-area: 1/2", "end 44", "end 63");
+    }
+
+    @Test
+    public void largeInputInChunks() throws IOException {
+        Counter counter = new Counter();
+        new StreamingParser(counter).parse(new RepeatingReader(".a, .b { color: red; background: url(x.png) }\n", 200_000));
+
+        assertThat(counter.rules).isEqualTo(200_000);
+        assertThat(counter.selectors).isEqualTo(400_000);
+        assertThat(counter.declarations).isEqualTo(400_000);
+        assertThat(counter.lastLine).isEqualTo(200_000);
+    }
+
+    private static final class SpanRecorder implements StreamHandler {
+        final StreamingParser parser = new StreamingParser(this);
+        final List<String> spans = new ArrayList<>();
+        final String css;
+
+        SpanRecorder(String css) {
+            this.css = css;
+        }
+
+        @Override
+        public void startRule(int line, int column) {
+            spans.add(css.substring((int)parser.itemStart(), (int)parser.itemEnd()));
+        }
+
+        @Override
+        public void declaration(String property, String value, boolean important, int line, int column) {
+            spans.add(css.substring((int)parser.itemStart(), (int)parser.itemEnd()));
+        }
+
+        @Override
+        public void endRule() {
+            spans.add("end " + parser.offset());
+        }
+
+        @Override
+        public void endAtRule() {
+            spans.add("end " + parser.offset());
+        }
+    }
+
+    private static final class Recorder implements StreamHandler {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void startRule(int line, int column) {
+            events.add("rule " + line + ":" + column);
+        }
+
+        @Override
+        public void selector(String selector) {
+            events.add("selector " + selector);
+        }
+
+        @Override
+        public void declaration(String property, String value, boolean important, int line, int column) {
+            events.add("declaration " + property + "=" + value + (important ? "!" : "") + " " + line + ":" + column);
+        }
+
+        @Override
+        public void endRule() {
+            events.add("end rule");
+        }
+
+        @Override
+        public void startAtRule(String name, String expression, int line, int column) {
+            events.add("at-rule " + name + "(" + expression + ") " + line + ":" + column);
+        }
+
+        @Override
+        public void endAtRule() {
+            events.add("end at-rule");
+        }
+    }
+
+    private static final class Counter implements StreamHandler {
+        int rules;
+        int selectors;
+        int declarations;
+        int lastLine;
+
+        @Override
+        public void startRule(int line, int column) {
+            rules++;
+            lastLine = line;
+        }
+
+        @Override
+        public void selector(String selector) {
+            selectors++;
+        }
+
+        @Override
+        public void declaration(String property, String value, boolean important, int line, int column) {
+            declarations++;
+        }
+    }
+
+    /** generates the same text over and over, without holding it all in memory */
+    private static final class RepeatingReader extends Reader {
+        private final String text;
+        private int remaining;
+        private int index;
+
+        RepeatingReader(String text, int times) {
+            this.text = text;
+            this.remaining = times;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (remaining == 0) return -1;
+
+            int count = 0;
+            while (count < length && remaining > 0) {
+                buffer[offset + count++] = text.charAt(index++);
+                if (index == text.length()) {
+                    index = 0;
+                    remaining--;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -36,16 +36,22 @@ import java.util.function.Supplier;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.salesforce.omakase.Omakase;
 import com.salesforce.omakase.PluginRegistry;
+import com.salesforce.omakase.ast.Stylesheet;
+import com.salesforce.omakase.ast.Syntax;
 import com.salesforce.omakase.ast.atrule.AtRule;
 import com.salesforce.omakase.ast.declaration.Declaration;
 import com.salesforce.omakase.ast.declaration.UrlFunctionValue;
+import com.salesforce.omakase.ast.selector.ClassSelector;
 import com.salesforce.omakase.ast.selector.Selector;
 import com.salesforce.omakase.broadcast.QueryableBroadcaster;
+import com.salesforce.omakase.broadcast.annotation.Observe;
 import com.salesforce.omakase.plugin.Plugin;
 import com.salesforce.omakase.plugin.core.AutoRefine.Match;
 import com.salesforce.omakase.plugin.syntax.DeclarationPlugin;
+import com.salesforce.omakase.plugin.syntax.LinearGradientPlugin;
 import com.salesforce.omakase.plugin.syntax.MediaPlugin;
 import com.salesforce.omakase.plugin.syntax.SelectorPlugin;
 import com.salesforce.omakase.plugin.syntax.UrlPlugin;
@@ -155,6 +161,74 @@ public class AutoRefineTest {
         assertThat(queryable.find(UrlFunctionValue.class).isPresent()).isTrue();
     }
 
+    @Test
+    public void demandedNoDependenciesUpFront() {
+        AutoRefine plugin = AutoRefine.demanded();
+        plugin.dependencies(registry);
+
+        assertThat(plugin.isDemanded()).isTrue();
+        assertThat(registry.registered).isEmpty();
+    }
+
+    @Test
+    public void demandedSelectorPart() {
+        AutoRefine.demanded().demand(ImmutableList.of(ClassSelector.class), registry);
+
+        assertThat(registry.registered).contains(SelectorPlugin.class);
+        assertThat(registry.registered).contains(MediaPlugin.class);
+        assertThat(registry.registered).doesNotContain(DeclarationPlugin.class);
+        assertThat(registry.registered).doesNotContain(UrlPlugin.class);
+    }
+
+    @Test
+    public void demandedFunction() {
+        AutoRefine.demanded().demand(ImmutableList.of(UrlFunctionValue.class), registry);
+
+        assertThat(registry.registered).contains(DeclarationPlugin.class);
+        assertThat(registry.registered).contains(UrlPlugin.class);
+        assertThat(registry.registered).doesNotContain(SelectorPlugin.class);
+        assertThat(registry.registered).doesNotContain(LinearGradientPlugin.class);
+    }
+
+    @Test
+    public void demandedSuperType() {
+        AutoRefine.demanded().demand(ImmutableList.of(Syntax.class), registry);
+
+        assertThat(registry.registered).contains(SelectorPlugin.class);
+        assertThat(registry.registered).contains(DeclarationPlugin.class);
+        assertThat(registry.registered).contains(UrlPlugin.class);
+        assertThat(registry.registered).contains(MediaPlugin.class);
+    }
+
+    @Test
+    public void demandedStylesheetOnly() {
+        AutoRefine.demanded().demand(ImmutableList.of(Stylesheet.class), registry);
+        assertThat(registry.registered).isEmpty();
+    }
+
+    @Test
+    public void functionalTestDemanded() {
+        QueryableBroadcaster queryable = new QueryableBroadcaster();
+        List<ClassSelector> found = new ArrayList<>();
+
+        String source = "@media all { .test{color:red} } .test2{background: url(foo.png)}";
+        Omakase.source(source)
+            .use(AutoRefine.demanded())
+            .use(new Plugin() {
+                @Observe
+                public void observe(ClassSelector selector) {
+                    found.add(selector);
+                }
+            })
+            .broadcaster(queryable)
+            .process();
+
+        assertThat(found).hasSize(2);
+        assertThat(queryable.find(AtRule.class).get().isRefined()).isTrue();
+        assertThat(queryable.find(Declaration.class).get().isRefined()).isFalse();
+        assertThat(queryable.find(UrlFunctionValue.class).isPresent()).isFalse();
+    }
+
     private static final class Registry implements PluginRegistry {
         public final List<Class<?>> registered = new ArrayList<>();
 
@@ -28,10 +28,22 @@ package com.salesforce.omakase.plugin.misc;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableSet;
 import com.salesforce.omakase.Omakase;
+import com.salesforce.omakase.ast.Stylesheet;
+import com.salesforce.omakase.ast.declaration.Declaration;
+import com.salesforce.omakase.ast.declaration.KeywordValue;
+import com.salesforce.omakase.broadcast.annotation.Rework;
+import com.salesforce.omakase.data.Keyword;
+import com.salesforce.omakase.data.Property;
+import com.salesforce.omakase.plugin.core.SyntaxTree;
 import com.salesforce.omakase.writer.StyleWriter;
+import com.salesforce.omakase.writer.WriterConfig;
 
 public class DirectionFlipPluginTest {
 
@@ -39,6 +51,16 @@ public class DirectionFlipPluginTest {
         StyleWriter writer = StyleWriter.compressed();
         Omakase.source(ltr).use(new DirectionFlipPlugin()).use(writer).process();
         assertThat(writer.write()).isEqualTo(rtl);
+
+        // the same tree should be writable in both directions when flipping at write time
+        StyleWriter unflipped = StyleWriter.compressed();
+        Omakase.source(ltr).use(unflipped).process();
+
+        SyntaxTree tree = new SyntaxTree();
+        Omakase.source(ltr).use(DirectionFlipPlugin.deferred()).use(tree).process();
+        Stylesheet stylesheet = tree.stylesheet();
+        assertThat(DirectionFlipPlugin.flipOnWrite(StyleWriter.compressed()).writeSingle(stylesheet)).isEqualTo(rtl);
+        assertThat(StyleWriter.compressed().writeSingle(stylesheet)).isEqualTo(unflipped.write());
     }
 
     @Test
@@ -226,4 +248,42 @@ public class DirectionFlipPluginTest {
             ".test{border-width:1px 2px 3px 4px}",
             ".test{border-width:1px 4px 3px 2px}");
     }
+
+    @Test
+    public void reworkFiltersMatchFlipTables() throws NoSuchMethodException {
+        Rework keywords = DirectionFlipPlugin.class.getMethod("flipKeyword", KeywordValue.class).getAnnotation(Rework.class);
+        Set<String> keywordNames = DirectionFlipPlugin.KEYWORDS_TO_FLIP.keySet().stream()
+            .map(Keyword::toString)
+            .collect(Collectors.toSet());
+        assertThat(ImmutableSet.copyOf(keywords.value())).isEqualTo(keywordNames);
+
+        Rework declarations = DirectionFlipPlugin.class.getMethod("flipDeclaration", Declaration.class)
+            .getAnnotation(Rework.class);
+        Set<Property> properties = ImmutableSet.<Property>builder()
+            .addAll(DirectionFlipPlugin.PROPERTIES_TO_FLIP.keySet())
+            .addAll(DirectionFlipPlugin.FLIP_PERCENTAGE)
+            .addAll(DirectionFlipPlugin.FOUR_TERM_PROPERTIES)
+            .add(Property.BORDER_RADIUS)
+            .build();
+        assertThat(ImmutableSet.copyOf(declarations.property())).isEqualTo(properties);
+    }
+
+    @Test
+    public void flipOnWriteMultipleDeclarations() {
+        check(
+            ".test{color:red;margin-left:1px;float:left;padding:1px 2px 3px 4px}",
+            ".test{color:red;margin-right:1px;float:right;padding:1px 4px 3px 2px}");
+    }
+
+    @Test
+    public void flipOnWriteVerbose() {
+        SyntaxTree tree = new SyntaxTree();
+        String source = ".test{/*@noflip*/left:0;right:1px;text-align:left}";
+        Omakase.source(source).use(DirectionFlipPlugin.deferred()).use(tree).process();
+
+        WriterConfig config = DirectionFlipPlugin.flipOnWrite(StyleWriter.verbose()).config();
+        String expected = ".test {\n  left: 0;\n  left: 1px;\n  text-align: right;\n}";
+        assertThat(config.write(tree.stylesheet())).isEqualTo(expected);
+        assertThat(config.write(tree.stylesheet())).isEqualTo(expected);
+    }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.plugin.syntax;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.salesforce.omakase.Omakase;
+import com.salesforce.omakase.ast.Syntax;
+import com.salesforce.omakase.ast.declaration.KeywordValue;
+import com.salesforce.omakase.broadcast.annotation.Observe;
+import com.salesforce.omakase.broadcast.annotation.Rework;
+import com.salesforce.omakase.parser.ParserException;
+import com.salesforce.omakase.plugin.Plugin;
+import com.salesforce.omakase.plugin.core.AutoRefine;
+import com.salesforce.omakase.writer.StyleWriter;
+
+/**
+ * Unit tests for {@link RefinementCache}.
+ *
+ * @author nmcwilliams
+ */
+public class RefinementCacheTest {
+    private static final String SOURCE = ".a, .b > p:hover { color: red; margin: 0 1px !important; background: url(a.png) }\n" +
+        ".a { color: red; background-image: linear-gradient(to right, #fff, #000) }\n" +
+        "@media print { .b > p:hover { margin: 0 1px !important; font-family: \"Foo\", serif } }";
+
+    private static final class Delivered implements Plugin {
+        final List<String> units = new ArrayList<>();
+
+        @Observe
+        public void syntax(Syntax syntax) {
+            units.add(syntax.getClass().getSimpleName());
+        }
+    }
+
+    private static final class RedToBlue implements Plugin {
+        @Rework
+        public void keyword(KeywordValue keyword) {
+            if (keyword.keyword().equals("red")) keyword.keyword("blue");
+        }
+    }
+
+    private static String process(String source, RefinementCache cache, Plugin... plugins) {
+        StyleWriter writer = StyleWriter.compressed();
+        Omakase.Request request = Omakase.source(source);
+        if (cache != null) {
+            request.use(new SelectorPlugin(cache), new DeclarationPlugin(cache));
+        }
+        request.use(plugins).use(AutoRefine.everything()).use(writer).process();
+        return writer.write();
+    }
+
+    @Test
+    public void sameOutput() {
+        RefinementCache cache = new RefinementCache();
+        String expected = process(SOURCE, null);
+        assertThat(process(SOURCE, cache)).isEqualTo(expected);
+        assertThat(process(SOURCE, cache)).isEqualTo(expected);
+    }
+
+    @Test
+    public void sameUnitsDelivered() {
+        Delivered expected = new Delivered();
+        process(SOURCE, null, expected);
+
+        RefinementCache cache = new RefinementCache();
+        Delivered first = new Delivered();
+        process(SOURCE, cache, first);
+        Delivered second = new Delivered();
+        process(SOURCE, cache, second);
+
+        assertThat(first.units).isEqualTo(expected.units);
+        assertThat(second.units).isEqualTo(expected.units);
+    }
+
+    @Test
+    public void stats() {
+        RefinementCache cache = new RefinementCache();
+        process(".a { color: red } .a { color: red } .b { color: blue }", cache);
+
+        // selectors: .a, .b; values: red, blue
+        assertThat(cache.size()).isEqualTo(4);
+        assertThat(cache.stats().hitCount()).isEqualTo(2);
+        assertThat(cache.stats().missCount()).isEqualTo(4);
+
+        process(".a { color: red }", cache);
+        assertThat(cache.stats().hitCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void eviction() {
+        RefinementCache cache = new RefinementCache(1);
+        process(".a { color: red } .b { color: blue }", cache);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.stats().evictionCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void clear() {
+        RefinementCache cache = new RefinementCache();
+        process(".a { color: red }", cache);
+        cache.clear();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void changesDoNotAffectCachedUnits() {
+        RefinementCache cache = new RefinementCache();
+        assertThat(process(".a { color: red }", cache, new RedToBlue())).isEqualTo(".a{color:blue}");
+        assertThat(process(".a { color: red }", cache)).isEqualTo(".a{color:red}");
+    }
+
+    @Test
+    public void contentWithCommentsNotCached() {
+        RefinementCache cache = new RefinementCache();
+        process(".a { color: red /* x */ }", cache);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void malformedContentNotCached() {
+        RefinementCache cache = new RefinementCache();
+        assertThrows(ParserException.class, () -> process(".a { color: red !!!! }", cache));
+        assertThrows(ParserException.class, () -> process(".a { color: red !!!! }", cache));
+        assertThat(cache.size()).isEqualTo(1); // just the selector
+    }
+
+    @Test
+    public void importantFlag() {
+        RefinementCache cache = new RefinementCache();
+        process(".a { color: red !important }", cache);
+        assertThat(process(".a { color: red !important } .b { color: red }", cache))
+            .isEqualTo(".a{color:red!important}.b{color:red}");
+    }
+
+    @Test
+    public void invalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new RefinementCache(0));
+    }
+}
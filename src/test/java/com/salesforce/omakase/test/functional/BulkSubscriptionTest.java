@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.test.functional;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.salesforce.omakase.Omakase;
+import com.salesforce.omakase.ast.Rule;
+import com.salesforce.omakase.ast.declaration.Declaration;
+import com.salesforce.omakase.ast.declaration.KeywordValue;
+import com.salesforce.omakase.broadcast.annotation.Observe;
+import com.salesforce.omakase.broadcast.annotation.Rework;
+import com.salesforce.omakase.broadcast.annotation.Validate;
+import com.salesforce.omakase.data.Keyword;
+import com.salesforce.omakase.data.Property;
+import com.salesforce.omakase.error.ErrorManager;
+import com.salesforce.omakase.plugin.Plugin;
+import com.salesforce.omakase.plugin.core.AutoRefine;
+import com.salesforce.omakase.writer.StyleWriter;
+
+/**
+ * Tests for bulk subscriptions, i.e., subscription methods that receive a list of units.
+ *
+ * @author nmcwilliams
+ */
+@SuppressWarnings("unused")
+public class BulkSubscriptionTest {
+    private static final String SRC = ".a { color: red; margin: 0 }\n" +
+        "@media all { .b { color: blue } }\n" +
+        ".c { display: none }";
+
+    @Test
+    public void deliveredOnceInDocumentOrder() {
+        List<String> calls = new ArrayList<>();
+
+        Omakase.source(SRC)
+            .use(new Plugin() {
+                @Observe
+                public void observe(Declaration declaration) {
+                    calls.add("single " + declaration.name());
+                }
+
+                @Observe
+                public void observe(List<Declaration> declarations) {
+                    StringBuilder builder = new StringBuilder("bulk");
+                    for (Declaration declaration : declarations) {
+                        builder.append(' ').append(declaration.name());
+                    }
+                    calls.add(builder.toString());
+                }
+            })
+            .use(AutoRefine.everything())
+            .process();
+
+        assertThat(calls).containsExactly("single color", "single margin", "single color", "single display",
+            "bulk color margin color display");
+    }
+
+    @Test
+    public void filtersApply() {
+        List<Declaration> colors = new ArrayList<>();
+        List<KeywordValue> keywords = new ArrayList<>();
+
+        Omakase.source(SRC)
+            .use(new Plugin() {
+                @Observe(property = Property.COLOR)
+                public void observe(List<Declaration> declarations) {
+                    colors.addAll(declarations);
+                }
+
+                @Observe({"red", "none"})
+                public void keywords(List<KeywordValue> list) {
+                    keywords.addAll(list);
+                }
+            })
+            .use(AutoRefine.everything())
+            .process();
+
+        assertThat(colors).hasSize(2);
+        assertThat(keywords).hasSize(2);
+        assertThat(keywords.get(0).keyword()).isEqualTo("red");
+        assertThat(keywords.get(1).keyword()).isEqualTo("none");
+    }
+
+    @Test
+    public void validateAfterRework() {
+        List<String> calls = new ArrayList<>();
+
+        Omakase.source(SRC)
+            .use(new Plugin() {
+                @Rework
+                public void rework(List<Rule> rules) {
+                    calls.add("rework " + rules.size());
+                }
+
+                @Validate
+                public void validate(List<Rule> rules, ErrorManager em) {
+                    calls.add("validate " + rules.size());
+                }
+
+                @Validate
+                public void validate(Rule rule, ErrorManager em) {
+                    calls.add("single");
+                }
+            })
+            .use(AutoRefine.everything())
+            .process();
+
+        assertThat(calls).containsExactly("rework 3", "single", "single", "single", "validate 3");
+    }
+
+    @Test
+    public void newUnitsDeliveredInAnotherRound() {
+        List<Integer> sizes = new ArrayList<>();
+        StyleWriter writer = StyleWriter.compressed();
+
+        Omakase.source(".a { color: red }")
+            .use(new Plugin() {
+                @Rework
+                public void rework(List<Declaration> declarations) {
+                    sizes.add(declarations.size());
+                    for (Declaration declaration : declarations) {
+                        if (declaration.isProperty(Property.COLOR)) {
+                            declaration.append(new Declaration(Property.DISPLAY, KeywordValue.of(Keyword.NONE)));
+                        }
+                    }
+                }
+            })
+            .use(AutoRefine.everything())
+            .use(writer)
+            .process();
+
+        assertThat(sizes).containsExactly(1, 1);
+        assertThat(writer.write()).isEqualTo(".a{color:red;display:none}");
+    }
+
+    @Test
+    public void destroyedUnitsNotIncluded() {
+        List<Declaration> observed = new ArrayList<>();
+
+        Omakase.source(SRC)
+            .use(new Plugin() {
+                @Rework
+                public void rework(Declaration declaration) {
+                    if (declaration.isProperty(Property.MARGIN)) {
+                        declaration.destroy();
+                    }
+                }
+
+                @Validate
+                public void validate(List<Declaration> declarations, ErrorManager em) {
+                    observed.addAll(declarations);
+                }
+            })
+            .use(AutoRefine.everything())
+            .process();
+
+        assertThat(observed).hasSize(3);
+    }
+}
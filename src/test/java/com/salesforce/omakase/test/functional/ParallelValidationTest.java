@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.test.functional;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.salesforce.omakase.Omakase;
+import com.salesforce.omakase.ast.Stylesheet;
+import com.salesforce.omakase.ast.Syntax;
+import com.salesforce.omakase.ast.declaration.Declaration;
+import com.salesforce.omakase.ast.selector.ClassSelector;
+import com.salesforce.omakase.broadcast.annotation.Validate;
+import com.salesforce.omakase.broadcast.emitter.SubscriptionException;
+import com.salesforce.omakase.error.DefaultErrorManager;
+import com.salesforce.omakase.error.ErrorLevel;
+import com.salesforce.omakase.error.ErrorManager;
+import com.salesforce.omakase.plugin.Plugin;
+import com.salesforce.omakase.plugin.core.AutoRefine;
+import com.salesforce.omakase.writer.StyleWriter;
+
+/**
+ * Tests for running thread-safe validators in parallel.
+ *
+ * @author nmcwilliams
+ */
+@SuppressWarnings("unused")
+public class ParallelValidationTest {
+    private static final String SRC = source();
+
+    private static String source() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            builder.append(".class").append(i).append(" { color: red; margin: ").append(i).append("px }\n");
+            if (i % 20 == 0) {
+                builder.append("@media all { .inner").append(i).append(" { padding: 0 } }\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    private static List<String> messages(boolean parallel, Plugin... plugins) {
+        RecordingErrorManager em = new RecordingErrorManager();
+        Omakase.source(SRC)
+            .use(new Warner())
+            .use(plugins)
+            .use(AutoRefine.everything())
+            .use(em)
+            .parallel(parallel)
+            .process();
+        return em.messages;
+    }
+
+    @Test
+    public void sameReportsAsSerial() {
+        List<String> serial = messages(false);
+        assertThat(serial).isNotEmpty();
+        for (int i = 0; i < 5; i++) {
+            assertThat(messages(true)).isEqualTo(serial);
+        }
+    }
+
+    @Test
+    public void serialValidatorsReportAfterParallel() {
+        List<String> messages = messages(true, new SerialWarner());
+        List<String> parallel = messages(true);
+
+        assertThat(messages.subList(0, parallel.size())).isEqualTo(parallel);
+        for (String message : messages.subList(parallel.size(), messages.size())) {
+            assertThat(message).startsWith("serial");
+        }
+        assertThat(messages(true, new SerialWarner())).isEqualTo(messages);
+    }
+
+    @Test
+    public void deliversEachUnitOnce() {
+        Counter counter = new Counter();
+        Omakase.source(SRC).use(counter).use(AutoRefine.everything()).parallel(true).process();
+
+        assertThat(counter.parallel.get()).isEqualTo(counter.serial.get());
+        assertThat(counter.parallel.get()).isEqualTo(counter.seen.size());
+        assertThat(counter.stylesheet.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void nonParallelValidatorsStillDelivered() {
+        Counter counter = new Counter();
+        Omakase.source(SRC).use(counter).use(AutoRefine.everything()).process();
+        assertThat(counter.parallel.get()).isEqualTo(counter.serial.get());
+    }
+
+    @Test
+    public void fatalErrorsStillReported() {
+        Omakase.Request request = Omakase.source(".a { color: red }")
+            .use(new Plugin() {
+                @Validate(parallel = true)
+                public void validate(Declaration d, ErrorManager em) {
+                    em.report(ErrorLevel.FATAL, d, "fatal");
+                }
+            })
+            .use(AutoRefine.everything())
+            .use(new DefaultErrorManager())
+            .parallel(true);
+
+        assertThrows(Exception.class, request::process);
+    }
+
+    @Test
+    public void exceptionFromValidatorPropagates() {
+        Omakase.Request request = Omakase.source(SRC)
+            .use(new Plugin() {
+                @Validate(parallel = true)
+                public void validate(ClassSelector s, ErrorManager em) {
+                    if (s.name().equals("class150")) throw new IllegalStateException("boom");
+                }
+            })
+            .use(AutoRefine.everything())
+            .parallel(true);
+
+        assertThrows(SubscriptionException.class, request::process);
+    }
+
+    @Test
+    public void writesSameOutput() {
+        StyleWriter serial = StyleWriter.compressed();
+        Omakase.source(SRC).use(new Warner()).use(new RecordingErrorManager()).use(serial).process();
+
+        StyleWriter parallel = StyleWriter.compressed();
+        Omakase.source(SRC).use(new Warner()).use(new RecordingErrorManager()).use(parallel).parallel(true).process();
+
+        assertThat(parallel.write()).isEqualTo(serial.write());
+    }
+
+    public static final class Warner implements Plugin {
+        @Validate(parallel = true)
+        public void validate(Declaration d, ErrorManager em) {
+            em.report(ErrorLevel.WARNING, d, "declaration " + d.toString(false));
+        }
+
+        @Validate(parallel = true)
+        public void validate(ClassSelector s, ErrorManager em) {
+            em.report(ErrorLevel.WARNING, s, "class " + s.name());
+        }
+    }
+
+    public static final class SerialWarner implements Plugin {
+        @Validate
+        public void serial(Declaration d, ErrorManager em) {
+            em.report(ErrorLevel.WARNING, d, "serial " + d.toString(false));
+        }
+    }
+
+    public static final class Counter implements Plugin {
+        final AtomicInteger parallel = new AtomicInteger();
+        final AtomicInteger serial = new AtomicInteger();
+        final AtomicInteger stylesheet = new AtomicInteger();
+        final Set<Syntax> seen = ConcurrentHashMap.newKeySet();
+
+        @Validate(parallel = true)
+        public void parallel(Syntax syntax, ErrorManager em) {
+            parallel.incrementAndGet();
+            seen.add(syntax);
+            if (syntax instanceof Stylesheet) stylesheet.incrementAndGet();
+        }
+
+        @Validate
+        public void serial(Syntax syntax, ErrorManager em) {
+            serial.incrementAndGet();
+        }
+    }
+
+    private static final class RecordingErrorManager implements ErrorManager {
+        final List<String> messages = new ArrayList<>();
+
+        @Override
+        public String getSourceName() {
+            return null;
+        }
+
+        @Override
+        public void report(ErrorLevel level, Syntax cause, String message) {
+            messages.add(message);
+        }
+
+        @Override
+        public void report(com.salesforce.omakase.parser.ParserException exception) {
+            messages.add(exception.getMessage());
+        }
+
+        @Override
+        public void report(SubscriptionException exception) {
+            messages.add(exception.getMessage());
+        }
+
+        @Override
+        public boolean hasErrors() {
+            return false;
+        }
+
+        @Override
+        public boolean autoSummarize() {
+            return false;
+        }
+
+        @Override
+        public String summarize() {
+            return "";
+        }
+    }
+}
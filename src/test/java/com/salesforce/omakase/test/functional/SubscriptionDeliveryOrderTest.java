@@ -212,6 +212,73 @@ public class SubscriptionDeliveryOrderTest {
         assertThat(validated.get(25)).isInstanceOf(Stylesheet.class);
     }
 
+    @Test
+    public void testStaticDeliveryOrderFused() throws Exception {
+        List<Broadcastable> observed = new ArrayList<>();
+        List<Broadcastable> validated = new ArrayList<>();
+        List<Broadcastable> all = new ArrayList<>();
+
+        Omakase.source(SRC)
+            .use(new Plugin() {
+                @Observe
+                public void observe(Syntax unit) {
+                    observed.add(unit);
+                    all.add(unit);
+                }
+
+                @Validate
+                public void validate(Syntax unit, ErrorManager em) {
+                    validated.add(unit);
+                    all.add(unit);
+                }
+            })
+            .use(AutoRefine.everything())
+            .fuse(true)
+            .process();
+
+        // same order as when not fused
+        assertThat(validated).hasSize(26);
+        assertThat(validated).isEqualTo(observed);
+        assertThat(validated.get(0)).isInstanceOf(IdSelector.class);
+        assertThat(validated.get(9)).isInstanceOf(Declaration.class);
+        assertThat(validated.get(13)).isInstanceOf(Rule.class);
+        assertThat(validated.get(24)).isInstanceOf(AtRule.class);
+        assertThat(validated.get(25)).isInstanceOf(Stylesheet.class);
+
+        // each unit is validated right after it is observed
+        assertThat(all).hasSize(52);
+        for (int i = 0; i < all.size(); i += 2) {
+            assertThat(all.get(i)).isSameAs(all.get(i + 1));
+        }
+    }
+
+    @Test
+    public void testFusedFallsBackWithRework() throws Exception {
+        List<Broadcastable> all = new ArrayList<>();
+
+        Omakase.source(SRC)
+            .use(new Plugin() {
+                @Rework
+                public void rework(Syntax unit) {
+                    all.add(unit);
+                }
+
+                @Validate
+                public void validate(Syntax unit, ErrorManager em) {
+                    all.add(unit);
+                }
+            })
+            .use(AutoRefine.everything())
+            .fuse(true)
+            .process();
+
+        // all processing happens before any validation
+        assertThat(all).hasSize(52);
+        assertThat(all.get(25)).isInstanceOf(Stylesheet.class);
+        assertThat(all.get(26)).isInstanceOf(IdSelector.class);
+        assertThat(all.get(51)).isInstanceOf(Stylesheet.class);
+    }
+
     @Test
     public void testPrependAndAppendNormalUnits() {
         List<Broadcastable> broadcasted = new ArrayList<>();
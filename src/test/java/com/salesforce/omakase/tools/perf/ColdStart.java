@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.tools.perf;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Measures the first use of a parser in a fresh JVM, as seen by short-lived build workers and serverless functions.
+ * <p>
+ * Each sample runs in its own child JVM (with the same classpath) that parses the mode's source once and reports how long that
+ * took, how many classes were loaded for it and the JVM uptime at that point (time to first output). A second parse in the same
+ * JVM is reported for comparison.
+ * <p>
+ * With the "cds" option a training run first dumps the loaded classes into a class data sharing archive
+ * ({@code -XX:ArchiveClassesAtExit}, JDK 13+), and the samples are repeated with {@code -XX:SharedArchiveFile} to show what an
+ * AppCDS archive would save in production.
+ *
+ * @author nmcwilliams
+ */
+final class ColdStart {
+    /** number of child JVMs to run for each configuration */
+    private static final int SAMPLES = 10;
+
+    /** prefix of the line the child JVM prints its results on */
+    private static final String RESULT = "result:";
+
+    private ColdStart() {}
+
+    /** runs the samples in child JVMs and prints the results */
+    static void run(PerfTest parser, Mode mode, boolean cds) throws IOException, InterruptedException {
+        File source = File.createTempFile("omakase-cold-start", ".css");
+        source.deleteOnExit();
+        Files.write(source.toPath(), mode.source().getBytes(StandardCharsets.UTF_8));
+
+        List<String> child = Arrays.asList(ColdStart.class.getName(), parser.name(), mode.name(), source.getAbsolutePath());
+
+        System.out.println("\ndefault:\n");
+        samples(System.getProperty("java.class.path"), child, Collections.emptyList());
+
+        if (cds) {
+            if (System.getProperty("java.specification.version").startsWith("1.")
+                || Integer.parseInt(System.getProperty("java.specification.version")) < 13) {
+                System.out.println("\nskipping cds (requires JDK 13 or later)");
+                return;
+            }
+
+            // class data sharing only works with jars on the classpath
+            String classpath = jarred(System.getProperty("java.class.path"));
+
+            File archive = File.createTempFile("omakase-cold-start", ".jsa");
+            archive.deleteOnExit();
+            exec(classpath, child, Collections.singletonList("-XX:ArchiveClassesAtExit=" + archive.getAbsolutePath()));
+
+            System.out.println("\nwith cds archive:\n");
+            samples(classpath, child, Collections.singletonList("-XX:SharedArchiveFile=" + archive.getAbsolutePath()));
+        }
+    }
+
+    /** runs each sample and prints the results, followed by the medians */
+    private static void samples(String classpath, List<String> child, List<String> jvmArgs)
+        throws IOException, InterruptedException {
+        List<Long> first = new ArrayList<>(SAMPLES);
+        List<Long> second = new ArrayList<>(SAMPLES);
+        List<Long> classes = new ArrayList<>(SAMPLES);
+        List<Long> uptime = new ArrayList<>(SAMPLES);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            long[] result = exec(classpath, child, jvmArgs);
+            first.add(result[0]);
+            second.add(result[1]);
+            classes.add(result[2]);
+            uptime.add(result[3]);
+            print(result[0], result[1], result[2], result[3]);
+        }
+
+        System.out.println();
+        print(median(first), median(second), median(classes), median(uptime));
+        System.out.println("(median)");
+    }
+
+    /** prints one line of results */
+    private static void print(long first, long second, long classes, long uptime) {
+        System.out.println(String.format("%-20s %-20s %-20s %s", "first: " + millis(first), "second: " + millis(second),
+            "classes: " + classes, "first output: " + uptime + "ms"));
+    }
+
+    /** formats microseconds as milliseconds */
+    private static String millis(long micros) {
+        return String.format("%.1fms", micros / 1000d);
+    }
+
+    /** the middle value of the given (unsorted) values */
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    /** runs one child JVM and returns its results */
+    private static long[] exec(String classpath, List<String> child, List<String> jvmArgs)
+        throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(classpath);
+        command.addAll(child);
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        String result = null;
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith(RESULT)) {
+                    result = line.substring(RESULT.length());
+                } else {
+                    output.append(line).append('\n');
+                }
+            }
+        }
+
+        if (process.waitFor() != 0 || result == null) {
+            throw new IllegalStateException("cold start run failed:\n" + output);
+        }
+
+        String[] parts = result.trim().split(" ");
+        long[] values = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Long.parseLong(parts[i]);
+        }
+        return values;
+    }
+
+    /** replaces each directory in the classpath with a temporary jar of its contents */
+    private static String jarred(String classpath) throws IOException {
+        List<String> entries = new ArrayList<>();
+        for (String entry : classpath.split(File.pathSeparator)) {
+            Path path = Paths.get(entry);
+            if (!Files.isDirectory(path)) {
+                entries.add(entry);
+                continue;
+            }
+
+            File jar = File.createTempFile("omakase-cold-start", ".jar");
+            jar.deleteOnExit();
+            try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+                 Stream<Path> files = Files.walk(path)) {
+                for (Path file : (Iterable<Path>)files.filter(Files::isRegularFile)::iterator) {
+                    out.putNextEntry(new JarEntry(path.relativize(file).toString().replace(File.separatorChar, '/')));
+                    Files.copy(file, out);
+                    out.closeEntry();
+                }
+            }
+            entries.add(jar.getAbsolutePath());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    /** entry point for the child JVM: parser name, mode name, source file */
+    public static void main(String[] args) throws IOException {
+        String input = new String(Files.readAllBytes(new File(args[2]).toPath()), StandardCharsets.UTF_8);
+        ClassLoadingMXBean loading = ManagementFactory.getClassLoadingMXBean();
+        long uptimeStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        long loaded = loading.getTotalLoadedClassCount();
+
+        long start = System.nanoTime();
+        PerfTest parser = RunPerfTest.parser(args[0]);
+        Mode mode = Mode.valueOf(args[1]);
+        parser.parse(mode, input);
+        long first = System.nanoTime() - start;
+        long uptime = System.currentTimeMillis() - uptimeStart;
+        long classes = loading.getTotalLoadedClassCount() - loaded;
+
+        start = System.nanoTime();
+        parser.parse(mode, input);
+        long second = System.nanoTime() - start;
+
+        System.out.println(RESULT + TimeUnit.NANOSECONDS.toMicros(first) + " " + TimeUnit.NANOSECONDS.toMicros(second) + " "
+            + classes + " " + uptime);
+    }
+}
@@ -29,6 +29,7 @@ package com.salesforce.omakase.tools.perf;
 import java.io.IOException;
 
 import com.salesforce.omakase.Omakase;
+import com.salesforce.omakase.plugin.syntax.RefinementCache;
 import com.salesforce.omakase.tools.Tools;
 import com.salesforce.omakase.writer.StyleWriter;
 
@@ -50,21 +51,67 @@ enum Mode {
     /**
      * The kitchen-sink of styles, with auto prefixer behavior turned on.
      */
-    PREFIX_HEAVY("heavy.css");
+    PREFIX_HEAVY("heavy.css"),
 
+    /**
+     * The kitchen-sink of styles, with validators reporting a warning for most units and a lenient error manager.
+     */
+    WARNING_HEAVY("heavy.css"),
+
+    /**
+     * The kitchen-sink of styles, with observers and validators only (no rework).
+     */
+    LINT_HEAVY("heavy.css"),
+
+    /**
+     * Same as {@link #LINT_HEAVY}, with validation delivered in the same traversal as processing.
+     */
+    LINT_HEAVY_FUSED("heavy.css"),
+
+    /**
+     * The kitchen-sink of styles, with everything refined (the baseline for {@link #PRECOMPILED_HEAVY}).
+     */
+    REFINE_HEAVY("heavy.css"),
+
+    /**
+     * Same result as {@link #REFINE_HEAVY}, but loaded from a precompiled stylesheet (compiled on first use and then reused).
+     */
+    PRECOMPILED_HEAVY("heavy.css"),
+
+    /**
+     * Same as {@link #REFINE_HEAVY}, with selectors and declaration values refined through a {@link RefinementCache} that is
+     * shared between runs.
+     */
+    CACHED_REFINE_HEAVY("heavy.css"),
+
+    /**
+     * The kitchen-sink of styles, with the unrefined syntax tree kept (the baseline for {@link #FLAT_HEAVY}).
+     */
+    TREE_HEAVY("heavy.css"),
+
+    /**
+     * Same source as {@link #TREE_HEAVY}, but parsed into a flat array-backed stylesheet.
+     */
+    FLAT_HEAVY("heavy.css");
+
+    private final String path;
     private String source;
 
     Mode(String path) {
-        try {
-            StyleWriter writer = StyleWriter.verbose();
-            Omakase.source(Tools.readFile("/perftest/" + path)).use(writer).process();
-            this.source = writer.write();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        this.path = path;
     }
 
-    public String source() {
+    /** the verbose form of the source file, created on first use so that cold starts don't pay for every mode */
+    public synchronized String source() {
+        if (source == null) {
+            try {
+                StyleWriter writer = StyleWriter.verbose();
+                Omakase.source(Tools.readFile("/perftest/" + path)).use(writer).process();
+                source = writer.write();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
         return source;
     }
 }
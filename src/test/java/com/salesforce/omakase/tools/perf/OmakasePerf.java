@@ -27,14 +27,26 @@
 package com.salesforce.omakase.tools.perf;
 
 import com.salesforce.omakase.Omakase;
+import com.salesforce.omakase.ast.flat.FlatStylesheet;
+import com.salesforce.omakase.binary.PrecompiledStylesheet;
 import com.salesforce.omakase.data.Browser;
+import com.salesforce.omakase.error.DefaultErrorManager;
+import com.salesforce.omakase.plugin.core.AutoRefine;
+import com.salesforce.omakase.plugin.core.SyntaxTree;
 import com.salesforce.omakase.plugin.prefixer.PrefixCleaner;
 import com.salesforce.omakase.plugin.prefixer.Prefixer;
+import com.salesforce.omakase.plugin.syntax.DeclarationPlugin;
+import com.salesforce.omakase.plugin.syntax.RefinementCache;
+import com.salesforce.omakase.plugin.syntax.SelectorPlugin;
 
 /**
  * Perf tests for Omakase.
  */
 final class OmakasePerf extends PerfTest {
+    private String compiledInput;
+    private byte[] compiled;
+    private RefinementCache cache; // created on first use, so that cold starts don't include the cache classes
+
     @Override
     public String name() {
         return "omakase";
@@ -68,4 +80,53 @@ final class OmakasePerf extends PerfTest {
 
         Omakase.source(input).use(PluginSet.normal()).use(prefixer).use(pruner).process();
     }
+
+    @Override
+    public void parseWarningHeavy(String input) {
+        // warnings are recorded but never summarized, as in a lenient pipeline that only checks for fatal errors
+        DefaultErrorManager em = new DefaultErrorManager().rethrow(false).warnings(false);
+        Omakase.source(input).use(PluginSet.normal()).use(PluginSet.warnings()).use(em).process();
+    }
+
+    @Override
+    public void parseLintHeavy(String input) {
+        Omakase.source(input).use(PluginSet.lint()).process();
+    }
+
+    @Override
+    public void parseLintHeavyFused(String input) {
+        Omakase.source(input).use(PluginSet.lint()).fuse(true).process();
+    }
+
+    @Override
+    public void parseRefineHeavy(String input) {
+        Omakase.source(input).use(AutoRefine.everything()).process();
+    }
+
+    @Override
+    public void parsePrecompiledHeavy(String input) {
+        if (!input.equals(compiledInput)) {
+            SyntaxTree tree = new SyntaxTree();
+            Omakase.source(input).use(AutoRefine.everything()).use(tree).process();
+            compiled = PrecompiledStylesheet.compile(tree.stylesheet());
+            compiledInput = input;
+        }
+        PrecompiledStylesheet.load(compiled).stylesheet();
+    }
+
+    @Override
+    public void parseCachedRefineHeavy(String input) {
+        if (cache == null) cache = new RefinementCache();
+        Omakase.source(input).use(new SelectorPlugin(cache), new DeclarationPlugin(cache)).use(AutoRefine.everything()).process();
+    }
+
+    @Override
+    public void parseTreeHeavy(String input) {
+        Omakase.source(input).use(new SyntaxTree()).process();
+    }
+
+    @Override
+    public void parseFlatHeavy(String input) {
+        FlatStylesheet.parse(input);
+    }
 }
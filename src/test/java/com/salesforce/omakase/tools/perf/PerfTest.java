@@ -41,6 +41,30 @@ abstract class PerfTest {
     /** @see {@link Mode#PREFIX_HEAVY} */
     public abstract void parsePrefixHeavy(String input);
 
+    /** @see {@link Mode#WARNING_HEAVY} */
+    public abstract void parseWarningHeavy(String input);
+
+    /** @see {@link Mode#LINT_HEAVY} */
+    public abstract void parseLintHeavy(String input);
+
+    /** @see {@link Mode#LINT_HEAVY_FUSED} */
+    public abstract void parseLintHeavyFused(String input);
+
+    /** @see {@link Mode#REFINE_HEAVY} */
+    public abstract void parseRefineHeavy(String input);
+
+    /** @see {@link Mode#PRECOMPILED_HEAVY} */
+    public abstract void parsePrecompiledHeavy(String input);
+
+    /** @see {@link Mode#CACHED_REFINE_HEAVY} */
+    public abstract void parseCachedRefineHeavy(String input);
+
+    /** @see {@link Mode#TREE_HEAVY} */
+    public abstract void parseTreeHeavy(String input);
+
+    /** @see {@link Mode#FLAT_HEAVY} */
+    public abstract void parseFlatHeavy(String input);
+
     public void parse(Mode mode) {
         parse(mode, mode.source());
     }
@@ -59,6 +83,30 @@ abstract class PerfTest {
         case PREFIX_HEAVY:
             parsePrefixHeavy(input);
             break;
+        case WARNING_HEAVY:
+            parseWarningHeavy(input);
+            break;
+        case LINT_HEAVY:
+            parseLintHeavy(input);
+            break;
+        case LINT_HEAVY_FUSED:
+            parseLintHeavyFused(input);
+            break;
+        case REFINE_HEAVY:
+            parseRefineHeavy(input);
+            break;
+        case PRECOMPILED_HEAVY:
+            parsePrecompiledHeavy(input);
+            break;
+        case CACHED_REFINE_HEAVY:
+            parseCachedRefineHeavy(input);
+            break;
+        case TREE_HEAVY:
+            parseTreeHeavy(input);
+            break;
+        case FLAT_HEAVY:
+            parseFlatHeavy(input);
+            break;
         }
     }
 }
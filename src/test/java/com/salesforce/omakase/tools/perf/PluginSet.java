@@ -41,6 +41,7 @@ import com.salesforce.omakase.broadcast.annotation.Observe;
 import com.salesforce.omakase.broadcast.annotation.Refine;
 import com.salesforce.omakase.broadcast.annotation.Rework;
 import com.salesforce.omakase.broadcast.annotation.Validate;
+import com.salesforce.omakase.error.ErrorLevel;
 import com.salesforce.omakase.error.ErrorManager;
 import com.salesforce.omakase.parser.Grammar;
 import com.salesforce.omakase.plugin.Plugin;
@@ -120,4 +121,86 @@ public final class PluginSet {
             .add(new StandardValidation())
             .build();
     }
+
+    /**
+     * validators that report a warning for (nearly) every declaration and selector.
+     *
+     * @return the plugins.
+     */
+    public static Iterable<Plugin> warnings() {
+        return ImmutableList.<Plugin>builder()
+            .add(new Plugin() {
+                @Validate
+                public void validate(Declaration d, ErrorManager em) {
+                    em.report(ErrorLevel.WARNING, d, "declaration warning");
+                }
+            })
+            .add(new Plugin() {
+                @Validate
+                public void validate(Selector s, ErrorManager em) {
+                    em.report(ErrorLevel.WARNING, s, "selector warning");
+                }
+            })
+            .add(new Plugin() {
+                @Validate
+                public void validate(ClassSelector s, ErrorManager em) {
+                    if (s.name().length() > 3) {
+                        em.report(ErrorLevel.WARNING, s, "class name warning");
+                    }
+                }
+            })
+            .build();
+    }
+
+    /**
+     * read-only plugins (observers and validators), as in a linting pipeline.
+     *
+     * @return the plugins.
+     */
+    public static Iterable<Plugin> lint() {
+        return ImmutableList.<Plugin>builder()
+            .add(new SyntaxTree())
+            .add(new Plugin() {
+                @Observe
+                public void observe(Declaration d) {}
+            })
+            .add(new Plugin() {
+                @Observe
+                public void observe(ClassSelector d) {}
+            })
+            .add(new Plugin() {
+                @Observe
+                public void observe(UrlFunctionValue d) {}
+            })
+            .add(new Plugin() {
+                @Observe
+                public void observe(Selector d) {}
+            })
+            .add(new Plugin() {
+                @Observe
+                public void observe(HexColorValue h) {}
+            })
+            .add(new Plugin() {
+                @Observe
+                public void observe(Rule r) {}
+            })
+            .add(new Plugin() {
+                @Validate
+                public void observe(Declaration d, ErrorManager em) {}
+            })
+            .add(new Plugin() {
+                @Validate
+                public void observe(PseudoClassSelector s, ErrorManager em) {}
+            })
+            .add(new Plugin() {
+                @Validate
+                public void observe(Selector s, ErrorManager em) {}
+            })
+            .add(new Plugin() {
+                @Validate
+                public void observe(AtRule a, ErrorManager em) {}
+            })
+            .add(new StandardValidation())
+            .build();
+    }
 }
@@ -26,6 +26,11 @@
 
 package com.salesforce.omakase.tools.perf;
 
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -49,6 +54,9 @@ public final class RunPerfTest {
         new OmakasePerf()
     );
 
+    /** minimum source size for the memory test */
+    private static final int MEMORY_SOURCE_SIZE = 5 * 1024 * 1024;
+
     /** LOC variations (multiplication) */
     private static final List<Integer> FACTORS = ImmutableList.of(1, 2, 4, 6, 8, 10, 12, 16, 18, 20, 22, 24, 26,
         28, 30, 35, 40, 45, 50, 60, 70, 80, 100, 120, 140, 200);
@@ -70,32 +78,38 @@ public final class RunPerfTest {
 
         System.out.println("\nAvailable options:");
         System.out.println("no-prime (don't prime the jvm before testing)");
+        System.out.println("memory (report gc and peak heap usage for a 5mb source instead of timing each factor)");
+        System.out.println("cold-start (time the first parse in fresh JVMs and count the classes loaded for it)");
+        System.out.println("cds (with cold-start, also run with a class data sharing archive, JDK 13+)");
 
         System.out.println("\nExamples:");
         System.out.println("omakase -p omakase light");
         System.out.println("omakase -p omakase normal");
         System.out.println("omakase -p omakase heavy");
         System.out.println("omakase -p omakase prefix-heavy");
+        System.out.println("omakase -p omakase warning-heavy");
+        System.out.println("omakase -p omakase lint-heavy");
+        System.out.println("omakase -p omakase lint-heavy-fused");
+        System.out.println("omakase -p omakase refine-heavy");
+        System.out.println("omakase -p omakase precompiled-heavy");
+        System.out.println("omakase -p omakase cached-refine-heavy");
+        System.out.println("omakase -p omakase tree-heavy memory");
+        System.out.println("omakase -p omakase flat-heavy memory");
         System.out.println("omakase -p omakase prefix-heavy no-prime");
+        System.out.println("omakase -p omakase heavy cold-start");
+        System.out.println("omakase -p omakase prefix-heavy cold-start cds");
     }
 
     /** main method with setup */
-    public static void run(List<String> args) {
+    public static void run(List<String> args) throws IOException, InterruptedException {
         // find parser
-        PerfTest parser = null;
-
         String parserArg = args.get(0);
         if (parserArg == null) {
             System.err.println("missing parser option (must be first)");
             System.exit(1);
         }
 
-        for (PerfTest p : PARSERS) {
-            if (p.name().startsWith(parserArg)) {
-                parser = p;
-                break;
-            }
-        }
+        PerfTest parser = parser(parserArg);
 
         if (parser == null) {
             System.err.println("unable to find parser '" + parserArg + "'");
@@ -123,10 +137,24 @@ public final class RunPerfTest {
         boolean prime = !args.contains("no-prime");
 
         System.out.printf("\nRunning tests for %s - %s:\n", parser.name(), args.get(1));
-        test(parser, mode, prime);
+        if (args.contains("cold-start")) {
+            ColdStart.run(parser, mode, args.contains("cds"));
+        } else if (args.contains("memory")) {
+            memory(parser, mode, prime);
+        } else {
+            test(parser, mode, prime);
+        }
         System.out.println("\ndone");
     }
 
+    /** finds the parser with a name starting with the given string, or null if there isn't one */
+    static PerfTest parser(String name) {
+        for (PerfTest p : PARSERS) {
+            if (p.name().startsWith(name)) return p;
+        }
+        return null;
+    }
+
     /** prime the parser then test it with each specified factor */
     private static void test(PerfTest parser, Mode mode, boolean prime) {
         // prime
@@ -146,6 +174,48 @@ public final class RunPerfTest {
         }
     }
 
+    /** prime the parser then report gc activity and peak heap usage while parsing a large source */
+    private static void memory(PerfTest parser, Mode mode, boolean prime) {
+        if (prime) {
+            System.out.println("\nPriming...\n");
+            for (int i = 0; i < 100; i++) parser.parse(mode);
+        }
+
+        StringBuilder builder = new StringBuilder(MEMORY_SOURCE_SIZE + mode.source().length());
+        while (builder.length() < MEMORY_SOURCE_SIZE) builder.append('\n').append(mode.source());
+        String input = builder.toString();
+
+        System.out.printf("source: %skb\n\n", input.length() / 1024);
+
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            long gcTime = 0, gcCount = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcTime -= gc.getCollectionTime();
+                gcCount -= gc.getCollectionCount();
+            }
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                pool.resetPeakUsage();
+            }
+
+            long start = System.nanoTime();
+            parser.parse(mode, input);
+            long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            long peak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+            }
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcTime += gc.getCollectionTime();
+                gcCount += gc.getCollectionCount();
+            }
+
+            System.out.println(String.format("%-12s %-20s %-20s %s", time + "ms", "gc: " + gcTime + "ms",
+                "(" + gcCount + " collections)", "peak heap: " + peak / (1024 * 1024) + "mb"));
+        }
+    }
+
     /** prints out the parse time for the given source */
     public static void time(int loc, PerfTest parser, Mode mode, String input) {
         // do the parsing
@@ -176,4 +176,27 @@ public class ArgsTest {
     public void trimDoubleQuotesTrimmed() {
         assertThat(Args.trimDoubleQuotes("\"  one, two  \"")).isEqualTo("one, two");
     }
+
+    @Test
+    public void cleanAlreadyClean() {
+        String args = "to right, #fff 0%, #000 100%";
+        assertThat(Args.clean(args)).isSameAs(args);
+    }
+
+    @Test
+    public void cleanRepeatingWhitespace() {
+        assertThat(Args.clean("to right,  #fff\t0%,\t #000")).isEqualTo("to right, #fff 0%, #000");
+    }
+
+    @Test
+    public void cleanNewlines() {
+        assertThat(Args.clean("to right,\n #fff,\r\n#000")).isEqualTo("to right, #fff,#000");
+    }
+
+    @Test
+    public void cleanLeadingAndTrailingWhitespace() {
+        assertThat(Args.clean("  \n to right, #fff \t")).isEqualTo("to right, #fff");
+        assertThat(Args.clean(" ")).isEmpty();
+        assertThat(Args.clean("")).isEmpty();
+    }
 }
@@ -28,7 +28,11 @@ package com.salesforce.omakase.writer;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.Test;
 
@@ -178,4 +182,65 @@ public class StyleAppendableTest {
         sa.append('c');
         assertThat(b.toString()).isEqualTo("c");
     }
+
+    @Test
+    public void utf8Ascii() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StyleAppendable sa = StyleAppendable.utf8(out);
+        sa.append(".a").append('{').append("color:red").append('}');
+        sa.flush();
+        assertThat(out.toString("UTF-8")).isEqualTo(".a{color:red}");
+    }
+
+    @Test
+    public void utf8MultiByte() throws IOException {
+        String text = "content:\"\u00e9\u2603\ud83d\ude00\"";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StyleAppendable sa = StyleAppendable.utf8(out);
+        sa.append(text);
+        sa.flush();
+        assertThat(out.toByteArray()).isEqualTo(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void utf8SurrogatePairSplitAcrossAppends() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StyleAppendable sa = StyleAppendable.utf8(out);
+        sa.append('\ud83d').append('\ude00').append("\ud83d").append("\ude00");
+        sa.flush();
+        assertThat(out.toString("UTF-8")).isEqualTo("\ud83d\ude00\ud83d\ude00");
+    }
+
+    @Test
+    public void utf8UnpairedSurrogates() throws IOException {
+        String text = "a\ud83db\ude00c\ud83d";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StyleAppendable sa = StyleAppendable.utf8(out);
+        sa.append(text);
+        sa.flush();
+        assertThat(out.toByteArray()).isEqualTo(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void utf8ChannelWithSmallBuffer() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.append(".a").append(i).append("{content:'\u00e9\u2603\ud83d\ude00'}");
+        }
+        String text = builder.toString();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StyleAppendable sa = StyleAppendable.utf8(Channels.newChannel(out), ByteBuffer.allocateDirect(5));
+        sa.append(text).newline().append('x');
+        sa.flush();
+        assertThat(out.toString("UTF-8")).isEqualTo(text + "\nx");
+    }
+
+    @Test
+    public void flushWithoutSinkDoesNothing() throws IOException {
+        StyleAppendable sa = new StyleAppendable();
+        sa.append("abc");
+        sa.flush();
+        assertThat(sa.toString()).isEqualTo("abc");
+    }
 }
@@ -27,13 +27,23 @@
 package com.salesforce.omakase.writer;
 
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Test;
 
 import com.salesforce.omakase.Omakase;
 import com.salesforce.omakase.ast.AbstractSyntax;
+import com.salesforce.omakase.ast.Rule;
+import com.salesforce.omakase.ast.Statement;
+import com.salesforce.omakase.ast.Stylesheet;
 import com.salesforce.omakase.ast.Syntax;
 import com.salesforce.omakase.ast.collection.AbstractGroupable;
 import com.salesforce.omakase.ast.collection.LinkedSyntaxCollection;
@@ -41,6 +51,8 @@ import com.salesforce.omakase.ast.collection.SyntaxCollection;
 import com.salesforce.omakase.ast.declaration.Declaration;
 import com.salesforce.omakase.ast.selector.ClassSelector;
 import com.salesforce.omakase.ast.selector.Selector;
+import com.salesforce.omakase.plugin.core.AutoRefine;
+import com.salesforce.omakase.plugin.core.SyntaxTree;
 
 /**
  * Unit tests for {@link StyleWriter}.
@@ -133,6 +145,106 @@ public class StyleWriterTest {
         assertThat(builder.toString()).isEqualTo(".test{color:red}");
     }
 
+    @Test
+    public void writeUtf8ToStream() throws IOException {
+        StyleWriter writer = StyleWriter.compressed();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Omakase.source(".test{content:'\u2603'}").use(writer).process();
+        writer.writeUtf8To(out);
+        assertThat(out.toString("UTF-8")).isEqualTo(".test{content:'\u2603'}");
+    }
+
+    @Test
+    public void writeUtf8ToChannel() throws IOException {
+        StyleWriter writer = StyleWriter.verbose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Omakase.source(".a{color:red} .b{margin:0}").use(writer).process();
+        writer.writeUtf8To(Channels.newChannel(out), ByteBuffer.allocate(16));
+        assertThat(out.toString("UTF-8")).isEqualTo(writer.write());
+    }
+
+    private static Stylesheet manyStatements() {
+        // the parallel path is skipped on a single-threaded pool (see the surefire argLine in the pom)
+        assertThat(ForkJoinPool.getCommonPoolParallelism()).isGreaterThan(1);
+
+        StringBuilder css = new StringBuilder("/* first */");
+        for (int i = 0; i < 3000; i++) {
+            css.append(".a").append(i).append(", .b { color: red; margin: ").append(i).append("px }\n");
+            if (i % 100 == 0) {
+                css.append("@media screen { .m").append(i).append(" { color: blue } }\n");
+            }
+        }
+        css.append("/* last */");
+
+        SyntaxTree tree = new SyntaxTree();
+        Omakase.source(css).use(AutoRefine.everything()).use(tree).process();
+        return tree.stylesheet();
+    }
+
+    @Test
+    public void writeParallelSameAsSequential() {
+        Stylesheet stylesheet = manyStatements();
+        for (WriterMode mode : WriterMode.values()) {
+            String expected = new StyleWriter(mode).writeAllComments(true).writeSingle(stylesheet);
+            String actual = new StyleWriter(mode).writeAllComments(true).parallel(true).writeSingle(stylesheet);
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void writeParallelWithUnwritableStatements() {
+        // rules without any declarations stay in the tree but aren't written, so later chunks must be rewritten
+        Stylesheet stylesheet = manyStatements();
+        int size = stylesheet.statements().size();
+        int i = 0;
+        for (Statement statement : stylesheet.statements()) {
+            if (i++ < 400 && statement instanceof Rule) {
+                for (Declaration declaration : ((Rule)statement).declarations()) {
+                    declaration.destroy();
+                }
+            }
+        }
+        assertThat(stylesheet.statements().size()).isEqualTo(size);
+
+        for (WriterMode mode : WriterMode.values()) {
+            String expected = new StyleWriter(mode).writeSingle(stylesheet);
+            assertThat(new StyleWriter(mode).parallel(true).writeSingle(stylesheet)).isEqualTo(expected);
+        }
+        assertThat(StyleWriter.verbose().writeSingle(stylesheet)).startsWith("@media screen").doesNotContain(".a0,");
+    }
+
+    @Test
+    public void writeParallelWithThreadSafeCustomWriter() {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        StyleWriter writer = StyleWriter.compressed().parallel(true);
+        writer.addCustomWriter(ClassSelector.class, new CustomWriter<ClassSelector>() {
+            @Override
+            public boolean write(ClassSelector unit, StyleWriter writer, StyleAppendable appendable) throws IOException {
+                threads.add(Thread.currentThread());
+                return false;
+            }
+
+            @Override
+            public boolean parallel() {
+                return true;
+            }
+        });
+
+        Stylesheet stylesheet = manyStatements();
+        assertThat(writer.writeSingle(stylesheet)).isEqualTo(StyleWriter.compressed().writeSingle(stylesheet));
+        assertThat(threads).isNotEmpty();
+    }
+
+    @Test
+    public void writeParallelFallsBackWithoutThreadSafeCustomWriters() {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        StyleWriter writer = StyleWriter.compressed().parallel(true);
+        writer.addCustomWriter(ClassSelector.class, (unit, w, appendable) -> threads.add(Thread.currentThread()) && false);
+
+        writer.writeSingle(manyStatements());
+        assertThat(threads).containsOnly(Thread.currentThread());
+    }
+
     @Test
     public void writeUnitHasOverride() {
         StyleWriter writer = StyleWriter.compressed();
@@ -262,6 +374,40 @@ public class StyleWriterTest {
         StyleWriter.verbose().writeInner(new Level1(), new StyleAppendable());
     }
 
+    @Test
+    public void depthBeyondInitialCapacity() throws IOException {
+        StyleWriter writer = StyleWriter.inline();
+        StyleAppendable appendable = new StyleAppendable();
+        for (int i = 0; i < 40; i++) {
+            writer.incrementDepth();
+        }
+
+        writer.writeInner(new ClassSelector("a"), appendable);
+        writer.writeInner(new ClassSelector("b"), appendable);
+        writer.incrementDepth();
+        assertThat(writer.countAtCurrentDepth()).isEqualTo(2);
+        assertThat(appendable.toString()).isEqualTo(".a.b");
+
+        for (int i = 0; i < 41; i++) {
+            writer.decrementDepth();
+        }
+        assertThat(writer.countAtCurrentDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void decrementDepthBelowZero() {
+        assertThrows(IllegalStateException.class, () -> StyleWriter.inline().decrementDepth());
+    }
+
+    @Test
+    public void writeTwice() {
+        String css = ".a{color:red}.b,.c{margin:0}";
+        StyleWriter writer = StyleWriter.compressed();
+        Omakase.source(css).use(writer).process();
+        assertThat(writer.write()).isEqualTo(css);
+        assertThat(writer.write()).isEqualTo(css);
+    }
+
     public static final class CustomSelectorWriter1 implements CustomWriter<Selector> {
         boolean called;
 
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.writer;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.salesforce.omakase.Omakase;
+import com.salesforce.omakase.ast.Stylesheet;
+import com.salesforce.omakase.plugin.core.AutoRefine;
+import com.salesforce.omakase.plugin.core.SyntaxTree;
+
+/**
+ * Unit tests for {@link StylesheetTemplate}.
+ *
+ * @author nmcwilliams
+ */
+public class StylesheetTemplateTest {
+    private static final String SOURCE = ".a {\n  /* @var brand */\n  color: red;\n  margin: 0\n}\n" +
+        "@media print {\n  .b {\n    /* @var */\n    background: #fff !important\n  }\n}\n" +
+        ".c { /* @var brand */ border-color: red }";
+
+    private static Stylesheet parse(String source, boolean refine) {
+        SyntaxTree tree = new SyntaxTree();
+        if (refine) {
+            Omakase.source(source).use(AutoRefine.everything()).use(tree).process();
+        } else {
+            Omakase.source(source).use(tree).process();
+        }
+        return tree.stylesheet();
+    }
+
+    @Test
+    public void holes() {
+        StylesheetTemplate template = StylesheetTemplate.compile(parse(SOURCE, true));
+        assertThat(template.holes()).containsExactly("brand", "background");
+    }
+
+    @Test
+    public void renderWithoutValuesMatchesWriter() {
+        Stylesheet stylesheet = parse(SOURCE, true);
+        StylesheetTemplate template = StylesheetTemplate.compile(stylesheet);
+        for (WriterMode mode : WriterMode.values()) {
+            assertThat(template.render(mode, ImmutableMap.of())).isEqualTo(new StyleWriter(mode).writeSingle(stylesheet));
+        }
+    }
+
+    @Test
+    public void renderCompressed() {
+        StylesheetTemplate template = StylesheetTemplate.compile(parse(SOURCE, true));
+        assertThat(template.render(WriterMode.COMPRESSED, ImmutableMap.of("brand", "#00f", "background", "#000"))).isEqualTo(
+            ".a{color:#00f;margin:0}@media print{.b{background:#000}}.c{border-color:#00f}");
+    }
+
+    @Test
+    public void renderUnrefined() {
+        StylesheetTemplate template = StylesheetTemplate.compile(parse(SOURCE, false));
+        assertThat(template.holes()).containsExactly("brand");
+        String rendered = template.render(WriterMode.COMPRESSED, ImmutableMap.of("brand", "blue"));
+        assertThat(rendered).startsWith(".a{color:blue;margin:0}");
+        assertThat(rendered).endsWith(".c{border-color:blue}");
+    }
+
+    @Test
+    public void renderPartialValues() {
+        StylesheetTemplate template = StylesheetTemplate.compile(parse(SOURCE, true));
+        assertThat(template.render(WriterMode.COMPRESSED, ImmutableMap.of("background", "none"))).isEqualTo(
+            ".a{color:red;margin:0}@media print{.b{background:none}}.c{border-color:red}");
+    }
+
+    @Test
+    public void renderToAppendable() throws IOException {
+        StylesheetTemplate template = StylesheetTemplate.compile(parse(SOURCE, true));
+        StringBuilder builder = new StringBuilder();
+        template.render(WriterMode.COMPRESSED, ImmutableMap.of("brand", "#00f"), builder);
+        assertThat(builder.toString()).isEqualTo(template.render(WriterMode.COMPRESSED, ImmutableMap.of("brand", "#00f")));
+    }
+
+    @Test
+    public void customHoles() {
+        StylesheetTemplate template = StylesheetTemplate.compile(parse(SOURCE, true),
+            d -> d.isProperty("margin") ? Optional.of("spacing") : Optional.empty());
+        assertThat(template.holes()).containsExactly("spacing");
+        assertThat(template.render(WriterMode.COMPRESSED, ImmutableMap.of("spacing", "1px", "brand", "#00f"))).isEqualTo(
+            ".a{color:red;margin:1px}@media print{.b{background:#fff!important}}.c{border-color:red}");
+    }
+
+    @Test
+    public void noHoles() {
+        Stylesheet stylesheet = parse(".a { color: red }", false);
+        StylesheetTemplate template = StylesheetTemplate.compile(stylesheet);
+        assertThat(template.holes()).isEmpty();
+        assertThat(template.render(WriterMode.COMPRESSED, ImmutableMap.of())).isEqualTo(".a{color:red}");
+    }
+
+    @Test
+    public void laterChangesIgnored() {
+        Stylesheet stylesheet = parse(".a { color: red }", false);
+        StylesheetTemplate template = StylesheetTemplate.compile(stylesheet);
+        stylesheet.statements().first().get().destroy();
+        assertThat(template.render(WriterMode.COMPRESSED, ImmutableMap.of())).isEqualTo(".a{color:red}");
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2017, salesforce.com, inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.salesforce.omakase.writer;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.salesforce.omakase.Omakase;
+import com.salesforce.omakase.ast.Stylesheet;
+import com.salesforce.omakase.ast.selector.ClassSelector;
+import com.salesforce.omakase.plugin.core.AutoRefine;
+import com.salesforce.omakase.plugin.core.SyntaxTree;
+
+/**
+ * Unit tests for {@link WriterConfig}.
+ *
+ * @author nmcwilliams
+ */
+@SuppressWarnings("JavaDoc")
+public class WriterConfigTest {
+    private static final String SRC = "/*! bang */ .a, .b { color: red } /* normal */ .c { margin: 0 }";
+
+    private static Stylesheet parse(String source) {
+        SyntaxTree tree = new SyntaxTree();
+        Omakase.source(source).use(AutoRefine.everything()).use(tree).process();
+        return tree.stylesheet();
+    }
+
+    /** writes class selectors in uppercase */
+    private static final class UppercaseWriter implements CustomWriter<ClassSelector> {
+        @Override
+        public boolean write(ClassSelector unit, StyleWriter writer, StyleAppendable appendable) throws IOException {
+            appendable.append('.').append(unit.name().toUpperCase());
+            return true;
+        }
+    }
+
+    @Test
+    public void writesSameAsWriter() {
+        Stylesheet stylesheet = parse(SRC);
+        for (WriterMode mode : WriterMode.values()) {
+            StyleWriter writer = new StyleWriter(mode).writeBangComments(true);
+            assertThat(writer.config().write(stylesheet)).isEqualTo(writer.writeSingle(stylesheet));
+        }
+    }
+
+    @Test
+    public void mode() {
+        assertThat(StyleWriter.verbose().config().mode()).isSameAs(WriterMode.VERBOSE);
+    }
+
+    @Test
+    public void appliesCustomWriters() {
+        WriterConfig config = StyleWriter.compressed().addCustomWriter(ClassSelector.class, new UppercaseWriter()).config();
+        assertThat(config.write(parse(SRC))).isEqualTo(".A,.B{color:red}.C{margin:0}");
+    }
+
+    @Test
+    public void unaffectedByLaterChangesToWriter() {
+        StyleWriter writer = StyleWriter.compressed();
+        WriterConfig config = writer.config();
+        writer.writeAllComments(true).addCustomWriter(ClassSelector.class, new UppercaseWriter());
+        assertThat(config.write(parse(SRC))).isEqualTo(".a,.b{color:red}.c{margin:0}");
+    }
+
+    @Test
+    public void unaffectedByChangesToSession() {
+        WriterConfig config = StyleWriter.compressed().writeBangComments(true).config();
+        StyleWriter session = config.session();
+        session.writeBangComments(false).addCustomWriter(ClassSelector.class, new UppercaseWriter());
+
+        Stylesheet stylesheet = parse(SRC);
+        assertThat(session.writeSingle(stylesheet)).isEqualTo(".A,.B{color:red}.C{margin:0}");
+        assertThat(config.write(stylesheet)).isEqualTo("/*! bang */.a,.b{color:red}.c{margin:0}");
+    }
+
+    @Test
+    public void sessionAsPlugin() {
+        StyleWriter session = StyleWriter.compressed().config().session();
+        Omakase.source(SRC).use(session).process();
+        assertThat(session.write()).isEqualTo(".a,.b{color:red}.c{margin:0}");
+    }
+
+    @Test
+    public void writeToAppendable() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        StyleWriter.compressed().config().writeTo(parse(SRC), builder);
+        assertThat(builder.toString()).isEqualTo(".a,.b{color:red}.c{margin:0}");
+    }
+
+    @Test
+    public void writeUtf8ToStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StyleWriter.compressed().config().writeUtf8To(parse(".a{content:'\u2603'}"), out);
+        assertThat(out.toString("UTF-8")).isEqualTo(".a{content:'\u2603'}");
+    }
+
+    @Test
+    public void concurrentWrites() throws Exception {
+        WriterConfig config = StyleWriter.verbose().config();
+        List<Stylesheet> stylesheets = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            stylesheets.add(parse(".a" + i + " { color: red } .b" + i + " { margin: 0 }"));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                Stylesheet stylesheet = stylesheets.get(i % stylesheets.size());
+                results.add(executor.submit(() -> config.write(stylesheet)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                String expected = StyleWriter.verbose().writeSingle(stylesheets.get(i % stylesheets.size()));
+                assertThat(results.get(i).get()).isEqualTo(expected);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -26,12 +26,16 @@
 
 package ${package};
 
-import com.google.common.collect.ImmutableTable;
-import com.google.common.collect.Table;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Contains the last version of a browser that requires a prefix for various CSS properties.
  * <p>
+ * Versions are stored as primitive rows indexed by {@link Browser} ordinal, with -1 for browsers that never need the prefix. A
+ * row is only present for things that are prefixable in at least one browser.
+ * <p>
  * The *CSS Prefix data* in this file is retrieved from caniuse.com and
  * licensed under CC-BY-4.0 (http://creativecommons.org/licenses/by/4.0).
  * <p>
@@ -39,63 +43,64 @@ import com.google.common.collect.Table;
  * <p>
  * See ${generator} for instructions on updating.
  */
-@SuppressWarnings("AutoBoxing")
 public final class PrefixTables {
-    static final Table<Property, Browser, Double> PROPERTIES;
-    static final Table<Keyword, Browser, Double> KEYWORDS;
-    static final Table<String, Browser, Double> AT_RULES;
-    static final Table<String, Browser, Double> SELECTORS;
-    static final Table<String, Browser, Double> FUNCTIONS;
+    private static final int BROWSERS = Browser.values().length;
 
-    static {
-        ImmutableTable.Builder<Property, Browser, Double> builder = ImmutableTable.builder();
+    static final double[][] PROPERTIES = new double[Property.values().length][];
+    static final double[][] KEYWORDS = new double[Keyword.values().length][];
+    static final Map<String, double[]> AT_RULES = new HashMap<>();
+    static final Map<String, double[]> SELECTORS = new HashMap<>();
+    static final Map<String, double[]> FUNCTIONS = new HashMap<>();
 
+    static {
         <#list properties as p>
-        builder.put(Property.${p.property}, Browser.${p.browser}, ${p.version});
+        put(PROPERTIES, Property.${p.property}, Browser.${p.browser}, ${p.version});
         </#list>
-
-        PROPERTIES = builder.build();
     }
 
     static {
-        ImmutableTable.Builder<Keyword, Browser, Double> builder = ImmutableTable.builder();
-
         <#list keywords as k>
-        builder.put(Keyword.${k.keyword}, Browser.${k.browser}, ${k.version});
+        put(KEYWORDS, Keyword.${k.keyword}, Browser.${k.browser}, ${k.version});
         </#list>
-
-        KEYWORDS = builder.build();
     }
 
     static {
-        ImmutableTable.Builder<String, Browser, Double> builder = ImmutableTable.builder();
-
         <#list atRules as a>
-        builder.put("${a.name}", Browser.${a.browser}, ${a.version});
+        put(AT_RULES, "${a.name}", Browser.${a.browser}, ${a.version});
         </#list>
-
-        AT_RULES = builder.build();
     }
 
     static {
-        ImmutableTable.Builder<String, Browser, Double> builder = ImmutableTable.builder();
-
         <#list selectors as s>
-        builder.put("${s.name}", Browser.${s.browser}, ${s.version});
+        put(SELECTORS, "${s.name}", Browser.${s.browser}, ${s.version});
         </#list>
-
-        SELECTORS = builder.build();
     }
 
     static {
-        ImmutableTable.Builder<String, Browser, Double> builder = ImmutableTable.builder();
-
         <#list functions as f>
-        builder.put("${f.name}", Browser.${f.browser}, ${f.version});
+        put(FUNCTIONS, "${f.name}", Browser.${f.browser}, ${f.version});
         </#list>
-
-        FUNCTIONS = builder.build();
     }
 
     private PrefixTables() {}
+
+    /** sets the version in the row for the given enum constant, creating the row if needed */
+    private static void put(double[][] table, Enum<?> key, Browser browser, double version) {
+        if (table[key.ordinal()] == null) {
+            table[key.ordinal()] = row();
+        }
+        table[key.ordinal()][browser.ordinal()] = version;
+    }
+
+    /** sets the version in the row for the given name, creating the row if needed */
+    private static void put(Map<String, double[]> table, String key, Browser browser, double version) {
+        table.computeIfAbsent(key, k -> row())[browser.ordinal()] = version;
+    }
+
+    /** creates a row where no browser requires the prefix */
+    private static double[] row() {
+        double[] row = new double[BROWSERS];
+        Arrays.fill(row, -1d);
+        return row;
+    }
 }